@@ -34,6 +34,8 @@ public class ApplicationConfiguration {
     private int uiId;
     private ErrorMessage sessionExpiredError;
     private int heartbeatInterval;
+    private int maxMessagesInFlight = 1;
+    private int timeSlicedRenderingThreshold = 0;
 
     private boolean productionMode;
     private boolean requestTiming;
@@ -145,6 +147,51 @@ public class ApplicationConfiguration {
         this.heartbeatInterval = heartbeatInterval;
     }
 
+    /**
+     * Gets the number of messages which can be sent through a bidirectional
+     * push connection without waiting for the responses to the earlier ones.
+     *
+     * @return the maximum number of messages in flight, at least 1
+     */
+    public int getMaxMessagesInFlight() {
+        return maxMessagesInFlight;
+    }
+
+    /**
+     * Sets the number of messages which can be sent through a bidirectional
+     * push connection without waiting for the responses to the earlier ones.
+     *
+     * @param maxMessagesInFlight
+     *            the maximum number of messages in flight, at least 1
+     */
+    public void setMaxMessagesInFlight(int maxMessagesInFlight) {
+        this.maxMessagesInFlight = maxMessagesInFlight;
+    }
+
+    /**
+     * Gets the number of state tree changes in a server message from which the
+     * resulting DOM updates are applied in time slices.
+     *
+     * @return the number of changes from which rendering is time sliced, or 0
+     *         if time slicing is disabled
+     */
+    public int getTimeSlicedRenderingThreshold() {
+        return timeSlicedRenderingThreshold;
+    }
+
+    /**
+     * Sets the number of state tree changes in a server message from which the
+     * resulting DOM updates are applied in time slices.
+     *
+     * @param timeSlicedRenderingThreshold
+     *            the number of changes from which rendering is time sliced, or
+     *            0 to disable time slicing
+     */
+    public void setTimeSlicedRenderingThreshold(
+            int timeSlicedRenderingThreshold) {
+        this.timeSlicedRenderingThreshold = timeSlicedRenderingThreshold;
+    }
+
     /**
      * Gets the message used when a session expiration error occurs.
      *
@@ -151,6 +151,19 @@ public class Bootstrapper implements EntryPoint {
         conf.setHeartbeatInterval(
                 jsoConfiguration.getConfigInteger("heartbeatInterval"));
 
+        Integer maxMessagesInFlight = jsoConfiguration
+                .getConfigInteger("maxMessagesInFlight");
+        if (maxMessagesInFlight != null) {
+            conf.setMaxMessagesInFlight(maxMessagesInFlight.intValue());
+        }
+
+        Integer timeSlicedRenderingThreshold = jsoConfiguration
+                .getConfigInteger("timeSlicedRenderingThreshold");
+        if (timeSlicedRenderingThreshold != null) {
+            conf.setTimeSlicedRenderingThreshold(
+                    timeSlicedRenderingThreshold.intValue());
+        }
+
         conf.setUiElementId(jsoConfiguration
                 .getConfigString(ApplicationConstants.UI_ELEMENT_ID));
         conf.setUiTag(
@@ -60,6 +60,12 @@ public class MessageHandler {
     /** The max timeout that response handling may be suspended. */
     private static final int MAX_SUSPENDED_TIMEOUT = 5000;
 
+    /**
+     * The time in milliseconds after which time sliced rendering lets the
+     * browser render before continuing.
+     */
+    private static final int RENDERING_TIME_SLICE = 40;
+
     /**
      * The value of an undefined sync id.
      * <p>
@@ -241,7 +247,7 @@ public class MessageHandler {
                     Console.warn("Received message with server id " + serverId
                             + " but have already seen " + lastSeenServerSyncId
                             + ". Ignoring it");
-                    endRequestIfResponse(valueMap);
+                    endRequestIfResponse(valueMap, 1);
                     return;
                 }
 
@@ -271,12 +277,16 @@ public class MessageHandler {
                 .fireEvent(new ResponseHandlingStartedEvent());
         // Client id must be updated before server id, as server id update can
         // cause a resync (which must use the updated id)
+        int acknowledgedRequests = 1;
         if (valueMap.containsKey(ApplicationConstants.CLIENT_TO_SERVER_ID)) {
             int serverNextExpected = valueMap
                     .getInt(ApplicationConstants.CLIENT_TO_SERVER_ID);
+            acknowledgedRequests = registry.getMessageSender()
+                    .getAcknowledgedMessageCount(serverNextExpected);
             registry.getMessageSender().setClientToServerMessageId(
                     serverNextExpected, isResynchronize(valueMap));
         }
+        int endedRequests = acknowledgedRequests;
 
         if (serverId != -1) {
             /*
@@ -329,7 +339,7 @@ public class MessageHandler {
         DependencyLoader.runWhenEagerDependenciesLoaded(
                 DomApi::updateApiImplementation);
         DependencyLoader.runWhenEagerDependenciesLoaded(
-                () -> processMessage(valueMap, lock, start));
+                () -> processMessage(valueMap, lock, start, endedRequests));
     }
 
     private void handleDependencies(JsonObject inputJson) {
@@ -356,11 +366,15 @@ public class MessageHandler {
      *            the lock object for this response
      * @param start
      *            the time stamp when processing started
+     * @param endedRequests
+     *            the number of requests which the message is a response to
      */
-    private void processMessage(ValueMap valueMap, Object lock, double start) {
+    private void processMessage(ValueMap valueMap, Object lock, double start,
+            int endedRequests) {
         assert getServerId(valueMap) == -1
                 || getServerId(valueMap) == lastSeenServerSyncId;
 
+        boolean flushed = true;
         try {
             double processUidlStart = Duration.currentTimeMillis();
 
@@ -417,48 +431,119 @@ public class MessageHandler {
                 Profiler.leave("Error handling");
             }
             nextResponseSessionExpiredHandler = null;
-            Reactive.flush();
-
-            lastProcessingTime = (int) (Duration.currentTimeMillis() - start);
-            totalProcessingTime += lastProcessingTime;
-            if (!initialMessageHandled) {
-                initialMessageHandled = true;
-
-                double fetchStart = getFetchStartTime();
-                if (fetchStart != 0) {
-                    int time = (int) (Duration.currentTimeMillis()
-                            - fetchStart);
-                    Console.log("First response processed " + time
-                            + " ms after fetchStart");
-                }
 
-                bootstrapTime = calculateBootstrapTime();
-                if (Profiler.isEnabled() && bootstrapTime != -1) {
-                    Profiler.logBootstrapTimings();
-                }
+            if (isTimeSliced(valueMap)) {
+                flushed = flushSlice();
+            } else {
+                Profiler.enter("Reactive.flush");
+                Reactive.flush();
+                Profiler.leave("Reactive.flush");
+            }
+            if (flushed) {
+                afterFlush(start);
+            } else {
+                Scheduler.get().scheduleDeferred(() -> continueFlush(valueMap,
+                        lock, start, endedRequests));
+            }
+        } finally {
+            if (flushed) {
+                finishMessage(valueMap, lock, endedRequests);
             }
+        }
+    }
 
+    /**
+     * Continues applying the DOM updates of a message for which time sliced
+     * rendering has been used. Response handling stays suspended and the
+     * requests stay active until all updates have been applied.
+     */
+    private void continueFlush(ValueMap valueMap, Object lock, double start,
+            int endedRequests) {
+        boolean flushed = true;
+        try {
+            flushed = flushSlice();
+            if (flushed) {
+                afterFlush(start);
+            } else {
+                Scheduler.get().scheduleDeferred(() -> continueFlush(valueMap,
+                        lock, start, endedRequests));
+            }
         } finally {
-            Console.log(" Processing time was "
-                    + String.valueOf(lastProcessingTime) + "ms");
+            if (flushed) {
+                finishMessage(valueMap, lock, endedRequests);
+            }
+        }
+    }
+
+    private boolean isTimeSliced(ValueMap valueMap) {
+        int threshold = registry.getApplicationConfiguration()
+                .getTimeSlicedRenderingThreshold();
+        if (threshold <= 0) {
+            return false;
+        }
+        JsonObject json = valueMap.cast();
+        return json.hasKey("changes")
+                && json.getArray("changes").length() >= threshold;
+    }
+
+    /**
+     * Runs flush listeners until the time slice is used up.
+     *
+     * @return <code>true</code> if all flush listeners have been run,
+     *         <code>false</code> if there are listeners left for the next
+     *         slice
+     */
+    private static boolean flushSlice() {
+        Profiler.enter("Reactive.flush slice");
+        double deadline = Duration.currentTimeMillis() + RENDERING_TIME_SLICE;
+        boolean flushed = Reactive
+                .flush(() -> Duration.currentTimeMillis() >= deadline);
+        Profiler.leave("Reactive.flush slice");
+        return flushed;
+    }
 
-            endRequestIfResponse(valueMap);
-            resumeResponseHandling(lock);
+    private void afterFlush(double start) {
+        lastProcessingTime = (int) (Duration.currentTimeMillis() - start);
+        totalProcessingTime += lastProcessingTime;
+        if (!initialMessageHandled) {
+            initialMessageHandled = true;
 
-            if (Profiler.isEnabled()) {
-                Scheduler.get().scheduleDeferred(() -> {
-                    Profiler.logTimings();
-                    Profiler.reset();
-                });
+            double fetchStart = getFetchStartTime();
+            if (fetchStart != 0) {
+                int time = (int) (Duration.currentTimeMillis() - fetchStart);
+                Console.log("First response processed " + time
+                        + " ms after fetchStart");
+            }
+
+            bootstrapTime = calculateBootstrapTime();
+            if (Profiler.isEnabled() && bootstrapTime != -1) {
+                Profiler.logBootstrapTimings();
             }
         }
+    }
 
+    private void finishMessage(ValueMap valueMap, Object lock,
+            int endedRequests) {
+        Console.log(" Processing time was "
+                + String.valueOf(lastProcessingTime) + "ms");
+
+        endRequestIfResponse(valueMap, endedRequests);
+        resumeResponseHandling(lock);
+
+        if (Profiler.isEnabled()) {
+            Scheduler.get().scheduleDeferred(() -> {
+                Profiler.logTimings();
+                Profiler.reset();
+            });
+        }
     }
 
     private void processChanges(JsonObject json) {
         StateTree tree = registry.getStateTree();
+        Profiler.enter("TreeChangeProcessor.processChanges");
         JsSet<StateNode> updatedNodes = TreeChangeProcessor.processChanges(tree,
                 json.getArray("changes"));
+        Profiler.leave("TreeChangeProcessor.processChanges");
 
         if (!registry.getApplicationConfiguration().isProductionMode()) {
             try {
@@ -488,11 +573,13 @@ public class MessageHandler {
         }
     }-*/;
 
-    private void endRequestIfResponse(ValueMap json) {
+    private void endRequestIfResponse(ValueMap json, int endedRequests) {
         if (isResponse(json)) {
-            // End the request if the received message was a
+            // End the requests if the received message was a
             // response, not sent asynchronously
-            registry.getRequestResponseTracker().endRequest();
+            for (int i = 0; i < endedRequests; i++) {
+                registry.getRequestResponseTracker().endRequest();
+            }
         }
     }
 
@@ -70,10 +70,11 @@ public class MessageSender {
             return;
         }
 
-        if (registry.getRequestResponseTracker().hasActiveRequest()
-                || (push != null && !push.isActive())) {
-            // There is an active request or push is enabled but not active
-            // -> send when current request completes or push becomes active
+        RequestResponseTracker tracker = registry.getRequestResponseTracker();
+        tracker.setMaxActiveRequests(getMaxMessagesInFlight());
+        if (!tracker.canStartRequest() || (push != null && !push.isActive())) {
+            // There are too many active requests or push is enabled but not
+            // active -> send when a request completes or push becomes active
         } else {
             doSendInvocationsToServer();
         }
@@ -223,6 +224,47 @@ public class MessageSender {
         send(Json.createArray(), resyncParam);
     }
 
+    /**
+     * Gets the number of messages which can be sent to the server without
+     * waiting for the responses to the earlier ones. More than one message is
+     * only sent at a time through a bidirectional push connection, which
+     * keeps the messages in order.
+     *
+     * @return the maximum number of messages in flight, at least 1
+     */
+    public int getMaxMessagesInFlight() {
+        if (push != null && push.isBidirectional()) {
+            return registry.getApplicationConfiguration()
+                    .getMaxMessagesInFlight();
+        }
+        return 1;
+    }
+
+    /**
+     * Gets the number of the messages in flight which are acknowledged by a
+     * response from the server. Messages are identified by their
+     * client-to-server id, and the server responds with the id it expects
+     * next after handling all preceding messages in order.
+     * <p>
+     * Must be called before the id is passed to
+     * {@link #setClientToServerMessageId(int, boolean)}.
+     *
+     * @param nextExpectedId
+     *            the next client-to-server id expected by the server
+     * @return the number of requests ended by the response
+     */
+    public int getAcknowledgedMessageCount(int nextExpectedId) {
+        int inFlight = registry.getRequestResponseTracker()
+                .getActiveRequestCount();
+        if (inFlight <= 1) {
+            // Any response ends a single request
+            return 1;
+        }
+        int firstInFlightId = clientToServerMessageId - inFlight;
+        return Math.max(0,
+                Math.min(inFlight, nextExpectedId - firstInFlightId));
+    }
+
     /**
      * Used internally to update what id the server expects.
      *
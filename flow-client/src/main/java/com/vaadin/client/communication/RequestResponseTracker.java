@@ -25,8 +25,8 @@ import com.vaadin.client.gwt.com.google.web.bindery.event.shared.SimpleEventBus;
 /**
  * Tracks active server UIDL requests.
  * <p>
- * Ensures that there is only one outgoing server request active at a given
- * time.
+ * Ensures that there are no more outgoing server requests active at a given
+ * time than allowed, by default only one.
  * <p>
  * Fires events when a requests starts, response handling starts and when
  * response handling ends.
@@ -36,7 +36,8 @@ import com.vaadin.client.gwt.com.google.web.bindery.event.shared.SimpleEventBus;
  */
 public class RequestResponseTracker {
 
-    private boolean hasActiveRequest = false;
+    private int activeRequests = 0;
+    private int maxActiveRequests = 1;
     private final Registry registry;
     private EventBus eventBus = new SimpleEventBus();
 
@@ -53,20 +54,44 @@ public class RequestResponseTracker {
     /**
      * Marks that a new request has started.
      * <p>
-     * Should not be called when a request is in progress, i.e.
-     * {@link #startRequest()} has been called but not {@link #endRequest()}.
+     * Should not be called when the maximum number of requests are in
+     * progress, i.e. {@link #canStartRequest()} returns <code>false</code>.
      * <p>
      * Fires a {@link RequestStartingEvent}.
      */
     public void startRequest() {
-        if (hasActiveRequest) {
+        if (!canStartRequest()) {
             throw new IllegalStateException(
-                    "Trying to start a new request while another is active");
+                    "Trying to start a new request while " + activeRequests
+                            + " requests are active");
         }
-        hasActiveRequest = true;
+        activeRequests++;
         fireEvent(new RequestStartingEvent());
     }
 
+    /**
+     * Checks whether a new request can be started without exceeding the
+     * maximum number of active requests.
+     *
+     * @return <code>true</code> if a new request can be started,
+     *         <code>false</code> otherwise
+     */
+    public boolean canStartRequest() {
+        return activeRequests < maxActiveRequests;
+    }
+
+    /**
+     * Sets the maximum number of requests which can be active at the same
+     * time. Requests which are already active are not affected.
+     *
+     * @param maxActiveRequests
+     *            the maximum number of active requests, at least 1
+     */
+    public void setMaxActiveRequests(int maxActiveRequests) {
+        assert maxActiveRequests >= 1;
+        this.maxActiveRequests = maxActiveRequests;
+    }
+
     /**
      * Fires the given event using the event bus for this class.
      *
@@ -83,28 +108,37 @@ public class RequestResponseTracker {
      * @return true if there is an active request, false otherwise
      */
     public boolean hasActiveRequest() {
-        return hasActiveRequest;
+        return activeRequests > 0;
+    }
+
+    /**
+     * Gets the number of active UIDL requests.
+     *
+     * @return the number of requests which have been started but not ended
+     */
+    public int getActiveRequestCount() {
+        return activeRequests;
     }
 
     /**
-     * Marks that the current request has ended.
+     * Marks that the oldest active request has ended.
      * <p>
      * Should not be called unless a request is in progress, i.e.
-     * {@link #startRequest()} has been called but not {@link #endRequest()}.
+     * {@link #startRequest()} has been called more times than
+     * {@link #endRequest()}.
      * <p>
      * Will trigger sending of any pending invocations to the server.
      * <p>
      * Fires a {@link ResponseHandlingEndedEvent}.
      */
     public void endRequest() {
-        if (!hasActiveRequest) {
+        if (activeRequests == 0) {
             throw new IllegalStateException(
                     "endRequest called when no request is active");
         }
         // After sendInvocationsToServer() there may be a new active
-        // request, so we must set hasActiveRequest to false before, not after,
-        // the call.
-        hasActiveRequest = false;
+        // request, so we must decrease the count before, not after, the call.
+        activeRequests--;
 
         if (registry.getUILifecycle().isRunning()
                 && registry.getServerRpcQueue().isFlushPending()) {
@@ -30,6 +30,7 @@ import com.vaadin.flow.internal.nodefeature.NodeProperties;
 
 import elemental.json.JsonArray;
 import elemental.json.JsonObject;
+import elemental.json.JsonType;
 import elemental.json.JsonValue;
 
 /**
@@ -44,6 +45,10 @@ public class ExecuteJavaScriptProcessor {
 
     private final Registry registry;
 
+    // Functions compiled from the constant pool, by constant id
+    private final JsMap<String, NativeFunction> functions = JsCollections
+            .map();
+
     /**
      * Creates a new processor with the given registry.
      *
@@ -70,10 +75,10 @@ public class ExecuteJavaScriptProcessor {
     private void handleInvocation(JsonArray invocation) {
         StateTree tree = registry.getStateTree();
 
-        // Last item is the script, the rest is parameters
+        // Last item is the function, either inline or as a constant id, the
+        // rest is parameters
         int parameterCount = invocation.length() - 1;
 
-        String[] parameterNamesAndCode = new String[parameterCount + 1];
         JsArray<Object> parameters = JsCollections.array();
 
         JsMap<Object, StateNode> map = JsCollections.map();
@@ -82,7 +87,6 @@ public class ExecuteJavaScriptProcessor {
             Object parameter = ClientJsonCodec.decodeWithTypeInfo(tree,
                     parameterJson);
             parameters.push(parameter);
-            parameterNamesAndCode[i] = "$" + i;
             StateNode stateNode = ClientJsonCodec.decodeStateNode(tree,
                     parameterJson);
             if (stateNode != null) {
@@ -99,11 +103,7 @@ public class ExecuteJavaScriptProcessor {
             }
         }
 
-        // Set the script source as the last parameter
-        String expression = invocation.getString(invocation.length() - 1);
-        parameterNamesAndCode[parameterNamesAndCode.length - 1] = expression;
-
-        invoke(parameterNamesAndCode, parameters, map);
+        invoke(invocation.get(parameterCount), parameters, map);
     }
 
     private boolean isVirtualChildAwaitingInitialization(StateNode node) {
@@ -134,27 +134,75 @@ public class ExecuteJavaScriptProcessor {
         return isBound(node.getParent());
     }
 
+    /**
+     * Gets the parameter names and the JavaScript expression of the given
+     * function.
+     *
+     * @param function
+     *            the function as an array of parameter names followed by the
+     *            expression, or the constant id of such an array, not
+     *            <code>null</code>
+     * @return an array consisting of parameter names followed by the
+     *         JavaScript expression to execute
+     */
+    protected String[] getParameterNamesAndCode(JsonValue function) {
+        JsonArray array;
+        if (function.getType() == JsonType.ARRAY) {
+            array = (JsonArray) function;
+        } else {
+            array = registry.getConstantPool().get(function.asString());
+            assert array != null : "No function with id "
+                    + function.asString();
+        }
+
+        String[] parameterNamesAndCode = new String[array.length()];
+        for (int i = 0; i < parameterNamesAndCode.length; i++) {
+            parameterNamesAndCode[i] = array.getString(i);
+        }
+        return parameterNamesAndCode;
+    }
+
+    /**
+     * Gets the compiled function for the given function. A function from the
+     * constant pool is compiled only the first time it is used, whereas an
+     * inline function has not been used before and is compiled every time.
+     *
+     * @param function
+     *            the function as an array of parameter names followed by the
+     *            expression, or the constant id of such an array, not
+     *            <code>null</code>
+     * @return the compiled function
+     */
+    NativeFunction getFunction(JsonValue function) {
+        if (function.getType() == JsonType.ARRAY) {
+            return new NativeFunction(getParameterNamesAndCode(function));
+        }
+        String functionId = function.asString();
+        NativeFunction compiled = functions.get(functionId);
+        if (compiled == null) {
+            compiled = new NativeFunction(getParameterNamesAndCode(function));
+            functions.set(functionId, compiled);
+        }
+        return compiled;
+    }
+
     /**
      * Executes the actual invocation. This method is protected instead of
      * private for testing purposes.
      *
-     * @param parameterNamesAndCode
-     *            an array consisting of parameter names followed by the
-     *            JavaScript expression to execute
+     * @param function
+     *            the function to execute, either inline or as a constant id
      * @param parameters
      *            an array of parameter values
      * @param nodeParameters
      *            the node parameters
      */
-    protected void invoke(String[] parameterNamesAndCode,
-            JsArray<Object> parameters,
+    protected void invoke(JsonValue function, JsArray<Object> parameters,
             JsMap<Object, StateNode> nodeParameters) {
-        assert parameterNamesAndCode.length == parameters.length() + 1;
-
         try {
-            NativeFunction function = new NativeFunction(parameterNamesAndCode);
+            NativeFunction compiled = getFunction(function);
 
-            function.apply(getContextExecutionObject(nodeParameters),
+            compiled.apply(getContextExecutionObject(nodeParameters),
                     parameters);
         } catch (Exception exception) {
             Console.reportStacktrace(exception);
@@ -164,7 +212,7 @@ public class ExecuteJavaScriptProcessor {
             if (!registry.getApplicationConfiguration().isProductionMode()) {
                 StringBuilder codeBuilder = new StringBuilder("[");
                 String delimiter = "";
-                for (String snippet : parameterNamesAndCode) {
+                for (String snippet : getParameterNamesAndCode(function)) {
                     codeBuilder.append(delimiter).append(snippet);
                     delimiter = ", ";
                 }
@@ -27,10 +27,15 @@ import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.JsonArray;
 import elemental.json.JsonObject;
+import elemental.json.JsonType;
 import elemental.json.JsonValue;
 
 /**
  * Updates a state tree based on changes in JSON format.
+ * <p>
+ * Each change is either a JSON object with named properties or, if the server
+ * is configured to use the compact format, a JSON array with the values in
+ * fixed positions. Both formats may be mixed in the same change array.
  *
  * @author Vaadin Ltd
  * @since 1.0
@@ -61,22 +66,29 @@ public class TreeChangeProcessor {
 
             // Attach all nodes before doing anything else
             for (int i = 0; i < length; i++) {
-                JsonObject change = changes.getObject(i);
-                if (isAttach(change)) {
-                    int nodeId = (int) change
-                            .getNumber(JsonConstants.CHANGE_NODE);
-
-                    StateNode node = new StateNode(nodeId, tree);
-                    tree.registerNode(node);
-                    nodes.add(node);
+                JsonValue change = changes.get(i);
+                if (isCompact(change)) {
+                    JsonArray compactChange = (JsonArray) change;
+                    if (isAttach(compactChange)) {
+                        nodes.add(attachNode(tree,
+                                (int) compactChange.getNumber(1)));
+                    }
+                } else if (isAttach((JsonObject) change)) {
+                    nodes.add(attachNode(tree, (int) ((JsonObject) change)
+                            .getNumber(JsonConstants.CHANGE_NODE)));
                 }
             }
 
             // Then process all non-attach changes
             for (int i = 0; i < length; i++) {
-                JsonObject change = changes.getObject(i);
-                if (!isAttach(change)) {
-                    nodes.add(processChange(tree, change));
+                JsonValue change = changes.get(i);
+                if (isCompact(change)) {
+                    JsonArray compactChange = (JsonArray) change;
+                    if (!isAttach(compactChange)) {
+                        nodes.add(processCompactChange(tree, compactChange));
+                    }
+                } else if (!isAttach((JsonObject) change)) {
+                    nodes.add(processChange(tree, (JsonObject) change));
                 }
             }
             return nodes;
@@ -86,11 +98,89 @@ public class TreeChangeProcessor {
 
     }
 
+    private static StateNode attachNode(StateTree tree, int nodeId) {
+        StateNode node = new StateNode(nodeId, tree);
+        tree.registerNode(node);
+        return node;
+    }
+
+    private static boolean isCompact(JsonValue change) {
+        return change.getType() == JsonType.ARRAY;
+    }
+
     private static boolean isAttach(JsonObject change) {
         return JsonConstants.CHANGE_TYPE_ATTACH
                 .equals(change.getString(JsonConstants.CHANGE_TYPE));
     }
 
+    private static boolean isAttach(JsonArray change) {
+        return (int) change.getNumber(0) == JsonConstants.COMPACT_CHANGE_ATTACH;
+    }
+
+    /**
+     * Update a state tree based on a JSON change in the compact format. This
+     * method is public for testing purposes.
+     *
+     * @param tree
+     *            the tree to update
+     * @param change
+     *            the JSON array representing the change
+     * @return the updated node addressed by the provided {@code change}
+     */
+    public static StateNode processCompactChange(StateTree tree,
+            JsonArray change) {
+        int type = (int) change.getNumber(0);
+        int nodeId = (int) change.getNumber(1);
+
+        StateNode node = tree.getNode(nodeId);
+        assert node != null;
+
+        if (type == JsonConstants.COMPACT_CHANGE_DETACH) {
+            processDetachChange(node);
+            return node;
+        }
+
+        int featureId = (int) change.getNumber(2);
+        switch (type) {
+        case JsonConstants.COMPACT_CHANGE_NOOP_MAP:
+            node.getMap(featureId);
+            break;
+        case JsonConstants.COMPACT_CHANGE_NOOP_LIST:
+            node.getList(featureId);
+            break;
+        case JsonConstants.COMPACT_CHANGE_PUT:
+            node.getMap(featureId).getProperty(change.getString(3)).setValue(
+                    ClientJsonCodec.decodeWithoutTypeInfo(change.get(4)));
+            break;
+        case JsonConstants.COMPACT_CHANGE_PUT_NODE:
+            putNode(node, node.getMap(featureId).getProperty(
+                    change.getString(3)), (int) change.getNumber(4));
+            break;
+        case JsonConstants.COMPACT_CHANGE_REMOVE:
+            node.getMap(featureId).getProperty(change.getString(3))
+                    .removeValue();
+            break;
+        case JsonConstants.COMPACT_CHANGE_SPLICE_REMOVE:
+            node.getList(featureId).splice((int) change.getNumber(3),
+                    (int) change.getNumber(4));
+            break;
+        case JsonConstants.COMPACT_CHANGE_SPLICE_ADD:
+            node.getList(featureId).splice((int) change.getNumber(3), 0,
+                    ClientJsonCodec.jsonArrayAsJsArray(change.getArray(4)));
+            break;
+        case JsonConstants.COMPACT_CHANGE_SPLICE_ADD_NODES:
+            addNodes(node, node.getList(featureId),
+                    (int) change.getNumber(3), 0, change.getArray(4));
+            break;
+        case JsonConstants.COMPACT_CHANGE_CLEAR:
+            node.getList(featureId).clear();
+            break;
+        default:
+            assert false : "Unsupported compact change type: " + type;
+        }
+        return node;
+    }
+
     /**
      * Update a state tree based on a JSON change. This method is public for
      * testing purposes.
@@ -158,19 +248,23 @@ public class TreeChangeProcessor {
             Object value = ClientJsonCodec.decodeWithoutTypeInfo(jsonValue);
             property.setValue(value);
         } else if (change.hasKey(JsonConstants.CHANGE_PUT_NODE_VALUE)) {
-            int childId = (int) change
-                    .getNumber(JsonConstants.CHANGE_PUT_NODE_VALUE);
-            StateNode child = node.getTree().getNode(childId);
-            assert child != null;
-            child.setParent(node);
-
-            property.setValue(child);
+            putNode(node, property, (int) change
+                    .getNumber(JsonConstants.CHANGE_PUT_NODE_VALUE));
         } else {
             assert false : "Change should have either value or nodeValue property: "
                     + WidgetUtil.stringify(change);
         }
     }
 
+    private static void putNode(StateNode node, MapProperty property,
+            int childId) {
+        StateNode child = node.getTree().getNode(childId);
+        assert child != null;
+        child.setParent(node);
+
+        property.setValue(child);
+    }
+
     private static void processRemoveChange(JsonObject change, StateNode node) {
         MapProperty property = findProperty(change, node);
 
@@ -206,26 +300,30 @@ public class TreeChangeProcessor {
 
             list.splice(index, remove, add);
         } else if (change.hasKey(JsonConstants.CHANGE_SPLICE_ADD_NODES)) {
-            JsonArray addNodes = change
-                    .getArray(JsonConstants.CHANGE_SPLICE_ADD_NODES);
-            int length = addNodes.length();
+            addNodes(node, list, index, remove, change
+                    .getArray(JsonConstants.CHANGE_SPLICE_ADD_NODES));
+        } else {
+            list.splice(index, remove);
+        }
+    }
 
-            JsArray<StateNode> add = JsCollections.array();
+    private static void addNodes(StateNode node, NodeList list, int index,
+            int remove, JsonArray addNodes) {
+        int length = addNodes.length();
 
-            StateTree tree = node.getTree();
-            for (int i = 0; i < length; i++) {
-                int childId = (int) addNodes.getNumber(i);
-                StateNode child = tree.getNode(childId);
-                assert child != null : "No child node found with id " + childId;
-                child.setParent(node);
+        JsArray<StateNode> add = JsCollections.array();
 
-                add.set(i, child);
-            }
+        StateTree tree = node.getTree();
+        for (int i = 0; i < length; i++) {
+            int childId = (int) addNodes.getNumber(i);
+            StateNode child = tree.getNode(childId);
+            assert child != null : "No child node found with id " + childId;
+            child.setParent(node);
 
-            list.splice(index, remove, add);
-        } else {
-            list.splice(index, remove);
+            add.set(i, child);
         }
+
+        list.splice(index, remove, add);
     }
 
     private static void processClearChange(JsonObject change, StateNode node) {
@@ -26,6 +26,7 @@ import com.vaadin.client.Console;
 import com.vaadin.client.ExistingElementMap;
 import com.vaadin.client.InitialPropertiesHandler;
 import com.vaadin.client.PolymerUtils;
+import com.vaadin.client.Profiler;
 import com.vaadin.client.WidgetUtil;
 import com.vaadin.client.flow.ConstantPool;
 import com.vaadin.client.flow.StateNode;
@@ -53,6 +54,7 @@ import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.client.Browser;
 import elemental.css.CSSStyleDeclaration;
+import elemental.dom.DocumentFragment;
 import elemental.dom.Element;
 import elemental.dom.Node;
 import elemental.events.Event;
@@ -200,6 +202,8 @@ public class SimpleElementBindingStrategy implements BindingStrategy<Element> {
         }
         boundNodes.set(stateNode, true);
 
+        bindStaticContent(stateNode, htmlNode);
+
         BindingContext context = new BindingContext(stateNode, htmlNode,
                 nodeFactory);
 
@@ -248,6 +252,23 @@ public class SimpleElementBindingStrategy implements BindingStrategy<Element> {
         scheduleInitialExecution(stateNode);
     }
 
+    private void bindStaticContent(StateNode node, Element htmlNode) {
+        if (!node.hasFeature(NodeFeatures.ELEMENT_DATA)) {
+            return;
+        }
+        String contentKey = (String) node.getMap(NodeFeatures.ELEMENT_DATA)
+                .getProperty(NodeProperties.STATIC_CONTENT).getValue();
+        if (contentKey == null) {
+            return;
+        }
+        ConstantPool constantPool = node.getTree().getRegistry()
+                .getConstantPool();
+        assert constantPool.has(contentKey);
+
+        JsonValue content = constantPool.get(contentKey);
+        DomApi.wrap(htmlNode).setInnerHTML(content.asString());
+    }
+
     private void scheduleInitialExecution(StateNode stateNode) {
         InitialPropertyUpdate update = new InitialPropertyUpdate(stateNode);
         stateNode.setNodeData(update);
@@ -785,6 +806,8 @@ public class SimpleElementBindingStrategy implements BindingStrategy<Element> {
             removeAllChildren(context.htmlNode);
         }
 
+        // Collect new children so that they are attached in one operation
+        DocumentFragment fragment = null;
         for (int i = 0; i < children.length(); i++) {
             StateNode childNode = (StateNode) children.get(i);
 
@@ -797,9 +820,15 @@ public class SimpleElementBindingStrategy implements BindingStrategy<Element> {
                 context.binderContext.createAndBind(childNode);
             } else {
                 child = context.binderContext.createAndBind(childNode);
-                DomApi.wrap(context.htmlNode).appendChild(child);
+                if (fragment == null) {
+                    fragment = Browser.getDocument().createDocumentFragment();
+                }
+                DomApi.wrap(fragment).appendChild(child);
             }
         }
+        if (fragment != null) {
+            DomApi.wrap(context.htmlNode).appendChild(fragment);
+        }
 
         return children.addSpliceListener(e -> {
             /*
@@ -1073,6 +1102,15 @@ public class SimpleElementBindingStrategy implements BindingStrategy<Element> {
             beforeRef = null;
         }
 
+        Profiler.enter("SimpleElementBindingStrategy.addChildren");
+
+        /*
+         * New children are collected into a fragment which is inserted in one
+         * operation instead of inserting the children one by one. Children
+         * which already exist in the DOM stay where they are, so any collected
+         * children are inserted before moving past such a child.
+         */
+        DocumentFragment fragment = null;
         for (int i = 0; i < add.length(); i++) {
             Object newChildObject = add.get(i);
             StateNode newChild = (StateNode) newChildObject;
@@ -1084,14 +1122,34 @@ public class SimpleElementBindingStrategy implements BindingStrategy<Element> {
                 existingElementMap.remove(newChild.getId());
                 newChild.setDomNode(childNode);
                 context.binderContext.createAndBind(newChild);
+
+                insertFragment(context.htmlNode, fragment, beforeRef);
+                fragment = null;
+                beforeRef = DomApi.wrap(childNode).getNextSibling();
             } else {
                 childNode = context.binderContext.createAndBind(newChild);
 
-                DomApi.wrap(context.htmlNode).insertBefore(childNode,
-                        beforeRef);
+                if (add.length() == 1) {
+                    DomApi.wrap(context.htmlNode).insertBefore(childNode,
+                            beforeRef);
+                } else {
+                    if (fragment == null) {
+                        fragment = Browser.getDocument()
+                                .createDocumentFragment();
+                    }
+                    DomApi.wrap(fragment).appendChild(childNode);
+                }
             }
+        }
+        insertFragment(context.htmlNode, fragment, beforeRef);
+
+        Profiler.leave("SimpleElementBindingStrategy.addChildren");
+    }
 
-            beforeRef = DomApi.wrap(childNode).getNextSibling();
+    private static void insertFragment(Node htmlNode,
+            DocumentFragment fragment, Node beforeRef) {
+        if (fragment != null) {
+            DomApi.wrap(htmlNode).insertBefore(fragment, beforeRef);
         }
     }
 
@@ -15,6 +15,8 @@
  */
 package com.vaadin.client.flow.reactive;
 
+import java.util.function.BooleanSupplier;
+
 import com.vaadin.client.Command;
 import com.vaadin.client.flow.collection.JsArray;
 import com.vaadin.client.flow.collection.JsCollections;
@@ -95,11 +97,34 @@ public class Reactive {
      * @see #addPostFlushListener(FlushListener)
      */
     public static void flush() {
+        flush(() -> false);
+    }
+
+    /**
+     * Flushes flush listeners and post flush listeners in the same order as
+     * {@link #flush()}, but stops as soon as the given condition is met after
+     * invoking a listener. The listeners which have not yet been invoked are
+     * kept and will be invoked by the next flush.
+     * <p>
+     * This makes it possible to spread the processing of a large number of
+     * listeners over several browser tasks so that the browser gets a chance
+     * to render in between.
+     *
+     * @param yieldCondition
+     *            the condition telling whether flushing should be stopped, not
+     *            <code>null</code>
+     * @return <code>true</code> if all listeners have been invoked,
+     *         <code>false</code> if flushing was stopped before that
+     */
+    public static boolean flush(BooleanSupplier yieldCondition) {
         while (hasFlushListeners() || hasPostFlushListeners()) {
             // Purge all flush listeners
             while (hasFlushListeners()) {
                 FlushListener oldestListener = flushListeners.remove(0);
                 oldestListener.flush();
+                if (yieldCondition.getAsBoolean()) {
+                    return !hasFlushListeners() && !hasPostFlushListeners();
+                }
             }
 
             // Purge one post flush listener, then look if there are new flush
@@ -107,8 +132,12 @@ public class Reactive {
             if (hasPostFlushListeners()) {
                 FlushListener oldestListener = postFlushListeners.remove(0);
                 oldestListener.flush();
+                if (yieldCondition.getAsBoolean()) {
+                    return !hasFlushListeners() && !hasPostFlushListeners();
+                }
             }
         }
+        return true;
     }
 
     private static boolean hasPostFlushListeners() {
@@ -307,10 +307,14 @@ public class GwtExecuteJavaScriptElementUtilsTest extends ClientEngineTestBase {
         serializedChannel.set(1, expectedNodeId);
         serializedChannel.set(2, expectedChannelId);
 
+        JsonArray function = Json.createArray();
+        function.set(0, "$0");
+        function.set(1, expression);
+
         JsonArray invocation = Json.createArray();
         // Assign channel as $0
         invocation.set(0, serializedChannel);
-        invocation.set(1, expression);
+        invocation.set(1, function);
 
         JsonArray invocations = Json.createArray();
         invocations.set(0, invocation);
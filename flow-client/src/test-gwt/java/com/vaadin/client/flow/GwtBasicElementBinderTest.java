@@ -194,6 +194,16 @@ public class GwtBasicElementBinderTest extends GwtPropertyElementBinderTest {
         Binder.bind(node, element);
     }
 
+    public void testBindStaticContent() {
+        addToConstantPool("contentKey", Json.create("<b>static</b> text"));
+        elementData.getProperty(NodeProperties.STATIC_CONTENT)
+                .setValue("contentKey");
+
+        Binder.bind(node, element);
+
+        assertEquals("<b>static</b> text", element.getInnerHTML());
+    }
+
     public void testBindExistingAttribute() {
         idAttribute.setValue("foo");
 
@@ -445,6 +455,51 @@ public class GwtBasicElementBinderTest extends GwtPropertyElementBinderTest {
         assertEquals("second", childElement.getId());
     }
 
+    public void testInsertChildren_severalChildrenInOneSplice() {
+        Binder.bind(node, element);
+
+        createAndAppendElementToShadowRoot(element, null, "div");
+        children.add(0, createChildNode("first"));
+        children.add(1, createChildNode("last"));
+        Reactive.flush();
+
+        children.splice(1, 0, JsCollections.array(createChildNode("a"),
+                createChildNode("b"), createChildNode("c")));
+        Reactive.flush();
+
+        // <div/><span>first</span><span>a</span>...<span>last</span>
+        HTMLCollection elements = element.getChildren();
+        assertEquals(6, elements.length());
+        assertEquals("DIV", ((Element) elements.at(0)).getTagName());
+        assertEquals("first", ((Element) elements.at(1)).getId());
+        assertEquals("a", ((Element) elements.at(2)).getId());
+        assertEquals("b", ((Element) elements.at(3)).getId());
+        assertEquals("c", ((Element) elements.at(4)).getId());
+        assertEquals("last", ((Element) elements.at(5)).getId());
+    }
+
+    public void testInsertChildren_existingElementFollowedByNewChildren() {
+        Binder.bind(node, element);
+
+        StateNode existingNode = createChildNode("existing");
+        ExistingElementMap existingElementMap = node.getTree().getRegistry()
+                .getExistingElementMap();
+        Element span = Browser.getDocument().createElement("span");
+        element.appendChild(span);
+        existingElementMap.add(existingNode.getId(), span);
+
+        children.splice(0, 0, JsCollections.array(existingNode,
+                createChildNode("a"), createChildNode("b")));
+        Reactive.flush();
+
+        HTMLCollection elements = element.getChildren();
+        assertEquals(3, elements.length());
+        assertSame(span, elements.at(0));
+        assertEquals("existing", span.getId());
+        assertEquals("a", ((Element) elements.at(1)).getId());
+        assertEquals("b", ((Element) elements.at(2)).getId());
+    }
+
     public void testRemoveChild() {
         Binder.bind(node, element);
 
@@ -17,7 +17,6 @@ package com.vaadin.client.flow;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Stream;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -36,6 +35,7 @@ import elemental.js.dom.JsElement;
 import elemental.json.Json;
 import elemental.json.JsonArray;
 import elemental.json.JsonObject;
+import elemental.json.JsonValue;
 
 public class ExecuteJavaScriptProcessorTest {
     private static class CollectingExecuteJavaScriptProcessor
@@ -52,6 +52,7 @@ public class ExecuteJavaScriptProcessorTest {
             this(new Registry() {
                 {
                     set(StateTree.class, new StateTree(this));
+                    set(ConstantPool.class, new ConstantPool());
                 }
             });
         }
@@ -66,10 +67,9 @@ public class ExecuteJavaScriptProcessorTest {
         }
 
         @Override
-        protected void invoke(String[] parameterNamesAndCode,
-                JsArray<Object> parameters,
+        protected void invoke(JsonValue function, JsArray<Object> parameters,
                 JsMap<Object, StateNode> nodeParameters) {
-            parameterNamesAndCodeList.add(parameterNamesAndCode);
+            parameterNamesAndCodeList.add(getParameterNamesAndCode(function));
             parametersList.add(parameters);
             nodeParametersList.add(nodeParameters);
         }
@@ -94,6 +94,7 @@ public class ExecuteJavaScriptProcessorTest {
             this(new Registry() {
                 {
                     set(StateTree.class, new StateTree(this));
+                    set(ConstantPool.class, new ConstantPool());
                 }
             });
         }
@@ -107,9 +108,12 @@ public class ExecuteJavaScriptProcessorTest {
     public void execute_parametersAndCodeAreValidAndNoNodeParameters() {
         CollectingExecuteJavaScriptProcessor processor = new CollectingExecuteJavaScriptProcessor();
 
-        JsonArray invocation1 = JsonUtils.createArray(Json.create("script1"));
-        JsonArray invocation2 = Stream.of("param1", "param2", "script2")
-                .map(Json::create).collect(JsonUtils.asArray());
+        Registry registry = processor.getRegistry();
+        JsonArray invocation1 = JsonUtils
+                .createArray(function(registry, "script1"));
+        JsonArray invocation2 = JsonUtils.createArray(Json.create("param1"),
+                Json.create("param2"),
+                function(registry, "$0", "$1", "script2"));
         JsonArray invocations = JsonUtils.createArray(invocation1, invocation2);
 
         processor.execute(invocations);
@@ -139,6 +143,7 @@ public class ExecuteJavaScriptProcessorTest {
                 StateTree tree = new StateTree(this);
                 set(StateTree.class, tree);
                 set(ExistingElementMap.class, new ExistingElementMap());
+                set(ConstantPool.class, new ConstantPool());
             }
 
         };
@@ -156,8 +161,8 @@ public class ExecuteJavaScriptProcessorTest {
         JsonArray json = JsonUtils.createArray(Json.create(JsonCodec.NODE_TYPE),
                 Json.create(node.getId()));
 
-        JsonArray invocation = Stream.of(json, Json.create("$0"))
-                .collect(JsonUtils.asArray());
+        JsonArray invocation = JsonUtils.createArray(json,
+                function(registry, "$0", "$0"));
 
         // JRE impl of the array uses
 
@@ -191,8 +196,8 @@ public class ExecuteJavaScriptProcessorTest {
         JsonArray json = JsonUtils.createArray(Json.create(JsonCodec.NODE_TYPE),
                 Json.create(node.getId()));
 
-        JsonArray invocation = Stream.of(json, Json.create("$0"))
-                .collect(JsonUtils.asArray());
+        JsonArray invocation = JsonUtils.createArray(json,
+                function(registry, "$0", "$0"));
 
         processor.execute(JsonUtils.createArray(invocation));
 
@@ -231,8 +236,8 @@ public class ExecuteJavaScriptProcessorTest {
         JsonArray json = JsonUtils.createArray(Json.create(JsonCodec.NODE_TYPE),
                 Json.create(node.getId()));
 
-        JsonArray invocation = Stream.of(json, Json.create("$0"))
-                .collect(JsonUtils.asArray());
+        JsonArray invocation = JsonUtils.createArray(json,
+                function(registry, "$0", "$0"));
 
         processor.execute(JsonUtils.createArray(invocation));
 
@@ -270,8 +275,8 @@ public class ExecuteJavaScriptProcessorTest {
         JsonArray json = JsonUtils.createArray(Json.create(JsonCodec.NODE_TYPE),
                 Json.create(node.getId()));
 
-        JsonArray invocation = Stream.of(json, Json.create("$0"))
-                .collect(JsonUtils.asArray());
+        JsonArray invocation = JsonUtils.createArray(json,
+                function(registry, "$0", "$0"));
 
         processor.execute(JsonUtils.createArray(invocation));
 
@@ -279,6 +284,43 @@ public class ExecuteJavaScriptProcessorTest {
         Assert.assertEquals(1, processor.nodeParametersList.size());
     }
 
+    @Test
+    public void execute_sameFunction_compiledOnce() {
+        TestJsProcessor processor = new TestJsProcessor();
+        Registry registry = processor.getRegistry();
+
+        JsonValue functionId = function(registry, "$0", "$0.update()");
+        JsonValue otherId = function(registry, "$0", "$1", "$0.update($1)");
+
+        Assert.assertSame(processor.getFunction(functionId),
+                processor.getFunction(functionId));
+        Assert.assertNotSame(processor.getFunction(functionId),
+                processor.getFunction(otherId));
+    }
+
+    @Test
+    public void execute_inlineFunction_notPooledNorCached() {
+        CollectingExecuteJavaScriptProcessor processor = new CollectingExecuteJavaScriptProcessor();
+
+        JsonArray function = Json.createArray();
+        function.set(0, "$0");
+        function.set(1, "$0.update()");
+
+        JsonArray invocation = Json.createArray();
+        invocation.set(0, "foo");
+        invocation.set(1, function);
+
+        processor.execute(JsonUtils.createArray(invocation));
+
+        Assert.assertEquals(1, processor.parameterNamesAndCodeList.size());
+        Assert.assertArrayEquals(new String[] { "$0", "$0.update()" },
+                processor.parameterNamesAndCodeList.get(0));
+        Assert.assertEquals("foo", processor.parametersList.get(0).get(0));
+
+        Assert.assertNotSame(processor.getFunction(function),
+                processor.getFunction(function));
+    }
+
     @Test
     public void isBound_noElement_notBound() {
         TestJsProcessor processor = new TestJsProcessor();
@@ -417,4 +459,20 @@ public class ExecuteJavaScriptProcessorTest {
 
         Assert.assertFalse(processor.isBound(node));
     }
+
+    private static JsonValue function(Registry registry,
+            String... parameterNamesAndCode) {
+        // The server uses a hash of the function as its id
+        String id = String.join(",", parameterNamesAndCode);
+        if (!registry.getConstantPool().has(id)) {
+            JsonArray function = Json.createArray();
+            for (String value : parameterNamesAndCode) {
+                function.set(function.length(), value);
+            }
+            JsonObject constants = Json.createObject();
+            constants.put(id, function);
+            registry.getConstantPool().importFromJson(constants);
+        }
+        return Json.create(id);
+    }
 }
@@ -26,6 +26,7 @@ import com.vaadin.client.Registry;
 import com.vaadin.client.flow.collection.JsSet;
 import com.vaadin.client.flow.nodefeature.MapProperty;
 import com.vaadin.client.flow.nodefeature.NodeList;
+import com.vaadin.client.flow.reactive.Reactive;
 import com.vaadin.flow.internal.JsonUtils;
 import com.vaadin.flow.internal.nodefeature.NodeFeatures;
 import com.vaadin.flow.shared.JsonConstants;
@@ -316,6 +317,133 @@ public class TreeChangeProcessorTest {
         Assert.assertNull(child.getParent());
     }
 
+    @Test
+    public void testCompactPutChange() {
+        JsonArray change = compactChange(JsonConstants.COMPACT_CHANGE_PUT,
+                rootId, Json.create(ns), Json.create(myKey),
+                Json.create(myValue));
+
+        StateNode node = TreeChangeProcessor.processCompactChange(tree,
+                change);
+
+        Object value = tree.getRootNode().getMap(ns).getProperty(myKey)
+                .getValue();
+
+        Assert.assertEquals(myValue, value);
+        Assert.assertEquals(tree.getRootNode(), node);
+    }
+
+    @Test
+    public void testCompactRemoveChange() {
+        MapProperty property = tree.getRootNode().getMap(ns).getProperty(myKey);
+        property.setValue(myValue);
+
+        JsonArray change = compactChange(JsonConstants.COMPACT_CHANGE_REMOVE,
+                rootId, Json.create(ns), Json.create(myKey));
+
+        TreeChangeProcessor.processCompactChange(tree, change);
+
+        Assert.assertFalse(property.hasValue());
+    }
+
+    @Test
+    public void testCompactPutNodeChange() {
+        StateNode child = new StateNode(2, tree);
+        tree.registerNode(child);
+
+        JsonArray change = compactChange(
+                JsonConstants.COMPACT_CHANGE_PUT_NODE, rootId, Json.create(ns),
+                Json.create(myKey), Json.create(child.getId()));
+
+        TreeChangeProcessor.processCompactChange(tree, change);
+
+        Assert.assertSame(child, tree.getRootNode().getMap(ns)
+                .getProperty(myKey).getValue());
+        Assert.assertSame(tree.getRootNode(), child.getParent());
+    }
+
+    @Test
+    public void testCompactSpliceChanges() {
+        TreeChangeProcessor.processCompactChange(tree,
+                compactChange(JsonConstants.COMPACT_CHANGE_SPLICE_ADD, rootId,
+                        Json.create(ns), Json.create(0),
+                        toArray(Json.create("foo"), Json.create("bar"))));
+
+        NodeList list = tree.getRootNode().getList(ns);
+        Assert.assertEquals(2, list.length());
+        Assert.assertEquals("foo", list.get(0));
+        Assert.assertEquals("bar", list.get(1));
+
+        TreeChangeProcessor.processCompactChange(tree,
+                compactChange(JsonConstants.COMPACT_CHANGE_SPLICE_REMOVE,
+                        rootId, Json.create(ns), Json.create(0),
+                        Json.create(1)));
+
+        Assert.assertEquals(1, list.length());
+        Assert.assertEquals("bar", list.get(0));
+
+        StateNode child = new StateNode(2, tree);
+        tree.registerNode(child);
+        TreeChangeProcessor.processCompactChange(tree,
+                compactChange(JsonConstants.COMPACT_CHANGE_SPLICE_ADD_NODES,
+                        rootId, Json.create(ns), Json.create(1),
+                        toArray(Json.create(child.getId()))));
+
+        Assert.assertEquals(2, list.length());
+        Assert.assertSame(child, list.get(1));
+        Assert.assertSame(tree.getRootNode(), child.getParent());
+
+        TreeChangeProcessor.processCompactChange(tree, compactChange(
+                JsonConstants.COMPACT_CHANGE_CLEAR, rootId, Json.create(ns)));
+
+        Assert.assertEquals(0, list.length());
+    }
+
+    @Test
+    public void testCompactPopulateChanges() {
+        StateNode node = new StateNode(2, tree);
+        tree.registerNode(node);
+
+        TreeChangeProcessor.processCompactChange(tree,
+                compactChange(JsonConstants.COMPACT_CHANGE_NOOP_MAP,
+                        node.getId(), Json.create(NodeFeatures.ELEMENT_DATA)));
+        TreeChangeProcessor.processCompactChange(tree,
+                compactChange(JsonConstants.COMPACT_CHANGE_NOOP_LIST,
+                        node.getId(),
+                        Json.create(NodeFeatures.ELEMENT_CHILDREN)));
+
+        Assert.assertTrue(node.hasFeature(NodeFeatures.ELEMENT_DATA));
+        Assert.assertTrue(node.hasFeature(NodeFeatures.ELEMENT_CHILDREN));
+    }
+
+    @Test
+    public void testCompactAttachDetachMixedWithObjectChanges() {
+        int childId = 2;
+
+        JsonArray changes = toArray(
+                compactChange(JsonConstants.COMPACT_CHANGE_ATTACH, childId),
+                putNodeChange(rootId, ns, myKey, childId),
+                compactChange(JsonConstants.COMPACT_CHANGE_PUT, childId,
+                        Json.create(ns), Json.create(myKey),
+                        Json.create(myValue)));
+
+        JsSet<StateNode> updatedNodes = TreeChangeProcessor
+                .processChanges(tree, changes);
+
+        StateNode child = tree.getNode(childId);
+        Assert.assertNotNull(child);
+        Assert.assertSame(tree.getRootNode(), child.getParent());
+        Assert.assertEquals(myValue,
+                child.getMap(ns).getProperty(myKey).getValue());
+        Assert.assertEquals(2, updatedNodes.size());
+
+        Reactive.flush();
+        TreeChangeProcessor.processChanges(tree, toArray(
+                compactChange(JsonConstants.COMPACT_CHANGE_DETACH, childId)));
+
+        Assert.assertNull(tree.getNode(childId));
+    }
+
     private static JsonArray toArray(JsonValue... changes) {
         return Arrays.stream(changes).collect(JsonUtils.asArray());
     }
@@ -411,4 +539,15 @@ public class TreeChangeProcessorTest {
         return json;
     }
 
+    private static JsonArray compactChange(int type, int node,
+            JsonValue... values) {
+        JsonArray json = Json.createArray();
+        json.set(0, type);
+        json.set(1, node);
+        for (JsonValue value : values) {
+            json.set(json.length(), value);
+        }
+        return json;
+    }
+
 }
@@ -160,4 +160,37 @@ public class ReactiveTest {
                 order);
     }
 
+    @Test
+    public void flushWithYieldCondition_stopsAndContinuesInOrder() {
+        List<String> order = new ArrayList<>();
+        Reactive.addFlushListener(() -> {
+            order.add("flush1");
+            Reactive.addPostFlushListener(() -> order.add("postFlush1"));
+        });
+        Reactive.addFlushListener(() -> order.add("flush2"));
+        Reactive.addFlushListener(() -> order.add("flush3"));
+
+        // Yield after every second invoked listener
+        AtomicInteger invoked = new AtomicInteger();
+        boolean done = Reactive
+                .flush(() -> invoked.incrementAndGet() % 2 == 0);
+        Assert.assertFalse(done);
+        Assert.assertEquals(Arrays.asList("flush1", "flush2"), order);
+
+        done = Reactive.flush(() -> invoked.incrementAndGet() % 2 == 0);
+        Assert.assertTrue(done);
+        Assert.assertEquals(
+                Arrays.asList("flush1", "flush2", "flush3", "postFlush1"),
+                order);
+    }
+
+    @Test
+    public void flushWithYieldCondition_lastListener_reportsDone() {
+        Reactive.addFlushListener(count::incrementAndGet);
+
+        Assert.assertTrue(Reactive.flush(() -> true));
+        Assert.assertEquals(1, count.get());
+        Assert.assertTrue(Reactive.flush(() -> true));
+    }
+
 }
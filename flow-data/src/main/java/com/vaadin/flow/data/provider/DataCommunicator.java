@@ -37,8 +37,11 @@ import com.vaadin.flow.function.SerializableComparator;
 import com.vaadin.flow.function.SerializableConsumer;
 import com.vaadin.flow.internal.ExecutionContext;
 import com.vaadin.flow.internal.JsonUtils;
+import com.vaadin.flow.internal.MemoryFootprintUtil;
 import com.vaadin.flow.internal.Range;
 import com.vaadin.flow.internal.StateNode;
+import com.vaadin.flow.internal.StateTree;
+import com.vaadin.flow.server.metrics.MemoryFootprint;
 import com.vaadin.flow.shared.Registration;
 
 import elemental.json.Json;
@@ -57,6 +60,15 @@ import elemental.json.JsonValue;
  *
  */
 public class DataCommunicator<T> implements Serializable {
+
+    /**
+     * The memory footprint category of the items mapped to keys by data
+     * communicators.
+     *
+     * @see MemoryFootprint
+     */
+    public static final String KEY_MAPPER_FOOTPRINT_CATEGORY = "DataKeyMapper";
+
     private final DataGenerator<T> dataGenerator;
     private final ArrayUpdater arrayUpdater;
     private final SerializableConsumer<JsonArray> dataUpdater;
@@ -96,6 +108,7 @@ public class DataCommunicator<T> implements Serializable {
     private final ArrayList<QuerySortOrder> backEndSorting = new ArrayList<>();
 
     private Registration dataProviderUpdateRegistration;
+    private Registration memoryFootprintRegistration;
     private HashSet<T> updatedData = new HashSet<>();
 
     private SerializableConsumer<ExecutionContext> flushRequest;
@@ -399,6 +412,12 @@ public class DataCommunicator<T> implements Serializable {
                     }
                 });
 
+        if (stateNode.isAttached()) {
+            memoryFootprintRegistration = ((StateTree) stateNode.getOwner())
+                    .getUI().getInternals()
+                    .addMemoryFootprintContributor(this::estimateMemoryFootprint);
+        }
+
         // Ensure the initialize check is done
         requestFlush();
     }
@@ -409,6 +428,24 @@ public class DataCommunicator<T> implements Serializable {
             dataProviderUpdateRegistration.remove();
             dataProviderUpdateRegistration = null;
         }
+        if (memoryFootprintRegistration != null) {
+            memoryFootprintRegistration.remove();
+            memoryFootprintRegistration = null;
+        }
+    }
+
+    private void estimateMemoryFootprint(MemoryFootprint footprint) {
+        if (!(keyMapper instanceof KeyMapper)) {
+            return;
+        }
+        int size = ((KeyMapper<T>) keyMapper).size();
+        // Both directions of the mapping and a short numeric key per item,
+        // the items themselves belong to the data provider
+        footprint.add(KEY_MAPPER_FOOTPRINT_CATEGORY, size,
+                2 * MemoryFootprintUtil.hashMapSize(size)
+                        + size * MemoryFootprintUtil.stringSize("1000")
+                        + MemoryFootprintUtil
+                                .arrayListSize(activeKeyOrder.size()));
     }
 
     private void requestFlush() {
@@ -380,7 +380,11 @@ public interface InMemoryDataProvider<T> extends
      */
     default <V> DataProvider<T, V> filteringByEquals(
             ValueProvider<T, V> valueProvider) {
-        return filteringBy(valueProvider, Objects::equals);
+        Objects.requireNonNull(valueProvider, "Value provider cannot be null");
+
+        return withConvertedFilter(
+                filterValue -> InMemoryDataProviderHelpers
+                        .createEqualsFilter(valueProvider, filterValue));
     }
 
     /**
@@ -444,8 +448,11 @@ public interface InMemoryDataProvider<T> extends
      */
     default DataProvider<T, String> filteringByPrefix(
             ValueProvider<T, String> valueProvider, Locale locale) {
-        return InMemoryDataProviderHelpers.filteringByCaseInsensitiveString(this, valueProvider,
-                String::startsWith, () -> locale);
+        Objects.requireNonNull(valueProvider, "Value provider cannot be null");
+
+        return withConvertedFilter(filterValue -> InMemoryDataProviderHelpers
+                .createCaseInsensitivePrefixFilter(valueProvider, filterValue,
+                        () -> locale));
     }
 
     /**
@@ -464,7 +471,10 @@ public interface InMemoryDataProvider<T> extends
      */
     default DataProvider<T, String> filteringByPrefix(
             ValueProvider<T, String> valueProvider) {
-        return InMemoryDataProviderHelpers.filteringByCaseInsensitiveString(this, valueProvider,
-                String::startsWith, InMemoryDataProviderHelpers.CURRENT_LOCALE_SUPPLIER);
+        Objects.requireNonNull(valueProvider, "Value provider cannot be null");
+
+        return withConvertedFilter(filterValue -> InMemoryDataProviderHelpers
+                .createCaseInsensitivePrefixFilter(valueProvider, filterValue,
+                        InMemoryDataProviderHelpers.CURRENT_LOCALE_SUPPLIER));
     }
 }
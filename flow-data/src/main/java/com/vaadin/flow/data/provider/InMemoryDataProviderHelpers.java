@@ -15,6 +15,7 @@
  */
 package com.vaadin.flow.data.provider;
 
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.Locale;
 import java.util.Objects;
@@ -206,6 +207,142 @@ public class InMemoryDataProviderHelpers {
             ValueProvider<T, V> valueProvider, V requiredValue) {
         Objects.requireNonNull(valueProvider, "Value provider cannot be null");
 
-        return item -> Objects.equals(valueProvider.apply(item), requiredValue);
+        return new ValueEqualsFilter<>(valueProvider, requiredValue);
+    }
+
+    /**
+     * Creates a predicate that checks whether the lower case representation of
+     * the value the given value provider obtains starts with the lower case
+     * representation of the given prefix. The predicate never passes if the
+     * value is <code>null</code>.
+     *
+     * @param valueProvider
+     *            the value provider to use
+     * @param prefix
+     *            the required prefix, not <code>null</code>
+     * @param localeSupplier
+     *            the locale to use when converting strings to lower case
+     * @param <T>
+     *            the data provider object type
+     * @return the created predicate
+     */
+    public static <T> SerializablePredicate<T> createCaseInsensitivePrefixFilter(
+            ValueProvider<T, String> valueProvider, String prefix,
+            SerializableSupplier<Locale> localeSupplier) {
+        Objects.requireNonNull(valueProvider, "Value provider cannot be null");
+
+        return new CaseInsensitivePrefixFilter<>(valueProvider, prefix,
+                localeSupplier);
+    }
+
+    /**
+     * Checks whether the given collection still contains the same item
+     * instances in the same order as the given snapshot of it.
+     *
+     * @param collection
+     *            the collection to check, not <code>null</code>
+     * @param snapshot
+     *            the items of the collection when the snapshot was taken, not
+     *            <code>null</code>
+     * @return <code>true</code> if the collection has the same items,
+     *         <code>false</code> if items have been added, removed, replaced
+     *         or moved
+     */
+    static boolean hasSameItems(Collection<?> collection, Object[] snapshot) {
+        if (collection.size() != snapshot.length) {
+            return false;
+        }
+        int i = 0;
+        for (Object item : collection) {
+            if (i == snapshot.length || item != snapshot[i++]) {
+                return false;
+            }
+        }
+        return i == snapshot.length;
+    }
+
+    /**
+     * Equality filter which can be answered using an index, see
+     * {@link ListDataProvider#addValueIndex(ValueProvider)}.
+     */
+    static class ValueEqualsFilter<T, V> implements SerializablePredicate<T> {
+        final ValueProvider<T, V> valueProvider;
+        final V requiredValue;
+
+        ValueEqualsFilter(ValueProvider<T, V> valueProvider, V requiredValue) {
+            this.valueProvider = valueProvider;
+            this.requiredValue = requiredValue;
+        }
+
+        @Override
+        public boolean test(T item) {
+            return Objects.equals(valueProvider.apply(item), requiredValue);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ValueEqualsFilter)) {
+                return false;
+            }
+            ValueEqualsFilter<?, ?> other = (ValueEqualsFilter<?, ?>) obj;
+            return valueProvider == other.valueProvider
+                    && Objects.equals(requiredValue, other.requiredValue);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(valueProvider, requiredValue);
+        }
+    }
+
+    /**
+     * Case insensitive prefix filter which can be answered using an index, see
+     * {@link ListDataProvider#addPrefixIndex(ValueProvider, Locale)}.
+     */
+    static class CaseInsensitivePrefixFilter<T>
+            implements SerializablePredicate<T> {
+        final ValueProvider<T, String> valueProvider;
+        final String prefix;
+        final SerializableSupplier<Locale> localeSupplier;
+
+        CaseInsensitivePrefixFilter(ValueProvider<T, String> valueProvider,
+                String prefix, SerializableSupplier<Locale> localeSupplier) {
+            this.valueProvider = valueProvider;
+            this.prefix = prefix;
+            this.localeSupplier = localeSupplier;
+        }
+
+        @Override
+        public boolean test(T item) {
+            String value = valueProvider.apply(item);
+            if (value == null) {
+                return false;
+            }
+            Locale locale = localeSupplier.get();
+            assert locale != null;
+
+            return value.toLowerCase(locale)
+                    .startsWith(prefix.toLowerCase(locale));
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof CaseInsensitivePrefixFilter)) {
+                return false;
+            }
+            CaseInsensitivePrefixFilter<?> other = (CaseInsensitivePrefixFilter<?>) obj;
+            // The locale supplier is typically a new lambda for each filter,
+            // so compare the locales it currently gives
+            return valueProvider == other.valueProvider
+                    && Objects.equals(prefix, other.prefix)
+                    && (localeSupplier == other.localeSupplier
+                            || Objects.equals(localeSupplier.get(),
+                                    other.localeSupplier.get()));
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(valueProvider, prefix);
+        }
     }
 }
@@ -0,0 +1,352 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.data.provider;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.vaadin.flow.data.provider.InMemoryDataProviderHelpers.CaseInsensitivePrefixFilter;
+import com.vaadin.flow.data.provider.InMemoryDataProviderHelpers.ValueEqualsFilter;
+import com.vaadin.flow.function.ValueProvider;
+
+/**
+ * Secondary indexes of the items of a {@link ListDataProvider}.
+ * <p>
+ * The indexes refer to items by their position in the backing collection, so
+ * that the items found using an index are in the same order as when streaming
+ * the collection. The indexed data is built lazily when an index is first
+ * used and rebuilt after {@link #invalidate()} or when the backing collection
+ * no longer contains the same item instances in the same order, e.g. after an
+ * item has been replaced or the collection has been sorted in place. A single
+ * refreshed item is reindexed without rebuilding the indexes, see
+ * {@link #refreshItem(Object)}.
+ * <p>
+ * The indexes are synchronized since a data provider may be queried from
+ * several threads.
+ *
+ * @param <T>
+ *            the item type
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+class ItemIndexes<T> implements Serializable {
+
+    private final Collection<T> backend;
+
+    private final List<Index<T, ?>> indexes = new ArrayList<>();
+
+    private transient Object[] items;
+    private transient Map<T, Integer> positions;
+    private transient boolean duplicates;
+
+    /**
+     * Index of the items by a key derived from a property value.
+     *
+     * @param <K>
+     *            the key type
+     */
+    private abstract static class Index<T, K> implements Serializable {
+        transient Map<K, List<Integer>> positionsByKey;
+        private transient Object[] keys;
+
+        abstract K getKey(T item);
+
+        abstract Map<K, List<Integer>> createMap();
+
+        void build(Object[] items) {
+            positionsByKey = createMap();
+            keys = new Object[items.length];
+            for (int i = 0; i < items.length; i++) {
+                @SuppressWarnings("unchecked")
+                K key = getKey((T) items[i]);
+                keys[i] = key;
+                if (key != null) {
+                    positionsByKey.computeIfAbsent(key, k -> new ArrayList<>())
+                            .add(i);
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void update(int position, T item) {
+            K oldKey = (K) keys[position];
+            K newKey = getKey(item);
+            if (Objects.equals(oldKey, newKey)) {
+                return;
+            }
+            if (oldKey != null) {
+                List<Integer> list = positionsByKey.get(oldKey);
+                list.remove(Collections.binarySearch(list, position));
+                if (list.isEmpty()) {
+                    positionsByKey.remove(oldKey);
+                }
+            }
+            if (newKey != null) {
+                List<Integer> list = positionsByKey.computeIfAbsent(newKey,
+                        k -> new ArrayList<>());
+                // Keep positions sorted to preserve the collection order
+                list.add(-Collections.binarySearch(list, position) - 1,
+                        position);
+            }
+            keys[position] = newKey;
+        }
+
+        boolean isBuilt() {
+            return positionsByKey != null;
+        }
+
+        void clear() {
+            positionsByKey = null;
+            keys = null;
+        }
+    }
+
+    private static class ValueIndex<T, V> extends Index<T, V> {
+        private final ValueProvider<T, V> valueProvider;
+
+        private ValueIndex(ValueProvider<T, V> valueProvider) {
+            this.valueProvider = valueProvider;
+        }
+
+        @Override
+        V getKey(T item) {
+            return valueProvider.apply(item);
+        }
+
+        @Override
+        Map<V, List<Integer>> createMap() {
+            return new HashMap<>();
+        }
+
+        int[] find(Object value) {
+            List<Integer> list = value == null ? null
+                    : positionsByKey.get(value);
+            if (list == null) {
+                if (value == null) {
+                    // Null values are not indexed
+                    return null;
+                }
+                return new int[0];
+            }
+            return list.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    private static class PrefixIndex<T> extends Index<T, String> {
+        private final ValueProvider<T, String> valueProvider;
+        private final Locale locale;
+
+        private PrefixIndex(ValueProvider<T, String> valueProvider,
+                Locale locale) {
+            this.valueProvider = valueProvider;
+            this.locale = locale;
+        }
+
+        @Override
+        String getKey(T item) {
+            String value = valueProvider.apply(item);
+            return value == null ? null : value.toLowerCase(locale);
+        }
+
+        @Override
+        Map<String, List<Integer>> createMap() {
+            return new TreeMap<>();
+        }
+
+        int[] find(String prefix) {
+            String lowerCasePrefix = prefix.toLowerCase(locale);
+            List<Integer> found = new ArrayList<>();
+            for (Entry<String, List<Integer>> entry : ((NavigableMap<String, List<Integer>>) positionsByKey)
+                    .tailMap(lowerCasePrefix, true).entrySet()) {
+                if (!entry.getKey().startsWith(lowerCasePrefix)) {
+                    break;
+                }
+                found.addAll(entry.getValue());
+            }
+            int[] positions = found.stream().mapToInt(Integer::intValue)
+                    .toArray();
+            Arrays.sort(positions);
+            return positions;
+        }
+    }
+
+    /**
+     * Creates indexes for the given collection.
+     *
+     * @param backend
+     *            the backing collection of the data provider
+     */
+    ItemIndexes(Collection<T> backend) {
+        this.backend = backend;
+    }
+
+    /**
+     * Adds an index of the values of the given value provider.
+     *
+     * @param valueProvider
+     *            the value provider, not <code>null</code>
+     */
+    synchronized <V> void addValueIndex(ValueProvider<T, V> valueProvider) {
+        indexes.add(new ValueIndex<>(valueProvider));
+    }
+
+    /**
+     * Adds an index of the lower case values of the given value provider.
+     *
+     * @param valueProvider
+     *            the value provider, not <code>null</code>
+     * @param locale
+     *            the locale used to convert values to lower case, not
+     *            <code>null</code>
+     */
+    synchronized void addPrefixIndex(ValueProvider<T, String> valueProvider,
+            Locale locale) {
+        indexes.add(new PrefixIndex<>(valueProvider, locale));
+    }
+
+    /**
+     * Discards all indexed data, so that the indexes are built again when
+     * used next time.
+     */
+    synchronized void invalidate() {
+        items = null;
+        positions = null;
+        duplicates = false;
+        indexes.forEach(Index::clear);
+    }
+
+    /**
+     * Reindexes the given item after its property values have changed. All
+     * indexes are discarded if the item is not found.
+     *
+     * @param item
+     *            the refreshed item
+     */
+    synchronized void refreshItem(T item) {
+        if (items == null) {
+            return;
+        }
+        Integer position = positions.get(item);
+        if (position == null || duplicates) {
+            invalidate();
+            return;
+        }
+        // The refreshed item may be a new instance equal to the indexed one
+        items[position] = item;
+        if (!InMemoryDataProviderHelpers.hasSameItems(backend, items)) {
+            invalidate();
+            return;
+        }
+        indexes.stream().filter(Index::isBuilt)
+                .forEach(index -> index.update(position, item));
+    }
+
+    /**
+     * Finds the items which may pass the given filters using the indexes.
+     * The returned stream contains the items in the order of the backing
+     * collection, but the filters must still be applied to it.
+     *
+     * @param filters
+     *            the filters to find an index for, <code>null</code> values
+     *            are ignored
+     * @return a stream of the candidate items, or <code>null</code> if no
+     *         index can be used for any of the filters
+     */
+    @SafeVarargs
+    final synchronized Stream<T> findCandidates(Predicate<T>... filters) {
+        if (indexes.isEmpty()) {
+            return null;
+        }
+        if (items != null
+                && !InMemoryDataProviderHelpers.hasSameItems(backend, items)) {
+            invalidate();
+        }
+        int[] candidates = null;
+        for (Predicate<T> filter : filters) {
+            int[] found = find(filter);
+            if (found != null
+                    && (candidates == null || found.length < candidates.length)) {
+                candidates = found;
+            }
+        }
+        if (candidates == null) {
+            return null;
+        }
+        Object[] snapshot = items;
+        @SuppressWarnings("unchecked")
+        Stream<T> stream = IntStream.of(candidates)
+                .mapToObj(position -> (T) snapshot[position]);
+        return stream;
+    }
+
+    private int[] find(Predicate<T> filter) {
+        if (filter instanceof ValueEqualsFilter) {
+            ValueEqualsFilter<T, ?> equalsFilter = (ValueEqualsFilter<T, ?>) filter;
+            for (Index<T, ?> index : indexes) {
+                if (index instanceof ValueIndex
+                        && ((ValueIndex<T, ?>) index).valueProvider == equalsFilter.valueProvider) {
+                    return ((ValueIndex<T, ?>) ensureBuilt(index))
+                            .find(equalsFilter.requiredValue);
+                }
+            }
+        } else if (filter instanceof CaseInsensitivePrefixFilter) {
+            CaseInsensitivePrefixFilter<T> prefixFilter = (CaseInsensitivePrefixFilter<T>) filter;
+            for (Index<T, ?> index : indexes) {
+                if (index instanceof PrefixIndex
+                        && ((PrefixIndex<T>) index).valueProvider == prefixFilter.valueProvider
+                        && ((PrefixIndex<T>) index).locale
+                                .equals(prefixFilter.localeSupplier.get())) {
+                    return ((PrefixIndex<T>) ensureBuilt(index))
+                            .find(prefixFilter.prefix);
+                }
+            }
+        }
+        return null;
+    }
+
+    private Index<T, ?> ensureBuilt(Index<T, ?> index) {
+        if (items == null) {
+            items = backend.toArray();
+            positions = new HashMap<>(items.length * 4 / 3 + 1);
+            for (int i = 0; i < items.length; i++) {
+                @SuppressWarnings("unchecked")
+                T item = (T) items[i];
+                if (positions.putIfAbsent(item, i) != null) {
+                    // Can't tell which of the equal items is refreshed
+                    duplicates = true;
+                }
+            }
+        }
+        if (!index.isBuilt()) {
+            index.build(items);
+        }
+        return index;
+    }
+}
@@ -153,6 +153,15 @@ public class KeyMapper<V> implements DataKeyMapper<V> {
         return keyObjectMap.containsKey(key);
     }
 
+    /**
+     * Gets the number of objects currently mapped to a key.
+     *
+     * @return the number of mapped objects
+     */
+    public int size() {
+        return keyObjectMap.size();
+    }
+
     @Override
     public void refresh(V dataObject) {
         Object id = identifierGetter.apply(dataObject);
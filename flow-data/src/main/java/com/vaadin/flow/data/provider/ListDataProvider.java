@@ -15,17 +15,42 @@
  */
 package com.vaadin.flow.data.provider;
 
+import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Stream;
 
 import com.vaadin.flow.function.SerializableComparator;
 import com.vaadin.flow.function.SerializablePredicate;
+import com.vaadin.flow.function.ValueProvider;
 
 /**
  * {@link DataProvider} wrapper for {@link Collection}s.
+ * <p>
+ * When the same combination of filters and sort order is queried repeatedly,
+ * e.g. while scrolling a grid, the filtered and sorted items are kept in a
+ * cached view so that each page is answered by slicing the view instead of
+ * filtering and sorting the whole collection again. Filters and comparators
+ * are compared using {@code equals}, so a new instance of a filter created by
+ * e.g. {@link #filteringByEquals(ValueProvider)} for each query still uses the
+ * cached view, whereas lambdas only match the same instance.
+ * <p>
+ * The cached view is discarded by {@link #refreshAll()} and
+ * {@link #refreshItem(Object)}, which must be called after changing the
+ * backing collection or an item anyway for the changes to be shown. As a
+ * safeguard, the view is also rebuilt if the size of the backing collection
+ * has changed, but an item replaced or reordered in place is only noticed
+ * after a refresh.
+ * <p>
+ * The cached view and the indexes may be used from several threads, e.g. when
+ * the same data provider is used in several UIs. The backing collection must
+ * not be modified while it is being queried, as with any collection which is
+ * not thread safe.
  *
  * @param <T>
  *            data type
@@ -40,6 +65,74 @@ public class ListDataProvider<T>
 
     private final Collection<T> backend;
 
+    private int parallelSortThreshold = Integer.MAX_VALUE;
+
+    private transient volatile CachedView<T> cachedView;
+
+    private ItemIndexes<T> indexes;
+
+    /**
+     * Whether {@link #refreshAll()} is called because the filter or the sort
+     * order has changed, in which case the items and thus the indexes are
+     * still the same.
+     */
+    private transient boolean itemsUnchanged;
+
+    /**
+     * Filtered and sorted items for one combination of filters and sort
+     * order. The view is built only when a key is queried for the second
+     * time, so that a one-off query stays as lazy as streaming the backing
+     * collection.
+     */
+    private static class CachedView<T> implements Serializable {
+        private final SerializablePredicate<T> filter;
+        private final SerializablePredicate<T> queryFilter;
+        private final Comparator<T> sortOrder;
+        private final Comparator<T> querySorting;
+        private volatile Snapshot<T> snapshot;
+
+        private CachedView(SerializablePredicate<T> filter,
+                SerializablePredicate<T> queryFilter, Comparator<T> sortOrder,
+                Comparator<T> querySorting) {
+            this.filter = filter;
+            this.queryFilter = queryFilter;
+            this.sortOrder = sortOrder;
+            this.querySorting = querySorting;
+        }
+
+        private boolean matches(SerializablePredicate<T> filter,
+                SerializablePredicate<T> queryFilter, Comparator<T> sortOrder,
+                Comparator<T> querySorting) {
+            return matchesFilters(filter, queryFilter)
+                    && Objects.equals(this.sortOrder, sortOrder)
+                    && Objects.equals(this.querySorting, querySorting);
+        }
+
+        private boolean matchesFilters(SerializablePredicate<T> filter,
+                SerializablePredicate<T> queryFilter) {
+            return Objects.equals(this.filter, filter)
+                    && Objects.equals(this.queryFilter, queryFilter);
+        }
+    }
+
+    /**
+     * The items of a cached view together with the size of the backing
+     * collection they were built from.
+     */
+    private static class Snapshot<T> implements Serializable {
+        private final int backendSize;
+        private final List<T> items;
+
+        private Snapshot(int backendSize, List<T> items) {
+            this.backendSize = backendSize;
+            this.items = items;
+        }
+
+        private boolean isValid(Collection<T> backend) {
+            return backend.size() == backendSize;
+        }
+    }
+
     /**
      * Constructs a new ListDataProvider.
      * <p>
@@ -67,12 +160,17 @@ public class ListDataProvider<T>
 
     @Override
     public Stream<T> fetch(Query<T, SerializablePredicate<T>> query) {
+        List<T> view = getCachedView(query);
+        if (view != null) {
+            int from = Math.min(query.getOffset(), view.size());
+            int to = (int) Math.min((long) from + query.getLimit(),
+                    view.size());
+            return view.subList(from, to).stream();
+        }
+
         Stream<T> stream = getFilteredStream(query);
 
-        Optional<Comparator<T>> comparing = Stream
-                .of(query.getInMemorySorting(), sortOrder)
-                .filter(Objects::nonNull)
-                .reduce((c1, c2) -> c1.thenComparing(c2));
+        Optional<Comparator<T>> comparing = getComparator(query);
 
         if (comparing.isPresent()) {
             stream = stream.sorted(comparing.get());
@@ -83,12 +181,181 @@ public class ListDataProvider<T>
 
     @Override
     public int size(Query<T, SerializablePredicate<T>> query) {
+        CachedView<T> view = cachedView;
+        Snapshot<T> snapshot = view == null ? null : view.snapshot;
+        if (snapshot != null
+                && view.matchesFilters(filter, query.getFilter().orElse(null))
+                && snapshot.isValid(backend)) {
+            // Sorting doesn't affect the size
+            return snapshot.items.size();
+        }
         return (int) getFilteredStream(query).count();
     }
 
+    /**
+     * Gets the filtered and sorted items for the given query if the same
+     * filters and sort order have been queried before, building the view if
+     * needed.
+     *
+     * @return the cached view, or <code>null</code> if the query should be
+     *         answered by streaming the backing collection
+     */
+    private List<T> getCachedView(Query<T, SerializablePredicate<T>> query) {
+        SerializablePredicate<T> queryFilter = query.getFilter().orElse(null);
+        Comparator<T> querySorting = query.getInMemorySorting();
+
+        CachedView<T> view = cachedView;
+        if (view == null || !view.matches(filter, queryFilter, sortOrder,
+                querySorting)) {
+            cachedView = new CachedView<>(filter, queryFilter, sortOrder,
+                    querySorting);
+            return null;
+        }
+        Snapshot<T> snapshot = view.snapshot;
+        if (snapshot == null || !snapshot.isValid(backend)) {
+            // Concurrent queries may build the same view, the last one wins
+            snapshot = new Snapshot<>(backend.size(), buildView(query));
+            view.snapshot = snapshot;
+        }
+        return snapshot.items;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> buildView(Query<T, SerializablePredicate<T>> query) {
+        T[] items = (T[]) getFilteredStream(query).toArray();
+        Optional<Comparator<T>> comparing = getComparator(query);
+        if (comparing.isPresent()) {
+            if (items.length >= parallelSortThreshold) {
+                Arrays.parallelSort(items, comparing.get());
+            } else {
+                Arrays.sort(items, comparing.get());
+            }
+        }
+        return Arrays.asList(items);
+    }
+
+    private Optional<Comparator<T>> getComparator(
+            Query<T, SerializablePredicate<T>> query) {
+        return Stream.of(query.getInMemorySorting(), sortOrder)
+                .filter(Objects::nonNull)
+                .reduce((c1, c2) -> c1.thenComparing(c2));
+    }
+
+    @Override
+    public void refreshAll() {
+        cachedView = null;
+        if (indexes != null && !itemsUnchanged) {
+            indexes.invalidate();
+        }
+        super.refreshAll();
+    }
+
+    @Override
+    public void refreshItem(T item) {
+        // The item may now be filtered or sorted differently
+        cachedView = null;
+        if (indexes != null) {
+            indexes.refreshItem(item);
+        }
+        super.refreshItem(item);
+    }
+
+    /**
+     * Adds an index of the values of the given value provider. The index is
+     * used instead of testing every item when the filter of this data provider
+     * or the filter of a query is an equality filter using the same value
+     * provider instance, as created by e.g.
+     * {@link #setFilterByValue(ValueProvider, Object)} or
+     * {@link #filteringByEquals(ValueProvider)}.
+     * <p>
+     * Note that the same value provider instance must be used for the index
+     * and the filters: each evaluation of a method reference like
+     * {@code Person::getCity} creates a new instance, so the value provider
+     * should be stored e.g. in a constant.
+     * <p>
+     * The index is built when it is first used and updated incrementally by
+     * {@link #refreshItem(Object)}.
+     *
+     * @param valueProvider
+     *            the value provider of the indexed values, not
+     *            <code>null</code>
+     * @param <V>
+     *            the value type
+     */
+    public <V> void addValueIndex(ValueProvider<T, V> valueProvider) {
+        Objects.requireNonNull(valueProvider, "Value provider cannot be null");
+        getIndexes().addValueIndex(valueProvider);
+    }
+
+    /**
+     * Adds an index of the lower case values of the given value provider. The
+     * index is used instead of testing every item when the filter of this data
+     * provider or the filter of a query is a case insensitive prefix filter
+     * using the same value provider instance and a locale equal to the given
+     * one, as created by e.g.
+     * {@link #filteringByPrefix(ValueProvider, Locale)}.
+     * <p>
+     * The same value provider instance must be used for the index and the
+     * filters, see {@link #addValueIndex(ValueProvider)}.
+     *
+     * @param valueProvider
+     *            the value provider of the indexed strings, not
+     *            <code>null</code>
+     * @param locale
+     *            the locale used to convert the strings to lower case, not
+     *            <code>null</code>
+     */
+    public void addPrefixIndex(ValueProvider<T, String> valueProvider,
+            Locale locale) {
+        Objects.requireNonNull(valueProvider, "Value provider cannot be null");
+        Objects.requireNonNull(locale, "Locale cannot be null");
+        getIndexes().addPrefixIndex(valueProvider, locale);
+    }
+
+    private ItemIndexes<T> getIndexes() {
+        if (indexes == null) {
+            indexes = new ItemIndexes<>(backend);
+        }
+        return indexes;
+    }
+
+    /**
+     * Sets the number of items from which the cached view of the items is
+     * sorted in parallel using {@link Arrays#parallelSort(Object[],
+     * Comparator)}. By default items are never sorted in parallel.
+     * <p>
+     * Parallel sorting uses the common fork-join pool, so the comparator must
+     * not rely on the current thread, e.g. by using
+     * {@link com.vaadin.flow.component.UI#getCurrent()}.
+     *
+     * @param parallelSortThreshold
+     *            the minimum number of items to sort in parallel
+     */
+    public void setParallelSortThreshold(int parallelSortThreshold) {
+        this.parallelSortThreshold = parallelSortThreshold;
+    }
+
+    /**
+     * Gets the number of items from which the cached view of the items is
+     * sorted in parallel.
+     *
+     * @return the minimum number of items to sort in parallel
+     * @see #setParallelSortThreshold(int)
+     */
+    public int getParallelSortThreshold() {
+        return parallelSortThreshold;
+    }
+
     private Stream<T> getFilteredStream(
             Query<T, SerializablePredicate<T>> query) {
-        Stream<T> stream = backend.stream();
+        Stream<T> stream = null;
+        if (indexes != null) {
+            stream = indexes.findCandidates(filter,
+                    query.getFilter().orElse(null));
+        }
+        if (stream == null) {
+            stream = backend.stream();
+        }
 
         // Apply our own filters first so that query filters never see the items
         // that would already have been filtered out
@@ -109,7 +376,7 @@ public class ListDataProvider<T>
     @Override
     public void setSortComparator(SerializableComparator<T> comparator) {
         this.sortOrder = comparator;
-        refreshAll();
+        refreshAllItemsUnchanged();
     }
 
     @Override
@@ -120,6 +387,15 @@ public class ListDataProvider<T>
     @Override
     public void setFilter(SerializablePredicate<T> filter) {
         this.filter = filter;
-        refreshAll();
+        refreshAllItemsUnchanged();
+    }
+
+    private void refreshAllItemsUnchanged() {
+        itemsUnchanged = true;
+        try {
+            refreshAll();
+        } finally {
+            itemsUnchanged = false;
+        }
     }
 }
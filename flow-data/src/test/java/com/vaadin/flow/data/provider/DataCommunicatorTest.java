@@ -38,6 +38,7 @@ import com.vaadin.flow.internal.Range;
 import com.vaadin.flow.server.VaadinRequest;
 import com.vaadin.flow.server.VaadinService;
 import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.server.metrics.MemoryFootprint;
 
 import elemental.json.JsonValue;
 
@@ -342,6 +343,23 @@ public class DataCommunicatorTest {
         Mockito.verify(dataProvider, Mockito.times(1)).fetch(Mockito.any());
     }
 
+    @Test
+    public void memoryFootprint_keyMapperReportedWhileAttached() {
+        dataCommunicator.setDataProvider(createDataProvider(), null);
+        dataCommunicator.setRequestedRange(0, 50);
+        fakeClientCommunication();
+
+        MemoryFootprint footprint = MemoryFootprint.estimate(ui);
+        Assert.assertEquals(50, footprint
+                .getCount(DataCommunicator.KEY_MAPPER_FOOTPRINT_CATEGORY));
+        Assert.assertTrue(footprint.getEstimatedBytes(
+                DataCommunicator.KEY_MAPPER_FOOTPRINT_CATEGORY) > 0);
+
+        element.removeFromParent();
+        Assert.assertEquals(0, MemoryFootprint.estimate(ui)
+                .getCount(DataCommunicator.KEY_MAPPER_FOOTPRINT_CATEGORY));
+    }
+
     private void fakeClientCommunication() {
         ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
         ui.getInternals().getStateTree().collectChanges(ignore -> {
@@ -15,16 +15,24 @@
  */
 package com.vaadin.flow.data.provider;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.SerializationUtils;
 import org.junit.Assert;
 import org.junit.Test;
+import org.slf4j.LoggerFactory;
 
 import com.vaadin.flow.function.SerializableComparator;
+import com.vaadin.flow.function.SerializablePredicate;
+import com.vaadin.flow.function.ValueProvider;
 
 public class ListDataProviderTest
         extends DataProviderTestBase<ListDataProvider<StrBean>> {
@@ -232,6 +240,318 @@ public class ListDataProviderTest
         assertSizeWithFilter(0, filteringBy, "oo");
     }
 
+    @Test
+    public void fetchSameQueryRepeatedly_itemsFilteredAndSortedOnlyOnce() {
+        ListDataProvider<StrBean> dataProvider = getDataProvider();
+        AtomicInteger filterCalls = new AtomicInteger();
+        SerializablePredicate<StrBean> filter = bean -> {
+            filterCalls.incrementAndGet();
+            return bean.getId() % 2 == 0;
+        };
+        dataProvider.setFilter(filter);
+        dataProvider.setSortOrder(StrBean::getId, SortDirection.DESCENDING);
+
+        // The first query is streamed, the second one builds the view
+        List<Integer> all = new ArrayList<>();
+        for (int offset = 0; offset < 60; offset += 10) {
+            dataProvider.fetch(new Query<>(offset, 10, null, null, null))
+                    .map(StrBean::getId).forEach(all::add);
+        }
+        Assert.assertEquals(51, dataProvider.size(new Query<>()));
+
+        Assert.assertEquals(2 * data.size(), filterCalls.get());
+        Assert.assertEquals(51, all.size());
+        Assert.assertEquals(98, all.get(0).intValue());
+        Assert.assertEquals(0, all.get(50).intValue());
+    }
+
+    @Test
+    public void refreshAll_cachedViewDiscarded() {
+        ListDataProvider<StrBean> dataProvider = getDataProvider();
+        dataProvider.setSortOrder(StrBean::getId, SortDirection.ASCENDING);
+        dataProvider.fetch(new Query<>()).count();
+        dataProvider.fetch(new Query<>()).count();
+
+        StrBean replacement = new StrBean("Bar", -1, 0);
+        data.set(0, replacement);
+        dataProvider.refreshItem(replacement);
+        Assert.assertEquals(-1,
+                dataProvider.fetch(new Query<>()).findFirst().get().getId());
+
+        data.add(new StrBean("Bar", -2, 0));
+        dataProvider.refreshAll();
+        Assert.assertEquals(-2,
+                dataProvider.fetch(new Query<>()).findFirst().get().getId());
+        Assert.assertEquals(data.size(), dataProvider.size(new Query<>()));
+    }
+
+    @Test
+    public void setFilterAndSortComparator_overriddenRefreshAllCalled() {
+        AtomicInteger refreshes = new AtomicInteger();
+        ListDataProvider<StrBean> dataProvider = new ListDataProvider<StrBean>(
+                data) {
+            @Override
+            public void refreshAll() {
+                refreshes.incrementAndGet();
+                super.refreshAll();
+            }
+        };
+
+        dataProvider.setFilter(bean -> bean.getId() >= 0);
+        dataProvider.setSortComparator((a, b) -> 0);
+
+        Assert.assertEquals(2, refreshes.get());
+    }
+
+    @Test
+    public void itemAddedWithoutRefresh_cachedViewRebuilt() {
+        ListDataProvider<StrBean> dataProvider = getDataProvider();
+        SerializablePredicate<StrBean> filter = bean -> bean.getId() >= 0;
+        dataProvider.fetch(new Query<>(filter)).count();
+        dataProvider.fetch(new Query<>(filter)).count();
+        long expected = data.stream().filter(filter).count() + 1;
+
+        data.add(new StrBean("Added", 1000, 0));
+
+        Assert.assertEquals(expected,
+                dataProvider.fetch(new Query<>(filter)).count());
+        Assert.assertEquals(expected, dataProvider.size(new Query<>(filter)));
+    }
+
+    @Test
+    public void backingListChangedInPlaceAndRefreshed_cachedViewRebuilt() {
+        ListDataProvider<StrBean> dataProvider = getDataProvider();
+        SerializablePredicate<StrBean> filter = bean -> bean.getId() >= 0;
+        dataProvider.fetch(new Query<>(filter)).count();
+        dataProvider.fetch(new Query<>(filter)).count();
+
+        // Same size, so only the refresh tells about the change
+        StrBean replacement = new StrBean("Replaced", -1, 0);
+        StrBean replaced = data.set(0, replacement);
+        dataProvider.refreshAll();
+        List<StrBean> items = dataProvider.fetch(new Query<>(filter))
+                .collect(Collectors.toList());
+        Assert.assertFalse(items.contains(replaced));
+        Assert.assertEquals(data.size() - 1, items.size());
+        Assert.assertEquals(data.size() - 1,
+                dataProvider.size(new Query<>(filter)));
+
+        data.set(0, replaced);
+        Collections.reverse(data);
+        dataProvider.refreshItem(replaced);
+        Assert.assertEquals(data.stream().filter(filter)
+                .collect(Collectors.toList()),
+                dataProvider.fetch(new Query<>(filter))
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void equalQueryFilterInstances_cachedViewReused() {
+        AtomicInteger calls = new AtomicInteger();
+        ValueProvider<StrBean, String> value = bean -> {
+            calls.incrementAndGet();
+            return bean.getValue();
+        };
+        ListDataProvider<StrBean> dataProvider = getDataProvider();
+
+        // Like a filtering wrapper, creates a new filter for each query
+        for (int i = 0; i < 3; i++) {
+            dataProvider.fetch(new Query<>(InMemoryDataProviderHelpers
+                    .createEqualsFilter(value, "Foo"))).count();
+        }
+
+        // Streamed once and built once, the third query uses the view
+        Assert.assertEquals(2 * data.size(), calls.get());
+    }
+
+    @Test
+    public void differentQueryFilters_eachQueryFiltered() {
+        ListDataProvider<StrBean> dataProvider = getDataProvider();
+        dataProvider.fetch(new Query<>(fooFilter)).count();
+
+        Assert.assertEquals(
+                dataProvider.fetch(new Query<>()).count(),
+                data.size());
+        Assert.assertEquals(dataProvider.size(new Query<>(gt5Filter)),
+                data.stream().filter(gt5Filter).count());
+    }
+
+    @Test
+    public void parallelSort_sameResultAsSequentialSort() {
+        ListDataProvider<StrBean> dataProvider = getDataProvider();
+        dataProvider.setSortOrder(StrBean::getValue, SortDirection.ASCENDING);
+        dataProvider.addSortOrder(StrBean::getId, SortDirection.ASCENDING);
+        List<StrBean> expected = dataProvider.fetch(new Query<>())
+                .collect(Collectors.toList());
+
+        dataProvider.setParallelSortThreshold(10);
+        dataProvider.fetch(new Query<>()).count();
+        Assert.assertEquals(expected, dataProvider.fetch(new Query<>())
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void scrollLargeCollection_comparatorCallsIndependentOfPageCount() {
+        List<StrBean> items = StrBean.generateRandomBeans(200000);
+        ListDataProvider<StrBean> dataProvider = DataProvider
+                .ofCollection(items);
+        AtomicInteger comparisons = new AtomicInteger();
+        dataProvider.setSortComparator((bean1, bean2) -> {
+            comparisons.incrementAndGet();
+            return Integer.compare(bean1.getRandomNumber(),
+                    bean2.getRandomNumber());
+        });
+        SerializablePredicate<StrBean> filter = bean -> bean.getId() % 3 != 0;
+
+        // Warm up the view like the size query of a grid does
+        dataProvider.fetch(new Query<>(0, 50, null, null, filter)).count();
+        int oneSort = comparisons.getAndSet(0);
+
+        long start = System.nanoTime();
+        int previous = Integer.MIN_VALUE;
+        for (int offset = 0; offset < 20000; offset += 50) {
+            List<StrBean> page = dataProvider
+                    .fetch(new Query<>(offset, 50, null, null, filter))
+                    .collect(Collectors.toList());
+            Assert.assertEquals(50, page.size());
+            Assert.assertTrue(previous <= page.get(0).getRandomNumber());
+            previous = page.get(49).getRandomNumber();
+        }
+        long time = System.nanoTime() - start;
+
+        // 400 pages cost about a single sort instead of 400 sorts
+        Assert.assertTrue(comparisons.get() < oneSort * 2);
+        LoggerFactory.getLogger(ListDataProviderTest.class).debug(
+                "Fetched 400 pages of 200000 items in {} ms",
+                TimeUnit.NANOSECONDS.toMillis(time));
+    }
+
+    @Test
+    public void valueIndex_filterByValue_valuesNotTestedAgain() {
+        AtomicInteger calls = new AtomicInteger();
+        ValueProvider<StrBean, String> value = bean -> {
+            calls.incrementAndGet();
+            return bean.getValue();
+        };
+        ListDataProvider<StrBean> dataProvider = getDataProvider();
+        dataProvider.addValueIndex(value);
+
+        dataProvider.setFilterByValue(value, "Foo");
+        List<StrBean> foos = dataProvider.fetch(new Query<>())
+                .collect(Collectors.toList());
+        calls.set(0);
+
+        dataProvider.setFilterByValue(value, "Bar");
+        List<StrBean> bars = dataProvider.fetch(new Query<>())
+                .collect(Collectors.toList());
+
+        Assert.assertEquals(data.stream()
+                .filter(bean -> "Foo".equals(bean.getValue()))
+                .collect(Collectors.toList()), foos);
+        Assert.assertEquals(data.stream()
+                .filter(bean -> "Bar".equals(bean.getValue()))
+                .collect(Collectors.toList()), bars);
+        // Only the candidates are tested by the filter
+        Assert.assertEquals(bars.size(), calls.get());
+    }
+
+    @Test
+    public void prefixIndex_filteringByPrefix_sameResultAsWithoutIndex() {
+        ValueProvider<StrBean, String> value = StrBean::getValue;
+        DataProvider<StrBean, String> filtering = dataProvider
+                .filteringByPrefix(value, Locale.ENGLISH);
+        List<List<StrBean>> expected = new ArrayList<>();
+        for (String prefix : new String[] { "fo", "FO", "Xy", "oo", "" }) {
+            expected.add(filtering.fetch(new Query<>(prefix))
+                    .collect(Collectors.toList()));
+        }
+
+        dataProvider.addPrefixIndex(value, Locale.ENGLISH);
+
+        int i = 0;
+        for (String prefix : new String[] { "fo", "FO", "Xy", "oo", "" }) {
+            Assert.assertEquals(expected.get(i++), filtering
+                    .fetch(new Query<>(prefix)).collect(Collectors.toList()));
+        }
+        Assert.assertEquals(36, filtering.size(new Query<>("Fo")));
+    }
+
+    @Test
+    public void valueIndex_refreshItem_indexUpdated() {
+        ValueProvider<StrBean, String> value = StrBean::getValue;
+        ListDataProvider<StrBean> dataProvider = getDataProvider();
+        dataProvider.addValueIndex(value);
+        DataProvider<StrBean, String> filtering = dataProvider
+                .filteringByEquals(value);
+        long foos = filtering.size(new Query<>("Foo"));
+
+        StrBean bean = data.stream()
+                .filter(item -> "Foo".equals(item.getValue())).findFirst()
+                .get();
+        bean.setValue("Qux");
+        dataProvider.refreshItem(bean);
+
+        Assert.assertEquals(foos - 1, filtering.size(new Query<>("Foo")));
+        Assert.assertEquals(Collections.singletonList(bean), filtering
+                .fetch(new Query<>("Qux")).collect(Collectors.toList()));
+
+        StrBean added = new StrBean("Qux", 1000, 0);
+        data.add(0, added);
+        dataProvider.refreshAll();
+        Assert.assertEquals(Arrays.asList(added, bean), filtering
+                .fetch(new Query<>("Qux")).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void indexes_backingListChangedInPlace_indexesRebuilt() {
+        ValueProvider<StrBean, String> value = StrBean::getValue;
+        ListDataProvider<StrBean> dataProvider = getDataProvider();
+        dataProvider.addValueIndex(value);
+        dataProvider.addPrefixIndex(value, Locale.ENGLISH);
+        DataProvider<StrBean, String> byEquals = dataProvider
+                .filteringByEquals(value);
+        DataProvider<StrBean, String> byPrefix = dataProvider
+                .filteringByPrefix(value, Locale.ENGLISH);
+        Assert.assertEquals(0, byEquals.size(new Query<>("Qux")));
+        Assert.assertEquals(0, byPrefix.size(new Query<>("Qu")));
+
+        // Same size, so only the items themselves tell about the change
+        int index = data.indexOf(data.stream()
+                .filter(item -> "Foo".equals(item.getValue())).findFirst()
+                .get());
+        StrBean replacement = new StrBean("Qux", 1000, 0);
+        StrBean replaced = data.set(index, replacement);
+
+        Assert.assertEquals(Collections.singletonList(replacement), byEquals
+                .fetch(new Query<>("Qux")).collect(Collectors.toList()));
+        Assert.assertEquals(Collections.singletonList(replacement), byPrefix
+                .fetch(new Query<>("Qu")).collect(Collectors.toList()));
+        Assert.assertFalse(byEquals.fetch(new Query<>("Foo"))
+                .anyMatch(item -> item == replaced));
+
+        Collections.reverse(data);
+        Assert.assertEquals(
+                data.stream().filter(item -> "Foo".equals(item.getValue()))
+                        .collect(Collectors.toList()),
+                byEquals.fetch(new Query<>("Foo"))
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void valueIndex_providerAndQueryFilters_bothApplied() {
+        ValueProvider<StrBean, String> value = StrBean::getValue;
+        ListDataProvider<StrBean> dataProvider = getDataProvider();
+        dataProvider.addValueIndex(value);
+        dataProvider.setFilter(gt5Filter);
+
+        List<StrBean> result = dataProvider.filteringByEquals(value)
+                .fetch(new Query<>("Foo")).collect(Collectors.toList());
+
+        Assert.assertEquals(data.stream().filter(gt5Filter)
+                .filter(bean -> "Foo".equals(bean.getValue()))
+                .collect(Collectors.toList()), result);
+    }
+
     @Override
     protected void setSortOrder(List<QuerySortOrder> sortOrder,
             Comparator<StrBean> comp) {
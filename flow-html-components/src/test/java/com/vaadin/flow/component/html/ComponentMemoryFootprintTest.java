@@ -0,0 +1,118 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.html;
+
+import java.util.function.Supplier;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.StaticFragment;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.metrics.MemoryFootprint;
+
+/**
+ * Tracks the estimated memory footprint of typical components across
+ * releases. Update the baselines when a change intentionally makes a component
+ * smaller, and explain any increase.
+ */
+public class ComponentMemoryFootprintTest {
+
+    private static final int COMPONENTS = 1000;
+
+    private static final long DIV_BYTES = 260;
+    private static final long SPAN_WITH_TEXT_BYTES = 452;
+    private static final long INPUT_BYTES = 972;
+    private static final long NATIVE_BUTTON_BYTES = 1300;
+    private static final long ANCHOR_BYTES = 628;
+    // The same static markup as a component tree and as a shared fragment
+    private static final long HELP_TEXT_TREE_BYTES = 3060;
+    private static final long HELP_TEXT_FRAGMENT_BYTES = 572;
+
+    @Test
+    public void div() {
+        assertBytesPerComponent(DIV_BYTES, Div::new);
+    }
+
+    @Test
+    public void spanWithText() {
+        assertBytesPerComponent(SPAN_WITH_TEXT_BYTES, () -> new Span("Text"));
+    }
+
+    @Test
+    public void input() {
+        assertBytesPerComponent(INPUT_BYTES, () -> {
+            Input input = new Input();
+            input.setPlaceholder("Placeholder");
+            return input;
+        });
+    }
+
+    @Test
+    public void nativeButtonWithClickListener() {
+        assertBytesPerComponent(NATIVE_BUTTON_BYTES, () -> new NativeButton(
+                "Click", event -> {
+                }));
+    }
+
+    @Test
+    public void anchor() {
+        assertBytesPerComponent(ANCHOR_BYTES,
+                () -> new Anchor("https://vaadin.com", "Vaadin"));
+    }
+
+    @Test
+    public void staticHelpText() {
+        assertBytesPerComponent(HELP_TEXT_TREE_BYTES,
+                ComponentMemoryFootprintTest::createHelpText);
+    }
+
+    @Test
+    public void staticHelpTextFragment() {
+        StaticFragment fragment = StaticFragment
+                .fromElement(createHelpText().getElement());
+        assertBytesPerComponent(HELP_TEXT_FRAGMENT_BYTES, fragment::create);
+    }
+
+    private static Component createHelpText() {
+        Div help = new Div(new H3("Getting started"),
+                new Paragraph(new Span("Select an item in the list "),
+                        new Emphasis("to edit it"), new Span(".")),
+                new Paragraph("Changes are saved automatically."));
+        help.addClassName("help");
+        return help;
+    }
+
+    private static void assertBytesPerComponent(long baseline,
+            Supplier<Component> factory) {
+        long bytesPerComponent = getBytesPerComponent(factory);
+
+        Assert.assertTrue(
+                "Estimated " + bytesPerComponent + " bytes per component",
+                bytesPerComponent <= baseline);
+    }
+
+    private static long getBytesPerComponent(Supplier<Component> factory) {
+        UI ui = new UI();
+        long empty = MemoryFootprint.estimate(ui).getEstimatedBytes();
+        for (int i = 0; i < COMPONENTS; i++) {
+            ui.add(factory.get());
+        }
+        return (MemoryFootprint.estimate(ui).getEstimatedBytes() - empty)
+                / COMPONENTS;
+    }
+}
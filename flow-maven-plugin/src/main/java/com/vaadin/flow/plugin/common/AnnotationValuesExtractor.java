@@ -16,15 +16,16 @@
 
 package com.vaadin.flow.plugin.common;
 
+import java.io.File;
 import java.lang.annotation.Annotation;
 import java.net.URL;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
- * Collects annotation values from all classes or jars specified.
+ * Collects annotation values from all classes or jars specified. The values are
+ * read from the class files, so the annotated classes are not loaded.
  *
  * @author Vaadin Ltd
  * @since 1.0.
@@ -42,6 +43,21 @@ public class AnnotationValuesExtractor extends ClassPathIntrospector {
         super(projectClassesLocations);
     }
 
+    /**
+     * Prepares the class to extract annotations from the project classes
+     * specified, caching the annotations found in jars in the given file.
+     *
+     * @param annotationCacheFile
+     *            the file to cache the annotations found in jars in between
+     *            builds, or {@code null} to not use a cache
+     * @param projectClassesLocations
+     *            urls to project class locations (directories, jars etc.)
+     */
+    public AnnotationValuesExtractor(File annotationCacheFile,
+            URL... projectClassesLocations) {
+        super(annotationCacheFile, projectClassesLocations);
+    }
+
     /**
      * Extracts annotation values from the annotations. Each annotation value is
      * retrieved by calling a method by name specified.
@@ -67,17 +83,9 @@ public class AnnotationValuesExtractor extends ClassPathIntrospector {
     private Set<String> getProjectAnnotationValues(
             Class<? extends Annotation> annotationClass,
             String valueGetterMethodName) {
-        Class<? extends Annotation> annotationInProjectContext = loadClassInProjectClassLoader(
-                annotationClass.getName());
-        Stream<Class<?>> concat = getAnnotatedClasses(
-                annotationInProjectContext);
-        return concat
-                .map(type -> type
-                        .getAnnotationsByType(annotationInProjectContext))
-                .flatMap(Stream::of)
-                .map(annotation -> invokeAnnotationMethod(annotation,
-                        valueGetterMethodName))
-                .collect(Collectors.toSet());
+        // Fails if the annotation is not available for the project classes
+        loadClassInProjectClassLoader(annotationClass.getName());
+        return getAnnotationValues(annotationClass, valueGetterMethodName);
     }
 
 }
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.vaadin.flow.plugin.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+
+/**
+ * Content hashes of the inputs of the production build steps, used for
+ * skipping the steps which have nothing new to process.
+ * <p>
+ * The hashes of the previous build are read from the manifest file when the
+ * instance is created. Each step stores the hash of its current input with
+ * {@link #update(String, String)}, and {@link #write()} replaces the manifest
+ * file contents with the hashes stored during the current build. The hashes
+ * can be stored from several threads at the same time.
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+public class BuildManifest {
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private final File manifestFile;
+    private final Map<String, String> previousHashes;
+    private final Map<String, String> currentHashes = new ConcurrentHashMap<>();
+
+    /**
+     * Reads the hashes of the previous build from the manifest file.
+     *
+     * @param manifestFile
+     *            the manifest file, not {@code null}; a file which does not
+     *            exist is treated as a manifest without any hashes
+     * @throws UncheckedIOException
+     *             if the manifest file exists but cannot be read
+     */
+    public BuildManifest(File manifestFile) {
+        this.manifestFile = Objects.requireNonNull(manifestFile);
+        previousHashes = readHashes(manifestFile);
+    }
+
+    private static Map<String, String> readHashes(File manifestFile) {
+        if (!manifestFile.isFile()) {
+            return Collections.emptyMap();
+        }
+        Properties properties = new Properties();
+        try (InputStream input = Files
+                .newInputStream(manifestFile.toPath())) {
+            properties.load(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format(
+                    "Failed to read build manifest '%s'", manifestFile), e);
+        }
+        Map<String, String> hashes = new HashMap<>();
+        properties.stringPropertyNames().forEach(
+                key -> hashes.put(key, properties.getProperty(key)));
+        return hashes;
+    }
+
+    /**
+     * Checks whether the input identified by the key had the same hash in the
+     * previous build.
+     *
+     * @param key
+     *            the key of the input, not {@code null}
+     * @param hash
+     *            the current hash of the input, not {@code null}
+     * @return {@code true} if the hash has not changed since the previous
+     *         build, {@code false} otherwise
+     */
+    public boolean isUpToDate(String key, String hash) {
+        return Objects.requireNonNull(hash)
+                .equals(previousHashes.get(Objects.requireNonNull(key)));
+    }
+
+    /**
+     * Stores the hash of the input identified by the key for the next build.
+     *
+     * @param key
+     *            the key of the input, not {@code null}
+     * @param hash
+     *            the hash of the input, not {@code null}
+     */
+    public void update(String key, String hash) {
+        currentHashes.put(Objects.requireNonNull(key),
+                Objects.requireNonNull(hash));
+    }
+
+    /**
+     * Writes the hashes stored during this build to the manifest file. Hashes
+     * of the previous build which have not been stored again are dropped.
+     *
+     * @throws UncheckedIOException
+     *             if the manifest file cannot be written
+     */
+    public void write() {
+        Properties properties = new Properties();
+        properties.putAll(currentHashes);
+        try {
+            FlowPluginFileUtils.forceMkdir(
+                    manifestFile.getAbsoluteFile().getParentFile());
+            try (OutputStream output = Files
+                    .newOutputStream(manifestFile.toPath())) {
+                properties.store(output, "Flow production build manifest");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format(
+                    "Failed to write build manifest '%s'", manifestFile), e);
+        }
+    }
+
+    /**
+     * Computes a hash of the given values.
+     *
+     * @param values
+     *            the values to hash, not {@code null}
+     * @return the hash as a hexadecimal string
+     */
+    public static String hash(String... values) {
+        MessageDigest digest = createDigest();
+        for (String value : values) {
+            digest.update(String.valueOf(value)
+                    .getBytes(StandardCharsets.UTF_8));
+            // Separates the values so that "a", "bc" differs from "ab", "c"
+            digest.update((byte) 0);
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Computes a hash of the contents of the given file.
+     *
+     * @param file
+     *            the file to hash, not {@code null}
+     * @return the hash as a hexadecimal string
+     * @throws UncheckedIOException
+     *             if the file cannot be read
+     */
+    public static String hashFile(File file) {
+        MessageDigest digest = createDigest();
+        updateDigest(digest, file.toPath());
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Computes a hash of the relative paths and contents of all the files in
+     * the given directory and its subdirectories.
+     *
+     * @param directory
+     *            the directory to hash, not {@code null}
+     * @return the hash as a hexadecimal string
+     * @throws UncheckedIOException
+     *             if the directory cannot be read
+     */
+    public static String hashDirectory(File directory) {
+        Path root = directory.toPath();
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(root)) {
+            files = paths.filter(Files::isRegularFile).sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format(
+                    "Failed to list files in directory '%s'", directory), e);
+        }
+
+        MessageDigest digest = createDigest();
+        for (Path file : files) {
+            digest.update(root.relativize(file).toString().replace('\\', '/')
+                    .getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            updateDigest(digest, file);
+        }
+        return toHex(digest.digest());
+    }
+
+    private static void updateDigest(MessageDigest digest, Path file) {
+        try (InputStream input = new DigestInputStream(
+                Files.newInputStream(file), digest)) {
+            IOUtils.copy(input, NullOutputStream.NULL_OUTPUT_STREAM);
+        } catch (IOException e) {
+            throw new UncheckedIOException(
+                    String.format("Failed to read file '%s'", file), e);
+        }
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(String.format(
+                    "Hash algorithm '%s' is not available", HASH_ALGORITHM),
+                    e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
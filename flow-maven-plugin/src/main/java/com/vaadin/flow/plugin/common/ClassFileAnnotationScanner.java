@@ -0,0 +1,583 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.vaadin.flow.plugin.common;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+
+/**
+ * Finds class level annotations and their values in the project class
+ * locations by reading the class files directly, without loading the classes.
+ * <p>
+ * The locations are scanned in parallel when any data is first requested.
+ * Results for jar files can be cached in a file between builds: a jar is only
+ * scanned again if its checksum has changed. Directories are always scanned.
+ * <p>
+ * Only the annotations visible at runtime are considered. Annotations inside a
+ * repeatable annotation container are treated as if they were present on the
+ * class directly. String, primitive and enum element values are extracted,
+ * array elements are extracted one by one and class values are ignored.
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+public class ClassFileAnnotationScanner {
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(ClassFileAnnotationScanner.class);
+
+    private static final int CLASS_FILE_MAGIC = 0xCAFEBABE;
+    private static final String CLASS_FILE_SUFFIX = ".class";
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+    private static final String CONTAINER_ELEMENT = "value";
+
+    private static final String CHECKSUM_KEY = "checksum";
+    private static final String CLASSES_KEY = "classes";
+    private static final String VALUES_KEY = "values";
+    private static final String ELEMENTS_KEY = "elements";
+
+    private final URL[] projectClassesLocations;
+    private final File cacheFile;
+    private final JarContentsManager jarContentsManager = new JarContentsManager();
+
+    private List<ScannedAnnotations> scannedLocations;
+
+    /**
+     * Annotation data found in a single class location.
+     */
+    private static class ScannedAnnotations {
+        // Annotation type -> names of the classes with the annotation
+        private final Map<String, Set<String>> classes = new HashMap<>();
+        // Annotation type and element name -> element values
+        private final Map<String, Set<String>> values = new HashMap<>();
+        // Annotation type -> distinct combinations of the elements set
+        private final Map<String, Set<String>> elements = new HashMap<>();
+
+        private void addOccurrence(String className, String annotationType,
+                Map<String, List<String>> elementValues) {
+            add(classes, annotationType, className);
+            elementValues.forEach((element, elementValue) -> values
+                    .computeIfAbsent(getValuesKey(annotationType, element),
+                            key -> new HashSet<>())
+                    .addAll(elementValue));
+            add(elements, annotationType, elementValues.keySet().stream()
+                    .sorted().collect(Collectors.joining(",")));
+        }
+
+        private static void add(Map<String, Set<String>> map, String key,
+                String value) {
+            map.computeIfAbsent(key, k -> new HashSet<>()).add(value);
+        }
+
+        private JsonObject toJson() {
+            JsonObject json = Json.createObject();
+            json.put(CLASSES_KEY, mapToJson(classes));
+            json.put(VALUES_KEY, mapToJson(values));
+            json.put(ELEMENTS_KEY, mapToJson(elements));
+            return json;
+        }
+
+        private static ScannedAnnotations fromJson(JsonObject json) {
+            ScannedAnnotations scanned = new ScannedAnnotations();
+            mapFromJson(json.getObject(CLASSES_KEY), scanned.classes);
+            mapFromJson(json.getObject(VALUES_KEY), scanned.values);
+            mapFromJson(json.getObject(ELEMENTS_KEY), scanned.elements);
+            return scanned;
+        }
+
+        private static JsonObject mapToJson(Map<String, Set<String>> map) {
+            JsonObject json = Json.createObject();
+            map.forEach((key, set) -> {
+                JsonArray array = Json.createArray();
+                set.forEach(value -> array.set(array.length(), value));
+                json.put(key, array);
+            });
+            return json;
+        }
+
+        private static void mapFromJson(JsonObject json,
+                Map<String, Set<String>> map) {
+            for (String key : json.keys()) {
+                JsonArray array = json.getArray(key);
+                Set<String> set = new HashSet<>();
+                for (int i = 0; i < array.length(); i++) {
+                    set.add(array.getString(i));
+                }
+                map.put(key, set);
+            }
+        }
+    }
+
+    /**
+     * Prepares the scanner for the project classes specified.
+     *
+     * @param cacheFile
+     *            the file to cache the results for jar files in between
+     *            builds, or {@code null} to not use a cache
+     * @param projectClassesLocations
+     *            urls to project class locations (directories, jars etc.)
+     */
+    public ClassFileAnnotationScanner(File cacheFile,
+            URL... projectClassesLocations) {
+        this.cacheFile = cacheFile;
+        this.projectClassesLocations = Objects
+                .requireNonNull(projectClassesLocations).clone();
+    }
+
+    /**
+     * Gets the names of the classes which have the given annotation, directly
+     * or in a repeatable annotation container.
+     *
+     * @param annotationName
+     *            the fully qualified name of the annotation type, not
+     *            {@code null}
+     * @return the names of the annotated classes
+     * @throws UncheckedIOException
+     *             if the cache file cannot be read or written
+     */
+    public Set<String> getAnnotatedClassNames(String annotationName) {
+        return collect(scanned -> scanned.classes.get(annotationName));
+    }
+
+    /**
+     * Gets all the values of the given annotation element in the classes
+     * scanned. Default values of the element are included if the element is
+     * not set in some annotation.
+     *
+     * @param annotation
+     *            the annotation type, not {@code null}
+     * @param elementName
+     *            the name of the annotation element, not {@code null}
+     * @return all unique values of the annotation element as strings
+     * @throws IllegalArgumentException
+     *             if the annotation is found but does not have the element
+     *             specified
+     * @throws UncheckedIOException
+     *             if the cache file cannot be read or written
+     */
+    public Set<String> getAnnotationValues(
+            Class<? extends Annotation> annotation, String elementName) {
+        String annotationName = annotation.getName();
+        Set<String> elementCombinations = collect(
+                scanned -> scanned.elements.get(annotationName));
+        if (elementCombinations.isEmpty()) {
+            // Like with reflection, the element is only needed for the
+            // annotations found
+            return new HashSet<>();
+        }
+
+        Method element;
+        try {
+            element = annotation.getMethod(elementName);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(
+                    String.format("Annotation '%s' has no method named `%s",
+                            annotation, elementName),
+                    e);
+        }
+
+        Set<String> result = collect(scanned -> scanned.values
+                .get(getValuesKey(annotationName, elementName)));
+
+        Object defaultValue = element.getDefaultValue();
+        if (defaultValue != null && elementCombinations.stream()
+                .anyMatch(elements -> !Arrays.asList(elements.split(","))
+                        .contains(elementName))) {
+            if (defaultValue.getClass().isArray()) {
+                for (int i = 0; i < Array.getLength(defaultValue); i++) {
+                    result.add(String.valueOf(Array.get(defaultValue, i)));
+                }
+            } else {
+                result.add(String.valueOf(defaultValue));
+            }
+        }
+        return result;
+    }
+
+    private Set<String> collect(
+            Function<ScannedAnnotations, Set<String>> getter) {
+        return getScannedLocations().stream().map(getter)
+                .filter(Objects::nonNull).flatMap(Set::stream)
+                .collect(Collectors.toSet());
+    }
+
+    private static String getValuesKey(String annotationType,
+            String elementName) {
+        return annotationType + '#' + elementName;
+    }
+
+    private synchronized List<ScannedAnnotations> getScannedLocations() {
+        if (scannedLocations == null) {
+            Map<String, JsonObject> cache = readCache();
+            Map<String, JsonObject> updatedCache = Collections
+                    .synchronizedMap(new HashMap<>());
+            scannedLocations = Stream.of(projectClassesLocations).parallel()
+                    .map(ClassFileAnnotationScanner::toFile)
+                    .filter(Objects::nonNull)
+                    .map(location -> scanLocation(location, cache,
+                            updatedCache))
+                    .collect(Collectors.toList());
+            writeCache(updatedCache);
+        }
+        return scannedLocations;
+    }
+
+    private static File toFile(URL url) {
+        try {
+            return Paths.get(url.toURI()).toFile();
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            LOGGER.warn("Skipping class location '{}' which is not a file",
+                    url, e);
+            return null;
+        }
+    }
+
+    private ScannedAnnotations scanLocation(File location,
+            Map<String, JsonObject> cache,
+            Map<String, JsonObject> updatedCache) {
+        try {
+            if (location.isDirectory()) {
+                return scanDirectory(location);
+            } else if (location.isFile()) {
+                return scanJar(location, cache, updatedCache);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            LOGGER.warn("Failed to scan classes in '{}'", location, e);
+        }
+        return new ScannedAnnotations();
+    }
+
+    private ScannedAnnotations scanDirectory(File directory)
+            throws IOException {
+        ScannedAnnotations scanned = new ScannedAnnotations();
+        List<Path> classFiles;
+        try (Stream<Path> paths = Files.walk(directory.toPath())) {
+            classFiles = paths.filter(Files::isRegularFile)
+                    .filter(path -> path.toString()
+                            .endsWith(CLASS_FILE_SUFFIX))
+                    .collect(Collectors.toList());
+        }
+        for (Path classFile : classFiles) {
+            try (InputStream input = Files.newInputStream(classFile)) {
+                readClassFile(input, scanned);
+            }
+        }
+        return scanned;
+    }
+
+    private ScannedAnnotations scanJar(File jar, Map<String, JsonObject> cache,
+            Map<String, JsonObject> updatedCache) throws IOException {
+        String key = jar.getAbsolutePath();
+        String checksum = cacheFile == null ? null
+                : jarContentsManager.getChecksum(jar, null);
+        JsonObject cached = cache.get(key);
+        if (checksum != null && cached != null
+                && checksum.equals(cached.getString(CHECKSUM_KEY))) {
+            updatedCache.put(key, cached);
+            return ScannedAnnotations.fromJson(cached);
+        }
+
+        ScannedAnnotations scanned = new ScannedAnnotations();
+        try (JarFile jarFile = new JarFile(jar, false)) {
+            List<JarEntry> classFiles = jarFile.stream()
+                    .filter(entry -> !entry.isDirectory())
+                    .filter(entry -> entry.getName()
+                            .endsWith(CLASS_FILE_SUFFIX))
+                    .collect(Collectors.toList());
+            for (JarEntry classFile : classFiles) {
+                try (InputStream input = jarFile.getInputStream(classFile)) {
+                    readClassFile(input, scanned);
+                }
+            }
+        }
+
+        if (checksum != null) {
+            JsonObject json = scanned.toJson();
+            json.put(CHECKSUM_KEY, checksum);
+            updatedCache.put(key, json);
+        }
+        return scanned;
+    }
+
+    private Map<String, JsonObject> readCache() {
+        if (cacheFile == null || !cacheFile.isFile()) {
+            return Collections.emptyMap();
+        }
+        Map<String, JsonObject> cache = new HashMap<>();
+        try {
+            JsonObject json = Json.parse(FileUtils.readFileToString(cacheFile,
+                    StandardCharsets.UTF_8));
+            for (String key : json.keys()) {
+                cache.put(key, json.getObject(key));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format(
+                    "Failed to read annotation cache '%s'", cacheFile), e);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Ignoring unreadable annotation cache '{}'",
+                    cacheFile, e);
+            return Collections.emptyMap();
+        }
+        return cache;
+    }
+
+    private void writeCache(Map<String, JsonObject> cache) {
+        if (cacheFile == null) {
+            return;
+        }
+        JsonObject json = Json.createObject();
+        cache.forEach(json::put);
+        try {
+            FileUtils.write(cacheFile, json.toJson(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format(
+                    "Failed to write annotation cache '%s'", cacheFile), e);
+        }
+    }
+
+    /*
+     * Reads the constant pool and the class level annotations of a class file,
+     * see chapter 4 of the Java Virtual Machine Specification.
+     */
+    private static void readClassFile(InputStream input,
+            ScannedAnnotations scanned) throws IOException {
+        DataInputStream data = new DataInputStream(
+                new BufferedInputStream(input));
+        if (data.readInt() != CLASS_FILE_MAGIC) {
+            return;
+        }
+        // minor and major version
+        skipFully(data, 4);
+
+        Object[] constants = readConstantPool(data);
+
+        // access flags
+        skipFully(data, 2);
+        String className = getClassName(constants, data.readUnsignedShort());
+        // super class
+        skipFully(data, 2);
+        int interfaces = data.readUnsignedShort();
+        skipFully(data, 2 * interfaces);
+        // fields and methods
+        skipMembers(data);
+        skipMembers(data);
+
+        int attributes = data.readUnsignedShort();
+        for (int i = 0; i < attributes; i++) {
+            String name = (String) constants[data.readUnsignedShort()];
+            int length = data.readInt();
+            if (RUNTIME_VISIBLE_ANNOTATIONS.equals(name)) {
+                int annotations = data.readUnsignedShort();
+                for (int j = 0; j < annotations; j++) {
+                    readAnnotation(data, constants, className, scanned);
+                }
+            } else {
+                skipFully(data, length);
+            }
+        }
+    }
+
+    private static Object[] readConstantPool(DataInputStream data)
+            throws IOException {
+        int count = data.readUnsignedShort();
+        Object[] constants = new Object[count];
+        for (int i = 1; i < count; i++) {
+            int tag = data.readUnsignedByte();
+            switch (tag) {
+            case 1: // Utf8
+                constants[i] = data.readUTF();
+                break;
+            case 3: // Integer
+                constants[i] = data.readInt();
+                break;
+            case 4: // Float
+                constants[i] = data.readFloat();
+                break;
+            case 5: // Long, takes two entries
+                constants[i++] = data.readLong();
+                break;
+            case 6: // Double, takes two entries
+                constants[i++] = data.readDouble();
+                break;
+            case 7: // Class, a reference to the Utf8 name
+                constants[i] = new int[] { data.readUnsignedShort() };
+                break;
+            case 8: // String
+            case 16: // MethodType
+            case 19: // Module
+            case 20: // Package
+                skipFully(data, 2);
+                break;
+            case 15: // MethodHandle
+                skipFully(data, 3);
+                break;
+            case 9: // Fieldref
+            case 10: // Methodref
+            case 11: // InterfaceMethodref
+            case 12: // NameAndType
+            case 17: // Dynamic
+            case 18: // InvokeDynamic
+                skipFully(data, 4);
+                break;
+            default:
+                throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+        return constants;
+    }
+
+    private static String getClassName(Object[] constants, int classIndex) {
+        int nameIndex = ((int[]) constants[classIndex])[0];
+        return ((String) constants[nameIndex]).replace('/', '.');
+    }
+
+    private static void skipMembers(DataInputStream data) throws IOException {
+        int members = data.readUnsignedShort();
+        for (int i = 0; i < members; i++) {
+            // access flags, name and descriptor
+            skipFully(data, 6);
+            int attributes = data.readUnsignedShort();
+            for (int j = 0; j < attributes; j++) {
+                skipFully(data, 2);
+                skipFully(data, data.readInt());
+            }
+        }
+    }
+
+    /*
+     * Reads an annotation, recording it for the class if scanned is not null.
+     * Annotations in the value element of a recorded annotation are recorded
+     * as well, since that is how repeated annotations are stored.
+     */
+    private static void readAnnotation(DataInputStream data,
+            Object[] constants, String className, ScannedAnnotations scanned)
+            throws IOException {
+        String type = descriptorToClassName(
+                (String) constants[data.readUnsignedShort()]);
+        int pairs = data.readUnsignedShort();
+        Map<String, List<String>> elementValues = new HashMap<>();
+        for (int i = 0; i < pairs; i++) {
+            String element = (String) constants[data.readUnsignedShort()];
+            List<String> values = new ArrayList<>();
+            readElementValue(data, constants, values, className,
+                    CONTAINER_ELEMENT.equals(element) ? scanned : null);
+            elementValues.put(element, values);
+        }
+        if (scanned != null) {
+            scanned.addOccurrence(className, type, elementValues);
+        }
+    }
+
+    private static void readElementValue(DataInputStream data,
+            Object[] constants, List<String> values, String className,
+            ScannedAnnotations nestedAnnotations) throws IOException {
+        int tag = data.readUnsignedByte();
+        switch (tag) {
+        case 's':
+        case 'B':
+        case 'D':
+        case 'F':
+        case 'I':
+        case 'J':
+        case 'S':
+            values.add(String.valueOf(constants[data.readUnsignedShort()]));
+            break;
+        case 'C':
+            values.add(String.valueOf(
+                    (char) ((Integer) constants[data.readUnsignedShort()])
+                            .intValue()));
+            break;
+        case 'Z':
+            values.add(String.valueOf(
+                    ((Integer) constants[data.readUnsignedShort()]) != 0));
+            break;
+        case 'e':
+            // type name, then the constant name
+            skipFully(data, 2);
+            values.add((String) constants[data.readUnsignedShort()]);
+            break;
+        case 'c':
+            skipFully(data, 2);
+            break;
+        case '@':
+            readAnnotation(data, constants, className, nestedAnnotations);
+            break;
+        case '[':
+            int length = data.readUnsignedShort();
+            for (int i = 0; i < length; i++) {
+                readElementValue(data, constants, values, className,
+                        nestedAnnotations);
+            }
+            break;
+        default:
+            throw new IOException("Unknown annotation element tag " + tag);
+        }
+    }
+
+    private static String descriptorToClassName(String descriptor) {
+        // Lcom/example/Annotation;
+        return descriptor.substring(1, descriptor.length() - 1).replace('/',
+                '.');
+    }
+
+    private static void skipFully(DataInputStream data, int bytes)
+            throws IOException {
+        int remaining = bytes;
+        while (remaining > 0) {
+            int skipped = data.skipBytes(remaining);
+            if (skipped <= 0) {
+                throw new EOFException();
+            }
+            remaining -= skipped;
+        }
+    }
+}
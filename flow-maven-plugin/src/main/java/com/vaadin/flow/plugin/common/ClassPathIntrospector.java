@@ -15,6 +15,7 @@
  */
 package com.vaadin.flow.plugin.common;
 
+import java.io.File;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.Repeatable;
 import java.lang.reflect.AnnotatedElement;
@@ -25,6 +26,8 @@ import java.util.Collections;
 import java.util.Set;
 import java.util.stream.Stream;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import org.reflections.Reflections;
 import org.reflections.util.ConfigurationBuilder;
 
@@ -38,7 +41,8 @@ import org.reflections.util.ConfigurationBuilder;
 public abstract class ClassPathIntrospector {
 
     private final ClassLoader projectClassLoader;
-    private final Reflections reflections;
+    private final Supplier<Reflections> reflections;
+    private final ClassFileAnnotationScanner annotationScanner;
 
     /**
      * Creates a new instance of class path introspector using the
@@ -48,10 +52,30 @@ public abstract class ClassPathIntrospector {
      *            urls to project class locations (directories, jars etc.)
      */
     protected ClassPathIntrospector(URL... projectClassesLocations) {
+        this(null, projectClassesLocations);
+    }
+
+    /**
+     * Creates a new instance of class path introspector using the
+     * {@code projectClassesLocations} and caching the annotations found in
+     * jars in the given file.
+     *
+     * @param annotationCacheFile
+     *            the file to cache the annotations found in jars in between
+     *            builds, or {@code null} to not use a cache
+     * @param projectClassesLocations
+     *            urls to project class locations (directories, jars etc.)
+     */
+    protected ClassPathIntrospector(File annotationCacheFile,
+            URL... projectClassesLocations) {
         projectClassLoader = new URLClassLoader(projectClassesLocations, null);
-        reflections = new Reflections(
+        // The class path is only scanned with reflections when needed, the
+        // annotations can mostly be read from the class files directly
+        reflections = Suppliers.memoize(() -> new Reflections(
                 new ConfigurationBuilder().addClassLoader(projectClassLoader)
-                        .addUrls(projectClassesLocations));
+                        .addUrls(projectClassesLocations)));
+        annotationScanner = new ClassFileAnnotationScanner(
+                annotationCacheFile, projectClassesLocations);
     }
 
     /**
@@ -64,6 +88,7 @@ public abstract class ClassPathIntrospector {
     protected ClassPathIntrospector(ClassPathIntrospector otherIntrospector) {
         projectClassLoader = otherIntrospector.projectClassLoader;
         reflections = otherIntrospector.reflections;
+        annotationScanner = otherIntrospector.annotationScanner;
     }
 
     /**
@@ -76,7 +101,7 @@ public abstract class ClassPathIntrospector {
      */
     protected Stream<Class<?>> getAnnotatedClasses(
             Class<? extends Annotation> annotationInProjectContext) {
-        Set<Class<?>> annotatedBySingleAnnotation = reflections
+        Set<Class<?>> annotatedBySingleAnnotation = reflections.get()
                 .getTypesAnnotatedWith(annotationInProjectContext, true);
         Set<Class<?>> annotatedByRepeatedAnnotation = getAnnotatedByRepeatedAnnotation(
                 annotationInProjectContext);
@@ -84,6 +109,53 @@ public abstract class ClassPathIntrospector {
                 annotatedByRepeatedAnnotation.stream());
     }
 
+    /**
+     * Gets the classes which have the given annotation directly, or in a
+     * repeatable annotation container. The annotations are found by reading the
+     * class files, only the classes found are loaded.
+     *
+     * @param annotationInProjectContext
+     *            annotation class
+     * @return all classes which have the given annotation
+     */
+    protected Stream<Class<?>> getClassesWithAnnotation(
+            Class<? extends Annotation> annotationInProjectContext) {
+        return annotationScanner
+                .getAnnotatedClassNames(annotationInProjectContext.getName())
+                .stream().sorted().map(this::loadClassInProjectClassLoader);
+    }
+
+    /**
+     * Gets all the values of the given annotation element in the project
+     * classes, without loading the classes. Default values of the element are
+     * included if the element is not set in some annotation.
+     *
+     * @param annotation
+     *            the annotation type
+     * @param elementName
+     *            the name of the annotation element
+     * @return all unique values of the annotation element as strings
+     * @throws IllegalArgumentException
+     *             if annotation does not have the element specified
+     */
+    protected Set<String> getAnnotationValues(
+            Class<? extends Annotation> annotation, String elementName) {
+        return annotationScanner.getAnnotationValues(annotation, elementName);
+    }
+
+    /**
+     * Gets the classes extending or implementing the given
+     * {@code typeInProjectContext} type.
+     *
+     * @param typeInProjectContext
+     *            super type or interface
+     * @return all subtypes of the given type
+     */
+    protected Stream<Class<?>> getSubtypes(Class<?> typeInProjectContext) {
+        return reflections.get().getSubTypesOf(typeInProjectContext).stream()
+                .map(type -> (Class<?>) type);
+    }
+
     /**
      * Returns the annotation class by its FQN.
      * <p>
@@ -161,7 +233,7 @@ public abstract class ClassPathIntrospector {
         Repeatable repeatableAnnotation = annotationClass
                 .getAnnotation(Repeatable.class);
         if (repeatableAnnotation != null) {
-            return reflections
+            return reflections.get()
                     .getTypesAnnotatedWith(repeatableAnnotation.value(), true);
         }
         return Collections.emptySet();
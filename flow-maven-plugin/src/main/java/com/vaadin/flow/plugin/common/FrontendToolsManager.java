@@ -20,11 +20,18 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -62,6 +69,7 @@ public class FrontendToolsManager {
     private final String es5OutputDirectoryName;
     private final String es6OutputDirectoryName;
     private final FrontendDataProvider frontendDataProvider;
+    private BuildManifest buildManifest;
 
     /**
      * Prepares the manager.
@@ -97,6 +105,20 @@ public class FrontendToolsManager {
                 .requireNonNull(frontendDataProvider);
     }
 
+    /**
+     * Sets the manifest used for skipping the transpilation when its input has
+     * not changed since the previous build recorded in the manifest. The hash
+     * of the input is stored in the manifest, writing the manifest is left to
+     * the caller.
+     *
+     * @param buildManifest
+     *            the manifest to check and store the transpilation input hash
+     *            in, or {@code null} to always transpile the files
+     */
+    public void setBuildManifest(BuildManifest buildManifest) {
+        this.buildManifest = buildManifest;
+    }
+
     /**
      * Installs tools required for transpilation.
      * 
@@ -198,6 +220,10 @@ public class FrontendToolsManager {
                     es6SourceDirectory));
         }
 
+        String shellFile = frontendDataProvider
+                .createShellFile(workingDirectory);
+        Set<String> fragmentFiles = frontendDataProvider
+                .createFragmentFiles(workingDirectory);
         ImmutableMap.Builder<String, String> gulpFileParameters = new ImmutableMap.Builder<String, String>()
                 .put("{es6_source_directory}",
                         es6SourceDirectory.getAbsolutePath())
@@ -210,32 +236,114 @@ public class FrontendToolsManager {
                         Boolean.toString(frontendDataProvider.shouldMinify()))
                 .put("{hash}",
                         Boolean.toString(frontendDataProvider.shouldHash()))
-                .put("{shell_file}",
-                        frontendDataProvider.createShellFile(workingDirectory))
+                .put("{shell_file}", shellFile)
                 .put("{fragment_files}",
-                        combineFilePathsIntoString(frontendDataProvider
-                                .createFragmentFiles(workingDirectory)));
+                        combineFilePathsIntoString(fragmentFiles));
         createFileFromTemplateResource("gulpfile.js",
                 gulpFileParameters.build());
 
-        Map<String, File> transpilationResults = new HashMap<>();
-        try {
-            runnerManager.getGulpRunner().execute("build_es6",
-                    Collections.emptyMap());
-            addTranspilationResult(transpilationResults, outputDirectory,
-                    es6OutputDirectoryName);
+        List<String> configurationNames = new ArrayList<>();
+        configurationNames.add(es6OutputDirectoryName);
+        if (!skipEs5) {
+            configurationNames.add(es5OutputDirectoryName);
+        }
 
-            if (!skipEs5) {
-                runnerManager.getGulpRunner().execute("build_es5",
-                        Collections.emptyMap());
-                addTranspilationResult(transpilationResults, outputDirectory,
-                        es5OutputDirectoryName);
+        String manifestKey = "transpilation!"
+                + outputDirectory.getAbsolutePath();
+        String inputHash = null;
+        if (buildManifest != null) {
+            inputHash = getTranspilationInputHash(es6SourceDirectory,
+                    shellFile, fragmentFiles, skipEs5);
+            if (buildManifest.isUpToDate(manifestKey, inputHash)
+                    && configurationNames.stream()
+                            .allMatch(name -> new File(outputDirectory, name)
+                                    .isDirectory())) {
+                LOGGER.info(
+                        "Frontend files in '{}' have not changed since the previous build, skipping transpilation",
+                        es6SourceDirectory);
+                buildManifest.update(manifestKey, inputHash);
+                return collectTranspilationResults(outputDirectory,
+                        configurationNames);
             }
-        } catch (TaskRunnerException e) {
+        }
+
+        List<String> gulpTasks = new ArrayList<>();
+        gulpTasks.add("build_es6");
+        if (!skipEs5) {
+            gulpTasks.add("build_es5");
+        }
+        runGulpTasks(gulpTasks);
+
+        Map<String, File> transpilationResults = collectTranspilationResults(
+                outputDirectory, configurationNames);
+        if (buildManifest != null) {
+            buildManifest.update(manifestKey, inputHash);
+        }
+        return transpilationResults;
+    }
+
+    private String getTranspilationInputHash(File es6SourceDirectory,
+            String shellFile, Set<String> fragmentFiles, boolean skipEs5) {
+        List<String> hashes = new ArrayList<>();
+        hashes.add(BuildManifest.hashDirectory(es6SourceDirectory));
+        // Contains all the build parameters and the shell and fragment paths
+        hashes.add(BuildManifest
+                .hashFile(new File(workingDirectory, "gulpfile.js")));
+        hashes.add(hashGeneratedFile(shellFile));
+        fragmentFiles.stream().sorted().map(this::hashGeneratedFile)
+                .forEach(hashes::add);
+        hashes.add(Boolean.toString(skipEs5));
+        return BuildManifest.hash(hashes.toArray(new String[0]));
+    }
+
+    private String hashGeneratedFile(String path) {
+        File file = new File(path);
+        if (!file.isAbsolute()) {
+            file = new File(workingDirectory, path);
+        }
+        return file.isFile() ? BuildManifest.hashFile(file) : path;
+    }
+
+    /*
+     * The ES6 and ES5 builds are independent polymer-build runs writing into
+     * separate directories, so they are run as parallel gulp processes.
+     */
+    private void runGulpTasks(List<String> gulpTasks) {
+        ExecutorService executor = Executors
+                .newFixedThreadPool(gulpTasks.size());
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (String gulpTask : gulpTasks) {
+                results.add(executor.submit(() -> {
+                    long start = System.nanoTime();
+                    runnerManager.getGulpRunner().execute(gulpTask,
+                            Collections.emptyMap());
+                    LOGGER.info("Gulp task '{}' finished in {} ms", gulpTask,
+                            TimeUnit.NANOSECONDS
+                                    .toMillis(System.nanoTime() - start));
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             throw new IllegalStateException(
-                    "Transpilation with gulp has failed", e);
+                    "Transpilation with gulp has been interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(
+                    "Transpilation with gulp has failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
         }
+    }
 
+    private Map<String, File> collectTranspilationResults(
+            File outputDirectory, List<String> configurationNames) {
+        Map<String, File> transpilationResults = new HashMap<>();
+        configurationNames.forEach(name -> addTranspilationResult(
+                transpilationResults, outputDirectory, name));
         return transpilationResults;
     }
 
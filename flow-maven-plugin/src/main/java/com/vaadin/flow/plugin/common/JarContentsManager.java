@@ -20,6 +20,8 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
@@ -163,6 +165,35 @@ public class JarContentsManager {
         }
     }
 
+    /**
+     * Computes a checksum of the files in the jar directory specified. The
+     * checksum is based on the paths, sizes and CRC-32 checksums of the files
+     * stored in the jar, so the file contents are not read.
+     *
+     * @param jar                 jar file to compute the checksum for, not {@code null}
+     * @param jarDirectoryToCheck a path relative to jar root, only files from this path are considered, can be {@code null}, which is treated as a root of the jar
+     * @return checksum of the files in the directory as a hexadecimal string
+     * @throws IllegalArgumentException if jar file specified is not a file or does not exist
+     * @throws NullPointerException     if jar file is {@code null}
+     * @throws UncheckedIOException     if {@link IOException} occurs during the operation, for instance, when jar file specified is not a jar file
+     */
+    public String getChecksum(File jar, String jarDirectoryToCheck) {
+        requireFileExistence(jar);
+
+        String basePath = normalizeJarBasePath(jarDirectoryToCheck);
+
+        try (JarFile jarFile = new JarFile(jar, false)) {
+            return BuildManifest.hash(jarFile.stream()
+                    .filter(file -> !file.isDirectory())
+                    .filter(file -> file.getName().toLowerCase(Locale.ENGLISH).startsWith(basePath.toLowerCase(Locale.ENGLISH)))
+                    .map(file -> String.format("%s:%d:%d", file.getName(), file.getSize(), file.getCrc()))
+                    .sorted()
+                    .toArray(String[]::new));
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Failed to compute checksum for jarFile '%s'", jar), e);
+        }
+    }
+
     private String normalizeJarBasePath(String rawPath) {
         if (rawPath == null || rawPath.isEmpty()) {
             return "";
@@ -179,8 +210,13 @@ public class JarContentsManager {
         String fullPath = jarEntry.getName();
         String relativePath = fullPath.substring(
                 fullPath.toLowerCase(Locale.ENGLISH).indexOf(basePath.toLowerCase(Locale.ENGLISH)) + basePath.length());
+        File outputFile = new File(outputDirectory, relativePath);
+        // Several jars may be extracted into the same directory in parallel, so the file is written
+        // next to the target first and then moved in place to never leave a partially written file
+        File temporaryFile = new File(outputFile.getParentFile(), outputFile.getName() + "." + Thread.currentThread().getId() + ".tmp");
         try {
-            FileUtils.copyInputStreamToFile(jarFile.getInputStream(jarEntry), new File(outputDirectory, relativePath));
+            FileUtils.copyInputStreamToFile(jarFile.getInputStream(jarEntry), temporaryFile);
+            Files.move(temporaryFile.toPath(), outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
         } catch (IOException e) {
             throw new UncheckedIOException(String.format("Failed to extract jar entry '%s' from jarFile '%s'", jarEntry, outputDirectory), e);
         }
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.plugin.common;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Generates the route index of a project, which lets the servlet container
+ * initializers of Flow use the classes found during the build instead of
+ * relying on the class path scanning of the servlet container.
+ * <p>
+ * The index is created by the {@code RouteIndex} class of the Flow version
+ * used by the project, so that the classes are validated the same way as they
+ * would be when the application starts.
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+public class RouteIndexGenerator extends ClassPathIntrospector {
+
+    private static final String ROUTE_INDEX_CLASS = "com.vaadin.flow.server.startup.RouteIndex";
+
+    /**
+     * Prepares the class to generate the index for the project classes
+     * specified.
+     *
+     * @param projectClassesLocations
+     *            urls to project class locations (directories, jars etc.),
+     *            including the servlet API
+     */
+    public RouteIndexGenerator(URL... projectClassesLocations) {
+        super(projectClassesLocations);
+    }
+
+    /**
+     * Gets the class path resource name of the index.
+     *
+     * @return the index resource name
+     */
+    public String getIndexResourceName() {
+        try {
+            return (String) loadClassInProjectClassLoader(ROUTE_INDEX_CLASS)
+                    .getField("INDEX_RESOURCE").get(null);
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new IllegalStateException(
+                    "The Flow version of the project does not support a route index",
+                    e);
+        }
+    }
+
+    /**
+     * Finds the classes handled by the servlet container initializers and
+     * creates the index for them.
+     *
+     * @param metadataComplete
+     *            whether the index lists all the handled classes of the
+     *            application so that the classes found by the servlet
+     *            container are ignored
+     * @return the index in JSON format
+     * @throws IllegalStateException
+     *             if the classes are not valid or the index could not be
+     *             created
+     */
+    public String generateIndex(boolean metadataComplete) {
+        Collection<?> indexedTypes = (Collection<?>) invokeRouteIndexMethod(
+                "getIndexedTypes", new Class<?>[0]);
+        Map<Class<?>, Set<Class<?>>> classesByType = new HashMap<>();
+        for (Object type : indexedTypes) {
+            Class<?> typeInProjectContext = (Class<?>) type;
+            classesByType.put(typeInProjectContext,
+                    findClasses(typeInProjectContext)
+                            .collect(Collectors.toSet()));
+        }
+        return (String) invokeRouteIndexMethod("createIndex",
+                new Class<?>[] { Map.class, boolean.class }, classesByType,
+                metadataComplete);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Stream<Class<?>> findClasses(Class<?> typeInProjectContext) {
+        if (typeInProjectContext.isAnnotation()) {
+            return getAnnotatedClasses(
+                    (Class<? extends Annotation>) typeInProjectContext);
+        }
+        return getSubtypes(typeInProjectContext);
+    }
+
+    private Object invokeRouteIndexMethod(String methodName,
+            Class<?>[] parameterTypes, Object... arguments) {
+        try {
+            Method method = loadClassInProjectClassLoader(ROUTE_INDEX_CLASS)
+                    .getMethod(methodName, parameterTypes);
+            return method.invoke(null, arguments);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException(
+                    "The Flow version of the project does not support a route index",
+                    e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(String.format(
+                    "Failed to create the route index: %s",
+                    e.getCause().getMessage()), e.getCause());
+        }
+    }
+}
@@ -161,7 +161,7 @@ public class ThemedURLTranslator extends ClassPathIntrospector {
     private Class<? extends AbstractTheme> findTheme() {
         Class<? extends Annotation> theme = loadClassInProjectClassLoader(
                 Theme.class.getName());
-        Map<Class<? extends AbstractTheme>, List<Class<?>>> themedComponents = getAnnotatedClasses(
+        Map<Class<? extends AbstractTheme>, List<Class<?>>> themedComponents = getClassesWithAnnotation(
                 theme).collect(
                         Collectors.toMap(clazz -> getTheme(clazz, theme),
                                 Collections::singletonList, this::mergeLists));
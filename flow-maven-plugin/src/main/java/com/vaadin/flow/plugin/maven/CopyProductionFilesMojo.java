@@ -18,6 +18,7 @@ package com.vaadin.flow.plugin.maven;
 import java.io.File;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.apache.maven.plugin.AbstractMojo;
@@ -28,6 +29,7 @@ import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.project.MavenProject;
 
 import com.vaadin.flow.plugin.common.ArtifactData;
+import com.vaadin.flow.plugin.common.BuildManifest;
 import com.vaadin.flow.plugin.common.JarContentsManager;
 import com.vaadin.flow.plugin.production.ProductionModeCopyStep;
 
@@ -61,6 +63,15 @@ public class CopyProductionFilesMojo extends AbstractMojo {
     @Parameter(name = "frontendWorkingDirectory", property = "frontend.working.directory")
     private File frontendWorkingDirectory;
 
+    /**
+     * If <code>true</code>, jar contents which have not changed since the
+     * previous build are not extracted again. Checksums of the previous build
+     * are stored in <code>flow-copy-manifest.properties</code> in the project
+     * build directory.
+     */
+    @Parameter(property = "incremental", defaultValue = "false")
+    private boolean incremental;
+
     @Parameter(defaultValue = "${project}", readonly = true, required = true)
     private MavenProject project;
 
@@ -89,8 +100,28 @@ public class CopyProductionFilesMojo extends AbstractMojo {
             }
         }
         
-        new ProductionModeCopyStep(new JarContentsManager(), projectArtifacts)
-                .copyWebApplicationFiles(copyOutputDirectory,
-                        frontendWorkingDirectory, excludes);
+        BuildManifest buildManifest = null;
+        if (incremental) {
+            buildManifest = new BuildManifest(
+                    new File(project.getBuild().getDirectory(),
+                            "flow-copy-manifest.properties"));
+        }
+
+        long start = System.nanoTime();
+        ProductionModeCopyStep copyStep = new ProductionModeCopyStep(
+                new JarContentsManager(), projectArtifacts);
+        long scanned = System.nanoTime();
+        getLog().info(String.format("Scanning %d artifacts took %d ms",
+                projectArtifacts.size(),
+                TimeUnit.NANOSECONDS.toMillis(scanned - start)));
+
+        copyStep.copyWebApplicationFiles(copyOutputDirectory,
+                frontendWorkingDirectory, excludes, buildManifest);
+        getLog().info(String.format("Copying production files took %d ms",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - scanned)));
+
+        if (buildManifest != null) {
+            buildManifest.write();
+        }
     }
 }
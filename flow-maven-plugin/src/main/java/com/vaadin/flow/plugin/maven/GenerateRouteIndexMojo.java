@@ -0,0 +1,104 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.plugin.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+
+import com.vaadin.flow.plugin.common.FlowPluginFileUtils;
+import com.vaadin.flow.plugin.common.RouteIndexGenerator;
+
+/**
+ * Goal that generates an index of the route targets, error navigation
+ * targets, web components and classes with application level annotations of
+ * the project. The index is written to the output directory of the project
+ * and is used by the servlet container initializers of Flow at startup, see
+ * {@link RouteIndexGenerator} for details.
+ */
+@Mojo(name = "generate-route-index", requiresDependencyResolution = ResolutionScope.COMPILE_PLUS_RUNTIME, defaultPhase = LifecyclePhase.PROCESS_CLASSES)
+public class GenerateRouteIndexMojo extends AbstractMojo {
+
+    /**
+     * If {@code true}, the index is marked as listing all the classes of the
+     * application. The classes found by the class path scanning of the
+     * servlet container are then ignored and the validation done during the
+     * build is not repeated at startup. The container scanning itself can
+     * then be disabled in the container configuration. If {@code false}, the
+     * indexed classes are used in addition to the scanned ones.
+     */
+    @Parameter(property = "metadataComplete", defaultValue = "false", required = true)
+    private boolean metadataComplete;
+
+    /**
+     * Directory to which the index is written.
+     */
+    @Parameter(name = "indexOutputDirectory", defaultValue = "${project.build.outputDirectory}", required = true)
+    private File indexOutputDirectory;
+
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    @Override
+    public void execute() {
+        long start = System.nanoTime();
+        RouteIndexGenerator generator = new RouteIndexGenerator(
+                getProjectClassPathUrls());
+        String index = generator.generateIndex(metadataComplete);
+
+        File indexFile = new File(indexOutputDirectory,
+                generator.getIndexResourceName());
+        try {
+            FileUtils.writeStringToFile(indexFile, index,
+                    StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format(
+                    "Failed to write the route index to '%s'", indexFile), e);
+        }
+        getLog().info(String.format("Generated route index '%s' in %d ms",
+                indexFile, (System.nanoTime() - start) / 1_000_000));
+    }
+
+    private URL[] getProjectClassPathUrls() {
+        // The compile class path includes the servlet API which is needed to
+        // load the servlet container initializers, the runtime class path
+        // may include further route targets
+        final Set<String> classpathElements = new LinkedHashSet<>();
+        try {
+            classpathElements.addAll(project.getCompileClasspathElements());
+            classpathElements.addAll(project.getRuntimeClasspathElements());
+        } catch (DependencyResolutionRequiredException e) {
+            throw new IllegalStateException(String.format(
+                    "Failed to retrieve classpath elements from project '%s'",
+                    project), e);
+        }
+        return classpathElements.stream().map(File::new)
+                .map(FlowPluginFileUtils::convertToUrl).toArray(URL[]::new);
+    }
+}
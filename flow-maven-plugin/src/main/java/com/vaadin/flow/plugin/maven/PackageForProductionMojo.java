@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import com.github.eirslett.maven.plugins.frontend.lib.ProxyConfig;
@@ -40,6 +41,7 @@ import org.apache.maven.settings.crypto.SettingsDecrypter;
 import org.apache.maven.settings.crypto.SettingsDecryptionResult;
 
 import com.vaadin.flow.plugin.common.AnnotationValuesExtractor;
+import com.vaadin.flow.plugin.common.BuildManifest;
 import com.vaadin.flow.plugin.common.FlowPluginFileUtils;
 import com.vaadin.flow.plugin.common.FrontendDataProvider;
 import com.vaadin.flow.plugin.common.FrontendToolsManager;
@@ -121,6 +123,16 @@ public class PackageForProductionMojo extends AbstractMojo {
     @Parameter(property = "hash", defaultValue = "true", required = true)
     private boolean hash;
 
+    /**
+     * If <code>true</code>, the transpilation is skipped when the frontend
+     * files, fragments and build parameters have not changed since the
+     * previous build. Content hashes of the previous build are stored in
+     * <code>flow-transpilation-manifest.properties</code> in the
+     * <code>transpileWorkingDirectory</code>.
+     */
+    @Parameter(property = "incremental", defaultValue = "false")
+    private boolean incremental;
+
     /**
      * Set the bundle configuration json file.
      */
@@ -215,19 +227,46 @@ public class PackageForProductionMojo extends AbstractMojo {
             }
         }
 
+        long start = System.nanoTime();
         FrontendDataProvider frontendDataProvider = new FrontendDataProvider(
                 bundle, minify, hash, transpileEs6SourceDirectory,
-                new AnnotationValuesExtractor(getProjectClassPathUrls()),
+                new AnnotationValuesExtractor(
+                        new File(transpileWorkingDirectory,
+                                "flow-annotation-cache.json"),
+                        getProjectClassPathUrls()),
                 bundleConfiguration, getFragmentsData(fragments));
+        start = logTiming("Collecting frontend data", start);
 
         FrontendToolsManager frontendToolsManager = new FrontendToolsManager(
                 transpileWorkingDirectory, es5OutputDirectoryName,
                 es6OutputDirectoryName, frontendDataProvider,
                 getRunnerManager());
+        BuildManifest buildManifest = null;
+        if (incremental) {
+            buildManifest = new BuildManifest(new File(
+                    transpileWorkingDirectory,
+                    "flow-transpilation-manifest.properties"));
+            frontendToolsManager.setBuildManifest(buildManifest);
+        }
+
+        TranspilationStep transpilationStep = new TranspilationStep(
+                frontendToolsManager, yarnNetworkConcurrency);
+        start = logTiming("Installing frontend tools", start);
+
+        transpilationStep.transpileFiles(transpileEs6SourceDirectory,
+                transpileOutputDirectory, skipEs5);
+        logTiming("Transpilation", start);
+
+        if (buildManifest != null) {
+            buildManifest.write();
+        }
+    }
 
-        new TranspilationStep(frontendToolsManager, yarnNetworkConcurrency)
-                .transpileFiles(transpileEs6SourceDirectory,
-                        transpileOutputDirectory, skipEs5);
+    private long logTiming(String step, long start) {
+        long end = System.nanoTime();
+        getLog().info(String.format("%s took %d ms", step,
+                TimeUnit.NANOSECONDS.toMillis(end - start)));
+        return end;
     }
 
     private RunnerManager getRunnerManager() {
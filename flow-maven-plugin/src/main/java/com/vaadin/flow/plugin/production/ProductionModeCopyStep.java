@@ -20,6 +20,7 @@ import java.io.FileFilter;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -27,6 +28,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Stream;
 
 import org.apache.commons.io.FileUtils;
@@ -36,6 +41,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.vaadin.flow.plugin.common.ArtifactData;
+import com.vaadin.flow.plugin.common.BuildManifest;
 import com.vaadin.flow.plugin.common.FlowPluginFileUtils;
 import com.vaadin.flow.plugin.common.JarContentsManager;
 
@@ -173,7 +179,28 @@ public class ProductionModeCopyStep {
      * @throws UncheckedIOException  if any {@link IOException} occurs during other file operations
      */
     public void copyWebApplicationFiles(File outputDirectory, File frontendWorkingDirectory, String commaSeparatedWildcardPathExclusions) {
+        copyWebApplicationFiles(outputDirectory, frontendWorkingDirectory, commaSeparatedWildcardPathExclusions, null);
+    }
+
+    /**
+     * Copies files from earlier specified jars and {@code frontendWorkingDirectory}, applying exclusions specified to all files.
+     * The jars are extracted in parallel.
+     * <p>
+     * If a build manifest is given, the jar contents which have not changed since the previous build recorded in the manifest
+     * are not extracted again. The checksums of the extracted jar contents are stored in the manifest, writing the manifest is
+     * left to the caller.
+     *
+     * @param outputDirectory                      the directory to copy files into, not {@code null}
+     * @param frontendWorkingDirectory             the directory to copy files from, intended to be current application's directory with frontend files, can be {@code null}
+     * @param commaSeparatedWildcardPathExclusions comma separated wildcard exclusions to exclude files, can be {@code null} if no files are excluded
+     * @param buildManifest                        the manifest to check and store the jar checksums in, or {@code null} to extract all jars
+     * @throws IllegalStateException if any directory fails to be created via {@link File#mkdirs()}
+     * @throws UncheckedIOException  if any {@link IOException} occurs during other file operations
+     */
+    public void copyWebApplicationFiles(File outputDirectory, File frontendWorkingDirectory, String commaSeparatedWildcardPathExclusions, BuildManifest buildManifest) {
         LOGGER.info("Copying web application files to '{}'", outputDirectory);
+        // Files extracted in a previous build can only be reused if they are still there
+        boolean outputDirectoryExisted = outputDirectory.isDirectory();
         FlowPluginFileUtils.forceMkdir(outputDirectory);
 
         String[] wildcardExclusions = getWildcardExclusions(commaSeparatedWildcardPathExclusions);
@@ -186,17 +213,69 @@ public class ProductionModeCopyStep {
             }
         }
 
+        List<Runnable> extractions = new ArrayList<>();
         if (!webJarNameToPackage.isEmpty()) {
             File bowerComponents = new File(outputDirectory, BOWER_COMPONENTS_DIRECTORY_NAME);
-            webJarNameToPackage.forEach((name, webJarPackage) -> {
+            webJarNameToPackage.forEach((name, webJarPackage) -> extractions.add(() -> {
                 File webJarDirectory = new File(bowerComponents, name);
+                boolean webJarDirectoryExisted = webJarDirectory.isDirectory();
                 FlowPluginFileUtils.forceMkdir(webJarDirectory);
-                jarContentsManager.copyFilesFromJarTrimmingBasePath(webJarPackage.getWebJar().getFileOrDirectory(), webJarPackage.getPathToPackage(), webJarDirectory, wildcardExclusions);
-            });
+                copyFilesFromJar(webJarPackage.getWebJar().getFileOrDirectory(), webJarPackage.getPathToPackage(), webJarDirectory, wildcardExclusions,
+                        buildManifest, webJarDirectoryExisted);
+            }));
         }
 
         for (File notWebJar : nonWebJars) {
-            jarContentsManager.copyFilesFromJarTrimmingBasePath(notWebJar, NON_WEB_JAR_RESOURCE_PATH, outputDirectory, wildcardExclusions);
+            extractions.add(() -> copyFilesFromJar(notWebJar, NON_WEB_JAR_RESOURCE_PATH, outputDirectory, wildcardExclusions, buildManifest,
+                    outputDirectoryExisted));
+        }
+
+        runInParallel(extractions);
+    }
+
+    private void copyFilesFromJar(File jar, String jarDirectoryToCopyFrom, File outputDirectory, String[] wildcardExclusions, BuildManifest buildManifest,
+            boolean outputDirectoryExisted) {
+        String key = null;
+        String checksum = null;
+        if (buildManifest != null) {
+            key = jar.getAbsolutePath() + '!' + jarDirectoryToCopyFrom;
+            checksum = BuildManifest.hash(jarContentsManager.getChecksum(jar, jarDirectoryToCopyFrom), outputDirectory.getAbsolutePath(), String.join(",", wildcardExclusions));
+            if (outputDirectoryExisted && buildManifest.isUpToDate(key, checksum)) {
+                LOGGER.debug("Skipping unchanged contents of '{}' in jar '{}'", jarDirectoryToCopyFrom, jar);
+                buildManifest.update(key, checksum);
+                return;
+            }
+        }
+
+        jarContentsManager.copyFilesFromJarTrimmingBasePath(jar, jarDirectoryToCopyFrom, outputDirectory, wildcardExclusions);
+
+        if (buildManifest != null) {
+            buildManifest.update(key, checksum);
+        }
+    }
+
+    private void runInParallel(List<Runnable> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        int threads = Math.min(tasks.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>(tasks.size());
+            tasks.forEach(task -> futures.add(executor.submit(task)));
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while copying files from jars", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Failed to copy files from jars", e.getCause());
+        } finally {
+            executor.shutdownNow();
         }
     }
 
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.vaadin.flow.plugin.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+public class BuildManifestTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void nonExistingManifest_nothingUpToDate() {
+        BuildManifest manifest = new BuildManifest(
+                new File(temporaryFolder.getRoot(), "manifest.properties"));
+        assertFalse(manifest.isUpToDate("key", "hash"));
+    }
+
+    @Test
+    public void write_storedHashesUpToDateInNextBuild() {
+        File manifestFile = new File(temporaryFolder.getRoot(),
+                "build/manifest.properties");
+        BuildManifest manifest = new BuildManifest(manifestFile);
+        manifest.update("first", "hash1");
+        manifest.update("second", "hash2");
+        assertFalse("Hashes are only compared to the previous build",
+                manifest.isUpToDate("first", "hash1"));
+        manifest.write();
+
+        BuildManifest nextBuild = new BuildManifest(manifestFile);
+        assertTrue(nextBuild.isUpToDate("first", "hash1"));
+        assertTrue(nextBuild.isUpToDate("second", "hash2"));
+        assertFalse(nextBuild.isUpToDate("second", "hash1"));
+    }
+
+    @Test
+    public void write_hashesNotStoredAgainDropped() {
+        File manifestFile = new File(temporaryFolder.getRoot(),
+                "manifest.properties");
+        BuildManifest manifest = new BuildManifest(manifestFile);
+        manifest.update("first", "hash1");
+        manifest.update("second", "hash2");
+        manifest.write();
+
+        manifest = new BuildManifest(manifestFile);
+        manifest.update("first", "hash1");
+        manifest.write();
+
+        manifest = new BuildManifest(manifestFile);
+        assertTrue(manifest.isUpToDate("first", "hash1"));
+        assertFalse(manifest.isUpToDate("second", "hash2"));
+    }
+
+    @Test
+    public void hash_valuesSeparated() {
+        assertEquals(BuildManifest.hash("a", "bc"),
+                BuildManifest.hash("a", "bc"));
+        assertNotEquals(BuildManifest.hash("a", "bc"),
+                BuildManifest.hash("ab", "c"));
+    }
+
+    @Test
+    public void hashDirectory_changesWithContentsAndPaths() throws IOException {
+        File directory = temporaryFolder.newFolder("frontend");
+        File file = new File(directory, "src/view.html");
+        FileUtils.write(file, "<div></div>", StandardCharsets.UTF_8);
+        FileUtils.write(new File(directory, "styles.css"), "div {}",
+                StandardCharsets.UTF_8);
+
+        String hash = BuildManifest.hashDirectory(directory);
+        assertEquals(hash, BuildManifest.hashDirectory(directory));
+
+        FileUtils.write(file, "<span></span>", StandardCharsets.UTF_8);
+        String changedContents = BuildManifest.hashDirectory(directory);
+        assertNotEquals(hash, changedContents);
+
+        FileUtils.moveFile(file, new File(directory, "src/other.html"));
+        assertNotEquals(changedContents,
+                BuildManifest.hashDirectory(directory));
+    }
+
+    @Test
+    public void hashFile_sameContentsSameHash() throws IOException {
+        File first = temporaryFolder.newFile("first");
+        File second = temporaryFolder.newFile("second");
+        FileUtils.write(first, "contents", StandardCharsets.UTF_8);
+        FileUtils.write(second, "contents", StandardCharsets.UTF_8);
+        assertEquals(BuildManifest.hashFile(first),
+                BuildManifest.hashFile(second));
+
+        FileUtils.write(second, "other", StandardCharsets.UTF_8);
+        assertNotEquals(BuildManifest.hashFile(first),
+                BuildManifest.hashFile(second));
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.vaadin.flow.plugin.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.vaadin.flow.component.dependency.HtmlImport;
+import com.vaadin.flow.component.dependency.JavaScript;
+import com.vaadin.flow.component.dependency.StyleSheet;
+import com.vaadin.flow.plugin.TestUtils;
+import com.vaadin.flow.shared.ui.LoadMode;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+public class ClassFileAnnotationScannerTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @JavaScript("first.js")
+    @JavaScript(value = "second.js", loadMode = LoadMode.LAZY)
+    @StyleSheet("styles.css")
+    public static class AnnotatedComponent {
+    }
+
+    @JavaScript("third.js")
+    public static class OtherAnnotatedComponent {
+    }
+
+    private final URL[] testJars = {
+            TestUtils.getTestResource(
+                    "annotation-extractor-test/flow-server-1.0-SNAPSHOT.jar"),
+            TestUtils.getTestResource(
+                    "annotation-extractor-test/vaadin-grid-flow.jar"),
+            TestUtils.getTestResource(
+                    "annotation-extractor-test/flow-data-1.0-SNAPSHOT.jar") };
+
+    @Test
+    public void getAnnotationValues_sameAsWithReflection() throws Exception {
+        ClassFileAnnotationScanner scanner = new ClassFileAnnotationScanner(
+                null, testJars);
+
+        for (Class<? extends Annotation> annotation : Arrays.asList(
+                HtmlImport.class, JavaScript.class, StyleSheet.class)) {
+            assertEquals(annotation.getName(),
+                    getValuesWithReflection(annotation),
+                    scanner.getAnnotationValues(annotation, "value"));
+        }
+    }
+
+    @Test
+    public void getAnnotationValues_directory_repeatedAnnotationsAndDefaults() {
+        ClassFileAnnotationScanner scanner = new ClassFileAnnotationScanner(
+                null, getTestClassesDirectory());
+
+        assertTrue(scanner.getAnnotationValues(JavaScript.class, "value")
+                .containsAll(Arrays.asList("first.js", "second.js",
+                        "third.js")));
+        assertTrue(scanner.getAnnotationValues(StyleSheet.class, "value")
+                .contains("styles.css"));
+        assertEquals("Default value should be included for the annotations without the element",
+                new HashSet<>(Arrays.asList(LoadMode.EAGER.name(),
+                        LoadMode.LAZY.name())),
+                scanner.getAnnotationValues(JavaScript.class, "loadMode"));
+
+        Set<String> annotatedClasses = scanner
+                .getAnnotatedClassNames(JavaScript.class.getName());
+        assertTrue(annotatedClasses
+                .contains(AnnotatedComponent.class.getName()));
+        assertTrue(annotatedClasses
+                .contains(OtherAnnotatedComponent.class.getName()));
+        assertFalse(annotatedClasses.contains(getClass().getName()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getAnnotationValues_missingElement_throws() {
+        new ClassFileAnnotationScanner(null, getTestClassesDirectory())
+                .getAnnotationValues(JavaScript.class, "missing");
+    }
+
+    @Test
+    public void cacheFile_unchangedJarNotScannedAgain() throws IOException {
+        File jar = temporaryFolder.newFile("dependency.jar");
+        FileUtils.copyFile(TestUtils.getTestJar(
+                "annotation-extractor-test/vaadin-grid-flow.jar"), jar);
+        File cacheFile = new File(temporaryFolder.getRoot(), "cache.json");
+        URL jarUrl = FlowPluginFileUtils.convertToUrl(jar);
+
+        Set<String> values = new ClassFileAnnotationScanner(cacheFile,
+                jarUrl).getAnnotationValues(HtmlImport.class, "value");
+        assertFalse(values.isEmpty());
+        assertTrue(cacheFile.isFile());
+
+        // Replace the cached values to see whether the cache is used
+        JsonObject cache = Json.parse(
+                FileUtils.readFileToString(cacheFile, StandardCharsets.UTF_8));
+        JsonObject cachedValues = cache.getObject(jar.getAbsolutePath())
+                .getObject("values");
+        JsonArray cachedHtmlImports = Json.createArray();
+        cachedHtmlImports.set(0, "cached.html");
+        cachedValues.put(HtmlImport.class.getName() + "#value",
+                cachedHtmlImports);
+        FileUtils.write(cacheFile, cache.toJson(), StandardCharsets.UTF_8);
+
+        assertEquals(new HashSet<>(Arrays.asList("cached.html")),
+                new ClassFileAnnotationScanner(cacheFile, jarUrl)
+                        .getAnnotationValues(HtmlImport.class, "value"));
+
+        FileUtils.copyFile(TestUtils.getTestJar(
+                "annotation-extractor-test/flow-data-1.0-SNAPSHOT.jar"), jar);
+        assertFalse("Changed jar should be scanned again",
+                new ClassFileAnnotationScanner(cacheFile, jarUrl)
+                        .getAnnotationValues(HtmlImport.class, "value")
+                        .contains("cached.html"));
+    }
+
+    private URL getTestClassesDirectory() {
+        return getClass().getProtectionDomain().getCodeSource()
+                .getLocation();
+    }
+
+    private Set<String> getValuesWithReflection(
+            Class<? extends Annotation> annotation) throws Exception {
+        Set<String> values = new HashSet<>();
+        try (URLClassLoader classLoader = new URLClassLoader(testJars,
+                null)) {
+            @SuppressWarnings("unchecked")
+            Class<? extends Annotation> projectAnnotation = (Class<? extends Annotation>) classLoader
+                    .loadClass(annotation.getName());
+            for (URL url : testJars) {
+                for (String className : getClassNames(url)) {
+                    Class<?> type;
+                    try {
+                        type = Class.forName(className, false, classLoader);
+                    } catch (ClassNotFoundException | LinkageError e) {
+                        continue;
+                    }
+                    for (Annotation value : type
+                            .getAnnotationsByType(projectAnnotation)) {
+                        values.add(String.valueOf(value.annotationType()
+                                .getMethod("value").invoke(value)));
+                    }
+                }
+            }
+        }
+        return values;
+    }
+
+    private Set<String> getClassNames(URL jar) throws IOException {
+        try (JarFile jarFile = new JarFile(new File(jar.getFile()))) {
+            return jarFile.stream().map(entry -> entry.getName())
+                    .filter(name -> name.endsWith(".class"))
+                    .map(name -> name.substring(0, name.length() - 6)
+                            .replace('/', '.'))
+                    .collect(Collectors.toSet());
+        }
+    }
+}
@@ -39,6 +39,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
@@ -346,6 +347,27 @@ public class JarContentsManagerTest {
                 originalFiles.stream().anyMatch(file -> file.endsWith(copiedFile))));
     }
 
+    @Test
+    public void getChecksum_dependsOnJarAndDirectory() {
+        File otherJar = TestUtils.getTestJar("jar-with-frontend-resources.jar");
+        String checksum = jarContentsManager.getChecksum(testJar, null);
+
+        assertEquals("Checksum should be the same for the same jar contents",
+                checksum, jarContentsManager.getChecksum(testJar, ""));
+        assertNotEquals("Checksum should depend on the jar directory",
+                checksum, jarContentsManager.getChecksum(testJar, "META-INF/resources/webjars/paper-button/2.0.0/.github/"));
+        assertNotEquals("Checksum should depend on the jar contents",
+                checksum, jarContentsManager.getChecksum(otherJar, null));
+    }
+
+    @Test
+    public void getChecksum_directoryInsteadOfJar() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage(String.format("Expect '%s' to be an existing file", testDirectory.getRoot()));
+
+        jarContentsManager.getChecksum(testDirectory.getRoot(), null);
+    }
+
     private List<String> listFilesInJar(File jar, String jarDirectory) {
         try (JarFile jarFile = new JarFile(jar, false)) {
             return jarFile.stream()
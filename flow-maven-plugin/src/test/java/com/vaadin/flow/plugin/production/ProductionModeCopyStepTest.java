@@ -27,6 +27,7 @@ import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
 
+import org.apache.commons.io.FileUtils;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -34,6 +35,8 @@ import org.junit.rules.TemporaryFolder;
 
 import com.vaadin.flow.plugin.TestUtils;
 import com.vaadin.flow.plugin.common.ArtifactData;
+import com.vaadin.flow.plugin.common.BuildManifest;
+import com.vaadin.flow.plugin.common.FlowPluginFileUtils;
 import com.vaadin.flow.plugin.common.JarContentsManager;
 
 import static org.junit.Assert.assertEquals;
@@ -216,6 +219,70 @@ public class ProductionModeCopyStepTest {
                 ProductionModeCopyStep.WEB_JAR_FILES_BASE, expectedFilePath);
     }
 
+    @Test
+    public void copyWebApplicationFiles_incremental_unchangedJarsNotExtracted() throws IOException {
+        File outputDirectory = testDirectory.newFolder("output");
+        File manifestFile = new File(testDirectory.getRoot(), "manifest.properties");
+        List<ArtifactData> artifacts = Arrays.asList(getWebJarData("2.0.0", "paper-button"),
+                getTestArtifact("jar-with-frontend-resources.jar"));
+
+        BuildManifest manifest = new BuildManifest(manifestFile);
+        new ProductionModeCopyStep(artifacts).copyWebApplicationFiles(outputDirectory, null, null, manifest);
+        manifest.write();
+        List<String> copiedFiles = TestUtils.listFilesRecursively(outputDirectory);
+        assertFalse("Files should be copied in the first build", copiedFiles.isEmpty());
+
+        File removedFile = new File(outputDirectory, copiedFiles.get(0));
+        assertTrue(removedFile.delete());
+
+        manifest = new BuildManifest(manifestFile);
+        new ProductionModeCopyStep(artifacts).copyWebApplicationFiles(outputDirectory, null, null, manifest);
+        manifest.write();
+        assertFalse("Unchanged jars should not be extracted again", removedFile.exists());
+        assertEquals(copiedFiles.size() - 1, TestUtils.listFilesRecursively(outputDirectory).size());
+
+        manifest = new BuildManifest(manifestFile);
+        new ProductionModeCopyStep(artifacts).copyWebApplicationFiles(outputDirectory, null, "**/*.unknown", manifest);
+        assertTrue("Jars should be extracted again when the exclusions change", removedFile.exists());
+    }
+
+    @Test
+    public void copyWebApplicationFiles_incremental_missingOutputExtractedAgain() throws IOException {
+        File outputDirectory = testDirectory.newFolder("output");
+        File manifestFile = new File(testDirectory.getRoot(), "manifest.properties");
+        List<ArtifactData> artifacts = Collections.singletonList(getWebJarData("2.0.0", "paper-button"));
+
+        BuildManifest manifest = new BuildManifest(manifestFile);
+        new ProductionModeCopyStep(artifacts).copyWebApplicationFiles(outputDirectory, null, null, manifest);
+        manifest.write();
+        List<String> copiedFiles = TestUtils.listFilesRecursively(outputDirectory);
+
+        FileUtils.deleteDirectory(outputDirectory);
+
+        manifest = new BuildManifest(manifestFile);
+        new ProductionModeCopyStep(artifacts).copyWebApplicationFiles(outputDirectory, null, null, manifest);
+        assertEquals("Deleted output should be extracted again", copiedFiles,
+                TestUtils.listFilesRecursively(outputDirectory));
+    }
+
+    @Test
+    public void copyWebApplicationFiles_severalJars_allExtracted() {
+        List<ArtifactData> artifacts = Arrays.asList(getWebJarData("2.0.0", "paper-button"),
+                getTestArtifact("jar-with-frontend-resources.jar"));
+        File sequentialOutput = new File(testDirectory.getRoot(), "sequential");
+        FlowPluginFileUtils.forceMkdir(sequentialOutput);
+        for (ArtifactData artifact : artifacts) {
+            new ProductionModeCopyStep(Collections.singleton(artifact))
+                    .copyWebApplicationFiles(sequentialOutput, null, null);
+        }
+
+        File parallelOutput = new File(testDirectory.getRoot(), "parallel");
+        new ProductionModeCopyStep(artifacts).copyWebApplicationFiles(parallelOutput, null, null);
+
+        assertEquals(new TreeSet<>(TestUtils.listFilesRecursively(sequentialOutput)),
+                new TreeSet<>(TestUtils.listFilesRecursively(parallelOutput)));
+    }
+
     @Test
     public void copyWebApplicationFiles_copyNonWebJar_noFrontendFiles() {
         File outputDirectory = testDirectory.getRoot();
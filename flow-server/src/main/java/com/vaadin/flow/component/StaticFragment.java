@@ -0,0 +1,186 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Node;
+
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.dom.ElementUtil;
+import com.vaadin.flow.internal.SharedConstantPoolKey;
+import com.vaadin.flow.internal.nodefeature.ElementData;
+
+import elemental.json.Json;
+
+/**
+ * An immutable fragment of static HTML which is shared between all UIs that
+ * use it.
+ * <p>
+ * A fragment is typically created once, e.g. stored in a static field, from an
+ * HTML string or from an element tree. Each use of the fragment is a single
+ * component, created using {@link #create()}, which only has a root element
+ * without any server side children. The content inside the root element is
+ * sent to each browser window only once, regardless of how many times the
+ * fragment is used in it, and the server only keeps one copy of the content
+ * for the whole application.
+ * <p>
+ * Use fragments for markup which never changes, such as headers, footers, help
+ * texts and icons. The content cannot be traversed or modified on the server,
+ * and no children should be added to the root element of a fragment
+ * component.
+ * <p>
+ * Note that it is the developer's responsibility to sanitize and remove any
+ * dangerous parts of the HTML before sending it to the user through a
+ * fragment. Passing raw input data to the user will possibly lead to
+ * cross-site scripting attacks.
+ *
+ * @see Html
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+public final class StaticFragment implements Serializable {
+
+    private static class FragmentComponent extends Component {
+        private FragmentComponent(Element element) {
+            super(element);
+        }
+    }
+
+    private final String tag;
+    private final Map<String, String> attributes;
+    private final String innerHtml;
+    private final SharedConstantPoolKey content;
+
+    private StaticFragment(org.jsoup.nodes.Element root) {
+        root.ownerDocument().outputSettings().prettyPrint(false);
+
+        tag = root.tagName();
+        Map<String, String> attributeMap = new LinkedHashMap<>();
+        // Boolean attributes have no value
+        root.attributes().forEach(attribute -> attributeMap.put(
+                attribute.getKey(), Objects.toString(attribute.getValue(), "")));
+        attributes = Collections.unmodifiableMap(attributeMap);
+        innerHtml = root.html();
+        content = new SharedConstantPoolKey(Json.create(innerHtml));
+    }
+
+    /**
+     * Creates a fragment from the given HTML. The HTML must have exactly one
+     * root element.
+     * <p>
+     * A best effort is done to parse broken HTML but no guarantees are given
+     * for how invalid HTML is handled.
+     *
+     * @param outerHtml
+     *            the HTML of the fragment, not <code>null</code> or empty
+     * @return the fragment, not <code>null</code>
+     */
+    public static StaticFragment fromHtml(String outerHtml) {
+        if (outerHtml == null || outerHtml.isEmpty()) {
+            throw new IllegalArgumentException("HTML cannot be null or empty");
+        }
+        Document document = Jsoup.parse(outerHtml);
+        int nrChildren = document.body().children().size();
+        if (nrChildren != 1) {
+            String message = "HTML must contain exactly one top level element (ignoring text nodes). Found "
+                    + nrChildren;
+            if (nrChildren > 1) {
+                message += " elements with the tag names "
+                        + document.body().children().stream()
+                                .map(org.jsoup.nodes.Element::tagName)
+                                .collect(Collectors.joining(", "));
+            }
+            throw new IllegalArgumentException(message);
+        }
+        return new StaticFragment(document.body().child(0));
+    }
+
+    /**
+     * Creates a fragment from the current state of the given element tree.
+     * Attributes, text and child elements are included, while properties, event
+     * listeners and other server side state are ignored. The element is not
+     * modified and can be discarded after creating the fragment.
+     *
+     * @param element
+     *            the root element of the fragment, not <code>null</code>
+     * @return the fragment, not <code>null</code>
+     */
+    public static StaticFragment fromElement(Element element) {
+        if (element == null) {
+            throw new IllegalArgumentException("Element cannot be null");
+        }
+        if (element.isTextNode()) {
+            throw new IllegalArgumentException(
+                    "The root of a fragment cannot be a text node");
+        }
+        Document document = new Document("");
+        Node root = ElementUtil.toJsoup(document, element);
+        document.appendChild(root);
+        return new StaticFragment((org.jsoup.nodes.Element) root);
+    }
+
+    /**
+     * Creates a new component which shows this fragment. The component has a
+     * root element with the tag and attributes of the fragment, and a reference
+     * to the shared content of the fragment.
+     *
+     * @return a new component for this fragment, not <code>null</code>
+     */
+    public Component create() {
+        Element element = new Element(tag);
+        attributes.forEach(element::setAttribute);
+        element.getNode().getFeature(ElementData.class)
+                .setStaticContent(content);
+        return new FragmentComponent(element);
+    }
+
+    /**
+     * Gets the tag name of the root element of this fragment.
+     *
+     * @return the tag name, not <code>null</code>
+     */
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * Gets the attributes of the root element of this fragment.
+     *
+     * @return an unmodifiable map of attribute names to values, not
+     *         <code>null</code>
+     */
+    public Map<String, String> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Gets the inner HTML of this fragment, i.e. everything inside the root
+     * element.
+     *
+     * @return the inner HTML, not <code>null</code>
+     */
+    public String getInnerHtml() {
+        return innerHtml;
+    }
+}
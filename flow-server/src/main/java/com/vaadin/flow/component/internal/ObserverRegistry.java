@@ -0,0 +1,240 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.internal;
+
+import java.io.Serializable;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.dom.ShadowRoot;
+import com.vaadin.flow.i18n.LocaleChangeObserver;
+import com.vaadin.flow.internal.StateNode;
+import com.vaadin.flow.internal.nodefeature.ComponentMapping;
+import com.vaadin.flow.internal.nodefeature.ElementChildrenList;
+import com.vaadin.flow.internal.nodefeature.ShadowRootData;
+import com.vaadin.flow.internal.nodefeature.VirtualChildrenList;
+import com.vaadin.flow.router.AfterNavigationObserver;
+import com.vaadin.flow.router.BeforeEnterObserver;
+import com.vaadin.flow.router.BeforeLeaveObserver;
+
+/**
+ * Keeps track of the attached components of a UI which implement
+ * {@link BeforeEnterObserver}, {@link BeforeLeaveObserver},
+ * {@link AfterNavigationObserver} or {@link LocaleChangeObserver}.
+ * <p>
+ * The registry is updated when components are attached and detached, so that
+ * the observers can be found without visiting every element in the UI.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+public class ObserverRegistry implements Serializable {
+
+    private static final Class<?>[] OBSERVER_TYPES = {
+            BeforeEnterObserver.class, BeforeLeaveObserver.class,
+            AfterNavigationObserver.class, LocaleChangeObserver.class };
+
+    private final Set<StateNode> observerNodes = new HashSet<>();
+
+    /**
+     * Checks whether the given component implements any of the observer
+     * interfaces tracked by this registry.
+     *
+     * @param component
+     *            the component to check, not <code>null</code>
+     * @return <code>true</code> if the component is an observer,
+     *         <code>false</code> otherwise
+     */
+    public static boolean isObserver(Component component) {
+        for (Class<?> type : OBSERVER_TYPES) {
+            if (type.isInstance(component)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Updates the registration of an attached node based on the component
+     * mapped to it.
+     *
+     * @param node
+     *            the attached node, not <code>null</code>
+     * @param component
+     *            the component mapped to the node, or <code>null</code> if
+     *            there is none
+     */
+    public void update(StateNode node, Component component) {
+        if (component != null && isObserver(component)) {
+            observerNodes.add(node);
+        } else {
+            observerNodes.remove(node);
+        }
+    }
+
+    /**
+     * Removes the registration of a node which has been detached.
+     *
+     * @param node
+     *            the detached node, not <code>null</code>
+     */
+    public void remove(StateNode node) {
+        observerNodes.remove(node);
+    }
+
+    /**
+     * Gets the number of attached nodes whose component is an observer.
+     *
+     * @return the number of registered nodes
+     */
+    public int size() {
+        return observerNodes.size();
+    }
+
+    /**
+     * Collects the components implementing the given observer type that are
+     * mapped to the given attached element or its descendants.
+     * <p>
+     * The components are returned in the same order as they are found by
+     * visiting the element tree: children before virtual children before the
+     * shadow root, and parents before their descendants. Like
+     * {@link com.vaadin.flow.router.EventUtil#inspectHierarchy(Element, java.util.Collection, Predicate)},
+     * an element is only included if the predicate accepts the element and
+     * all its ancestors up to the given root element.
+     *
+     * @param <T>
+     *            the observer type
+     * @param root
+     *            the attached root element to collect observers from, not
+     *            <code>null</code>
+     * @param recursionPredicate
+     *            predicate to check whether a given element and its
+     *            descendants should be included, not <code>null</code>
+     * @param observerType
+     *            the observer type to collect, not <code>null</code>
+     * @return the observers in tree order, not <code>null</code>
+     */
+    public <T> List<T> getObservers(Element root,
+            Predicate<Element> recursionPredicate, Class<T> observerType) {
+        StateNode rootNode = root.getNode();
+        Map<StateNode, Map<StateNode, Integer>> childPositions = new HashMap<>();
+        List<Entry<int[], T>> found = new ArrayList<>();
+
+        for (StateNode node : observerNodes) {
+            Component component = ComponentMapping.getComponent(node)
+                    .orElse(null);
+            if (!observerType.isInstance(component)) {
+                continue;
+            }
+            int[] path = getPath(rootNode, node, recursionPredicate,
+                    childPositions);
+            if (path != null) {
+                found.add(new SimpleImmutableEntry<>(path,
+                        observerType.cast(component)));
+            }
+        }
+
+        found.sort((entry1, entry2) -> comparePaths(entry1.getKey(),
+                entry2.getKey()));
+        return found.stream().map(Entry::getValue)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the positions of the nodes from the root node down to the given
+     * node, or <code>null</code> if the node can't be reached from the root
+     * by visiting elements accepted by the predicate.
+     */
+    private static int[] getPath(StateNode rootNode, StateNode node,
+            Predicate<Element> recursionPredicate,
+            Map<StateNode, Map<StateNode, Integer>> childPositions) {
+        List<Integer> positions = new ArrayList<>();
+        StateNode current = node;
+        while (true) {
+            if (!ShadowRoot.isShadowRoot(current)
+                    && !recursionPredicate.test(Element.get(current))) {
+                return null;
+            }
+            if (current == rootNode) {
+                break;
+            }
+            StateNode parent = current.getParent();
+            if (parent == null) {
+                return null;
+            }
+            Integer position = childPositions
+                    .computeIfAbsent(parent, ObserverRegistry::getChildPositions)
+                    .get(current);
+            if (position == null) {
+                // Not a child which is visited as a part of the element tree
+                return null;
+            }
+            positions.add(position);
+            current = parent;
+        }
+
+        int[] path = new int[positions.size()];
+        for (int i = 0; i < path.length; i++) {
+            path[i] = positions.get(path.length - 1 - i);
+        }
+        return path;
+    }
+
+    private static Map<StateNode, Integer> getChildPositions(StateNode node) {
+        Map<StateNode, Integer> positions = new HashMap<>();
+        Consumer<StateNode> collector = child -> positions.put(child,
+                positions.size());
+
+        if (node.hasFeature(ElementChildrenList.class)) {
+            node.getFeatureIfInitialized(ElementChildrenList.class)
+                    .ifPresent(list -> list.forEachChild(collector));
+        }
+        if (node.hasFeature(VirtualChildrenList.class)) {
+            node.getFeatureIfInitialized(VirtualChildrenList.class)
+                    .ifPresent(list -> list.forEachChild(collector));
+        }
+        if (node.hasFeature(ShadowRootData.class)) {
+            node.getFeatureIfInitialized(ShadowRootData.class)
+                    .map(ShadowRootData::getShadowRoot).ifPresent(collector);
+        }
+
+        return positions;
+    }
+
+    private static int comparePaths(int[] path1, int[] path2) {
+        int length = Math.min(path1.length, path2.length);
+        for (int i = 0; i < length; i++) {
+            if (path1[i] != path2[i]) {
+                return Integer.compare(path1[i], path2[i]);
+            }
+        }
+        // An ancestor is visited before its descendants
+        return Integer.compare(path1.length, path2.length);
+    }
+}
@@ -43,7 +43,9 @@ import com.vaadin.flow.component.page.Page.ExecutionCanceler;
 import com.vaadin.flow.dom.Element;
 import com.vaadin.flow.dom.impl.BasicElementStateProvider;
 import com.vaadin.flow.internal.AnnotationReader;
+import com.vaadin.flow.function.SerializableConsumer;
 import com.vaadin.flow.internal.ConstantPool;
+import com.vaadin.flow.internal.MemoryFootprintUtil;
 import com.vaadin.flow.internal.ReflectTools;
 import com.vaadin.flow.internal.StateTree;
 import com.vaadin.flow.internal.nodefeature.LoadingIndicatorConfigurationMap;
@@ -66,6 +68,7 @@ import com.vaadin.flow.server.VaadinService;
 import com.vaadin.flow.server.VaadinSession;
 import com.vaadin.flow.server.WebBrowser;
 import com.vaadin.flow.server.communication.PushConnection;
+import com.vaadin.flow.server.metrics.MemoryFootprint;
 import com.vaadin.flow.shared.Registration;
 import com.vaadin.flow.shared.communication.PushMode;
 import com.vaadin.flow.theme.AbstractTheme;
@@ -142,6 +145,12 @@ public class UIInternals implements Serializable {
      */
     private long lastHeartbeatTimestamp = System.currentTimeMillis();
 
+    /**
+     * Whether the UI has been modified since it was last stored in the HTTP
+     * session when using delta session replication.
+     */
+    private transient boolean modified = true;
+
     private List<JavaScriptInvocation> pendingJsInvocations = new ArrayList<>();
 
     /**
@@ -171,6 +180,10 @@ public class UIInternals implements Serializable {
 
     private final ConstantPool constantPool = new ConstantPool();
 
+    private final ObserverRegistry observerRegistry = new ObserverRegistry();
+
+    private List<SerializableConsumer<MemoryFootprint>> memoryFootprintContributors;
+
     private AbstractTheme theme = null;
 
     private static final Pattern componentSource = Pattern
@@ -178,6 +191,8 @@ public class UIInternals implements Serializable {
 
     private byte[] lastProcessedMessageHash = null;
 
+    private Map<Integer, String> pendingClientMessages;
+
     private String contextRootRelativePath;
 
     private String appId;
@@ -244,6 +259,82 @@ public class UIInternals implements Serializable {
             byte[] lastProcessedMessageHash) {
         this.lastProcessedClientToServerId = lastProcessedClientToServerId;
         this.lastProcessedMessageHash = lastProcessedMessageHash;
+        modified = true;
+    }
+
+    /**
+     * Stores a message from the client which has been received before an
+     * earlier message that the client has sent without waiting for its
+     * response.
+     * <p>
+     * Used internally for communication tracking.
+     *
+     * @param clientToServerId
+     *            the id of the message
+     * @param message
+     *            the message, not <code>null</code>
+     */
+    public void addPendingClientMessage(int clientToServerId,
+            String message) {
+        if (pendingClientMessages == null) {
+            pendingClientMessages = new HashMap<>();
+        }
+        pendingClientMessages.put(clientToServerId, message);
+        modified = true;
+    }
+
+    /**
+     * Removes and returns the stored message from the client with the given
+     * id.
+     * <p>
+     * Used internally for communication tracking.
+     *
+     * @param clientToServerId
+     *            the id of the message
+     * @return the message, or <code>null</code> if no message with the given
+     *         id has been stored
+     * @see #addPendingClientMessage(int, String)
+     */
+    public String removePendingClientMessage(int clientToServerId) {
+        if (pendingClientMessages == null) {
+            return null;
+        }
+        String message = pendingClientMessages.remove(clientToServerId);
+        if (pendingClientMessages.isEmpty()) {
+            pendingClientMessages = null;
+        }
+        return message;
+    }
+
+    /**
+     * Checks whether the UI has been modified since it was last stored in the
+     * HTTP session. A UI is modified when it has handled a message from the
+     * client, when changes have been collected from its state tree or when
+     * its state tree is dirty.
+     * <p>
+     * Used internally for delta session replication.
+     *
+     * @see com.vaadin.flow.function.DeploymentConfiguration#isDeltaSessionReplication()
+     *
+     * @return <code>true</code> if the UI has been modified,
+     *         <code>false</code> otherwise
+     */
+    public boolean isModified() {
+        return modified || stateTree.isDirty();
+    }
+
+    /**
+     * Sets whether the UI has been modified since it was last stored in the
+     * HTTP session.
+     * <p>
+     * Used internally for delta session replication.
+     *
+     * @param modified
+     *            <code>true</code> to mark the UI as modified,
+     *            <code>false</code> when the UI has been stored
+     */
+    public void setModified(boolean modified) {
+        this.modified = modified;
     }
 
     /**
@@ -544,6 +635,74 @@ public class UIInternals implements Serializable {
         return currentList;
     }
 
+    /**
+     * Adds a contributor which adds the memory used by objects which are not
+     * part of the state tree, e.g. the key mapper of a data communicator, to
+     * the memory footprint of this UI.
+     *
+     * @param contributor
+     *            the contributor to add, not <code>null</code>
+     * @return a handle for removing the contributor
+     * @see #estimateMemoryFootprint(MemoryFootprint)
+     */
+    public Registration addMemoryFootprintContributor(
+            SerializableConsumer<MemoryFootprint> contributor) {
+        if (memoryFootprintContributors == null) {
+            memoryFootprintContributors = new ArrayList<>(1);
+        }
+        memoryFootprintContributors.add(contributor);
+        return () -> memoryFootprintContributors.remove(contributor);
+    }
+
+    /**
+     * Adds the estimated memory used by this UI to the given memory footprint.
+     * This includes the nodes of the state tree, UI level listeners, pending
+     * JavaScript invocations, the constant pool and the memory reported by
+     * the contributors added with
+     * {@link #addMemoryFootprintContributor(SerializableConsumer)}.
+     *
+     * @param footprint
+     *            the memory footprint to add to, not <code>null</code>
+     * @see MemoryFootprint#estimate(UI)
+     */
+    public void estimateMemoryFootprint(MemoryFootprint footprint) {
+        // The UI and the fields of this instance
+        footprint.add(MemoryFootprint.UI, 1,
+                MemoryFootprintUtil.objectSize(10, 0)
+                        + MemoryFootprintUtil.objectSize(25, 24));
+
+        stateTree.getRootNode().visitNodeTree(
+                node -> node.estimateMemoryFootprint(footprint));
+
+        int listenerCount = 0;
+        long listenerBytes = MemoryFootprintUtil.hashMapSize(listeners.size());
+        for (List<?> list : listeners.values()) {
+            listenerCount += list.size();
+            listenerBytes += MemoryFootprintUtil.arrayListSize(list.size())
+                    + list.size() * (long) MemoryFootprintUtil.objectSize(1, 0);
+        }
+        footprint.add(MemoryFootprint.UI_LISTENER, listenerCount,
+                listenerBytes);
+
+        long invocationBytes = MemoryFootprintUtil
+                .arrayListSize(pendingJsInvocations.size());
+        for (JavaScriptInvocation invocation : pendingJsInvocations) {
+            invocationBytes += MemoryFootprintUtil.objectSize(2, 0)
+                    + MemoryFootprintUtil.stringSize(invocation.getExpression())
+                    + MemoryFootprintUtil
+                            .valueSize(invocation.parameters);
+        }
+        footprint.add(MemoryFootprint.PENDING_JAVASCRIPT_INVOCATION,
+                pendingJsInvocations.size(), invocationBytes);
+
+        constantPool.estimateMemoryFootprint(footprint);
+
+        if (memoryFootprintContributors != null) {
+            new ArrayList<>(memoryFootprintContributors)
+                    .forEach(contributor -> contributor.accept(footprint));
+        }
+    }
+
     /**
      * Gets the pending javascript invocations added with
      * {@link #addJavaScriptInvocation(JavaScriptInvocation)} after last
@@ -841,6 +1000,16 @@ public class UIInternals implements Serializable {
         return constantPool;
     }
 
+    /**
+     * Gets the registry of the attached components in this UI which implement
+     * one of the navigation or locale change observer interfaces.
+     *
+     * @return the observer registry, not <code>null</code>
+     */
+    public ObserverRegistry getObserverRegistry() {
+        return observerRegistry;
+    }
+
     /**
      * Get the latest handled location or empty optional if no active
      * navigation.
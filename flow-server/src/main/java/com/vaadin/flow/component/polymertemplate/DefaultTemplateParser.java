@@ -15,20 +15,13 @@
  */
 package com.vaadin.flow.component.polymertemplate;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Comment;
-import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
-import org.jsoup.nodes.Node;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -48,7 +41,8 @@ import com.vaadin.flow.shared.ui.Dependency.Type;
  * <p>
  * The implementation scans all HTML imports annotations for the given template
  * class and tries to find the one that contains template definition using the
- * tag name.
+ * tag name. Parsed HTML imports are shared with other parsers through
+ * {@link VaadinService#getTemplateDefinitionCache()}.
  * <p>
  * The class is Singleton. Use {@link DefaultTemplateParser#getInstance()} to
  * get its instance.
@@ -92,37 +86,24 @@ public final class DefaultTemplateParser implements TemplateParser {
                     filterContext);
         }
 
+        TemplateDefinitionCache cache = getTemplateDefinitionCache(service,
+                browser);
         for (Dependency dependency : dependencies) {
             if (dependency.getType() != Type.HTML_IMPORT) {
                 continue;
             }
 
             String url = dependency.getUrl();
-            try (InputStream content = service.getResourceAsStream(url, browser,
-                    null)) {
-                if (content == null) {
-                    throw new IllegalStateException(
-                            String.format("Can't find resource '%s' "
-                                    + "via the servlet context", url));
-                }
-                Element templateElement = parseHtmlImport(content, url, tag);
-                if (logEnabled && templateElement != null) {
+            Optional<Element> templateElement = cache
+                    .getDomModule(resolvePath(service, url, browser), tag);
+            if (templateElement.isPresent()) {
+                if (logEnabled) {
                     getLogger().debug(
                             "Found a template file containing template "
                                     + "definition for the tag '{}' by the path '{}'",
                             tag, url);
                 }
-
-                if (templateElement != null) {
-                    return new TemplateData(url, templateElement);
-
-                }
-            } catch (IOException exception) {
-                // ignore exception on close()
-                if (logEnabled) {
-                    getLogger().warn("Couldn't close template input stream",
-                            exception);
-                }
+                return new TemplateData(url, templateElement.get());
             }
         }
         throw new IllegalStateException(String.format("Couldn't find the "
@@ -135,43 +116,26 @@ public final class DefaultTemplateParser implements TemplateParser {
                 HtmlImport.class.getSimpleName()));
     }
 
-    private static Element parseHtmlImport(InputStream content, String path,
-            String tag) {
-        assert content != null;
-        try {
-            Document parsedDocument = Jsoup.parse(content,
-                    StandardCharsets.UTF_8.name(), "");
-            Optional<Element> optionalDomModule = getDomModule(parsedDocument,
-                    tag);
-            if (!optionalDomModule.isPresent()) {
-                return null;
-            }
-            Element domModule = optionalDomModule.get();
-            removeCommentsRecursively(domModule);
-            return domModule;
-        } catch (IOException exception) {
-            throw new RuntimeException(String.format(
-                    "Can't parse the template declared using '%s' path", path),
-                    exception);
+    private static TemplateDefinitionCache getTemplateDefinitionCache(
+            VaadinService service, WebBrowser browser) {
+        TemplateDefinitionCache cache = service.getTemplateDefinitionCache();
+        if (cache == null) {
+            // The service is not initialized: parse files on each lookup
+            cache = new TemplateDefinitionCache(
+                    url -> service.getResourceAsStream(url, browser, null),
+                    url -> null, false);
         }
+        return cache;
     }
 
-    private static Optional<Element> getDomModule(Element parent, String id) {
-        return parent.getElementsByTag("dom-module").stream()
-                .filter(element -> id.equals(element.id())).findFirst();
-    }
-
-    private static void removeCommentsRecursively(Node node) {
-        int i = 0;
-        while (i < node.childNodeSize()) {
-            Node child = node.childNode(i);
-            if (child instanceof Comment) {
-                child.remove();
-            } else {
-                removeCommentsRecursively(child);
-                i++;
-            }
-        }
+    /**
+     * Resolves the path of the given import for the given browser so that the
+     * ES5 and ES6 variants of the same import are cached separately.
+     */
+    private static String resolvePath(VaadinService service, String url,
+            WebBrowser browser) {
+        String path = service.resolveResource(url, browser);
+        return path == null ? url : path;
     }
 
     private Logger getLogger() {
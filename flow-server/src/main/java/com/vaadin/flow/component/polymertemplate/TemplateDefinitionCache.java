@@ -0,0 +1,288 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.polymertemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Comment;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.function.SerializableFunction;
+
+/**
+ * Cache of parsed HTML imports containing {@code dom-module} template
+ * definitions.
+ * <p>
+ * Each HTML import is parsed once and all the {@code dom-module} elements it
+ * contains are indexed by their id, so finding templates for several tags
+ * declared in the same file (e.g. a bundle) doesn't parse the file again. The
+ * cache is kept by the {@link com.vaadin.flow.server.VaadinService} and shared
+ * by all template parsers using the same service, see
+ * {@link com.vaadin.flow.server.VaadinService#getTemplateDefinitionCache()}.
+ * <p>
+ * Files are cached by the given path as is, so callers should pass paths
+ * which are already resolved for the browser variant (e.g. ES5 or ES6
+ * frontend directory) in order to keep the variants apart.
+ * <p>
+ * In production mode a parsed file is never parsed again. Otherwise the last
+ * modification time of the file is checked on each lookup and the file is
+ * parsed again if it has been modified. Files inside jar archives can't be
+ * modified without redeploying and are parsed only once in any mode. Other
+ * files whose modification time cannot be determined are not cached outside
+ * of production mode.
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+public class TemplateDefinitionCache implements Serializable {
+
+    /**
+     * Modification time marker for files which are never modified.
+     */
+    private static final long UNMODIFIABLE = -1;
+
+    private final SerializableFunction<String, InputStream> contentProvider;
+    private final SerializableFunction<String, URL> urlProvider;
+    private final boolean productionMode;
+
+    private transient Map<String, ParsedHtmlImport> cache = new ConcurrentHashMap<>();
+
+    private final LongAdder parseCount = new LongAdder();
+    private final LongAdder parseTime = new LongAdder();
+    private final LongAdder hitCount = new LongAdder();
+
+    /**
+     * Parsed HTML import: its modification timestamp and all its
+     * {@code dom-module} elements mapped by their ids.
+     */
+    private static class ParsedHtmlImport {
+        private final long lastModified;
+        private final Map<String, Element> domModules;
+
+        private ParsedHtmlImport(long lastModified,
+                Map<String, Element> domModules) {
+            this.lastModified = lastModified;
+            this.domModules = domModules;
+        }
+    }
+
+    /**
+     * Creates a new cache using the given resource providers.
+     *
+     * @param contentProvider
+     *            a function which returns the content of an HTML import for
+     *            the given path or {@code null} if there is no such resource
+     * @param urlProvider
+     *            a function which returns the URL of an HTML import for the
+     *            given path, used to check its modification time outside of
+     *            production mode, may return {@code null}
+     * @param productionMode
+     *            {@code true} if parsed files should never be parsed again,
+     *            {@code false} to check the modification time of the files
+     */
+    public TemplateDefinitionCache(
+            SerializableFunction<String, InputStream> contentProvider,
+            SerializableFunction<String, URL> urlProvider,
+            boolean productionMode) {
+        this.contentProvider = contentProvider;
+        this.urlProvider = urlProvider;
+        this.productionMode = productionMode;
+    }
+
+    /**
+     * Gets the {@code dom-module} element with the given id declared in the
+     * HTML import with the given path.
+     * <p>
+     * The returned element is a copy of the cached one with all the comments
+     * removed, so it may be freely modified by the caller.
+     *
+     * @param path
+     *            the path of the HTML import, not {@code null}
+     * @param id
+     *            the id of the {@code dom-module} element, not {@code null}
+     * @return the {@code dom-module} element, or an empty optional if the HTML
+     *         import doesn't declare a {@code dom-module} with the given id
+     * @throws IllegalStateException
+     *             if there is no resource for the given path
+     */
+    public Optional<Element> getDomModule(String path, String id) {
+        return Optional.ofNullable(getParsedHtmlImport(path).domModules.get(id))
+                .map(Element::clone);
+    }
+
+    /**
+     * Gets the number of times an HTML import has been parsed by this cache.
+     *
+     * @return the number of parsed HTML imports
+     */
+    public long getParseCount() {
+        return parseCount.sum();
+    }
+
+    /**
+     * Gets the number of lookups that have been served without parsing the
+     * HTML import.
+     *
+     * @return the number of cache hits
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Gets the total time spent on reading and parsing HTML imports.
+     *
+     * @param unit
+     *            the time unit of the result, not {@code null}
+     * @return the total parse time in the given unit
+     */
+    public long getTotalParseTime(TimeUnit unit) {
+        return unit.convert(parseTime.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Clears all the contents of the cache.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    private ParsedHtmlImport getParsedHtmlImport(String path) {
+        ParsedHtmlImport parsed = cache.get(path);
+        if (parsed != null && (productionMode
+                || parsed.lastModified == UNMODIFIABLE)) {
+            hitCount.increment();
+            return parsed;
+        }
+
+        long lastModified = productionMode ? 0 : getLastModified(path);
+        if (parsed != null && lastModified > 0
+                && parsed.lastModified == lastModified) {
+            hitCount.increment();
+            return parsed;
+        }
+
+        /*
+         * Concurrent lookups of the same path may both end up parsing it. That
+         * is harmless since the result is the same and parsing happens only
+         * until the first result is in the cache.
+         */
+        parsed = new ParsedHtmlImport(lastModified, parse(path));
+        if (productionMode || lastModified != 0) {
+            cache.put(path, parsed);
+        } else {
+            cache.remove(path);
+        }
+        return parsed;
+    }
+
+    private Map<String, Element> parse(String path) {
+        long start = System.nanoTime();
+        try (InputStream content = contentProvider.apply(path)) {
+            if (content == null) {
+                throw new IllegalStateException(
+                        String.format("Can't find resource '%s' "
+                                + "via the servlet context", path));
+            }
+            Document document = Jsoup.parse(content,
+                    StandardCharsets.UTF_8.name(), "");
+            Map<String, Element> domModules = new HashMap<>();
+            for (Element domModule : document
+                    .getElementsByTag("dom-module")) {
+                // the first declaration wins as with the sequential lookup
+                if (!domModules.containsKey(domModule.id())) {
+                    removeCommentsRecursively(domModule);
+                    domModules.put(domModule.id(), domModule);
+                }
+            }
+            return Collections.unmodifiableMap(domModules);
+        } catch (IOException exception) {
+            throw new RuntimeException(String.format(
+                    "Can't parse the template declared using '%s' path", path),
+                    exception);
+        } finally {
+            long time = System.nanoTime() - start;
+            parseCount.increment();
+            parseTime.add(time);
+            getLogger().debug("Parsed the template file '{}' in {} ms", path,
+                    TimeUnit.NANOSECONDS.toMillis(time));
+        }
+    }
+
+    private long getLastModified(String path) {
+        URL url = urlProvider.apply(path);
+        if (url == null) {
+            return 0;
+        }
+        if ("jar".equals(url.getProtocol())) {
+            // Don't open the jar on each lookup just to read the entry time
+            return UNMODIFIABLE;
+        }
+        try {
+            if ("file".equals(url.getProtocol())) {
+                return new File(url.toURI()).lastModified();
+            }
+            return url.openConnection().getLastModified();
+        } catch (IOException | URISyntaxException
+                | IllegalArgumentException exception) {
+            getLogger().trace("Couldn't get modification time of '{}'", url,
+                    exception);
+            return 0;
+        }
+    }
+
+    private static void removeCommentsRecursively(Node node) {
+        int i = 0;
+        while (i < node.childNodeSize()) {
+            Node child = node.childNode(i);
+            if (child instanceof Comment) {
+                child.remove();
+            } else {
+                removeCommentsRecursively(child);
+                i++;
+            }
+        }
+    }
+
+    private void readObject(ObjectInputStream stream)
+            throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        cache = new ConcurrentHashMap<>();
+    }
+
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(TemplateDefinitionCache.class.getName());
+    }
+}
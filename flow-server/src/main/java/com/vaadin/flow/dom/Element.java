@@ -1411,7 +1411,8 @@ public class Element extends Node<Element> {
             throw new IllegalArgumentException(ATTRIBUTE_NAME_CANNOT_BE_NULL);
         }
 
-        String lowerCaseAttribute = attribute.toLowerCase(Locale.ENGLISH);
+        String lowerCaseAttribute = ElementUtil
+                .toLowerCaseAttributeName(attribute);
         if (!ElementUtil.isValidAttributeName(lowerCaseAttribute)) {
             throw new IllegalArgumentException(String.format(
                     "Attribute \"%s\" is not a valid attribute name",
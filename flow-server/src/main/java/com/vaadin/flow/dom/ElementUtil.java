@@ -17,7 +17,6 @@ package com.vaadin.flow.dom;
 
 import java.util.Locale;
 import java.util.Optional;
-import java.util.regex.Pattern;
 
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Node;
@@ -34,12 +33,11 @@ import com.vaadin.flow.component.Composite;
  */
 public class ElementUtil {
 
-    /**
-     * Pattern for matching valid tag names, according to
-     * https://www.w3.org/TR/html-markup/syntax.html#tag-name "HTML elements all
-     * have names that only use characters in the range 0–9, a–z, and A–Z."
-     */
-    private static Pattern tagNamePattern = Pattern.compile("^[a-zA-Z0-9-]+$");
+    private static final NameCache<Boolean> validStylePropertyNames = new NameCache<>(
+            name -> getInvalidStylePropertyNameError(name) == null);
+
+    private static final NameCache<String> lowerCaseAttributeNames = new NameCache<>(
+            name -> name.toLowerCase(Locale.ENGLISH));
 
     private ElementUtil() {
         // Util methods only
@@ -47,13 +45,27 @@ public class ElementUtil {
 
     /**
      * Checks if the given tag name is valid.
+     * <p>
+     * According to https://www.w3.org/TR/html-markup/syntax.html#tag-name
+     * "HTML elements all have names that only use characters in the range 0–9,
+     * a–z, and A–Z." Dashes are also allowed for custom elements.
      *
      * @param tag
      *            the tag name
      * @return true if the string is valid as a tag name, false otherwise
      */
     public static boolean isValidTagName(String tag) {
-        return tag != null && tagNamePattern.matcher(tag).matches();
+        if (tag == null || tag.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < tag.length(); i++) {
+            char c = tag.charAt(i);
+            if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z'
+                    || c >= '0' && c <= '9' || c == '-')) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -85,6 +97,18 @@ public class ElementUtil {
         return true;
     }
 
+    /**
+     * Converts the given attribute name to lower case. Conversion results are
+     * cached, and the same instance is returned for equal names.
+     *
+     * @param attribute
+     *            the attribute name to convert, not <code>null</code>
+     * @return the attribute name in lower case
+     */
+    static String toLowerCaseAttributeName(String attribute) {
+        return lowerCaseAttributeNames.get(attribute);
+    }
+
     /**
      * Validates the given style property name and throws an exception if the
      * name is invalid.
@@ -93,9 +117,9 @@ public class ElementUtil {
      *            the style property name to validate
      */
     public static void validateStylePropertyName(String name) {
-        String reason = getInvalidStylePropertyNameError(name);
-        if (reason != null) {
-            throw new IllegalArgumentException(reason);
+        if (!isValidStylePropertyName(name)) {
+            throw new IllegalArgumentException(
+                    getInvalidStylePropertyNameError(name));
         }
     }
 
@@ -127,7 +151,7 @@ public class ElementUtil {
      * @return true if the name is valid, false otherwise
      */
     public static boolean isValidStylePropertyName(String name) {
-        return getInvalidStylePropertyNameError(name) == null;
+        return name != null && validStylePropertyNames.get(name).booleanValue();
     }
 
     /**
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.dom;
+
+import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.vaadin.flow.function.SerializableFunction;
+
+/**
+ * A process-wide cache for values derived from attribute, style and tag names,
+ * e.g. the dash-separated form of a camelCase style property name.
+ * <p>
+ * Equal names get the same value instance, which also makes the names stored
+ * in the state tree share instances. The number of cached names is bounded
+ * since names may come from application data. Values for names which do not
+ * fit into the cache are computed on every call.
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ * @param <T>
+ *            the cached value type
+ */
+final class NameCache<T> implements Serializable {
+
+    /**
+     * The maximum number of names cached by one instance.
+     */
+    static final int MAX_SIZE = 2000;
+
+    private final ConcurrentHashMap<String, T> values = new ConcurrentHashMap<>();
+
+    private final SerializableFunction<String, T> valueProvider;
+
+    /**
+     * Creates a new cache using the given value provider.
+     *
+     * @param valueProvider
+     *            a function computing the value for a name, not
+     *            <code>null</code>, never returning <code>null</code>
+     */
+    NameCache(SerializableFunction<String, T> valueProvider) {
+        this.valueProvider = valueProvider;
+    }
+
+    /**
+     * Gets the value for the given name, computing it if it is not cached.
+     *
+     * @param name
+     *            the name to get the value for, not <code>null</code>
+     * @return the value for the name, not <code>null</code>
+     */
+    T get(String name) {
+        T value = values.get(name);
+        if (value == null) {
+            value = valueProvider.apply(name);
+            if (values.size() < MAX_SIZE) {
+                T previous = values.putIfAbsent(name, value);
+                if (previous != null) {
+                    value = previous;
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Gets the number of cached names.
+     *
+     * @return the number of cached names
+     */
+    int size() {
+        return values.size();
+    }
+}
@@ -234,19 +234,23 @@ public abstract class Node<N extends Node<N>> implements Serializable {
                 throw new IllegalArgumentException(
                         "Element to insert must not be null");
             }
-            if (equals(child.getParentNode())) {
-                int childIndex = indexOfChild(child);
-                if (childIndex == insertIndex) {
-                    // No-op of inserting to the current position
-                    continue;
-                } else if (childIndex < insertIndex) {
-                    // Adjust target index if the new child is already our
-                    // child,
-                    // and we will be removing it from before the target index
-                    insertIndex--;
+            // Elements being built have no parent to check or remove from
+            if (child.getNode().getParent() != null) {
+                if (equals(child.getParentNode())) {
+                    int childIndex = indexOfChild(child);
+                    if (childIndex == insertIndex) {
+                        // No-op of inserting to the current position
+                        continue;
+                    } else if (childIndex < insertIndex) {
+                        // Adjust target index if the new child is already our
+                        // child,
+                        // and we will be removing it from before the target
+                        // index
+                        insertIndex--;
+                    }
                 }
+                child.removeFromParent();
             }
-            child.removeFromParent();
             getStateProvider().insertChild(node, insertIndex, child);
             ensureChildHasParent(child, true);
         }
@@ -28,6 +28,12 @@ public class StyleUtil {
     private static String[] vendorPrefixes = new String[] { "webkit", "moz",
             "ms", "o" };
 
+    private static final NameCache<String> styleAttributeToProperty = new NameCache<>(
+            StyleUtil::convertStyleAttributeToProperty);
+
+    private static final NameCache<String> stylePropertyToAttribute = new NameCache<>(
+            StyleUtil::convertStylePropertyToAttribute);
+
     private StyleUtil() {
         // Only static helpers
     }
@@ -35,12 +41,20 @@ public class StyleUtil {
     /**
      * Converts the given attribute style (dash-separated) into a property style
      * (camelCase).
+     * <p>
+     * Conversion results are cached, and the same instance is returned for
+     * equal names.
      *
      * @param attributeStyle
      *            the attribute style
      * @return the property style
      */
     public static String styleAttributeToProperty(String attributeStyle) {
+        return styleAttributeToProperty.get(attributeStyle);
+    }
+
+    private static String convertStyleAttributeToProperty(
+            String attributeStyle) {
         String propertyStyle;
         if (attributeStyle.startsWith("-")) {
             // Vendor prefix -webkit-border-after is webkitBorderAfter
@@ -55,12 +69,20 @@ public class StyleUtil {
     /**
      * Converts the given property style (camelCase) into a attribute style
      * (dash-separated).
+     * <p>
+     * Conversion results are cached, and the same instance is returned for
+     * equal names.
      *
      * @param propertyStyle
      *            the property style
      * @return the attribute style
      */
     public static String stylePropertyToAttribute(String propertyStyle) {
+        return stylePropertyToAttribute.get(propertyStyle);
+    }
+
+    private static String convertStylePropertyToAttribute(
+            String propertyStyle) {
         String attributeStyle = SharedUtil
                 .camelCaseToDashSeparated(propertyStyle);
         int dashIndex = attributeStyle.indexOf("-");
@@ -15,7 +15,10 @@
  */
 package com.vaadin.flow.dom.impl;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import com.helger.css.ECSSVersion;
@@ -35,6 +38,14 @@ import com.vaadin.flow.dom.StyleUtil;
 public class StyleAttributeHandler extends CustomAttribute {
     private static final String ERROR_PARSING_STYLE = "Error parsing style '%s': %s";
 
+    /**
+     * Units which the CSS parser keeps as written in lower case.
+     */
+    private static final Set<String> UNITS = new HashSet<>(Arrays.asList("%",
+            "px", "em", "ex", "ch", "rem", "vw", "vh", "vmin", "vmax", "cm",
+            "mm", "in", "pt", "pc", "q", "deg", "rad", "grad", "turn", "s",
+            "ms", "hz", "khz", "fr", "dpi", "dpcm", "dppx"));
+
     @Override
     public boolean hasAttribute(Element element) {
         return element.getStyle().getNames().findAny().isPresent();
@@ -70,6 +81,23 @@ public class StyleAttributeHandler extends CustomAttribute {
      */
     public static LinkedHashMap<String, String> parseStyles(
             String styleString) {
+        LinkedHashMap<String, String> parsedStyles = parseSimpleStyles(
+                styleString);
+        if (parsedStyles == null) {
+            parsedStyles = parseStylesWithCssParser(styleString);
+        }
+        return parsedStyles;
+    }
+
+    /**
+     * Parses the given style string using the CSS parser.
+     *
+     * @param styleString
+     *            the string to parse
+     * @return a map containing the found style rules
+     */
+    static LinkedHashMap<String, String> parseStylesWithCssParser(
+            String styleString) {
         CollectingCSSParseErrorHandler errorCollector = new CollectingCSSParseErrorHandler();
         CSSDeclarationList parsed = CSSReaderDeclarationList.readFromString(
                 styleString, ECSSVersion.LATEST, errorCollector);
@@ -96,6 +124,204 @@ public class StyleAttributeHandler extends CustomAttribute {
         return parsedStyles;
     }
 
+    /**
+     * Parses a style string which only contains simple declarations, giving
+     * the same result as the CSS parser would give.
+     * <p>
+     * A simple declaration has a lower case property name and a value
+     * consisting of identifiers, hash values and numbers, optionally with a
+     * common unit, separated by white space or commas, e.g.
+     * <code>border: 1px solid #ccc</code>. Functions, strings, comments,
+     * escapes, <code>!important</code> and anything the CSS parser would
+     * normalize or reject are not handled.
+     *
+     * @param styleString
+     *            the string to parse, not <code>null</code>
+     * @return a map containing the found style rules, or <code>null</code> if
+     *         the string contains something else than simple declarations
+     */
+    static LinkedHashMap<String, String> parseSimpleStyles(String styleString) {
+        LinkedHashMap<String, String> parsedStyles = null;
+        int length = styleString.length();
+        int start = 0;
+        while (start < length) {
+            int end = styleString.indexOf(';', start);
+            if (end == -1) {
+                end = length;
+            }
+            int colon = styleString.indexOf(':', start);
+            if (colon == -1 || colon > end) {
+                if (!isBlank(styleString, start, end)) {
+                    return null;
+                }
+            } else {
+                String property = getSimpleProperty(styleString, start, colon);
+                String value = getSimpleValue(styleString, colon + 1, end);
+                if (property == null || value == null) {
+                    return null;
+                }
+                if (parsedStyles == null) {
+                    parsedStyles = new LinkedHashMap<>();
+                }
+                parsedStyles.put(StyleUtil.styleAttributeToProperty(property),
+                        value);
+            }
+            start = end + 1;
+        }
+        return parsedStyles;
+    }
+
+    private static String getSimpleProperty(String styleString, int start,
+            int end) {
+        start = skipWhitespace(styleString, start, end);
+        while (end > start && isWhitespace(styleString.charAt(end - 1))) {
+            end--;
+        }
+        int nameStart = start;
+        // Vendor prefixes and custom properties
+        while (nameStart < end && nameStart - start < 2
+                && styleString.charAt(nameStart) == '-') {
+            nameStart++;
+        }
+        if (nameStart == end || !isLowerCaseLetter(styleString.charAt(nameStart))) {
+            return null;
+        }
+        for (int i = nameStart + 1; i < end; i++) {
+            char c = styleString.charAt(i);
+            if (!isLowerCaseLetter(c) && !isDigit(c) && c != '-') {
+                return null;
+            }
+        }
+        return styleString.substring(start, end);
+    }
+
+    private static String getSimpleValue(String styleString, int start,
+            int end) {
+        StringBuilder value = new StringBuilder(end - start);
+        boolean afterComma = true;
+        int i = skipWhitespace(styleString, start, end);
+        while (i < end) {
+            if (styleString.charAt(i) == ',') {
+                if (afterComma) {
+                    return null;
+                }
+                value.append(',');
+                afterComma = true;
+                i = skipWhitespace(styleString, i + 1, end);
+                continue;
+            }
+            int tokenEnd = i;
+            while (tokenEnd < end && !isWhitespace(styleString.charAt(tokenEnd))
+                    && styleString.charAt(tokenEnd) != ',') {
+                tokenEnd++;
+            }
+            if (!isSimpleToken(styleString, i, tokenEnd)) {
+                return null;
+            }
+            if (!afterComma) {
+                value.append(' ');
+            }
+            value.append(styleString, i, tokenEnd);
+            afterComma = false;
+            i = skipWhitespace(styleString, tokenEnd, end);
+        }
+        if (afterComma) {
+            // Empty value or trailing comma
+            return null;
+        }
+        return value.toString();
+    }
+
+    private static boolean isSimpleToken(String styleString, int start,
+            int end) {
+        char first = styleString.charAt(start);
+        if (first == '#') {
+            return start + 1 < end && isNameChars(styleString, start + 1, end);
+        }
+        int nameStart = start;
+        while (nameStart < end && nameStart - start < 2
+                && styleString.charAt(nameStart) == '-') {
+            nameStart++;
+        }
+        if (nameStart < end && isLetter(styleString.charAt(nameStart))) {
+            return isNameChars(styleString, nameStart + 1, end);
+        }
+        return isSimpleNumber(styleString, start, end);
+    }
+
+    private static boolean isSimpleNumber(String styleString, int start,
+            int end) {
+        int i = start;
+        char c = styleString.charAt(i);
+        if (c == '-' || c == '+') {
+            i++;
+        }
+        int integerStart = i;
+        while (i < end && isDigit(styleString.charAt(i))) {
+            i++;
+        }
+        int integerEnd = i;
+        if (i < end && styleString.charAt(i) == '.') {
+            i++;
+            int fractionStart = i;
+            while (i < end && isDigit(styleString.charAt(i))) {
+                i++;
+            }
+            if (i == fractionStart) {
+                return false;
+            }
+        } else if (i == integerStart) {
+            return false;
+        }
+        if (i == end) {
+            return true;
+        }
+        // The CSS parser writes zero lengths without the unit
+        if (i == integerEnd && integerEnd - integerStart == 1
+                && styleString.charAt(integerStart) == '0') {
+            return false;
+        }
+        return UNITS.contains(styleString.substring(i, end));
+    }
+
+    private static boolean isNameChars(String styleString, int start,
+            int end) {
+        for (int i = start; i < end; i++) {
+            char c = styleString.charAt(i);
+            if (!isLetter(c) && !isDigit(c) && c != '-' && c != '_') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBlank(String styleString, int start, int end) {
+        return skipWhitespace(styleString, start, end) == end;
+    }
+
+    private static int skipWhitespace(String styleString, int start, int end) {
+        while (start < end && isWhitespace(styleString.charAt(start))) {
+            start++;
+        }
+        return start;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+    }
+
+    private static boolean isLetter(char c) {
+        return isLowerCaseLetter(c) || c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isLowerCaseLetter(char c) {
+        return c >= 'a' && c <= 'z';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
     @Override
     public void removeAttribute(Element element) {
         element.getStyle().clear();
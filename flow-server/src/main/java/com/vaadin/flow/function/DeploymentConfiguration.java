@@ -19,6 +19,7 @@ package com.vaadin.flow.function;
 import java.io.Serializable;
 import java.util.Properties;
 import java.util.function.Function;
+import java.util.zip.Deflater;
 
 import com.vaadin.flow.server.Constants;
 import com.vaadin.flow.server.WrappedSession;
@@ -324,4 +325,246 @@ public interface DeploymentConfiguration extends Serializable {
     default boolean isBrotli() {
         return getBooleanProperty(Constants.SERVLET_PARAMETER_BROTLI, false);
     }
+
+    /**
+     * Gets the directory where generated PWA icons are stored so that they can
+     * be reused after a restart.
+     *
+     * @return the icon cache directory, or <code>null</code> to use a
+     *         subdirectory of the servlet context temporary directory
+     */
+    default String getPwaIconsCacheDirectory() {
+        return getStringProperty(
+                Constants.SERVLET_PARAMETER_PWA_ICONS_CACHE_DIRECTORY, null);
+    }
+
+    /**
+     * Checks whether all PWA icons should be generated in parallel when the
+     * application starts instead of when each icon is first requested.
+     *
+     * @return <code>true</code> to generate the icons at startup,
+     *         <code>false</code> to generate them lazily
+     */
+    default boolean isPwaIconsEagerGeneration() {
+        return getBooleanProperty(
+                Constants.SERVLET_PARAMETER_PWA_ICONS_EAGER_GENERATION, false);
+    }
+
+    /**
+     * Checks whether state tree changes should be sent to the client in the
+     * compact format, where each change is a JSON array with values in fixed
+     * positions instead of a JSON object with named properties.
+     *
+     * @return <code>true</code> to use the compact change format,
+     *         <code>false</code> to use JSON objects
+     */
+    default boolean isCompactChanges() {
+        return getBooleanProperty(Constants.SERVLET_PARAMETER_COMPACT_CHANGES,
+                false);
+    }
+
+    /**
+     * Gets the minimum size in bytes of a UIDL response that is compressed
+     * using gzip when the browser accepts it.
+     *
+     * @return the compression threshold in bytes, or a negative value if UIDL
+     *         responses should not be compressed
+     */
+    default int getResponseCompressionThreshold() {
+        return getApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_RESPONSE_COMPRESSION_THRESHOLD, -1,
+                Integer::parseInt);
+    }
+
+    /**
+     * Gets the compression level for compressed UIDL responses, from 1
+     * (fastest, least CPU usage) to 9 (smallest responses).
+     *
+     * @return the compression level
+     */
+    default int getResponseCompressionLevel() {
+        return getApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_RESPONSE_COMPRESSION_LEVEL,
+                Deflater.BEST_SPEED, Integer::parseInt);
+    }
+
+    /**
+     * Gets the maximum number of route target and router layout instances
+     * annotated with {@link com.vaadin.flow.router.PreserveOnRefresh} that
+     * are kept in each session. The least recently used instance is discarded
+     * when the limit is exceeded.
+     *
+     * @return the maximum number of preserved instances per session
+     */
+    default int getPreservedRouteInstances() {
+        return getApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_PRESERVED_ROUTE_INSTANCES, 10,
+                Integer::parseInt);
+    }
+
+    /**
+     * Gets the time in seconds after which a preserved route target or router
+     * layout instance which has not been navigated to is discarded.
+     *
+     * @return the maximum idle time of preserved instances in seconds
+     */
+    default int getPreservedRouteInstanceMaxIdle() {
+        return getApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_PRESERVED_ROUTE_INSTANCE_MAX_IDLE,
+                1800, Integer::parseInt);
+    }
+
+    /**
+     * Gets the time in milliseconds after which a request thread waiting for
+     * the session lock gives up and the request is rejected.
+     *
+     * @return the session lock timeout in milliseconds, or zero or a negative
+     *         value to wait indefinitely
+     */
+    default int getSessionLockTimeout() {
+        return getApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_SESSION_LOCK_TIMEOUT, 0,
+                Integer::parseInt);
+    }
+
+    /**
+     * Gets the time in milliseconds after which a thread waiting for the
+     * session lock logs a warning including the stack trace of the thread
+     * holding the lock.
+     *
+     * @return the wait warning threshold in milliseconds, or zero or a
+     *         negative value to disable the warning
+     */
+    default int getSessionLockWaitWarning() {
+        return getApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_SESSION_LOCK_WAIT_WARNING, 5000,
+                Integer::parseInt);
+    }
+
+    /**
+     * Gets the time in milliseconds after which holding the session lock is
+     * logged as a warning when the lock is released.
+     *
+     * @return the hold warning threshold in milliseconds, or zero or a
+     *         negative value to disable the warning
+     */
+    default int getSessionLockHoldWarning() {
+        return getApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_SESSION_LOCK_HOLD_WARNING, 10000,
+                Integer::parseInt);
+    }
+
+    /**
+     * Checks whether the session lock statistics of the service should be
+     * registered as an MBean.
+     *
+     * @return <code>true</code> to register the MBean, <code>false</code>
+     *         otherwise
+     */
+    default boolean isSessionLockJmx() {
+        return getBooleanProperty(Constants.SERVLET_PARAMETER_SESSION_LOCK_JMX,
+                false);
+    }
+
+    /**
+     * Checks whether each UI of a session should be stored in a separate HTTP
+     * session attribute. The attribute of a UI, and the attribute of the
+     * session itself, are only set again when the session lock is released
+     * after modifying them, e.g. at the end of a request or after a push, so
+     * that a container replicating modified session attributes does not need
+     * to replicate UIs in other browser tabs.
+     * <p>
+     * Session attributes which reference a UI, such as preserved route
+     * instances, are not replicated since they would contain a separate copy
+     * of the UI. Other objects shared between a UI and a session attribute
+     * are restored as separate copies, like objects shared between any two
+     * HTTP session attributes.
+     *
+     * @return <code>true</code> to store UIs in separate attributes,
+     *         <code>false</code> to store them together with the session
+     */
+    default boolean isDeltaSessionReplication() {
+        return getBooleanProperty(
+                Constants.SERVLET_PARAMETER_DELTA_SESSION_REPLICATION, false);
+    }
+
+    /**
+     * Gets the interval at which inactive UIs and sessions are closed by a
+     * background thread. When the interval is zero or negative, inactive UIs
+     * and sessions are only closed at the end of a request to the session,
+     * which means that a session which receives no more requests keeps its
+     * UIs until the HTTP session expires.
+     *
+     * @return the session reaper interval in seconds, or zero or a negative
+     *         value to close inactive UIs and sessions during requests
+     */
+    default int getSessionReaperInterval() {
+        return getApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_SESSION_REAPER_INTERVAL, 0,
+                Integer::parseInt);
+    }
+
+    /**
+     * Checks whether the session reaper statistics of the service should be
+     * registered as an MBean.
+     *
+     * @return <code>true</code> to register the MBean, <code>false</code>
+     *         otherwise
+     */
+    default boolean isSessionReaperJmx() {
+        return getBooleanProperty(
+                Constants.SERVLET_PARAMETER_SESSION_REAPER_JMX, false);
+    }
+
+    /**
+     * Gets how often the estimated memory footprint of a session is sampled
+     * at the end of a request.
+     *
+     * @return the number of requests per sample, or zero or a negative value
+     *         to disable sampling
+     * @see com.vaadin.flow.server.metrics.MemoryFootprint
+     */
+    default int getMemoryFootprintSampleRate() {
+        return getApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_MEMORY_FOOTPRINT_SAMPLE_RATE, 0,
+                Integer::parseInt);
+    }
+
+    /**
+     * Checks whether the sampled memory footprints of the sessions of the
+     * service should be registered as an MBean.
+     *
+     * @return <code>true</code> to register the MBean, <code>false</code>
+     *         otherwise
+     */
+    default boolean isMemoryFootprintJmx() {
+        return getBooleanProperty(
+                Constants.SERVLET_PARAMETER_MEMORY_FOOTPRINT_JMX, false);
+    }
+
+    /**
+     * Gets the number of messages the client may send through a bidirectional
+     * push connection without waiting for the responses to the earlier ones.
+     *
+     * @return the maximum number of client-to-server messages in flight, at
+     *         least 1
+     */
+    default int getMaxMessagesInFlight() {
+        return Math.max(1, getApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_MAX_MESSAGES_IN_FLIGHT, 1,
+                Integer::parseInt));
+    }
+
+    /**
+     * Gets the number of state tree changes in a server message from which the
+     * client applies the resulting DOM updates in time slices.
+     *
+     * @return the number of changes from which rendering is time sliced, or 0
+     *         if time slicing is disabled
+     */
+    default int getTimeSlicedRenderingThreshold() {
+        return Math.max(0, getApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_TIME_SLICED_RENDERING_THRESHOLD, 0,
+                Integer::parseInt));
+    }
 }
@@ -17,8 +17,12 @@ package com.vaadin.flow.internal;
 
 import java.io.Serializable;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 
+import com.vaadin.flow.server.metrics.MemoryFootprint;
+
 import elemental.json.Json;
 import elemental.json.JsonObject;
 
@@ -31,10 +35,30 @@ import elemental.json.JsonObject;
  */
 public class ConstantPool implements Serializable {
 
+    /**
+     * The maximum number of ids remembered by
+     * {@link #getRepeatedConstantId(ConstantPoolKey)} for values that have
+     * been encountered only once.
+     */
+    static final int MAX_SEEN_ONCE = 100;
+
+    /**
+     * Ids of values encountered once, evicting the least recently seen id when
+     * full.
+     */
+    private static class SeenOnceIds extends LinkedHashMap<String, Boolean> {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_SEEN_ONCE;
+        }
+    }
+
     private Set<String> knownValues = new HashSet<>();
 
     private Set<ConstantPoolKey> newKeys = new HashSet<>();
 
+    private Map<String, Boolean> seenOnce = new SeenOnceIds();
+
     /**
      * Gets the id of a given constant, registering the constant with this
      * constant pool if it hasn't already been encountered.
@@ -52,11 +76,45 @@ public class ConstantPool implements Serializable {
 
         if (knownValues.add(id)) {
             newKeys.add(constant);
+        } else if (!newKeys.contains(constant)) {
+            // The value is delivered through another key with the same id
+            constant.discardJson();
         }
 
         return id;
     }
 
+    /**
+     * Gets the id of a given constant if the constant is encountered for at
+     * least the second time, registering the constant with this constant pool
+     * if it hasn't already been registered. For a value encountered for the
+     * first time, only its id is remembered and <code>null</code> is returned
+     * to signal that the caller should send the value itself instead.
+     * <p>
+     * This keeps values that are used only once, such as scripts with
+     * concatenated data, from accumulating in the constant pool for the
+     * lifetime of the UI.
+     *
+     * @see #getConstantId(ConstantPoolKey)
+     *
+     * @param constant
+     *            the constant reference to get an id for, not <code>null</code>
+     * @return the constant id of the given constant, or <code>null</code> if
+     *         the constant has not been encountered before
+     */
+    public String getRepeatedConstantId(ConstantPoolKey constant) {
+        assert constant != null;
+
+        String id = constant.getId();
+
+        if (knownValues.contains(id) || seenOnce.remove(id) != null) {
+            return getConstantId(constant);
+        }
+
+        seenOnce.put(id, Boolean.TRUE);
+        return null;
+    }
+
     /**
      * Checks if any new constants have been added to this constant pool since
      * the last time {@link #dumpConstants()} was called.
@@ -83,4 +141,27 @@ public class ConstantPool implements Serializable {
         return json;
     }
 
+    /**
+     * Adds the estimated memory used by this constant pool to the given memory
+     * footprint.
+     *
+     * @param footprint
+     *            the memory footprint to add to, not <code>null</code>
+     */
+    public void estimateMemoryFootprint(MemoryFootprint footprint) {
+        long bytes = MemoryFootprintUtil.objectSize(3, 0)
+                + MemoryFootprintUtil.hashMapSize(knownValues.size())
+                + MemoryFootprintUtil.hashMapSize(newKeys.size())
+                + MemoryFootprintUtil.hashMapSize(seenOnce.size());
+        for (String id : knownValues) {
+            bytes += MemoryFootprintUtil.stringSize(id);
+        }
+        for (String id : seenOnce.keySet()) {
+            bytes += MemoryFootprintUtil.stringSize(id);
+        }
+        // The JSON of new keys is dropped once it has been sent
+        bytes += newKeys.size() * (long) MemoryFootprintUtil.objectSize(2, 0);
+        footprint.add(MemoryFootprint.CONSTANT_POOL, knownValues.size(),
+                bytes);
+    }
 }
@@ -82,6 +82,15 @@ public class ConstantPoolKey implements Serializable {
         json = null;
     }
 
+    /**
+     * Discards the JSON value when it will not be exported through this key.
+     * This avoids keeping a copy of the value in memory, and in the serialized
+     * session, for each key with the same id.
+     */
+    void discardJson() {
+        json = null;
+    }
+
     /**
      * Calculates the key of a JSON value by Base 64 encoding the first 64 bits
      * of the SHA-256 digest of the JSON's string representation.
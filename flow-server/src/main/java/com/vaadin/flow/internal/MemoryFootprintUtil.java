@@ -0,0 +1,190 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.util.Collection;
+
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+import elemental.json.JsonString;
+import elemental.json.JsonValue;
+
+/**
+ * Helpers for estimating the memory used by the objects of a state tree.
+ * <p>
+ * The estimates assume a 64-bit JVM with compressed object pointers: 12 byte
+ * object headers, 4 byte references and objects aligned to 8 bytes. The
+ * estimates are computed from sizes and counts without walking the complete
+ * object graph, so that they are cheap enough to be computed for live
+ * sessions.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+public final class MemoryFootprintUtil {
+
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+
+    /**
+     * Estimated size of a {@link java.util.HashMap} entry.
+     */
+    public static final int HASH_MAP_ENTRY = objectSize(3, 8);
+
+    private MemoryFootprintUtil() {
+        // Only static methods
+    }
+
+    /**
+     * Gets the size of an object with the given fields.
+     *
+     * @param references
+     *            the number of reference fields
+     * @param primitiveBytes
+     *            the total size of the primitive fields in bytes
+     * @return the size of the object in bytes
+     */
+    public static int objectSize(int references, int primitiveBytes) {
+        return align(OBJECT_HEADER + references * REFERENCE + primitiveBytes);
+    }
+
+    /**
+     * Gets the size of an array of references.
+     *
+     * @param length
+     *            the length of the array
+     * @return the size of the array in bytes
+     */
+    public static long arraySize(int length) {
+        return align(ARRAY_HEADER + (long) length * REFERENCE);
+    }
+
+    /**
+     * Gets the size of an {@link java.util.ArrayList} with the given number of
+     * items, excluding the items themselves.
+     *
+     * @param size
+     *            the number of items
+     * @return the size of the list in bytes
+     */
+    public static long arrayListSize(int size) {
+        return objectSize(1, 8) + arraySize(size);
+    }
+
+    /**
+     * Gets the size of a {@link java.util.HashMap} or
+     * {@link java.util.HashSet} with the given number of entries, excluding
+     * the keys and values themselves.
+     *
+     * @param size
+     *            the number of entries
+     * @return the size of the map in bytes
+     */
+    public static long hashMapSize(int size) {
+        long mapSize = objectSize(4, 16);
+        if (size == 0) {
+            return mapSize;
+        }
+        // Default load factor 0.75 with a power of two table
+        int capacity = Math.max(16,
+                Integer.highestOneBit(Math.max(1, size * 4 / 3)) << 1);
+        return mapSize + arraySize(capacity) + (long) size * HASH_MAP_ENTRY;
+    }
+
+    /**
+     * Gets the size of a string, including its character array.
+     *
+     * @param string
+     *            the string, not <code>null</code>
+     * @return the size of the string in bytes
+     */
+    public static long stringSize(String string) {
+        return objectSize(1, 8) + align(ARRAY_HEADER + 2L * string.length());
+    }
+
+    /**
+     * Estimates the size of a value stored in a state node feature. State
+     * nodes are not included since they are accounted for separately, and
+     * shared constants are not included since they are not owned by any
+     * session.
+     *
+     * @param value
+     *            the value, or <code>null</code>
+     * @return the estimated size of the value in bytes
+     */
+    public static long valueSize(Object value) {
+        if (value == null || value instanceof Boolean
+                || value instanceof StateNode
+                || value instanceof SharedConstantPoolKey) {
+            return 0;
+        } else if (value instanceof String) {
+            return stringSize((String) value);
+        } else if (value instanceof Integer || value instanceof Float) {
+            return objectSize(0, 4);
+        } else if (value instanceof Number) {
+            return objectSize(0, 8);
+        } else if (value instanceof JsonValue) {
+            return jsonSize((JsonValue) value);
+        } else if (value instanceof Collection<?>) {
+            Collection<?> collection = (Collection<?>) value;
+            long size = arrayListSize(collection.size());
+            for (Object item : collection) {
+                size += valueSize(item);
+            }
+            return size;
+        }
+        // Unknown shallow size
+        return objectSize(2, 0);
+    }
+
+    private static long jsonSize(JsonValue value) {
+        switch (value.getType()) {
+        case NULL:
+            return 0;
+        case STRING:
+            return objectSize(1, 0) + stringSize(((JsonString) value).getString());
+        case OBJECT:
+            JsonObject object = (JsonObject) value;
+            String[] keys = object.keys();
+            long objectSize = objectSize(1, 0) + hashMapSize(keys.length);
+            for (String key : keys) {
+                objectSize += stringSize(key) + jsonSize(object.get(key));
+            }
+            return objectSize;
+        case ARRAY:
+            JsonArray array = (JsonArray) value;
+            long arraySize = objectSize(1, 0) + arrayListSize(array.length());
+            for (int i = 0; i < array.length(); i++) {
+                arraySize += jsonSize(array.get(i));
+            }
+            return arraySize;
+        default:
+            // Numbers and booleans
+            return objectSize(0, 8);
+        }
+    }
+
+    private static int align(int size) {
+        return (size + 7) & ~7;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+
+/**
+ * Utility class for measuring the serialized form of objects, e.g. the state
+ * tree of a UI which is replicated together with the session.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+public final class SerializationUtil {
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    private SerializationUtil() {
+    }
+
+    /**
+     * Gets the number of bytes needed for serializing the given object and
+     * everything reachable from it using Java serialization. The serialized
+     * data is counted without being stored.
+     *
+     * @param object
+     *            the object to measure, not <code>null</code>
+     * @return the size of the serialized object in bytes
+     * @throws UncheckedIOException
+     *             if the object could not be serialized
+     */
+    public static long getSerializedSize(Serializable object) {
+        CountingOutputStream counter = new CountingOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(counter)) {
+            out.writeObject(object);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(
+                    "Could not serialize " + object.getClass().getName(), e);
+        }
+        return counter.count;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import elemental.json.JsonObject;
+import elemental.json.JsonValue;
+
+/**
+ * A constant pool key which may be shared between all UIs of an application,
+ * e.g. by an immutable value created once and used in many sessions.
+ * <p>
+ * Unlike a regular {@link ConstantPoolKey}, the JSON value is kept after it
+ * has been delivered so that the same key instance can be exported by the
+ * constant pool of every UI which encounters it. The value is thus only
+ * stored once per application instead of once per use.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+public class SharedConstantPoolKey extends ConstantPoolKey {
+    private final JsonValue json;
+
+    /**
+     * Creates a new shared constant pool key for the given JSON value. The
+     * value must not be modified after this instance has been created.
+     *
+     * @param json
+     *            the JSON constant, not <code>null</code>
+     */
+    public SharedConstantPoolKey(JsonValue json) {
+        super(json);
+        this.json = json;
+    }
+
+    @Override
+    public void export(JsonObject clientConstantPoolUpdate) {
+        clientConstantPoolUpdate.put(getId(), json);
+    }
+
+    @Override
+    void discardJson() {
+        // The value is shared, nothing to release
+    }
+}
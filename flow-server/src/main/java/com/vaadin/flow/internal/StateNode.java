@@ -16,14 +16,18 @@
 
 package com.vaadin.flow.internal;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -40,12 +44,14 @@ import com.vaadin.flow.component.UI;
 import com.vaadin.flow.function.SerializableConsumer;
 import com.vaadin.flow.internal.StateTree.BeforeClientResponseEntry;
 import com.vaadin.flow.internal.StateTree.ExecutionRegistration;
+import com.vaadin.flow.internal.change.EmptyChange;
 import com.vaadin.flow.internal.change.NodeAttachChange;
 import com.vaadin.flow.internal.change.NodeChange;
 import com.vaadin.flow.internal.change.NodeDetachChange;
 import com.vaadin.flow.internal.nodefeature.NodeFeature;
 import com.vaadin.flow.internal.nodefeature.NodeFeatureRegistry;
 import com.vaadin.flow.server.Command;
+import com.vaadin.flow.server.metrics.MemoryFootprint;
 import com.vaadin.flow.shared.Registration;
 
 /**
@@ -106,6 +112,57 @@ public class StateNode implements Serializable {
         }
     }
 
+    /**
+     * Key for looking up a feature set by the feature types in the order they
+     * are given to the constructor. Cheaper to create and compare than a
+     * {@link FeatureSetKey} since no sets are built.
+     */
+    private static class FeatureTypesKey implements Serializable {
+        private final List<Class<? extends NodeFeature>> reportableFeatureTypes;
+        private final Class<? extends NodeFeature>[] additionalFeatureTypes;
+        private final int hashCode;
+
+        private FeatureTypesKey(
+                List<Class<? extends NodeFeature>> reportableFeatureTypes,
+                Class<? extends NodeFeature>[] additionalFeatureTypes) {
+            this.reportableFeatureTypes = reportableFeatureTypes;
+            this.additionalFeatureTypes = additionalFeatureTypes;
+            hashCode = 31 * reportableFeatureTypes.hashCode()
+                    + Arrays.hashCode(additionalFeatureTypes);
+        }
+
+        /**
+         * Gets a copy of this key which is not affected by changes to the
+         * list and the array given by the caller of the node constructor.
+         */
+        private FeatureTypesKey copy() {
+            return new FeatureTypesKey(
+                    new ArrayList<>(reportableFeatureTypes),
+                    additionalFeatureTypes.clone());
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            } else if (obj instanceof FeatureTypesKey) {
+                FeatureTypesKey that = (FeatureTypesKey) obj;
+                return hashCode == that.hashCode
+                        && Arrays.equals(additionalFeatureTypes,
+                                that.additionalFeatureTypes)
+                        && reportableFeatureTypes
+                                .equals(that.reportableFeatureTypes);
+            } else {
+                return false;
+            }
+        }
+    }
+
     private static class FeatureSet implements Serializable {
         private final Set<Class<? extends NodeFeature>> reportedFeatures;
 
@@ -123,6 +180,13 @@ public class StateNode implements Serializable {
                     .sorted(NodeFeatureRegistry.PRIORITY_COMPARATOR)
                     .forEach(key -> mappings.put(key,
                             Integer.valueOf(mappings.size())));
+
+            if (mappings.size() > Integer.SIZE) {
+                throw new IllegalStateException("A node can have at most "
+                        + Integer.SIZE + " features since changed features "
+                        + "are tracked in an int bitset, got "
+                        + mappings.size());
+            }
         }
     }
 
@@ -131,14 +195,40 @@ public class StateNode implements Serializable {
      */
     private static final Map<FeatureSetKey, FeatureSet> featureSetCache = new ConcurrentHashMap<>();
 
+    /**
+     * Cache of the feature set instances by the feature types given to the
+     * constructor, to avoid creating a {@link FeatureSetKey} for every node.
+     */
+    private static final Map<FeatureTypesKey, FeatureSet> featureTypesCache = new ConcurrentHashMap<>();
+
+    private static final int FLAG_WAS_ATTACHED = 1;
+    private static final int FLAG_HAS_BEEN_ATTACHED = 1 << 1;
+    private static final int FLAG_HAS_BEEN_DETACHED = 1 << 2;
+    private static final int FLAG_INACTIVE_SELF = 1 << 3;
+    private static final int FLAG_INITIAL_CHANGES = 1 << 4;
+    private static final int FLAG_ENABLED = 1 << 5;
+    private static final int FLAG_HAS_CHANGES = 1 << 6;
+
     private final FeatureSet featureSet;
 
     /**
      * Node feature instances for this node, or a single item.
+     * <p>
+     * This field and the other transient fields are serialized in a compact
+     * form by {@link #writeObject(ObjectOutputStream)}.
+     */
+    private transient Serializable features;
+
+    /**
+     * Bitset of the indices of the features which have a change tracker.
      */
-    private Serializable features;
+    private transient int changedFeatures;
 
-    private Map<Class<? extends NodeFeature>, Serializable> changes;
+    /**
+     * Change trackers by feature index, or <code>null</code> if there are no
+     * changes. Kept as short as possible like the features array.
+     */
+    private transient Serializable[] changeTrackers;
 
     private List<Command> attachListeners;
 
@@ -148,20 +238,20 @@ public class StateNode implements Serializable {
 
     private StateNode parent;
 
-    private int id = -1;
+    private transient int id = -1;
 
     // Only the root node is attached at this point
-    private boolean wasAttached = isAttached();
+    private transient boolean wasAttached = isAttached();
 
-    private boolean hasBeenAttached;
-    private boolean hasBeenDetached;
+    private transient boolean hasBeenAttached;
+    private transient boolean hasBeenDetached;
 
-    private boolean isInactiveSelf;
+    private transient boolean isInactiveSelf;
 
-    private boolean isInitialChanges = true;
+    private transient boolean isInitialChanges = true;
 
     private ArrayList<StateTree.BeforeClientResponseEntry> beforeClientResponseEntries;
-    private boolean enabled = true;
+    private transient boolean enabled = true;
 
     /**
      * Creates a state node with the given feature types.
@@ -202,13 +292,30 @@ public class StateNode implements Serializable {
     @SafeVarargs
     public StateNode(List<Class<? extends NodeFeature>> reportableFeatureTypes,
             Class<? extends NodeFeature>... additionalFeatureTypes) {
-        featureSet = featureSetCache
-                .computeIfAbsent(new FeatureSetKey(reportableFeatureTypes,
-                        additionalFeatureTypes), FeatureSet::new);
+        featureSet = getFeatureSet(reportableFeatureTypes,
+                additionalFeatureTypes);
 
+        /*
+         * Features are created when first used. Reported features which are
+         * still empty when the node is attached are sent to the client as
+         * empty changes without creating them.
+         */
         features = null;
-        // Eagerly initialize features that should always be sent
-        reportableFeatureTypes.forEach(this::getFeature);
+    }
+
+    private static FeatureSet getFeatureSet(
+            List<Class<? extends NodeFeature>> reportableFeatureTypes,
+            Class<? extends NodeFeature>[] additionalFeatureTypes) {
+        FeatureTypesKey key = new FeatureTypesKey(reportableFeatureTypes,
+                additionalFeatureTypes);
+        FeatureSet featureSet = featureTypesCache.get(key);
+        if (featureSet == null) {
+            featureSet = featureSetCache
+                    .computeIfAbsent(new FeatureSetKey(reportableFeatureTypes,
+                            additionalFeatureTypes), FeatureSet::new);
+            featureTypesCache.putIfAbsent(key.copy(), featureSet);
+        }
+        return featureSet;
     }
 
     /**
@@ -340,7 +447,15 @@ public class StateNode implements Serializable {
     }
 
     private void forEachFeature(Consumer<NodeFeature> action) {
-        getInitializedFeatures().forEach(action::accept);
+        if (features instanceof NodeFeature) {
+            action.accept((NodeFeature) features);
+        } else if (features != null) {
+            for (NodeFeature feature : (NodeFeature[]) features) {
+                if (feature != null) {
+                    action.accept(feature);
+                }
+            }
+        }
     }
 
     private Stream<NodeFeature> getInitializedFeatures() {
@@ -510,6 +625,21 @@ public class StateNode implements Serializable {
         owner.markAsDirty(this);
     }
 
+    /**
+     * Gets the time when the earliest change of this node that was deferred by
+     * the previous {@link #collectChanges(Consumer)} may be sent to the
+     * client.
+     *
+     * @return the time in milliseconds, or <code>0</code> if there are no
+     *         deferred changes
+     * @see NodeFeature#getDeferredChangesDeadline()
+     */
+    public long getDeferredChangesDeadline() {
+        return getInitializedFeatures()
+                .mapToLong(NodeFeature::getDeferredChangesDeadline)
+                .filter(deadline -> deadline != 0).min().orElse(0);
+    }
+
     /**
      * Checks whether this node is attached to a state tree.
      *
@@ -520,6 +650,52 @@ public class StateNode implements Serializable {
         return parent != null && parent.isAttached();
     }
 
+    /**
+     * Checks whether changes to the features of this node need to be tracked.
+     * <p>
+     * Changes are not tracked for a node which is a descendant in a detached
+     * subtree and has never been attached, e.g. while building a subtree
+     * before attaching it. All changes of such a node are generated from the
+     * current feature values when it is attached, so tracking them would only
+     * create garbage.
+     *
+     * @return <code>true</code> if changes should be tracked,
+     *         <code>false</code> if they are generated when the node is
+     *         attached
+     */
+    public boolean isTrackingChanges() {
+        return id != -1 || parent == null || isAttached();
+    }
+
+    /**
+     * Unlinks this detached node and its descendants from the state tree they
+     * have belonged to, so that they can be attached to another state tree.
+     * The nodes get new ids and are sent to the client as new nodes when they
+     * are attached again.
+     *
+     * @throws IllegalStateException
+     *             if this node is attached
+     */
+    public void removeFromTree() {
+        if (isAttached()) {
+            throw new IllegalStateException(
+                    "An attached node can't be removed from its state tree");
+        }
+        visitNodeTree(StateNode::reset);
+    }
+
+    private void reset() {
+        // Before clearing changes, since recreated values are new changes
+        forEachFeature(NodeFeature::onRemoveFromTree);
+        owner = NullOwner.get();
+        id = -1;
+        wasAttached = false;
+        hasBeenAttached = false;
+        hasBeenDetached = false;
+        isInitialChanges = true;
+        clearChanges();
+    }
+
     /**
      * Gets whether the client side has been initialized for this node.
      * <p>
@@ -551,6 +727,7 @@ public class StateNode implements Serializable {
                 // Make all changes show up as if the node was recently attached
                 clearChanges();
                 forEachFeature(NodeFeature::generateChangesFromEmpty);
+                reportUninitializedFeatures(collector);
             } else {
                 collector.accept(new NodeDetachChange(this));
             }
@@ -563,10 +740,11 @@ public class StateNode implements Serializable {
         if (isInactive()) {
             if (isInitialChanges) {
                 // send only required (reported) features updates
-                Stream<NodeFeature> initialFeatures = Stream
-                        .concat(featureSet.mappings.keySet().stream()
-                                .filter(this::isReportedFeature)
-                                .map(this::getFeature), getDisalowFeatures());
+                Stream<NodeFeature> initialFeatures = Stream.concat(
+                        getInitializedFeatures().filter(
+                                feature -> isReportedFeature(
+                                        feature.getClass())),
+                        getDisalowFeatures());
                 doCollectChanges(collector, initialFeatures);
             } else {
                 doCollectChanges(collector, getDisalowFeatures());
@@ -576,20 +754,42 @@ public class StateNode implements Serializable {
         }
     }
 
+    private void reportUninitializedFeatures(Consumer<NodeChange> collector) {
+        featureSet.reportedFeatures.stream()
+                .filter(type -> !getFeatureIfInitialized(type).isPresent())
+                .forEach(type -> collector.accept(new EmptyChange(this, type)));
+    }
+
     private void doCollectChanges(Consumer<NodeChange> collector,
             Stream<NodeFeature> features) {
         features.filter(this::hasChangeTracker).forEach(feature -> {
             feature.collectChanges(collector);
-            changes.remove(feature.getClass());
+            removeChangeTracker(getFeatureIndex(feature.getClass()));
         });
         isInitialChanges = false;
-        if (changes != null && changes.isEmpty()) {
-            changes = null;
-        }
     }
 
     private boolean hasChangeTracker(NodeFeature nodeFeature) {
-        return changes != null && changes.containsKey(nodeFeature.getClass());
+        if (changedFeatures != 0) {
+            int featureIndex = getFeatureIndex(nodeFeature.getClass());
+            if ((changedFeatures & (1 << featureIndex)) != 0) {
+                return true;
+            }
+        }
+        return nodeFeature.hasDeferredChanges();
+    }
+
+    private void removeChangeTracker(int featureIndex) {
+        int bit = 1 << featureIndex;
+        if ((changedFeatures & bit) == 0) {
+            return;
+        }
+        changedFeatures &= ~bit;
+        if (changedFeatures == 0) {
+            changeTrackers = null;
+        } else {
+            changeTrackers[featureIndex] = null;
+        }
     }
 
     /**
@@ -597,7 +797,8 @@ public class StateNode implements Serializable {
      * testing purposes.
      */
     public void clearChanges() {
-        changes = null;
+        changedFeatures = 0;
+        changeTrackers = null;
     }
 
     /**
@@ -609,13 +810,49 @@ public class StateNode implements Serializable {
      *            visitor to apply
      */
     public void visitNodeTree(Consumer<StateNode> visitor) {
-        LinkedList<StateNode> stack = new LinkedList<>();
+        Deque<StateNode> stack = new ArrayDeque<>();
         stack.add(this);
         while (!stack.isEmpty()) {
             StateNode node = stack.removeFirst();
             visitor.accept(node);
-            node.forEachChild(child -> stack.add(0, child));
+            node.forEachChild(stack::addFirst);
+        }
+    }
+
+    /**
+     * Adds the estimated memory used by this node and its features, excluding
+     * its child nodes, to the given memory footprint.
+     *
+     * @param footprint
+     *            the memory footprint to add to, not <code>null</code>
+     */
+    public void estimateMemoryFootprint(MemoryFootprint footprint) {
+        long bytes = MemoryFootprintUtil.objectSize(9, 14);
+        if (features instanceof NodeFeature[]) {
+            bytes += MemoryFootprintUtil
+                    .arraySize(((NodeFeature[]) features).length);
+        }
+        if (changeTrackers != null) {
+            bytes += MemoryFootprintUtil.arraySize(changeTrackers.length);
+        }
+        if (attachListeners != null) {
+            bytes += MemoryFootprintUtil.arrayListSize(attachListeners.size())
+                    + attachListeners.size()
+                            * (long) MemoryFootprintUtil.objectSize(1, 0);
         }
+        if (detachListeners != null) {
+            bytes += MemoryFootprintUtil.arrayListSize(detachListeners.size())
+                    + detachListeners.size()
+                            * (long) MemoryFootprintUtil.objectSize(1, 0);
+        }
+        if (beforeClientResponseEntries != null) {
+            bytes += MemoryFootprintUtil
+                    .arrayListSize(beforeClientResponseEntries.size())
+                    + beforeClientResponseEntries.size()
+                            * (long) MemoryFootprintUtil.objectSize(3, 4);
+        }
+        footprint.add(MemoryFootprint.STATE_NODE, 1, bytes);
+        forEachFeature(feature -> feature.estimateMemoryFootprint(footprint));
     }
 
     /**
@@ -629,7 +866,7 @@ public class StateNode implements Serializable {
      */
     // package protected for testing
     void visitNodeTreeBottomUp(Consumer<StateNode> visitor) {
-        LinkedList<StateNode> stack = new LinkedList<>();
+        Deque<StateNode> stack = new ArrayDeque<>();
         stack.add(this);
         // not done inside loop to please Sonarcube
         forEachChild(stack::addFirst);
@@ -784,12 +1021,23 @@ public class StateNode implements Serializable {
     @SuppressWarnings("unchecked")
     public <T extends Serializable> T getChangeTracker(NodeFeature feature,
             Supplier<T> factory) {
-        if (changes == null) {
-            changes = new HashMap<>();
+        int featureIndex = getFeatureIndex(feature.getClass());
+        if ((changedFeatures & (1 << featureIndex)) != 0) {
+            return (T) changeTrackers[featureIndex];
         }
 
-        return (T) changes.computeIfAbsent(feature.getClass(),
-                k -> factory.get());
+        T tracker = factory.get();
+        if (tracker != null) {
+            if (changeTrackers == null) {
+                changeTrackers = new Serializable[featureIndex + 1];
+            } else if (featureIndex >= changeTrackers.length) {
+                changeTrackers = Arrays.copyOf(changeTrackers,
+                        featureIndex + 1);
+            }
+            changeTrackers[featureIndex] = tracker;
+            changedFeatures |= 1 << featureIndex;
+        }
+        return tracker;
     }
 
     /**
@@ -851,7 +1099,7 @@ public class StateNode implements Serializable {
      * @see NodeFeature#allowsChanges()
      */
     public void updateActiveState() {
-        setInactive(getDisalowFeatures().count() != 0);
+        setInactive(hasDisallowFeatures());
     }
 
     /**
@@ -868,6 +1116,19 @@ public class StateNode implements Serializable {
         return getParent().isInactive();
     }
 
+    private boolean hasDisallowFeatures() {
+        if (features instanceof NodeFeature) {
+            return !((NodeFeature) features).allowsChanges();
+        } else if (features != null) {
+            for (NodeFeature feature : (NodeFeature[]) features) {
+                if (feature != null && !feature.allowsChanges()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     private Stream<NodeFeature> getDisalowFeatures() {
         return getInitializedFeatures()
                 .filter(feature -> !feature.allowsChanges());
@@ -1047,4 +1308,107 @@ public class StateNode implements Serializable {
         return isAttached() && getOwner().hasNode(this);
     }
 
+    /**
+     * Writes the node flags as a single byte and only the initialized features
+     * together with their index instead of the sparse features array, followed
+     * by the changed features bitset and the corresponding change trackers if
+     * there are any changes.
+     *
+     * @param stream
+     *            the stream to write to
+     * @throws IOException
+     *             if an IO error occurred
+     */
+    private void writeObject(ObjectOutputStream stream) throws IOException {
+        stream.defaultWriteObject();
+
+        int flags = 0;
+        flags |= wasAttached ? FLAG_WAS_ATTACHED : 0;
+        flags |= hasBeenAttached ? FLAG_HAS_BEEN_ATTACHED : 0;
+        flags |= hasBeenDetached ? FLAG_HAS_BEEN_DETACHED : 0;
+        flags |= isInactiveSelf ? FLAG_INACTIVE_SELF : 0;
+        flags |= isInitialChanges ? FLAG_INITIAL_CHANGES : 0;
+        flags |= enabled ? FLAG_ENABLED : 0;
+        flags |= changedFeatures != 0 ? FLAG_HAS_CHANGES : 0;
+        stream.writeByte(flags);
+        stream.writeInt(id);
+
+        /*
+         * The length of the features array, or 0 if the field is null or
+         * contains a single feature
+         */
+        if (features instanceof NodeFeature[]) {
+            NodeFeature[] featuresArray = (NodeFeature[]) features;
+            stream.writeByte(featuresArray.length);
+            stream.writeByte((int) Stream.of(featuresArray)
+                    .filter(Objects::nonNull).count());
+            for (int i = 0; i < featuresArray.length; i++) {
+                if (featuresArray[i] != null) {
+                    stream.writeByte(i);
+                    stream.writeObject(featuresArray[i]);
+                }
+            }
+        } else {
+            stream.writeByte(0);
+            stream.writeObject(features);
+        }
+
+        if (changedFeatures != 0) {
+            stream.writeInt(changedFeatures);
+            for (int i = 0; i < changeTrackers.length; i++) {
+                if ((changedFeatures & (1 << i)) != 0) {
+                    stream.writeObject(changeTrackers[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the node state written by {@link #writeObject(ObjectOutputStream)}.
+     *
+     * @param stream
+     *            the stream to read from
+     * @throws IOException
+     *             if an IO error occurred
+     * @throws ClassNotFoundException
+     *             if the class of a stream object could not be found
+     */
+    private void readObject(ObjectInputStream stream)
+            throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+
+        int flags = stream.readUnsignedByte();
+        wasAttached = (flags & FLAG_WAS_ATTACHED) != 0;
+        hasBeenAttached = (flags & FLAG_HAS_BEEN_ATTACHED) != 0;
+        hasBeenDetached = (flags & FLAG_HAS_BEEN_DETACHED) != 0;
+        isInactiveSelf = (flags & FLAG_INACTIVE_SELF) != 0;
+        isInitialChanges = (flags & FLAG_INITIAL_CHANGES) != 0;
+        enabled = (flags & FLAG_ENABLED) != 0;
+        id = stream.readInt();
+
+        int length = stream.readUnsignedByte();
+        if (length == 0) {
+            features = (NodeFeature) stream.readObject();
+        } else {
+            NodeFeature[] featuresArray = new NodeFeature[length];
+            int count = stream.readUnsignedByte();
+            for (int i = 0; i < count; i++) {
+                int index = stream.readUnsignedByte();
+                featuresArray[index] = (NodeFeature) stream.readObject();
+            }
+            features = featuresArray;
+        }
+
+        if ((flags & FLAG_HAS_CHANGES) != 0) {
+            changedFeatures = stream.readInt();
+            changeTrackers = new Serializable[Integer.SIZE
+                    - Integer.numberOfLeadingZeros(changedFeatures)];
+            for (int i = 0; i < changeTrackers.length; i++) {
+                if ((changedFeatures & (1 << i)) != 0) {
+                    changeTrackers[i] = (Serializable) stream.readObject();
+                }
+            }
+        }
+    }
+
 }
@@ -16,6 +16,9 @@
 
 package com.vaadin.flow.internal;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.Comparator;
@@ -34,6 +37,8 @@ import com.vaadin.flow.function.SerializableConsumer;
 import com.vaadin.flow.internal.change.NodeChange;
 import com.vaadin.flow.internal.nodefeature.NodeFeature;
 import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.server.metrics.RequestCounter;
+import com.vaadin.flow.server.metrics.RequestMetrics;
 import com.vaadin.flow.shared.Registration;
 
 /**
@@ -123,12 +128,24 @@ public class StateTree implements NodeOwner {
 
     private Set<StateNode> dirtyNodes = new LinkedHashSet<>();
 
-    private final Map<Integer, StateNode> idToNode = new HashMap<>();
+    /**
+     * The registered nodes by id, serialized as plain id and node pairs by
+     * {@link #writeObject(ObjectOutputStream)}.
+     */
+    private transient Map<Integer, StateNode> idToNode = new HashMap<>();
 
     private int nextId = 1;
 
     private Set<StateNode> pendingExecutionNodes = new HashSet<>();
 
+    /**
+     * Nodes whose changes have been deferred by an update interval, marked
+     * dirty again by {@link #flushDeferredChanges()}.
+     */
+    private Set<StateNode> deferredNodes = new HashSet<>();
+
+    private long deferredChangesDeadline;
+
     private int nextBeforeClientResponseIndex = 1;
 
     private final StateNode rootNode;
@@ -249,7 +266,58 @@ public class StateTree implements NodeOwner {
 
         // TODO fire preCollect events
 
-        allDirtyNodes.forEach(node -> node.collectChanges(collector));
+        RequestMetrics metrics = RequestMetrics.getCurrent();
+        if (metrics != null) {
+            metrics.increment(RequestCounter.DIRTY_NODES, allDirtyNodes.size());
+        }
+
+        if (!allDirtyNodes.isEmpty()) {
+            uiInternals.setModified(true);
+        }
+
+        allDirtyNodes.forEach(node -> {
+            node.collectChanges(collector);
+            trackDeferredChanges(node);
+        });
+    }
+
+    private void trackDeferredChanges(StateNode node) {
+        long deadline = node.getDeferredChangesDeadline();
+        if (deadline == 0) {
+            deferredNodes.remove(node);
+            return;
+        }
+        deferredNodes.add(node);
+        if (deferredChangesDeadline == 0
+                || deadline < deferredChangesDeadline) {
+            deferredChangesDeadline = deadline;
+        }
+    }
+
+    /**
+     * Gets the time when the earliest change that was deferred by an update
+     * interval while collecting changes may be sent to the client. The
+     * deferred changes are not collected again until
+     * {@link #flushDeferredChanges()} is called or the nodes are otherwise
+     * changed.
+     *
+     * @return the time in milliseconds, or <code>0</code> if there are no
+     *         deferred changes
+     */
+    public long getDeferredChangesDeadline() {
+        return deferredChangesDeadline;
+    }
+
+    /**
+     * Marks all the nodes with deferred changes as dirty so that the changes
+     * are collected again, see {@link #getDeferredChangesDeadline()}.
+     */
+    public void flushDeferredChanges() {
+        deferredNodes.stream().filter(
+                node -> node.getOwner() == this && node.isAttached())
+                .forEach(StateNode::markAsDirty);
+        deferredNodes.clear();
+        deferredChangesDeadline = 0;
     }
 
     @Override
@@ -269,6 +337,8 @@ public class StateTree implements NodeOwner {
     public Set<StateNode> collectDirtyNodes() {
         Set<StateNode> collectedNodes = dirtyNodes;
         dirtyNodes = new LinkedHashSet<>();
+        // Nodes which have been moved to another tree are no longer tracked
+        collectedNodes.removeIf(node -> node.getOwner() != this);
         return collectedNodes;
     }
 
@@ -390,4 +460,47 @@ public class StateTree implements NodeOwner {
             session.checkHasLock();
         }
     }
+
+    /**
+     * Writes the registered nodes as primitive ids followed by the nodes
+     * instead of a map with boxed keys.
+     *
+     * @param stream
+     *            the stream to write to
+     * @throws IOException
+     *             if an IO error occurred
+     */
+    private void writeObject(ObjectOutputStream stream) throws IOException {
+        stream.defaultWriteObject();
+        stream.writeInt(idToNode.size());
+        for (Map.Entry<Integer, StateNode> entry : idToNode.entrySet()) {
+            stream.writeInt(entry.getKey().intValue());
+            stream.writeObject(entry.getValue());
+        }
+    }
+
+    /**
+     * Reads the registered nodes written by
+     * {@link #writeObject(ObjectOutputStream)}.
+     * <p>
+     * The ids are written separately since a node may still be being read
+     * when its tree is read.
+     *
+     * @param stream
+     *            the stream to read from
+     * @throws IOException
+     *             if an IO error occurred
+     * @throws ClassNotFoundException
+     *             if the class of a stream object could not be found
+     */
+    private void readObject(ObjectInputStream stream)
+            throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        int size = stream.readInt();
+        idToNode = new HashMap<>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+            int id = stream.readInt();
+            idToNode.put(Integer.valueOf(id), (StateNode) stream.readObject());
+        }
+    }
 }
@@ -16,6 +16,7 @@
 package com.vaadin.flow.internal.change;
 
 import com.vaadin.flow.internal.ConstantPool;
+import com.vaadin.flow.internal.StateNode;
 import com.vaadin.flow.internal.nodefeature.NodeFeature;
 import com.vaadin.flow.internal.nodefeature.NodeList;
 import com.vaadin.flow.shared.JsonConstants;
@@ -42,6 +43,19 @@ public class EmptyChange extends NodeFeatureChange {
         super(feature);
     }
 
+    /**
+     * Creates a new empty change for a feature which has not been initialized
+     * for the given node.
+     *
+     * @param node
+     *            the node of the feature
+     * @param feature
+     *            the type of the feature to populate on the client
+     */
+    public EmptyChange(StateNode node, Class<? extends NodeFeature> feature) {
+        super(node, feature);
+    }
+
     @Override
     protected void populateJson(JsonObject json, ConstantPool constantPool) {
         json.put(JsonConstants.CHANGE_TYPE, JsonConstants.CHANGE_TYPE_NOOP);
@@ -53,4 +67,11 @@ public class EmptyChange extends NodeFeatureChange {
         super.populateJson(json, constantPool);
     }
 
+    @Override
+    protected int getCompactType() {
+        return NodeList.class.isAssignableFrom(getFeature())
+                ? JsonConstants.COMPACT_CHANGE_NOOP_LIST
+                : JsonConstants.COMPACT_CHANGE_NOOP_MAP;
+    }
+
 }
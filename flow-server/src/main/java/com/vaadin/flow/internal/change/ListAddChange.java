@@ -16,6 +16,7 @@
 package com.vaadin.flow.internal.change;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.function.Function;
@@ -44,6 +45,16 @@ import elemental.json.JsonValue;
 public class ListAddChange<T extends Serializable>
         extends AbstractListChange<T> {
 
+    /**
+     * Items list owned by a change which has been combined from several
+     * changes, so that further items can be added to it directly.
+     */
+    private static class CombinedItems<T> extends ArrayList<T> {
+        private CombinedItems(List<? extends T> items) {
+            super(items);
+        }
+    }
+
     private final List<? extends T> newItems;
     private final boolean nodeValues;
 
@@ -85,6 +96,41 @@ public class ListAddChange<T extends Serializable>
         return newItems.isEmpty();
     }
 
+    /**
+     * Checks whether an item inserted at the given index directly follows the
+     * items added by this change, so that the two changes can be combined
+     * using {@link #combine(Serializable)}.
+     *
+     * @param index
+     *            the index of the inserted item
+     * @return <code>true</code> if the item directly follows the items of this
+     *         change, <code>false</code> otherwise
+     */
+    public boolean isFollowedBy(int index) {
+        return index == getIndex() + newItems.size();
+    }
+
+    /**
+     * Gets a change which adds the items of this change followed by the given
+     * item. Consecutive adds to a list are combined this way into one change
+     * instead of tracking a change for every item.
+     *
+     * @param item
+     *            the item added directly after the items of this change
+     * @return a change adding the items of this change and the given item,
+     *         this instance if it already is a combined change
+     */
+    @SuppressWarnings("unchecked")
+    public ListAddChange<T> combine(T item) {
+        if (newItems instanceof CombinedItems) {
+            ((CombinedItems<T>) newItems).add(item);
+            return this;
+        }
+        CombinedItems<T> items = new CombinedItems<>(newItems);
+        items.add(item);
+        return copy(items);
+    }
+
     /**
      * Gets a copy of the change with the same data except a list of new
      * {@code items}.
@@ -127,4 +173,29 @@ public class ListAddChange<T extends Serializable>
         json.put(addKey, newItemsJson);
     }
 
+    @Override
+    protected int getCompactType() {
+        return nodeValues ? JsonConstants.COMPACT_CHANGE_SPLICE_ADD_NODES
+                : JsonConstants.COMPACT_CHANGE_SPLICE_ADD;
+    }
+
+    @Override
+    protected void populateCompactJson(JsonArray json,
+            ConstantPool constantPool) {
+        super.populateCompactJson(json, constantPool);
+        json.set(json.length(), getIndex());
+
+        JsonArray newItemsJson = Json.createArray();
+        for (T item : newItems) {
+            if (nodeValues) {
+                newItemsJson.set(newItemsJson.length(),
+                        ((StateNode) item).getId());
+            } else {
+                newItemsJson.set(newItemsJson.length(),
+                        JsonCodec.encodeWithConstantPool(item, constantPool));
+            }
+        }
+        json.set(json.length(), newItemsJson);
+    }
+
 }
@@ -23,6 +23,7 @@ import com.vaadin.flow.internal.StateNode;
 import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.Json;
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 
 /**
@@ -83,4 +84,50 @@ public abstract class NodeChange implements Serializable {
      */
     protected abstract void populateJson(JsonObject json,
             ConstantPool constantPool);
+
+    /**
+     * Serializes this change to a compact JSON array. The array contains the
+     * compact type id of the change and the node id followed by the type
+     * specific values in a fixed order, see the {@code COMPACT_CHANGE_}
+     * constants in {@link JsonConstants}.
+     *
+     * @param constantPool
+     *            the constant pool to use for serializing constant pool
+     *            references
+     *
+     * @return a compact json representation of this change
+     */
+    public JsonArray toCompactJson(ConstantPool constantPool) {
+        JsonArray json = Json.createArray();
+
+        json.set(0, getCompactType());
+        json.set(1, node.getId());
+
+        populateCompactJson(json, constantPool);
+
+        return json;
+    }
+
+    /**
+     * Gets the type id of this change in the compact format.
+     *
+     * @return the compact type id
+     */
+    protected abstract int getCompactType();
+
+    /**
+     * Overridden by subclasses to append type specific values to a compact
+     * JSON array when serializing. The array already contains the type id and
+     * the node id.
+     *
+     * @param json
+     *            the json array to append to
+     * @param constantPool
+     *            the constant pool to use for serializing constant pool
+     *            references
+     */
+    protected void populateCompactJson(JsonArray json,
+            ConstantPool constantPool) {
+        // Only the type and the node by default
+    }
 }
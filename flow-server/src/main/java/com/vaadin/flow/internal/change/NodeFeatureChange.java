@@ -17,11 +17,13 @@
 package com.vaadin.flow.internal.change;
 
 import com.vaadin.flow.internal.ConstantPool;
+import com.vaadin.flow.internal.StateNode;
 import com.vaadin.flow.internal.nodefeature.NodeFeature;
 import com.vaadin.flow.internal.nodefeature.NodeFeatureRegistry;
 import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.Json;
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 
 /**
@@ -46,6 +48,22 @@ public abstract class NodeFeatureChange extends NodeChange {
         this.feature = feature.getClass();
     }
 
+    /**
+     * Creates a new change for a feature of the given node which has not been
+     * initialized.
+     *
+     * @param node
+     *            the node of the feature
+     * @param feature
+     *            the type of the feature affected by the change
+     */
+    public NodeFeatureChange(StateNode node,
+            Class<? extends NodeFeature> feature) {
+        super(node);
+
+        this.feature = feature;
+    }
+
     /**
      * Gets the feature affected by the change.
      *
@@ -60,4 +78,10 @@ public abstract class NodeFeatureChange extends NodeChange {
         json.put(JsonConstants.CHANGE_FEATURE,
                 Json.create(NodeFeatureRegistry.getId(feature)));
     }
+
+    @Override
+    protected void populateCompactJson(JsonArray json,
+            ConstantPool constantPool) {
+        json.set(json.length(), NodeFeatureRegistry.getId(feature));
+    }
 }
@@ -20,6 +20,7 @@ import java.lang.reflect.Method;
 import com.vaadin.flow.component.ClientCallable;
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.dom.DisabledUpdateMode;
+import com.vaadin.flow.internal.ReflectionCache;
 import com.vaadin.flow.internal.StateNode;
 
 /**
@@ -32,6 +33,9 @@ import com.vaadin.flow.internal.StateNode;
  */
 public class ClientCallableHandlers extends AbstractServerHandlers<Component> {
 
+    private static final ReflectionCache<Component, Boolean> handlerMethodsCache = new ReflectionCache<>(
+            ClientCallableHandlers::findHandlerMethods);
+
     /**
      * Creates a new meta information list for the given state node.
      *
@@ -42,6 +46,34 @@ public class ClientCallableHandlers extends AbstractServerHandlers<Component> {
         super(node);
     }
 
+    /**
+     * Checks whether the given component type has any methods annotated with
+     * {@link ClientCallable}. The feature does not need to be created for
+     * components without such methods.
+     *
+     * @param componentType
+     *            the component type to check, not <code>null</code>
+     * @return <code>true</code> if the component type has handler methods,
+     *         otherwise <code>false</code>
+     */
+    public static boolean hasHandlerMethods(
+            Class<? extends Component> componentType) {
+        return handlerMethodsCache.get(componentType).booleanValue();
+    }
+
+    private static Boolean findHandlerMethods(Class<?> componentType) {
+        for (Class<?> type = componentType; type != null
+                && !Component.class.equals(type); type = type
+                        .getSuperclass()) {
+            for (Method method : type.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(ClientCallable.class)) {
+                    return Boolean.TRUE;
+                }
+            }
+        }
+        return Boolean.FALSE;
+    }
+
     @Override
     protected Class<? extends ClientCallable> getHandlerAnnotation() {
         return ClientCallable.class;
@@ -20,8 +20,10 @@ import java.util.Optional;
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.ComponentUtil;
 import com.vaadin.flow.component.Composite;
+import com.vaadin.flow.component.internal.ObserverRegistry;
 import com.vaadin.flow.component.polymertemplate.PolymerTemplate;
 import com.vaadin.flow.internal.StateNode;
+import com.vaadin.flow.internal.StateTree;
 
 /**
  * A server side only node feature for mapping a node to a component.
@@ -58,7 +60,9 @@ public class ComponentMapping extends ServerSideFeature {
                 || component instanceof Composite : "Only a Composite is allowed to remap a component";
         this.component = component;
 
-        if (getNode().hasFeature(ClientCallableHandlers.class)) {
+        if (getNode().hasFeature(ClientCallableHandlers.class)
+                && ClientCallableHandlers
+                        .hasHandlerMethods(component.getClass())) {
             getNode().getFeature(ClientCallableHandlers.class)
                     .componentSet(component);
         }
@@ -67,6 +71,9 @@ public class ComponentMapping extends ServerSideFeature {
             getNode().getFeature(PolymerServerEventHandlers.class)
                     .componentSet((PolymerTemplate<?>) component);
         }
+        if (getNode().isAttached()) {
+            getObserverRegistry().update(getNode(), component);
+        }
     }
 
     /**
@@ -98,13 +105,24 @@ public class ComponentMapping extends ServerSideFeature {
 
     @Override
     public void onAttach(boolean initialAttach) {
+        if (component != null) {
+            getObserverRegistry().update(getNode(), component);
+        }
         getComponent().ifPresent(
                 c -> ComponentUtil.onComponentAttach(c, initialAttach));
     }
 
     @Override
     public void onDetach() {
+        if (component != null) {
+            getObserverRegistry().remove(getNode());
+        }
         getComponent().ifPresent(ComponentUtil::onComponentDetach);
     }
 
+    private ObserverRegistry getObserverRegistry() {
+        return ((StateTree) getNode().getOwner()).getUI().getInternals()
+                .getObserverRegistry();
+    }
+
 }
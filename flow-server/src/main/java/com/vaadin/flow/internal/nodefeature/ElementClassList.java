@@ -33,6 +33,10 @@ public class ElementClassList extends SerializableNodeList<String> {
             super(elementClassList);
         }
 
+        private ClassListView(StateNode node) {
+            super(node, ElementClassList.class);
+        }
+
         @Override
         protected void validate(String className) {
             if (className == null) {
@@ -68,4 +72,16 @@ public class ElementClassList extends SerializableNodeList<String> {
     public ClassList getClassList() {
         return new ClassListView(this);
     }
+
+    /**
+     * Creates a view into the class list of the given node. The class list
+     * feature is only created when a class name is added.
+     *
+     * @param node
+     *            the node to get a class list view for, not <code>null</code>
+     * @return a view into the class list of the node
+     */
+    public static ClassList getClassList(StateNode node) {
+        return new ClassListView(node);
+    }
 }
@@ -18,6 +18,7 @@ package com.vaadin.flow.internal.nodefeature;
 
 import java.io.Serializable;
 
+import com.vaadin.flow.internal.ConstantPoolKey;
 import com.vaadin.flow.internal.StateNode;
 
 import elemental.json.JsonValue;
@@ -99,6 +100,29 @@ public class ElementData extends NodeMap {
         return value == null ? null : (JsonValue) value;
     }
 
+    /**
+     * Sets the static content of the element. The client sets the inner HTML
+     * of the element to the string value of the constant once the element is
+     * bound.
+     *
+     * @param staticContent
+     *            the constant containing the inner HTML as a JSON string, or
+     *            <code>null</code> to not use any static content
+     */
+    public void setStaticContent(ConstantPoolKey staticContent) {
+        put(NodeProperties.STATIC_CONTENT, staticContent);
+    }
+
+    /**
+     * Gets the static content of the element.
+     *
+     * @return the constant containing the inner HTML of the element, or
+     *         <code>null</code> if there is no static content
+     */
+    public ConstantPoolKey getStaticContent() {
+        return (ConstantPoolKey) get(NodeProperties.STATIC_CONTENT);
+    }
+
     @Override
     public boolean allowsChanges() {
         return isVisible();
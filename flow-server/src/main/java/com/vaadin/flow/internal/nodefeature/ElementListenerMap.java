@@ -37,7 +37,9 @@ import com.vaadin.flow.dom.DomListenerRegistration;
 import com.vaadin.flow.function.SerializableRunnable;
 import com.vaadin.flow.internal.ConstantPoolKey;
 import com.vaadin.flow.internal.JsonUtils;
+import com.vaadin.flow.internal.MemoryFootprintUtil;
 import com.vaadin.flow.internal.StateNode;
+import com.vaadin.flow.server.metrics.MemoryFootprint;
 import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.Json;
@@ -364,6 +366,15 @@ public class ElementListenerMap extends NodeMap {
         return expressions;
     }
 
+    @Override
+    public void onRemoveFromTree() {
+        // The settings constants have been delivered to the previous UI and
+        // no longer contain the JSON needed by the constant pool of a new UI
+        if (listeners != null) {
+            listeners.keySet().forEach(this::updateEventSettings);
+        }
+    }
+
     private void updateEventSettings(String eventType) {
         Map<String, ExpressionSettings> eventSettings = collectEventExpressions(
                 eventType);
@@ -468,4 +479,27 @@ public class ElementListenerMap extends NodeMap {
                 .reduce(DisabledUpdateMode::mostPermissive).orElse(null);
     }
 
+    @Override
+    public void estimateMemoryFootprint(MemoryFootprint footprint) {
+        super.estimateMemoryFootprint(footprint);
+        if (listeners == null) {
+            return;
+        }
+        int count = 0;
+        long bytes = MemoryFootprintUtil.hashMapSize(listeners.size());
+        for (List<DomEventListenerWrapper> wrappers : listeners.values()) {
+            count += wrappers.size();
+            bytes += MemoryFootprintUtil.arrayListSize(wrappers.size());
+            for (DomEventListenerWrapper wrapper : wrappers) {
+                // The wrapper and the listener instance
+                bytes += MemoryFootprintUtil.objectSize(8, 4)
+                        + MemoryFootprintUtil.objectSize(1, 0);
+                if (wrapper.eventDataExpressions != null) {
+                    bytes += MemoryFootprintUtil.hashMapSize(
+                            wrapper.eventDataExpressions.size());
+                }
+            }
+        }
+        footprint.add(MemoryFootprint.DOM_EVENT_LISTENER, count, bytes);
+    }
 }
@@ -19,9 +19,11 @@ package com.vaadin.flow.internal.nodefeature;
 import java.io.Serializable;
 import java.util.function.Consumer;
 
+import com.vaadin.flow.internal.MemoryFootprintUtil;
 import com.vaadin.flow.internal.StateNode;
 import com.vaadin.flow.internal.StateTree;
 import com.vaadin.flow.internal.change.NodeChange;
+import com.vaadin.flow.server.metrics.MemoryFootprint;
 
 /**
  * A node feature represents a group of related values and functionality in a
@@ -66,6 +68,29 @@ public abstract class NodeFeature implements Serializable {
      */
     public abstract void generateChangesFromEmpty();
 
+    /**
+     * Checks whether this feature has changes which were not sent to the
+     * client by the previous {@link #collectChanges(Consumer)} but should be
+     * collected again later even if there are no new changes.
+     *
+     * @return <code>true</code> if there are deferred changes,
+     *         <code>false</code> otherwise
+     */
+    public boolean hasDeferredChanges() {
+        return false;
+    }
+
+    /**
+     * Gets the time when the earliest change deferred by the previous
+     * {@link #collectChanges(Consumer)} may be sent to the client.
+     *
+     * @return the time in milliseconds, or <code>0</code> if there are no
+     *         deferred changes
+     */
+    public long getDeferredChangesDeadline() {
+        return 0;
+    }
+
     /**
      * Attaches an object if it is a {@link StateNode}.
      *
@@ -104,6 +129,20 @@ public abstract class NodeFeature implements Serializable {
      */
     public abstract void forEachChild(Consumer<StateNode> action);
 
+    /**
+     * Adds the estimated memory used by this feature, excluding its child
+     * nodes, to the given memory footprint. The default implementation only
+     * adds the feature instance itself using the simple name of the feature
+     * type as the category.
+     *
+     * @param footprint
+     *            the memory footprint to add to, not <code>null</code>
+     */
+    public void estimateMemoryFootprint(MemoryFootprint footprint) {
+        footprint.add(getClass().getSimpleName(), 1,
+                MemoryFootprintUtil.objectSize(3, 4));
+    }
+
     /**
      * Called when the state node has been attached to the state tree.
      *
@@ -122,6 +161,19 @@ public abstract class NodeFeature implements Serializable {
         // NOOP by default
     }
 
+    /**
+     * Called when the state node has been removed from its state tree so that
+     * it can be attached to another tree, see
+     * {@link StateNode#removeFromTree()}.
+     * <p>
+     * Values which are only meaningful to the client side of the previous
+     * tree, e.g. {@link com.vaadin.flow.internal.ConstantPoolKey} instances
+     * which have already been delivered, should be recreated.
+     */
+    public void onRemoveFromTree() {
+        // NOOP by default
+    }
+
     /**
      * Returns {@code true} if the underlying node may report its changes.
      * <p>
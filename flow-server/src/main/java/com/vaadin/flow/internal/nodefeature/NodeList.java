@@ -16,6 +16,9 @@
 
 package com.vaadin.flow.internal.nodefeature;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.AbstractSet;
 import java.util.ArrayList;
@@ -30,6 +33,7 @@ import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import com.vaadin.flow.internal.MemoryFootprintUtil;
 import com.vaadin.flow.internal.StateNode;
 import com.vaadin.flow.internal.change.AbstractListChange;
 import com.vaadin.flow.internal.change.EmptyChange;
@@ -37,6 +41,7 @@ import com.vaadin.flow.internal.change.ListAddChange;
 import com.vaadin.flow.internal.change.ListClearChange;
 import com.vaadin.flow.internal.change.ListRemoveChange;
 import com.vaadin.flow.internal.change.NodeChange;
+import com.vaadin.flow.server.metrics.MemoryFootprint;
 
 /**
  * A state node feature that structures data as a list.
@@ -85,6 +90,9 @@ public abstract class NodeList<T extends Serializable> extends NodeFeature {
     protected abstract static class SetView<T extends Serializable>
             extends AbstractSet<T> implements Serializable {
 
+        private final StateNode node;
+        private final Class<? extends NodeList<T>> featureType;
+
         private NodeList<T> nodeList;
 
         /**
@@ -93,18 +101,49 @@ public abstract class NodeList<T extends Serializable> extends NodeFeature {
          * @param nodeList
          *            the list to wrap
          */
+        @SuppressWarnings("unchecked")
         public SetView(NodeList<T> nodeList) {
+            node = nodeList.getNode();
+            featureType = (Class<? extends NodeList<T>>) nodeList.getClass();
             this.nodeList = nodeList;
         }
 
+        /**
+         * Creates a new view for a list feature of the given node. The feature
+         * is only created when an item is added.
+         *
+         * @param node
+         *            the node of the list, not <code>null</code>
+         * @param featureType
+         *            the type of the list feature, not <code>null</code>
+         */
+        protected SetView(StateNode node,
+                Class<? extends NodeList<T>> featureType) {
+            this.node = node;
+            this.featureType = featureType;
+        }
+
+        private NodeList<T> getNodeList(boolean create) {
+            if (nodeList == null) {
+                nodeList = create ? node.getFeature(featureType)
+                        : node.getFeatureIfInitialized(featureType)
+                                .orElse(null);
+            }
+            return nodeList;
+        }
+
         @Override
         public int size() {
-            return nodeList.size();
+            NodeList<T> list = getNodeList(false);
+            return list == null ? 0 : list.size();
         }
 
         @Override
         public void clear() {
-            nodeList.clear();
+            NodeList<T> list = getNodeList(false);
+            if (list != null) {
+                list.clear();
+            }
         }
 
         @Override
@@ -114,7 +153,7 @@ public abstract class NodeList<T extends Serializable> extends NodeFeature {
                 return false;
             }
 
-            nodeList.add(size(), o);
+            getNodeList(true).add(size(), o);
             return true;
         }
 
@@ -129,16 +168,25 @@ public abstract class NodeList<T extends Serializable> extends NodeFeature {
         @SuppressWarnings("unchecked")
         @Override
         public boolean contains(Object o) {
-            return nodeList.indexOf((T) o) != -1;
+            NodeList<T> list = getNodeList(false);
+            return list != null && list.indexOf((T) o) != -1;
         }
 
         @Override
         public Iterator<T> iterator() {
-            return nodeList.iterator();
+            NodeList<T> list = getNodeList(false);
+            if (list == null) {
+                return Collections.emptyIterator();
+            }
+            return list.iterator();
         }
     }
 
-    private List<T> values;
+    /**
+     * The values of this list, serialized as plain items by
+     * {@link #writeObject(ObjectOutputStream)}.
+     */
+    private transient List<T> values;
 
     private boolean isRemoveAllCalled;
 
@@ -235,8 +283,22 @@ public abstract class NodeList<T extends Serializable> extends NodeFeature {
         ensureValues();
         values.add(index, item);
 
-        addChange(new ListAddChange<>(this, isNodeValues(), index,
-                Collections.singletonList(item)));
+        getNode().markAsDirty();
+        if (!getNode().isTrackingChanges()) {
+            return;
+        }
+
+        List<AbstractListChange<T>> tracker = getChangeTracker();
+        int last = tracker.size() - 1;
+        AbstractListChange<T> previous = last >= 0 ? tracker.get(last) : null;
+        if (isNodeValues() && previous instanceof ListAddChange<?>
+                && ((ListAddChange<T>) previous).isFollowedBy(index)) {
+            // Combine consecutive adds, e.g. appending children one by one
+            tracker.set(last, ((ListAddChange<T>) previous).combine(item));
+        } else {
+            tracker.add(new ListAddChange<>(this, isNodeValues(), index,
+                    Collections.singletonList(item)));
+        }
     }
 
     /**
@@ -275,8 +337,10 @@ public abstract class NodeList<T extends Serializable> extends NodeFeature {
 
     private void addChange(AbstractListChange<T> change) {
         getNode().markAsDirty();
+        if (!getNode().isTrackingChanges()) {
+            return;
+        }
 
-        // XXX combine with previous changes if possible
         getChangeTracker().add(change);
 
         // TODO Fire some listeners
@@ -365,6 +429,18 @@ public abstract class NodeList<T extends Serializable> extends NodeFeature {
     public void forEachChild(Consumer<StateNode> action) {
     }
 
+    @Override
+    public void estimateMemoryFootprint(MemoryFootprint footprint) {
+        long bytes = MemoryFootprintUtil.objectSize(2, 2);
+        if (values != null) {
+            bytes += MemoryFootprintUtil.arrayListSize(values.size());
+            for (T value : values) {
+                bytes += MemoryFootprintUtil.valueSize(value);
+            }
+        }
+        footprint.add(getClass().getSimpleName(), 1, bytes);
+    }
+
     @Override
     public void generateChangesFromEmpty() {
         if (values != null) {
@@ -486,4 +562,50 @@ public abstract class NodeList<T extends Serializable> extends NodeFeature {
             isPopulated = false;
         }
     }
+
+    /**
+     * Writes the values as a number of items followed by the items instead of
+     * a list instance. A negative number is used when there is no list.
+     *
+     * @param stream
+     *            the stream to write to
+     * @throws IOException
+     *             if an IO error occurred
+     */
+    private void writeObject(ObjectOutputStream stream) throws IOException {
+        stream.defaultWriteObject();
+        if (values == null) {
+            stream.writeInt(-1);
+            return;
+        }
+        stream.writeInt(values.size());
+        for (T value : values) {
+            stream.writeObject(value);
+        }
+    }
+
+    /**
+     * Reads the values written by {@link #writeObject(ObjectOutputStream)}.
+     *
+     * @param stream
+     *            the stream to read from
+     * @throws IOException
+     *             if an IO error occurred
+     * @throws ClassNotFoundException
+     *             if the class of a stream object could not be found
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream stream)
+            throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        int size = stream.readInt();
+        if (size < 0) {
+            values = null;
+            return;
+        }
+        values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add((T) stream.readObject());
+        }
+    }
 }
@@ -16,6 +16,9 @@
 
 package com.vaadin.flow.internal.nodefeature;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -27,13 +30,18 @@ import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
+import com.vaadin.flow.internal.JsonUtils;
+import com.vaadin.flow.internal.MemoryFootprintUtil;
 import com.vaadin.flow.internal.StateNode;
 import com.vaadin.flow.internal.change.EmptyChange;
 import com.vaadin.flow.internal.change.MapPutChange;
 import com.vaadin.flow.internal.change.MapRemoveChange;
 import com.vaadin.flow.internal.change.NodeChange;
+import com.vaadin.flow.server.metrics.MemoryFootprint;
 import com.vaadin.flow.shared.util.UniqueSerializable;
 
+import elemental.json.JsonValue;
+
 /**
  * A state node feature that structures data as a map.
  *
@@ -144,10 +152,32 @@ public abstract class NodeMap extends NodeFeature {
         }
     }
 
-    private Values values;
+    /**
+     * Rate limit of a key: values are sent to the client at most once per
+     * interval. While a change is deferred, the value known by the client is
+     * kept here since the change tracker is cleared after each collection.
+     */
+    private static class UpdateThrottle implements Serializable {
+        private final int interval;
+        private long lastSent;
+        private boolean pending;
+        private Serializable clientValue;
+
+        private UpdateThrottle(int interval) {
+            this.interval = interval;
+        }
+    }
+
+    /**
+     * The values of this map, serialized as plain key and value pairs by
+     * {@link #writeObject(ObjectOutputStream)}.
+     */
+    private transient Values values;
 
     private boolean isPopulated;
 
+    private Map<String, UpdateThrottle> updateThrottles;
+
     /**
      * Creates a new map feature for the given node.
      *
@@ -375,12 +405,23 @@ public abstract class NodeMap extends NodeFeature {
     private void setUnChanged(String key) {
         assert key != null;
         getChangeTracker().remove(key);
+
+        UpdateThrottle throttle = getUpdateThrottle(key);
+        if (throttle != null && throttle.pending) {
+            // The client has provided the value it now has
+            throttle.clientValue = values != null && values.containsKey(key)
+                    ? values.get(key)
+                    : REMOVED_MARKER;
+        }
     }
 
     private void setChanged(String key) {
         assert key != null;
 
         getNode().markAsDirty();
+        if (!getNode().isTrackingChanges()) {
+            return;
+        }
 
         Map<String, Serializable> changes = getChangeTracker();
 
@@ -409,24 +450,29 @@ public abstract class NodeMap extends NodeFeature {
 
     @Override
     public void collectChanges(Consumer<NodeChange> collector) {
+        Map<String, Serializable> changes = getChangeTracker();
+        long now = restoreDeferredChanges(changes);
+
         boolean hasChanges = false;
-        for (Entry<String, Serializable> entry : getChangeTracker()
-                .entrySet()) {
+        for (Entry<String, Serializable> entry : changes.entrySet()) {
             String key = entry.getKey();
             Serializable value = entry.getValue();
             boolean containsNow = values != null && values.containsKey(key);
             boolean containedEarlier = value != REMOVED_MARKER;
+            NodeChange change = null;
             if (containedEarlier && !containsNow) {
-                collector.accept(new MapRemoveChange(this, key));
-                hasChanges = true;
+                change = new MapRemoveChange(this, key);
             } else if (containsNow) {
                 Object currentValue = values.get(key);
-                if (!containedEarlier || !Objects.equals(value, currentValue)) {
+                if (!containedEarlier || !valueEquals(value, currentValue)) {
                     // New or changed value
-                    collector.accept(new MapPutChange(this, key, currentValue));
-                    hasChanges = true;
+                    change = new MapPutChange(this, key, currentValue);
                 }
             }
+            if (change != null && !isDeferred(key, value, now)) {
+                collector.accept(change);
+                hasChanges = true;
+            }
         }
         if (!isPopulated) {
             if (!hasChanges) {
@@ -436,8 +482,135 @@ public abstract class NodeMap extends NodeFeature {
         }
     }
 
+    /**
+     * Puts the client side values of the keys whose changes were deferred by
+     * the previous collection back to the change tracker.
+     *
+     * @return the current time if there are rate limited keys, otherwise
+     *         <code>0</code>
+     */
+    private long restoreDeferredChanges(Map<String, Serializable> changes) {
+        if (updateThrottles == null) {
+            return 0;
+        }
+        updateThrottles.forEach((key, throttle) -> {
+            if (throttle.pending) {
+                changes.put(key, throttle.clientValue);
+                throttle.pending = false;
+                throttle.clientValue = null;
+            }
+        });
+        return System.currentTimeMillis();
+    }
+
+    private boolean isDeferred(String key, Serializable clientValue,
+            long now) {
+        UpdateThrottle throttle = getUpdateThrottle(key);
+        if (throttle == null) {
+            return false;
+        }
+        if (now - throttle.lastSent >= throttle.interval) {
+            throttle.lastSent = now;
+            return false;
+        }
+        throttle.pending = true;
+        throttle.clientValue = clientValue;
+        return true;
+    }
+
+    private UpdateThrottle getUpdateThrottle(String key) {
+        return updateThrottles == null ? null : updateThrottles.get(key);
+    }
+
+    private static boolean valueEquals(Object value1, Object value2) {
+        if (value1 instanceof JsonValue && value2 instanceof JsonValue) {
+            return JsonUtils.jsonEquals((JsonValue) value1,
+                    (JsonValue) value2);
+        }
+        return Objects.equals(value1, value2);
+    }
+
+    @Override
+    public boolean hasDeferredChanges() {
+        return updateThrottles != null && updateThrottles.values().stream()
+                .anyMatch(throttle -> throttle.pending);
+    }
+
+    @Override
+    public long getDeferredChangesDeadline() {
+        if (updateThrottles == null) {
+            return 0;
+        }
+        return updateThrottles.values().stream()
+                .filter(throttle -> throttle.pending)
+                .mapToLong(throttle -> throttle.lastSent + throttle.interval)
+                .min().orElse(0);
+    }
+
+    /**
+     * Limits how often changes of the value with the given key are sent to the
+     * client. If the value changes several times within the interval, only the
+     * latest value is sent with the first response after the interval has
+     * passed since the value was last sent.
+     * <p>
+     * When the interval of a deferred value ends, the value is pushed if push
+     * is enabled for the UI, and otherwise sent with the next response, e.g.
+     * a poll request.
+     *
+     * @param key
+     *            the key to rate limit, not <code>null</code>
+     * @param interval
+     *            the minimum interval in milliseconds between sending changes
+     *            of the value, or <code>0</code> to send all changes
+     */
+    public void setUpdateInterval(String key, int interval) {
+        assert key != null;
+        if (interval < 0) {
+            throw new IllegalArgumentException(
+                    "Update interval cannot be negative");
+        }
+        UpdateThrottle previous = getUpdateThrottle(key);
+        if (interval == 0) {
+            if (previous != null) {
+                updateThrottles.remove(key);
+                if (previous.pending) {
+                    releaseDeferredChange(key, previous);
+                }
+                if (updateThrottles.isEmpty()) {
+                    updateThrottles = null;
+                }
+            }
+            return;
+        }
+        if (updateThrottles == null) {
+            updateThrottles = new HashMap<>();
+        }
+        UpdateThrottle throttle = new UpdateThrottle(interval);
+        if (previous != null) {
+            throttle.lastSent = previous.lastSent;
+            throttle.pending = previous.pending;
+            throttle.clientValue = previous.clientValue;
+        }
+        updateThrottles.put(key, throttle);
+    }
+
+    private void releaseDeferredChange(String key, UpdateThrottle throttle) {
+        Map<String, Serializable> changes = getChangeTracker();
+        if (!changes.containsKey(key)) {
+            changes.put(key, throttle.clientValue);
+        }
+        getNode().markAsDirty();
+    }
+
     @Override
     public void generateChangesFromEmpty() {
+        if (updateThrottles != null) {
+            // Everything is sent, so there is nothing deferred
+            updateThrottles.values().forEach(throttle -> {
+                throttle.pending = false;
+                throttle.clientValue = null;
+            });
+        }
         if (values == null) {
             if (!isPopulated) {
                 // populate change tracker so that an empty change can be
@@ -463,6 +636,28 @@ public abstract class NodeMap extends NodeFeature {
                 .forEach(v -> action.accept((StateNode) v));
     }
 
+    @Override
+    public void estimateMemoryFootprint(MemoryFootprint footprint) {
+        long bytes = MemoryFootprintUtil.objectSize(3, 4);
+        if (values instanceof SingleValue) {
+            SingleValue single = (SingleValue) values;
+            bytes += MemoryFootprintUtil.objectSize(2, 0)
+                    + MemoryFootprintUtil.valueSize(single.value);
+        } else if (values instanceof HashMapValues) {
+            HashMapValues map = (HashMapValues) values;
+            bytes += MemoryFootprintUtil.hashMapSize(map.size());
+            for (Serializable value : map.values()) {
+                bytes += MemoryFootprintUtil.valueSize(value);
+            }
+        }
+        if (updateThrottles != null) {
+            bytes += MemoryFootprintUtil.hashMapSize(updateThrottles.size())
+                    + updateThrottles.size()
+                            * (long) MemoryFootprintUtil.objectSize(1, 13);
+        }
+        footprint.add(getClass().getSimpleName(), 1, bytes);
+    }
+
     /**
      * Receives a value update from the client. The map value is updated without
      * creating a change record since the client already knows the current
@@ -506,4 +701,55 @@ public abstract class NodeMap extends NodeFeature {
         return values instanceof SingleValue;
     }
 
+    /**
+     * Writes the values as a number of keys followed by the keys and values
+     * instead of the internal value holder.
+     *
+     * @param stream
+     *            the stream to write to
+     * @throws IOException
+     *             if an IO error occurred
+     */
+    private void writeObject(ObjectOutputStream stream) throws IOException {
+        stream.defaultWriteObject();
+        if (values == null) {
+            stream.writeInt(0);
+            return;
+        }
+        stream.writeInt(values.size());
+        for (String key : values.keySet()) {
+            stream.writeObject(key);
+            stream.writeObject(values.get(key));
+        }
+    }
+
+    /**
+     * Reads the values written by {@link #writeObject(ObjectOutputStream)}.
+     *
+     * @param stream
+     *            the stream to read from
+     * @throws IOException
+     *             if an IO error occurred
+     * @throws ClassNotFoundException
+     *             if the class of a stream object could not be found
+     */
+    private void readObject(ObjectInputStream stream)
+            throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        int size = stream.readInt();
+        if (size == 0) {
+            values = null;
+            return;
+        }
+        String firstKey = (String) stream.readObject();
+        values = new SingleValue(firstKey, (Serializable) stream.readObject());
+        if (size > 1) {
+            values = new HashMapValues(values);
+            for (int i = 1; i < size; i++) {
+                String key = (String) stream.readObject();
+                values.set(key, (Serializable) stream.readObject());
+            }
+        }
+    }
+
 }
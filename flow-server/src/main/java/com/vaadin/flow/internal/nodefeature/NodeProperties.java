@@ -72,6 +72,11 @@ public final class NodeProperties {
      */
     public static final String VISIBLE = "visible";
 
+    /**
+     * Key for {@link ElementData#getStaticContent()}.
+     */
+    public static final String STATIC_CONTENT = "staticContent";
+
     /** Key for id property. */
     public static final String ID = "id";
 
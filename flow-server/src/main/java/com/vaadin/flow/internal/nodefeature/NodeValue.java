@@ -83,6 +83,9 @@ public abstract class NodeValue<T extends Serializable> extends NodeFeature {
 
     private void markAsDirty() {
         getNode().markAsDirty();
+        if (!getNode().isTrackingChanges()) {
+            return;
+        }
 
         // Store current value as the change tracker if not value is already
         // stored
@@ -101,6 +101,17 @@ public class PolymerEventListenerMap extends NodeMap {
         return () -> removeListener(methodName);
     }
 
+    @Override
+    public void onRemoveFromTree() {
+        // The constants have been delivered to the previous UI and no longer
+        // contain the JSON needed by the constant pool of a new UI
+        if (typeToExpressions != null) {
+            typeToExpressions.forEach((methodName,
+                    eventData) -> put(methodName,
+                            createConstantPoolKey(eventData)));
+        }
+    }
+
     private static ConstantPoolKey createConstantPoolKey(
             List<String> eventData) {
         return new ConstantPoolKey(eventData.stream().map(Json::create)
@@ -30,6 +30,8 @@ import com.vaadin.flow.dom.NodeVisitor;
 import com.vaadin.flow.dom.ShadowRoot;
 import com.vaadin.flow.i18n.LocaleChangeEvent;
 import com.vaadin.flow.i18n.LocaleChangeObserver;
+import com.vaadin.flow.internal.StateNode;
+import com.vaadin.flow.internal.StateTree;
 
 /**
  * Event handling utilities.
@@ -100,9 +102,7 @@ public final class EventUtil {
                         || !chainRootElements.contains(element);
             };
 
-            return getImplementingComponents(
-                    flattenDescendants(chainRootElement,
-                            currentRootAndNonRoots),
+            return collectObservers(chainRootElement, currentRootAndNonRoots,
                     BeforeEnterObserver.class);
         }).collect(Collectors.toList());
     }
@@ -116,7 +116,7 @@ public final class EventUtil {
      * @return navigation listeners
      */
     public static List<BeforeLeaveObserver> collectBeforeLeaveObservers(UI ui) {
-        return getImplementingComponents(flattenDescendants(ui.getElement()),
+        return collectObservers(ui.getElement(), item -> true,
                 BeforeLeaveObserver.class).collect(Collectors.toList());
     }
 
@@ -130,7 +130,7 @@ public final class EventUtil {
      */
     public static List<AfterNavigationObserver> collectAfterNavigationObservers(
             UI ui) {
-        return getImplementingComponents(flattenDescendants(ui.getElement()),
+        return collectObservers(ui.getElement(), item -> true,
                 AfterNavigationObserver.class).collect(Collectors.toList());
 
     }
@@ -145,7 +145,7 @@ public final class EventUtil {
      */
     public static List<LocaleChangeObserver> collectLocaleChangeObservers(
             Element element) {
-        return getImplementingComponents(flattenDescendants(element),
+        return collectObservers(element, item -> true,
                 LocaleChangeObserver.class).collect(Collectors.toList());
     }
 
@@ -159,10 +159,9 @@ public final class EventUtil {
      */
     public static List<LocaleChangeObserver> collectLocaleChangeObservers(
             List<HasElement> components) {
-        Stream<Element> elements = components.stream().flatMap(
-                component -> flattenDescendants(component.getElement()));
-
-        return getImplementingComponents(elements, LocaleChangeObserver.class)
+        return components.stream()
+                .flatMap(component -> collectObservers(component.getElement(),
+                        item -> true, LocaleChangeObserver.class))
                 .collect(Collectors.toList());
     }
 
@@ -233,8 +232,21 @@ public final class EventUtil {
         node.accept(new DescendantsVisitor(descendants, filter));
     }
 
-    private static Stream<Element> flattenDescendants(Element element) {
-        return flattenDescendants(element, item -> true);
+    /**
+     * Collects the observers of the given type in the element tree of the
+     * given root element. The observer registry of the UI is used for attached
+     * elements, so that only detached element trees need to be visited.
+     */
+    private static <T> Stream<T> collectObservers(Element root,
+            Predicate<Element> recursionPredicate, Class<T> type) {
+        StateNode node = root.getNode();
+        if (node.isAttached()) {
+            return ((StateTree) node.getOwner()).getUI().getInternals()
+                    .getObserverRegistry()
+                    .getObservers(root, recursionPredicate, type).stream();
+        }
+        return getImplementingComponents(
+                flattenDescendants(root, recursionPredicate), type);
     }
 
     private static Stream<Element> flattenDescendants(Element element,
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.router;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Keeps the instance of a route target or router layout in the session, so
+ * that the same instance is shown again instead of creating a new one.
+ * <p>
+ * A preserved instance is reused when navigating back to it in the same
+ * browser window, and when the page is loaded again after the UI which showed
+ * the instance has been closed, e.g. because its heartbeats have expired. In
+ * the latter case, the instance is detached from the closed UI and attached to
+ * the new UI like a new component, together with its state. An instance which
+ * is still shown in another UI is never moved, since the server can't tell a
+ * refresh from opening the same location in another browser window. A new
+ * instance is created instead, and it replaces the previous one in the
+ * session.
+ * <p>
+ * The number of preserved instances per session and the time after which an
+ * instance which has not been navigated to is discarded are configured using
+ * {@link com.vaadin.flow.server.Constants#SERVLET_PARAMETER_PRESERVED_ROUTE_INSTANCES}
+ * and
+ * {@link com.vaadin.flow.server.Constants#SERVLET_PARAMETER_PRESERVED_ROUTE_INSTANCE_MAX_IDLE}.
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Inherited
+@Documented
+public @interface PreserveOnRefresh {
+}
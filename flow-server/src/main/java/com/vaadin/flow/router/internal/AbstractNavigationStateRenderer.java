@@ -30,7 +30,12 @@ import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.HasElement;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.di.Instantiator;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.internal.AnnotationReader;
+import com.vaadin.flow.internal.NodeOwner;
 import com.vaadin.flow.internal.ReflectTools;
+import com.vaadin.flow.internal.StateNode;
+import com.vaadin.flow.internal.StateTree;
 import com.vaadin.flow.router.AfterNavigationEvent;
 import com.vaadin.flow.router.BeforeEnterEvent;
 import com.vaadin.flow.router.BeforeEnterObserver;
@@ -49,9 +54,11 @@ import com.vaadin.flow.router.NavigationHandler;
 import com.vaadin.flow.router.NavigationState;
 import com.vaadin.flow.router.NavigationTrigger;
 import com.vaadin.flow.router.PageTitle;
+import com.vaadin.flow.router.PreserveOnRefresh;
 import com.vaadin.flow.router.RouteConfiguration;
 import com.vaadin.flow.router.Router;
 import com.vaadin.flow.router.RouterLayout;
+import com.vaadin.flow.server.VaadinSession;
 
 /**
  * Base class for navigation handlers that target a navigation state.
@@ -97,7 +104,9 @@ public abstract class AbstractNavigationStateRenderer
      * <p>
      * Override this method to control the creation of view instances.
      * <p>
-     * By default always creates new instances.
+     * By default creates new instances, except for instances which are
+     * already shown and instances preserved in the session for types
+     * annotated with {@link PreserveOnRefresh}.
      *
      * @param <T>
      *            the route target type
@@ -112,13 +121,73 @@ public abstract class AbstractNavigationStateRenderer
     static <T extends HasElement> T getRouteTarget(Class<T> routeTargetType,
             NavigationEvent event) {
         UI ui = event.getUI();
+        RouteInstanceCache cache = getRouteInstanceCache(routeTargetType, ui);
         Optional<HasElement> currentInstance = ui.getInternals()
                 .getActiveRouterTargetsChain().stream()
                 .filter(component -> component.getClass()
                         .equals(routeTargetType))
                 .findAny();
-        return (T) currentInstance.orElseGet(() -> Instantiator.get(ui)
-                .createRouteTarget(routeTargetType, event));
+        if (currentInstance.isPresent()) {
+            if (cache != null) {
+                cache.put(routeTargetType, (T) currentInstance.get());
+            }
+            return (T) currentInstance.get();
+        }
+
+        if (cache != null) {
+            T preserved = cache.get(routeTargetType);
+            if (preserved != null && takeOver(preserved, event)) {
+                return preserved;
+            }
+        }
+        T instance = Instantiator.get(ui).createRouteTarget(routeTargetType,
+                event);
+        if (cache != null) {
+            cache.put(routeTargetType, instance);
+        }
+        return instance;
+    }
+
+    private static RouteInstanceCache getRouteInstanceCache(Class<?> type,
+            UI ui) {
+        VaadinSession session = ui.getSession();
+        if (session == null || !AnnotationReader
+                .getAnnotationFor(type, PreserveOnRefresh.class).isPresent()) {
+            return null;
+        }
+        return RouteInstanceCache.get(session);
+    }
+
+    /**
+     * Prepares a preserved instance to be shown in the UI of the given event.
+     * An instance which belonged to a UI that has since been closed is
+     * detached from it and unlinked from its state tree, so that it is
+     * attached to the new UI like a new component. An instance which is still
+     * shown in another UI is not moved, since a refresh can't be told apart
+     * from opening the same location in another browser window.
+     *
+     * @return <code>true</code> if the instance can be shown,
+     *         <code>false</code> if it is shown in another UI
+     */
+    private static boolean takeOver(HasElement instance,
+            NavigationEvent event) {
+        Element element = instance.getElement();
+        StateNode node = element.getNode();
+        NodeOwner owner = node.getOwner();
+        if (!(owner instanceof StateTree)
+                || owner == event.getUI().getInternals().getStateTree()) {
+            return true;
+        }
+
+        UI previousUI = ((StateTree) owner).getUI();
+        if (node.isAttached() && previousUI.getSession() != null
+                && !previousUI.isClosing()) {
+            return false;
+        }
+
+        element.removeFromParent();
+        node.removeFromTree();
+        return true;
     }
 
     @Override
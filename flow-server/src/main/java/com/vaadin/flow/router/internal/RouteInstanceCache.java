@@ -0,0 +1,185 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.router.internal;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.vaadin.flow.component.HasElement;
+import com.vaadin.flow.function.DeploymentConfiguration;
+import com.vaadin.flow.router.PreserveOnRefresh;
+import com.vaadin.flow.server.VaadinSession;
+
+/**
+ * Keeps the route target and router layout instances annotated with
+ * {@link PreserveOnRefresh} in a session.
+ * <p>
+ * At most one instance per type is kept. The least recently used instance is
+ * discarded when the maximum number of instances is exceeded, and instances
+ * which have not been used for longer than the maximum idle time are discarded
+ * when the cache is accessed.
+ * <p>
+ * The cache is not thread safe, it should only be used while holding the
+ * session lock.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+public class RouteInstanceCache implements Serializable {
+
+    private static final int DEFAULT_MAX_SIZE = 10;
+    private static final int DEFAULT_MAX_IDLE = 1800;
+
+    private final int maxSize;
+    private final long maxIdleMillis;
+
+    private final LinkedHashMap<Class<?>, CachedInstance> instances = new LinkedHashMap<>(
+            16, 0.75f, true);
+
+    private static class CachedInstance implements Serializable {
+        private final HasElement instance;
+        private long lastAccess;
+
+        private CachedInstance(HasElement instance, long lastAccess) {
+            this.instance = instance;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maxSize
+     *            the maximum number of instances to keep
+     * @param maxIdleMillis
+     *            the time in milliseconds after which an instance which has
+     *            not been used is discarded
+     */
+    public RouteInstanceCache(int maxSize, long maxIdleMillis) {
+        this.maxSize = maxSize;
+        this.maxIdleMillis = maxIdleMillis;
+    }
+
+    /**
+     * Gets the cache of the given session, creating it if necessary using the
+     * limits configured for the session.
+     *
+     * @param session
+     *            the session to get the cache for, not <code>null</code>
+     * @return the cache of the session, not <code>null</code>
+     */
+    public static RouteInstanceCache get(VaadinSession session) {
+        RouteInstanceCache cache = session
+                .getAttribute(RouteInstanceCache.class);
+        if (cache == null) {
+            DeploymentConfiguration configuration = session
+                    .getConfiguration();
+            int maxSize = DEFAULT_MAX_SIZE;
+            int maxIdle = DEFAULT_MAX_IDLE;
+            if (configuration != null) {
+                maxSize = configuration.getPreservedRouteInstances();
+                maxIdle = configuration.getPreservedRouteInstanceMaxIdle();
+            }
+            cache = new RouteInstanceCache(maxSize,
+                    TimeUnit.SECONDS.toMillis(maxIdle));
+            session.setAttribute(RouteInstanceCache.class, cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Gets the instance of the given type, if there is one which has not
+     * expired. The instance is marked as used.
+     *
+     * @param <T>
+     *            the route target or router layout type
+     * @param type
+     *            the route target or router layout type, not
+     *            <code>null</code>
+     * @return the cached instance, or <code>null</code> if there is none
+     */
+    public <T extends HasElement> T get(Class<T> type) {
+        long now = getCurrentTime();
+        removeExpired(now);
+        CachedInstance cached = instances.get(type);
+        if (cached == null) {
+            return null;
+        }
+        cached.lastAccess = now;
+        return type.cast(cached.instance);
+    }
+
+    /**
+     * Stores the instance of the given type, replacing any previous instance
+     * of the same type.
+     *
+     * @param <T>
+     *            the route target or router layout type
+     * @param type
+     *            the route target or router layout type, not
+     *            <code>null</code>
+     * @param instance
+     *            the instance to store, not <code>null</code>
+     */
+    public <T extends HasElement> void put(Class<T> type, T instance) {
+        long now = getCurrentTime();
+        removeExpired(now);
+        instances.put(type, new CachedInstance(instance, now));
+        if (instances.size() > maxSize) {
+            // The first entry is the least recently used one
+            Class<?> eldest = instances.keySet().iterator().next();
+            instances.remove(eldest);
+        }
+    }
+
+    /**
+     * Removes the instance of the given type.
+     *
+     * @param type
+     *            the route target or router layout type, not
+     *            <code>null</code>
+     */
+    public void remove(Class<?> type) {
+        instances.remove(type);
+    }
+
+    /**
+     * Gets the number of cached instances, including ones which have expired
+     * but not yet been removed.
+     *
+     * @return the number of cached instances
+     */
+    public int size() {
+        return instances.size();
+    }
+
+    /**
+     * Gets the current time in milliseconds. Overridden in tests.
+     *
+     * @return the current time
+     */
+    long getCurrentTime() {
+        return System.currentTimeMillis();
+    }
+
+    private void removeExpired(long now) {
+        instances.values()
+                .removeIf(cached -> now - cached.lastAccess > maxIdleMillis);
+    }
+}
@@ -17,6 +17,7 @@ package com.vaadin.flow.server;
 
 import java.io.Serializable;
 import java.util.HashMap;
+import java.util.Set;
 
 /**
  * The {@link Attributes} class represents a set of attributes.
@@ -142,4 +143,13 @@ public class Attributes implements Serializable {
         return attributes.isEmpty();
     }
 
+    /**
+     * Gets the names of all the stored values.
+     *
+     * @return the names of the stored values, not <code>null</code>
+     */
+    Set<String> getAttributeNames() {
+        return attributes.keySet();
+    }
+
 }
@@ -1033,6 +1033,19 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
         appConfig.put("heartbeatInterval",
                 deploymentConfiguration.getHeartbeatInterval());
 
+        int maxMessagesInFlight = deploymentConfiguration
+                .getMaxMessagesInFlight();
+        if (maxMessagesInFlight > 1) {
+            appConfig.put("maxMessagesInFlight", maxMessagesInFlight);
+        }
+
+        int timeSlicedRenderingThreshold = deploymentConfiguration
+                .getTimeSlicedRenderingThreshold();
+        if (timeSlicedRenderingThreshold > 0) {
+            appConfig.put("timeSlicedRenderingThreshold",
+                    timeSlicedRenderingThreshold);
+        }
+
         boolean sendUrlsAsParameters = deploymentConfiguration
                 .isSendUrlsAsParameters();
         if (!sendUrlsAsParameters) {
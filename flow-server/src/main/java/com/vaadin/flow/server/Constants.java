@@ -48,6 +48,135 @@ public final class Constants implements Serializable {
      */
     public static final String SERVLET_PARAMETER_BROTLI = "brotli";
 
+    /**
+     * Configuration name for the directory where generated PWA icons are
+     * stored so that they can be reused after a restart. Defaults to a
+     * subdirectory of the servlet context temporary directory.
+     */
+    public static final String SERVLET_PARAMETER_PWA_ICONS_CACHE_DIRECTORY = "pwaIconsCacheDirectory";
+
+    /**
+     * Configuration name for the parameter that determines if all PWA icons
+     * should be generated in parallel when the application starts instead of
+     * lazily when each icon is requested for the first time.
+     */
+    public static final String SERVLET_PARAMETER_PWA_ICONS_EAGER_GENERATION = "pwaIconsEagerGeneration";
+
+    /**
+     * Configuration name for the parameter that determines whether state tree
+     * changes should be sent to the client as compact positional arrays
+     * instead of JSON objects.
+     */
+    public static final String SERVLET_PARAMETER_COMPACT_CHANGES = "compactChanges";
+
+    /**
+     * Configuration name for the parameter that determines the minimum size in
+     * bytes of a UIDL response to compress using gzip. A negative value
+     * disables the compression.
+     */
+    public static final String SERVLET_PARAMETER_RESPONSE_COMPRESSION_THRESHOLD = "responseCompressionThreshold";
+
+    /**
+     * Configuration name for the parameter that determines the compression
+     * level, from 1 (fastest) to 9 (smallest), of compressed UIDL responses.
+     */
+    public static final String SERVLET_PARAMETER_RESPONSE_COMPRESSION_LEVEL = "responseCompressionLevel";
+
+    /**
+     * Configuration name for the parameter that determines the maximum number
+     * of preserved route target and router layout instances kept in each
+     * session.
+     */
+    public static final String SERVLET_PARAMETER_PRESERVED_ROUTE_INSTANCES = "preservedRouteInstances";
+
+    /**
+     * Configuration name for the parameter that determines the time in
+     * seconds after which an unused preserved route target or router layout
+     * instance is discarded.
+     */
+    public static final String SERVLET_PARAMETER_PRESERVED_ROUTE_INSTANCE_MAX_IDLE = "preservedRouteInstanceMaxIdle";
+
+    /**
+     * Configuration name for the parameter that determines the time in
+     * milliseconds after which a request thread waiting for the session lock
+     * gives up. Zero or a negative value means waiting indefinitely.
+     */
+    public static final String SERVLET_PARAMETER_SESSION_LOCK_TIMEOUT = "sessionLockTimeout";
+
+    /**
+     * Configuration name for the parameter that determines the time in
+     * milliseconds after which a thread waiting for the session lock logs a
+     * warning with the stack trace of the thread holding the lock. Zero or a
+     * negative value disables the warning.
+     */
+    public static final String SERVLET_PARAMETER_SESSION_LOCK_WAIT_WARNING = "sessionLockWaitWarning";
+
+    /**
+     * Configuration name for the parameter that determines the time in
+     * milliseconds after which holding the session lock is logged as a
+     * warning when the lock is released. Zero or a negative value disables the
+     * warning.
+     */
+    public static final String SERVLET_PARAMETER_SESSION_LOCK_HOLD_WARNING = "sessionLockHoldWarning";
+
+    /**
+     * Configuration name for the parameter that determines whether the
+     * session lock statistics of the service are registered as an MBean.
+     */
+    public static final String SERVLET_PARAMETER_SESSION_LOCK_JMX = "sessionLockJmx";
+
+    /**
+     * Configuration name for the parameter that determines whether each UI is
+     * stored in a separate HTTP session attribute which is only updated when
+     * the UI has been modified.
+     */
+    public static final String SERVLET_PARAMETER_DELTA_SESSION_REPLICATION = "deltaSessionReplication";
+
+    /**
+     * Configuration name for the parameter that determines the interval in
+     * seconds at which a background thread closes inactive UIs and sessions.
+     * Zero or a negative value closes them at the end of requests to the
+     * session instead.
+     */
+    public static final String SERVLET_PARAMETER_SESSION_REAPER_INTERVAL = "sessionReaperInterval";
+
+    /**
+     * Configuration name for the parameter that determines whether the
+     * session reaper statistics of the service are registered as an MBean.
+     */
+    public static final String SERVLET_PARAMETER_SESSION_REAPER_JMX = "sessionReaperJmx";
+
+    /**
+     * Configuration name for the parameter that determines how often the
+     * estimated memory footprint of a session is sampled at the end of a
+     * request: every n:th request is sampled. Zero or a negative value
+     * disables sampling.
+     */
+    public static final String SERVLET_PARAMETER_MEMORY_FOOTPRINT_SAMPLE_RATE = "memoryFootprintSampleRate";
+
+    /**
+     * Configuration name for the parameter that determines whether the
+     * sampled memory footprints of the sessions of the service are registered
+     * as an MBean.
+     */
+    public static final String SERVLET_PARAMETER_MEMORY_FOOTPRINT_JMX = "memoryFootprintJmx";
+
+    /**
+     * Configuration name for the parameter that determines how many messages
+     * the client may send through a bidirectional push connection before
+     * receiving the responses to the earlier ones. The default value 1 makes
+     * the client wait for each response.
+     */
+    public static final String SERVLET_PARAMETER_MAX_MESSAGES_IN_FLIGHT = "maxMessagesInFlight";
+
+    /**
+     * Configuration name for the parameter that determines the number of state
+     * tree changes in a server message from which the client applies the
+     * resulting DOM updates in time slices, letting the browser render in
+     * between. The default value 0 disables time slicing.
+     */
+    public static final String SERVLET_PARAMETER_TIME_SLICED_RENDERING_THRESHOLD = "timeSlicedRenderingThreshold";
+
     /**
      * Configuration name for loading the ES5 adapters.
      */
@@ -15,9 +15,7 @@
  */
 package com.vaadin.flow.server;
 
-import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Serializable;
@@ -28,6 +26,8 @@ import java.util.Map;
 
 import org.jsoup.nodes.Element;
 
+import com.vaadin.flow.internal.MessageDigestUtil;
+
 /**
  * Implementation of icons used in PWA resources.
  *
@@ -41,6 +41,9 @@ import org.jsoup.nodes.Element;
  * controlled by service worker: cached = false
  *
  * Icon caching is left to the browser if it's not cached with service worker.
+ *
+ * The image of an icon created by {@link PwaRegistry} is generated when it is
+ * needed for the first time.
  */
 public class PwaIcon implements Serializable {
     /**
@@ -57,6 +60,8 @@ public class PwaIcon implements Serializable {
     private String baseName;
     private Domain domain;
     private byte[] data;
+    private String eTag;
+    private PwaIconRenderer renderer;
 
     private final Map<String, String> attributes = new HashMap<>();
     private String tag = "link";
@@ -204,16 +209,55 @@ public class PwaIcon implements Serializable {
      * @param image
      *            the image in png format
      */
-    public void setImage(BufferedImage image) {
-        try (ByteArrayOutputStream stream = new ByteArrayOutputStream()) {
-            ImageIO.write(image, "png", stream);
-            stream.flush();
-            data = stream.toByteArray();
-            fileHash = Arrays.hashCode(data);
-            setRelativeName();
-        } catch (IOException ioe) {
-            throw new UncheckedIOException("Failed to write an image ", ioe);
+    public synchronized void setImage(BufferedImage image) {
+        data = PwaIconRenderer.encode(image);
+        eTag = null;
+        renderer = null;
+        fileHash = Arrays.hashCode(data);
+        setRelativeName();
+    }
+
+    /**
+     * Sets the renderer which generates the image of the icon when it is
+     * needed for the first time.
+     *
+     * @param renderer
+     *            the renderer to generate the image with
+     */
+    synchronized void setRenderer(PwaIconRenderer renderer) {
+        this.renderer = renderer;
+        data = null;
+        eTag = null;
+        fileHash = renderer.getFileHash(this);
+        setRelativeName();
+    }
+
+    /**
+     * Generates the image of the icon unless it has already been generated.
+     */
+    void generate() {
+        getData();
+    }
+
+    /**
+     * Gets the strong entity tag of the icon image, to be used as the value
+     * of the {@literal ETag} header.
+     *
+     * @return the quoted entity tag
+     */
+    public synchronized String getETag() {
+        if (eTag == null) {
+            eTag = '"' + PwaIconRenderer
+                    .toHex(MessageDigestUtil.sha256(getData())) + '"';
+        }
+        return eTag;
+    }
+
+    private synchronized byte[] getData() {
+        if (data == null && renderer != null) {
+            data = renderer.render(this);
         }
+        return data;
     }
 
     /**
@@ -224,7 +268,7 @@ public class PwaIcon implements Serializable {
      */
     public void write(OutputStream outputStream) {
         try {
-            outputStream.write(data);
+            outputStream.write(getData());
         } catch (IOException ioe) {
             throw new UncheckedIOException(
                     "Failed to store the icon image into the stream provided",
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.internal.MessageDigestUtil;
+
+/**
+ * Draws the PWA icons of different sizes from the base logo image.
+ * <p>
+ * The logo is decoded only when the first icon is drawn. Drawn icons are
+ * stored as PNG files in the cache directory, if there is one, under a name
+ * which contains the hash of the logo and the renderer version, so that icons
+ * drawn by a previous run of the application are reused as long as the logo
+ * and the way icons are drawn stay the same.
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+class PwaIconRenderer implements Serializable {
+
+    /**
+     * Version of the drawing and encoding of the icons. Must be incremented
+     * whenever the rendered images change so that icons cached on disk or in
+     * browsers by earlier versions are not used.
+     */
+    static final int VERSION = 1;
+
+    private final byte[] logo;
+    private final String logoHash;
+    private final File cacheDirectory;
+
+    private transient BufferedImage baseImage;
+
+    /**
+     * Creates a new renderer for the given logo.
+     *
+     * @param logo
+     *            the logo image file content, not {@code null}
+     * @param cacheDirectory
+     *            the directory to store drawn icons in, or {@code null} to not
+     *            store the icons
+     */
+    PwaIconRenderer(byte[] logo, File cacheDirectory) {
+        this.logo = logo;
+        this.cacheDirectory = cacheDirectory;
+        logoHash = toHex(MessageDigestUtil.sha256(logo));
+    }
+
+    /**
+     * Gets a hash identifying the content of the icon with the given size.
+     * <p>
+     * The content of an icon depends only on the logo, the size and the
+     * renderer version, so the hash can be computed without drawing the icon.
+     *
+     * @param icon
+     *            the icon to get the hash for
+     * @return the hash of the icon
+     */
+    long getFileHash(PwaIcon icon) {
+        return 31L * (31L * (31L * Arrays.hashCode(logo) + VERSION)
+                + icon.getWidth()) + icon.getHeight();
+    }
+
+    /**
+     * Gets the PNG image data of the given icon, either from the cache
+     * directory or by drawing it.
+     *
+     * @param icon
+     *            the icon to render
+     * @return the PNG image data
+     */
+    byte[] render(PwaIcon icon) {
+        Path cached = getCachedFile(icon);
+        if (cached != null && Files.isRegularFile(cached)) {
+            try {
+                return Files.readAllBytes(cached);
+            } catch (IOException exception) {
+                getLogger().warn("Couldn't read the cached PWA icon '{}'",
+                        cached, exception);
+            }
+        }
+
+        long start = System.currentTimeMillis();
+        byte[] data = encode(draw(icon));
+        getLogger().debug("Generated PWA icon {} in {} ms", icon.getSizes(),
+                System.currentTimeMillis() - start);
+
+        if (cached != null) {
+            store(cached, data);
+        }
+        return data;
+    }
+
+    /**
+     * Encodes the image in PNG format.
+     *
+     * @param image
+     *            the image to encode
+     * @return the PNG image data
+     */
+    static byte[] encode(BufferedImage image) {
+        try (ByteArrayOutputStream stream = new ByteArrayOutputStream()) {
+            ImageIO.write(image, "png", stream);
+            stream.flush();
+            return stream.toByteArray();
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Failed to write an image ", ioe);
+        }
+    }
+
+    private Path getCachedFile(PwaIcon icon) {
+        if (cacheDirectory == null) {
+            return null;
+        }
+        return cacheDirectory.toPath()
+                .resolve(logoHash + "-v" + VERSION + "-" + icon.getSizes()
+                        + ".png");
+    }
+
+    private static void store(Path file, byte[] data) {
+        try {
+            Files.createDirectories(file.getParent());
+            // Write to a temporary file first so that concurrently starting
+            // applications never read a partially written icon
+            Path temp = Files.createTempFile(file.getParent(),
+                    file.getFileName().toString(), ".tmp");
+            Files.write(temp, data);
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException exception) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException exception) {
+            getLogger().warn("Couldn't store the PWA icon to '{}'", file,
+                    exception);
+        }
+    }
+
+    private synchronized BufferedImage getBaseImage() {
+        if (baseImage == null) {
+            try {
+                baseImage = ImageIO.read(new ByteArrayInputStream(logo));
+            } catch (IOException ioe) {
+                throw new UncheckedIOException(
+                        "Failed to read the PWA logo image", ioe);
+            }
+        }
+        return baseImage;
+    }
+
+    private BufferedImage draw(PwaIcon icon) {
+        BufferedImage image = getBaseImage();
+        // Pick top-left pixel as fill color if needed for image resizing
+        int bgColor = image.getRGB(0, 0);
+
+        BufferedImage bimage = new BufferedImage(icon.getWidth(),
+                icon.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        // Draw the image on to the buffered image
+        Graphics2D graphics = bimage.createGraphics();
+
+        // fill bg with fill-color
+        graphics.setBackground(new Color(bgColor, true));
+        graphics.clearRect(0, 0, icon.getWidth(), icon.getHeight());
+
+        // calculate ratio (bigger ratio) for resize
+        float ratio = (float) image.getWidth()
+                / (float) icon.getWidth() > (float) image.getHeight()
+                        / (float) icon.getHeight()
+                                ? (float) image.getWidth()
+                                        / (float) icon.getWidth()
+                                : (float) image.getHeight()
+                                        / (float) icon.getHeight();
+
+        // Forbid upscaling of image
+        ratio = ratio > 1.0f ? ratio : 1.0f;
+
+        // calculate sizes with ratio
+        int newWidth = Math.round(image.getHeight() / ratio);
+        int newHeight = Math.round(image.getWidth() / ratio);
+
+        // draw rescaled img in the center of created image
+        graphics.drawImage(
+                image.getScaledInstance(newWidth, newHeight,
+                        Image.SCALE_SMOOTH),
+                (icon.getWidth() - newWidth) / 2,
+                (icon.getHeight() - newHeight) / 2, null);
+        graphics.dispose();
+        return bimage;
+    }
+
+    /**
+     * Formats the given bytes as a lower case hexadecimal string.
+     *
+     * @param bytes
+     *            the bytes to format
+     * @return the hexadecimal string
+     */
+    static String toHex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16))
+                    .append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
+
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(PwaIconRenderer.class);
+    }
+}
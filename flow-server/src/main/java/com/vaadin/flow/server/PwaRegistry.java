@@ -15,11 +15,8 @@
  */
 package com.vaadin.flow.server;
 
-import java.awt.Color;
-import java.awt.Graphics2D;
-import java.awt.Image;
-import java.awt.image.BufferedImage;
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -32,9 +29,11 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
-import javax.imageio.ImageIO;
 import javax.servlet.ServletContext;
 
+import org.apache.commons.io.IOUtils;
+
+import com.vaadin.flow.function.DeploymentConfiguration;
 import com.vaadin.flow.server.startup.ApplicationRouteRegistry;
 
 import elemental.json.Json;
@@ -70,8 +69,8 @@ public class PwaRegistry implements Serializable {
     private List<PwaIcon> icons = new ArrayList<>();
     private final PwaConfiguration pwaConfiguration;
 
-    private PwaRegistry(PWA pwa, ServletContext servletContext)
-            throws IOException {
+    private PwaRegistry(PWA pwa, ServletContext servletContext,
+            DeploymentConfiguration configuration) throws IOException {
         if (System.getProperty(HEADLESS_PROPERTY) == null) {
             // set headless mode if the property is not explicitly set
             System.setProperty(HEADLESS_PROPERTY, Boolean.TRUE.toString());
@@ -89,13 +88,15 @@ public class PwaRegistry implements Serializable {
                     .getResource(pwaConfiguration.relOfflinePath());
             // Load base logo from servlet context if available
             // fall back to local image if unavailable
-            BufferedImage baseImage = getBaseImage(logo);
-
-            // Pick top-left pixel as fill color if needed for image resizing
-            int bgColor = baseImage.getRGB(0, 0);
-
-            // initialize icons
-            icons = initializeIcons(baseImage, bgColor);
+            PwaIconRenderer renderer = new PwaIconRenderer(readLogo(logo),
+                    getIconCacheDirectory(servletContext, configuration));
+
+            // initialize icons, images are generated when first needed
+            icons = initializeIcons(renderer);
+            if (configuration != null
+                    && configuration.isPwaIconsEagerGeneration()) {
+                icons.parallelStream().forEach(PwaIcon::generate);
+            }
 
             // Load offline page as string, from servlet context if
             // available, fall back to default page
@@ -113,52 +114,26 @@ public class PwaRegistry implements Serializable {
         }
     }
 
-    private List<PwaIcon> initializeIcons(BufferedImage baseImage,
-            int bgColor) {
+    private List<PwaIcon> initializeIcons(PwaIconRenderer renderer) {
         for (PwaIcon icon : getIconTemplates(pwaConfiguration.getIconPath())) {
-            // New image with wanted size
-            icon.setImage(drawIconImage(baseImage, bgColor, icon));
-            // Store byte array and hashcode of image (GeneratedImage)
+            icon.setRenderer(renderer);
             icons.add(icon);
         }
         return icons;
     }
 
-    private BufferedImage drawIconImage(BufferedImage baseImage, int bgColor,
-            PwaIcon icon) {
-        BufferedImage bimage = new BufferedImage(icon.getWidth(),
-                icon.getHeight(), BufferedImage.TYPE_INT_ARGB);
-        // Draw the image on to the buffered image
-        Graphics2D graphics = bimage.createGraphics();
-
-        // fill bg with fill-color
-        graphics.setBackground(new Color(bgColor, true));
-        graphics.clearRect(0, 0, icon.getWidth(), icon.getHeight());
-
-        // calculate ratio (bigger ratio) for resize
-        float ratio = (float) baseImage.getWidth()
-                / (float) icon.getWidth() > (float) baseImage.getHeight()
-                        / (float) icon.getHeight()
-                                ? (float) baseImage.getWidth()
-                                        / (float) icon.getWidth()
-                                : (float) baseImage.getHeight()
-                                        / (float) icon.getHeight();
-
-        // Forbid upscaling of image
-        ratio = ratio > 1.0f ? ratio : 1.0f;
-
-        // calculate sizes with ratio
-        int newWidth = Math.round(baseImage.getHeight() / ratio);
-        int newHeight = Math.round(baseImage.getWidth() / ratio);
-
-        // draw rescaled img in the center of created image
-        graphics.drawImage(
-                baseImage.getScaledInstance(newWidth, newHeight,
-                        Image.SCALE_SMOOTH),
-                (icon.getWidth() - newWidth) / 2,
-                (icon.getHeight() - newHeight) / 2, null);
-        graphics.dispose();
-        return bimage;
+    private static File getIconCacheDirectory(ServletContext servletContext,
+            DeploymentConfiguration configuration) {
+        String directory = configuration != null
+                ? configuration.getPwaIconsCacheDirectory()
+                : null;
+        if (directory != null) {
+            return new File(directory);
+        }
+        Object tempDir = servletContext
+                .getAttribute(ServletContext.TEMPDIR);
+        return tempDir instanceof File ? new File((File) tempDir, "pwa-icons")
+                : null;
     }
 
     /**
@@ -256,6 +231,27 @@ public class PwaRegistry implements Serializable {
      *         <code>null</code>
      */
     public static PwaRegistry getInstance(ServletContext servletContext) {
+        return getInstance(servletContext, null);
+    }
+
+    /**
+     * Gets the pwa registry for the given servlet context. If the servlet
+     * context has no pwa registry, a new instance is created using the icon
+     * settings of the given configuration and assigned to the context.
+     *
+     * @param servletContext
+     *            the servlet context for which to get a route registry, not
+     *            <code>null</code>
+     * @param configuration
+     *            the configuration to read the icon settings from if a new
+     *            registry is created, or <code>null</code> to use the default
+     *            settings
+     *
+     * @return a registry instance for the given servlet context, not
+     *         <code>null</code>
+     */
+    public static PwaRegistry getInstance(ServletContext servletContext,
+            DeploymentConfiguration configuration) {
         assert servletContext != null;
 
         Object attribute;
@@ -272,7 +268,8 @@ public class PwaRegistry implements Serializable {
                         : null;
                 // will fall back to defaults, if no PWA annotation available
                 try {
-                    attribute = new PwaRegistry(pwa, servletContext);
+                    attribute = new PwaRegistry(pwa, servletContext,
+                            configuration);
                     servletContext.setAttribute(PwaRegistry.class.getName(),
                             attribute);
                 } catch (IOException ioe) {
@@ -354,11 +351,13 @@ public class PwaRegistry implements Serializable {
         }
     }
 
-    private BufferedImage getBaseImage(URL logo) throws IOException {
+    private static byte[] readLogo(URL logo) throws IOException {
         URLConnection logoResource = logo != null ? logo.openConnection()
                 : BootstrapHandler.class.getResource("default-logo.png")
                         .openConnection();
-        return ImageIO.read(logoResource.getInputStream());
+        try (InputStream stream = logoResource.getInputStream()) {
+            return IOUtils.toByteArray(stream);
+        }
     }
 
     /**
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.component.UI;
+
+/**
+ * The attributes of a session whose UIs are stored in separate HTTP session
+ * attributes when using delta session replication.
+ * <p>
+ * Attributes which reference a UI, e.g. components that are attached to a UI,
+ * are left out when the session is serialized. Serializing them would write a
+ * copy of the whole UI into the session attribute, separate from the UI which
+ * is restored from its own attribute.
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+final class ReplicatedAttributes extends Attributes {
+
+    /**
+     * Thrown when a UI is found while checking an attribute value.
+     */
+    private static class UIReferenceException
+            extends NotSerializableException {
+        private UIReferenceException() {
+            super(UI.class.getName());
+        }
+    }
+
+    /**
+     * Serializes an attribute value without writing it anywhere, failing if
+     * the value references a UI.
+     */
+    private static class UIReferenceCheckStream extends ObjectOutputStream {
+        private UIReferenceCheckStream() throws IOException {
+            super(new OutputStream() {
+                @Override
+                public void write(int b) {
+                    // Only the references matter
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    // Only the references matter
+                }
+            });
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) throws IOException {
+            if (obj instanceof UI) {
+                throw new UIReferenceException();
+            }
+            return obj;
+        }
+    }
+
+    /**
+     * Creates attributes containing the values of the given attributes.
+     *
+     * @param attributes
+     *            the attributes to copy, not <code>null</code>
+     */
+    ReplicatedAttributes(Attributes attributes) {
+        copy(attributes, this);
+    }
+
+    private ReplicatedAttributes() {
+        // Filled in by writeReplace
+    }
+
+    /**
+     * Copies all the values of the given attributes to the other attributes.
+     *
+     * @param from
+     *            the attributes to copy from, not <code>null</code>
+     * @param to
+     *            the attributes to copy to, not <code>null</code>
+     */
+    static void copy(Attributes from, Attributes to) {
+        for (String name : from.getAttributeNames()) {
+            to.setAttribute(name, from.getAttribute(name));
+        }
+    }
+
+    private Object writeReplace() {
+        ReplicatedAttributes replicated = new ReplicatedAttributes();
+        for (String name : getAttributeNames()) {
+            Object value = getAttribute(name);
+            if (referencesUI(value)) {
+                getLogger().debug(
+                        "The session attribute {} references a UI and is not replicated",
+                        name);
+            } else {
+                replicated.setAttribute(name, value);
+            }
+        }
+        return replicated;
+    }
+
+    private static boolean referencesUI(Object value) {
+        try (ObjectOutputStream out = new UIReferenceCheckStream()) {
+            out.writeObject(value);
+            return false;
+        } catch (UIReferenceException e) {
+            return true;
+        } catch (IOException e) {
+            // Reported when the session itself is serialized
+            return false;
+        }
+    }
+
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(ReplicatedAttributes.class.getName());
+    }
+}
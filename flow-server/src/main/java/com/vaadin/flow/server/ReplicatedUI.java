@@ -0,0 +1,174 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+
+import com.vaadin.flow.component.UI;
+
+/**
+ * Holds a UI which is stored in a separate HTTP session attribute when using
+ * delta session replication.
+ * <p>
+ * The UI is serialized without the session it belongs to, since the session is
+ * stored in an attribute of its own. A deserialized instance keeps the
+ * serialized UI until it is restored into the deserialized session.
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+final class ReplicatedUI implements Serializable {
+
+    /**
+     * Written instead of the session of the UI.
+     */
+    private enum SessionReference {
+        INSTANCE
+    }
+
+    private static class UIOutputStream extends ObjectOutputStream {
+        private UIOutputStream(OutputStream out) throws IOException {
+            super(out);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) {
+            if (obj instanceof VaadinSession) {
+                return SessionReference.INSTANCE;
+            }
+            return obj;
+        }
+    }
+
+    private static class UIInputStream extends ObjectInputStream {
+        private final VaadinSession session;
+        private final ClassLoader classLoader;
+
+        private UIInputStream(InputStream in, VaadinSession session,
+                ClassLoader classLoader) throws IOException {
+            super(in);
+            this.session = session;
+            this.classLoader = classLoader;
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc)
+                throws IOException, ClassNotFoundException {
+            if (classLoader != null) {
+                try {
+                    return Class.forName(desc.getName(), false, classLoader);
+                } catch (ClassNotFoundException e) {
+                    // Primitive types and classes of other loaders
+                }
+            }
+            return super.resolveClass(desc);
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) {
+            if (obj == SessionReference.INSTANCE) {
+                return session;
+            }
+            return obj;
+        }
+    }
+
+    private final int uiId;
+
+    private transient UI ui;
+
+    private transient byte[] serializedUI;
+
+    /**
+     * Creates a holder for the given UI.
+     *
+     * @param ui
+     *            the UI to store, not <code>null</code>
+     */
+    ReplicatedUI(UI ui) {
+        this.ui = ui;
+        uiId = ui.getUIId();
+    }
+
+    /**
+     * Gets the id of the stored UI.
+     *
+     * @return the UI id
+     */
+    int getUIId() {
+        return uiId;
+    }
+
+    /**
+     * Gets the UI, deserializing it into the given session if this holder has
+     * been deserialized.
+     *
+     * @param session
+     *            the deserialized session which the UI belongs to, not
+     *            <code>null</code>
+     * @return the UI, not <code>null</code>
+     * @throws IllegalStateException
+     *             if the UI could not be deserialized
+     */
+    UI restore(VaadinSession session) {
+        if (ui == null) {
+            VaadinService service = session.getService();
+            ClassLoader classLoader = service == null ? null
+                    : service.getClassLoader();
+            try (ObjectInputStream in = new UIInputStream(
+                    new ByteArrayInputStream(serializedUI), session,
+                    classLoader)) {
+                ui = (UI) in.readObject();
+            } catch (IOException | ClassNotFoundException e) {
+                throw new IllegalStateException("Could not restore UI " + uiId,
+                        e);
+            }
+            serializedUI = null;
+        }
+        return ui;
+    }
+
+    private void writeObject(ObjectOutputStream stream) throws IOException {
+        stream.defaultWriteObject();
+        byte[] data = serializedUI;
+        if (ui != null) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new UIOutputStream(bytes)) {
+                out.writeObject(ui);
+            }
+            data = bytes.toByteArray();
+        }
+        stream.writeInt(data.length);
+        stream.write(data);
+    }
+
+    private void readObject(ObjectInputStream stream)
+            throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        serializedUI = new byte[stream.readInt()];
+        stream.readFully(serializedUI);
+    }
+}
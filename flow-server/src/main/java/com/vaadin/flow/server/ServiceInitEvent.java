@@ -21,6 +21,8 @@ import java.util.List;
 import java.util.Objects;
 import java.util.stream.Stream;
 
+import com.vaadin.flow.server.metrics.RequestMetricsListener;
+
 /**
  * Event fired to {@link VaadinServiceInitListener} when a {@link VaadinService}
  * is being initialized.
@@ -30,6 +32,9 @@ import java.util.stream.Stream;
  * <p>
  * {@link BootstrapListener}s can also be registered, that are used to modify
  * the initial HTML of the application.
+ * <p>
+ * {@link RequestMetricsListener}s can be registered to receive the phase
+ * timings and counters of every handled request.
  *
  * @author Vaadin Ltd
  * @since 1.0
@@ -39,6 +44,7 @@ public class ServiceInitEvent extends EventObject {
     private List<RequestHandler> addedRequestHandlers = new ArrayList<>();
     private List<BootstrapListener> addedBootstrapListeners = new ArrayList<>();
     private List<DependencyFilter> addedDependencyFilters = new ArrayList<>();
+    private List<RequestMetricsListener> addedRequestMetricsListeners = new ArrayList<>();
 
     /**
      * Creates a new service init event for a given {@link VaadinService} and
@@ -93,6 +99,22 @@ public class ServiceInitEvent extends EventObject {
         addedDependencyFilters.add(dependencyFilter);
     }
 
+    /**
+     * Adds a new request metrics listener that will be notified of the metrics
+     * of every request handled by this service. Metrics are only collected if
+     * at least one listener is added.
+     *
+     * @param requestMetricsListener
+     *            the request metrics listener to add, not <code>null</code>
+     */
+    public void addRequestMetricsListener(
+            RequestMetricsListener requestMetricsListener) {
+        Objects.requireNonNull(requestMetricsListener,
+                "Request metrics listener cannot be null");
+
+        addedRequestMetricsListeners.add(requestMetricsListener);
+    }
+
     /**
      * Gets a stream of all custom request handlers that have been added for the
      * service.
@@ -123,6 +145,16 @@ public class ServiceInitEvent extends EventObject {
         return addedDependencyFilters.stream();
     }
 
+    /**
+     * Gets a stream of all request metrics listeners that have been added for
+     * the service.
+     *
+     * @return the stream of added request metrics listeners
+     */
+    public Stream<RequestMetricsListener> getAddedRequestMetricsListeners() {
+        return addedRequestMetricsListeners.stream();
+    }
+
     @Override
     public VaadinService getSource() {
         return (VaadinService) super.getSource();
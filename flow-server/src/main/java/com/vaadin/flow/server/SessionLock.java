@@ -0,0 +1,216 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.vaadin.flow.server.metrics.SessionLockMonitor;
+
+/**
+ * The lock used for locking a {@link VaadinSession}, which reports how long
+ * threads wait for the lock and how long it is held to a
+ * {@link SessionLockMonitor}.
+ * <p>
+ * The wait time is measured from the moment a thread starts waiting for the
+ * lock until it has been acquired, and the hold time from the moment the lock
+ * is acquired until it is released by the last {@link #unlock()} call of the
+ * holding thread. Reentrant acquisitions are not reported separately.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+public class SessionLock extends ReentrantLock {
+
+    private transient volatile SessionLockMonitor monitor;
+
+    private transient long acquireTime;
+
+    /**
+     * Creates a new session lock reporting to the given monitor.
+     *
+     * @param monitor
+     *            the monitor to report to, or <code>null</code> to not report
+     */
+    public SessionLock(SessionLockMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    /**
+     * Gets the monitor this lock reports to.
+     *
+     * @return the monitor, or <code>null</code> if not reporting
+     */
+    public SessionLockMonitor getMonitor() {
+        return monitor;
+    }
+
+    /**
+     * Sets the monitor this lock reports to. Used for restoring the monitor
+     * after the lock has been deserialized.
+     *
+     * @param monitor
+     *            the monitor to report to, or <code>null</code> to not report
+     */
+    public void setMonitor(SessionLockMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    @Override
+    public void lock() {
+        acquire(0);
+    }
+
+    /**
+     * Acquires the lock, giving up after the given time.
+     *
+     * @param timeout
+     *            the maximum time to wait, zero or a negative value to wait
+     *            indefinitely
+     * @param unit
+     *            the time unit of the timeout, not <code>null</code>
+     * @throws SessionLockTimeoutException
+     *             if the lock could not be acquired in time
+     */
+    public void lock(long timeout, TimeUnit unit) {
+        acquire(unit.toNanos(timeout));
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        long startTime = System.nanoTime();
+        super.lockInterruptibly();
+        acquired(startTime);
+    }
+
+    @Override
+    public boolean tryLock() {
+        long startTime = System.nanoTime();
+        if (super.tryLock()) {
+            acquired(startTime);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean tryLock(long timeout, TimeUnit unit)
+            throws InterruptedException {
+        long startTime = System.nanoTime();
+        if (super.tryLock(timeout, unit)) {
+            acquired(startTime);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void unlock() {
+        boolean release = getHoldCount() == 1;
+        long holdTime = System.nanoTime() - acquireTime;
+        super.unlock();
+        SessionLockMonitor currentMonitor = monitor;
+        if (release && currentMonitor != null) {
+            currentMonitor.lockReleased(holdTime);
+        }
+    }
+
+    /**
+     * Gets the thread holding the lock.
+     *
+     * @return the holding thread, or <code>null</code> if the lock is not
+     *         held
+     */
+    @Override
+    public Thread getOwner() {
+        return super.getOwner();
+    }
+
+    private void acquire(long timeoutNanos) {
+        long startTime = System.nanoTime();
+        if (!super.tryLock()
+                && !acquireContended(startTime, timeoutNanos)) {
+            SessionLockMonitor currentMonitor = monitor;
+            if (currentMonitor != null) {
+                currentMonitor.lockTimedOut();
+            }
+            throw new SessionLockTimeoutException(
+                    "Session lock was not acquired in "
+                            + TimeUnit.NANOSECONDS.toMillis(timeoutNanos)
+                            + " ms");
+        }
+        acquired(startTime);
+    }
+
+    private boolean acquireContended(long startTime, long timeoutNanos) {
+        SessionLockMonitor currentMonitor = monitor;
+        long warningNanos = 0;
+        if (currentMonitor != null) {
+            currentMonitor.lockContended();
+            warningNanos = currentMonitor.getWaitWarningNanos();
+        }
+        boolean warned = warningNanos <= 0;
+        boolean interrupted = false;
+        try {
+            while (true) {
+                long elapsed = System.nanoTime() - startTime;
+                if (timeoutNanos > 0 && elapsed >= timeoutNanos) {
+                    return false;
+                }
+                if (!warned && elapsed >= warningNanos) {
+                    warned = true;
+                    currentMonitor.lockWaitExceeded(getOwner(), elapsed);
+                }
+                long wait = Long.MAX_VALUE;
+                if (!warned) {
+                    wait = warningNanos - elapsed;
+                }
+                if (timeoutNanos > 0) {
+                    wait = Math.min(wait, timeoutNanos - elapsed);
+                }
+                if (wait == Long.MAX_VALUE) {
+                    super.lock();
+                    return true;
+                }
+                try {
+                    if (super.tryLock(wait, TimeUnit.NANOSECONDS)) {
+                        return true;
+                    }
+                } catch (InterruptedException e) {
+                    // Like lock(), keep waiting and restore the status later
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void acquired(long startTime) {
+        if (getHoldCount() != 1) {
+            return;
+        }
+        acquireTime = System.nanoTime();
+        SessionLockMonitor currentMonitor = monitor;
+        if (currentMonitor != null) {
+            currentMonitor.lockAcquired(acquireTime - startTime);
+        }
+    }
+}
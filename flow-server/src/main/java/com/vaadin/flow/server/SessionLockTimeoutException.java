@@ -0,0 +1,39 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+/**
+ * Exception thrown when the session lock could not be acquired within the
+ * configured session lock timeout.
+ *
+ * @see com.vaadin.flow.function.DeploymentConfiguration#getSessionLockTimeout()
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+public class SessionLockTimeoutException extends RuntimeException {
+
+    /**
+     * Constructs a new session lock timeout exception with the specified
+     * detail message.
+     *
+     * @param message
+     *            the detail message
+     */
+    public SessionLockTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.flow.server.metrics.MemoryFootprint;
+import com.vaadin.flow.server.metrics.SessionReaperMonitor;
+
+/**
+ * Closes inactive UIs and sessions of a service in a background thread
+ * instead of at the end of each request.
+ * <p>
+ * Each session is kept in a priority queue ordered by the time when its next
+ * UI heartbeat or UIDL request timeout could expire. The queue is checked at
+ * a fixed interval, and only the sessions whose deadline has passed are
+ * locked and cleaned up. Since heartbeats and requests only move the
+ * deadlines forward, the deadline of a session is recalculated when it is
+ * checked instead of whenever the session is used. A session which is locked
+ * by another thread is checked again after the next interval.
+ * <p>
+ * Sessions are only weakly referenced, so that sessions which are discarded
+ * without being closed can still be garbage collected.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+final class SessionReaper {
+
+    private static final class ScheduledSession
+            implements Comparable<ScheduledSession> {
+        private final WeakReference<VaadinSession> session;
+        private final long deadline;
+
+        private ScheduledSession(VaadinSession session, long deadline) {
+            this.session = new WeakReference<>(session);
+            this.deadline = deadline;
+        }
+
+        @Override
+        public int compareTo(ScheduledSession other) {
+            return Long.compare(deadline, other.deadline);
+        }
+    }
+
+    private final VaadinService service;
+    private final long intervalMillis;
+    private final SessionReaperMonitor monitor;
+
+    private final PriorityQueue<ScheduledSession> queue = new PriorityQueue<>();
+
+    private ScheduledFuture<?> task;
+
+    /**
+     * Creates a new reaper for the given service.
+     *
+     * @param service
+     *            the service whose sessions to reap, not <code>null</code>
+     * @param intervalMillis
+     *            the interval in milliseconds at which the deadlines are
+     *            checked
+     * @param monitor
+     *            the monitor to report reaped UIs and sessions to, not
+     *            <code>null</code>
+     */
+    SessionReaper(VaadinService service, long intervalMillis,
+            SessionReaperMonitor monitor) {
+        this.service = service;
+        this.intervalMillis = intervalMillis;
+        this.monitor = monitor;
+    }
+
+    /**
+     * Starts checking the deadlines in the background thread of the service.
+     */
+    void start() {
+        ScheduledExecutorService executor = service.getExecutor();
+        if (executor != null) {
+            task = executor.scheduleWithFixedDelay(this::run, intervalMillis,
+                    intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops checking the deadlines and forgets all sessions.
+     */
+    void stop() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+        synchronized (queue) {
+            queue.clear();
+        }
+    }
+
+    /**
+     * Schedules the given session to be checked after the next interval.
+     *
+     * @param session
+     *            the session to schedule, not <code>null</code>
+     */
+    void schedule(VaadinSession session) {
+        schedule(session, System.currentTimeMillis() + intervalMillis);
+    }
+
+    /**
+     * Gets the number of scheduled sessions.
+     *
+     * @return the number of scheduled sessions
+     */
+    int getScheduledSessionCount() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    private void schedule(VaadinSession session, long deadline) {
+        synchronized (queue) {
+            queue.add(new ScheduledSession(session, deadline));
+        }
+    }
+
+    private void run() {
+        try {
+            reap(System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            // Thrown exceptions would cancel the periodic task
+            getLogger().error("Reaping inactive sessions failed", e);
+        }
+    }
+
+    /**
+     * Checks all sessions whose deadline is at or before the given time.
+     *
+     * @param now
+     *            the current time in milliseconds
+     */
+    void reap(long now) {
+        long start = System.nanoTime();
+        ScheduledSession scheduled;
+        while ((scheduled = pollExpired(now)) != null) {
+            VaadinSession session = scheduled.session.get();
+            if (session != null) {
+                reap(session, now);
+            }
+        }
+        monitor.runCompleted(System.nanoTime() - start,
+                getScheduledSessionCount());
+    }
+
+    private ScheduledSession pollExpired(long now) {
+        synchronized (queue) {
+            ScheduledSession first = queue.peek();
+            if (first == null || first.deadline > now) {
+                return null;
+            }
+            return queue.poll();
+        }
+    }
+
+    private void reap(VaadinSession session, long now) {
+        try {
+            if (!session.getLockInstance().tryLock(0, TimeUnit.SECONDS)) {
+                monitor.sessionBusy();
+                schedule(session, now + intervalMillis);
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        List<UI> uis;
+        long deadline = Long.MAX_VALUE;
+        Map<Class<?>, CurrentInstance> old = CurrentInstance
+                .setCurrent(session);
+        try {
+            if (session.getState() == VaadinSessionState.CLOSED) {
+                // Destroyed after the HTTP session was invalidated
+                return;
+            }
+            uis = new ArrayList<>(session.getUIs());
+            service.cleanupSession(session);
+            if (session.getState() == VaadinSessionState.OPEN) {
+                deadline = service.getNextCleanupTime(session, now);
+            } else {
+                monitor.sessionReaped();
+            }
+        } finally {
+            // Runs the tasks queued when closing the session
+            session.unlock();
+            CurrentInstance.restoreInstances(old);
+        }
+
+        for (UI ui : uis) {
+            if (ui.getSession() == null) {
+                // Not used by any other thread after being removed
+                monitor.uiReaped(
+                        MemoryFootprint.estimate(ui).getEstimatedBytes());
+            }
+        }
+
+        if (deadline != Long.MAX_VALUE) {
+            schedule(session, Math.max(deadline, now + intervalMillis));
+        }
+    }
+
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(SessionReaper.class.getName());
+    }
+}
@@ -16,12 +16,21 @@
 package com.vaadin.flow.server;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.vaadin.flow.function.DeploymentConfiguration;
+import com.vaadin.flow.server.metrics.RequestMetrics;
+import com.vaadin.flow.server.metrics.RequestPhase;
 
 /**
  * RequestHandler which takes care of locking and unlocking of the VaadinSession
  * automatically. The session is locked before
  * {@link #synchronizedHandleRequest(VaadinSession, VaadinRequest, VaadinResponse)}
  * is called and unlocked after it has completed.
+ * <p>
+ * If a session lock timeout is configured, a
+ * {@link SessionLockTimeoutException} is thrown if the session can't be locked
+ * in time.
  *
  * @author Vaadin Ltd
  * @since 1.0
@@ -35,7 +44,17 @@ public abstract class SynchronizedRequestHandler implements RequestHandler {
             return false;
         }
 
-        session.lock();
+        RequestMetrics metrics = RequestMetrics.getCurrent();
+        long lockStartTime = System.nanoTime();
+        int lockTimeout = getSessionLockTimeout(session);
+        if (lockTimeout > 0) {
+            session.lock(lockTimeout, TimeUnit.MILLISECONDS);
+        } else {
+            session.lock();
+        }
+        if (metrics != null) {
+            metrics.recordTime(RequestPhase.LOCK_WAIT, lockStartTime);
+        }
         try {
             return synchronizedHandleRequest(session, request, response);
         } finally {
@@ -43,6 +62,14 @@ public abstract class SynchronizedRequestHandler implements RequestHandler {
         }
     }
 
+    private static int getSessionLockTimeout(VaadinSession session) {
+        VaadinService service = session.getService();
+        DeploymentConfiguration configuration = service == null ? null
+                : service.getDeploymentConfiguration();
+        return configuration == null ? 0
+                : configuration.getSessionLockTimeout();
+    }
+
     /**
      * Identical to
      * {@link #handleRequest(VaadinSession, VaadinRequest, VaadinResponse)}
@@ -40,7 +40,9 @@ import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -54,6 +56,7 @@ import org.slf4j.LoggerFactory;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.internal.DependencyTreeCache;
 import com.vaadin.flow.component.internal.HtmlImportParser;
+import com.vaadin.flow.component.polymertemplate.TemplateDefinitionCache;
 import com.vaadin.flow.di.DefaultInstantiator;
 import com.vaadin.flow.di.Instantiator;
 import com.vaadin.flow.function.DeploymentConfiguration;
@@ -66,11 +69,19 @@ import com.vaadin.flow.server.ServletHelper.RequestType;
 import com.vaadin.flow.server.communication.AtmospherePushConnection;
 import com.vaadin.flow.server.communication.HeartbeatHandler;
 import com.vaadin.flow.server.communication.PwaHandler;
+import com.vaadin.flow.server.communication.ResponseCompressor;
 import com.vaadin.flow.server.communication.SessionRequestHandler;
 import com.vaadin.flow.server.communication.StreamRequestHandler;
 import com.vaadin.flow.server.communication.UidlRequestHandler;
 import com.vaadin.flow.server.communication.WebComponentBootstrap;
 import com.vaadin.flow.server.communication.WebComponentProvider;
+import com.vaadin.flow.server.metrics.MemoryFootprintMonitor;
+import com.vaadin.flow.server.metrics.RequestMetrics;
+import com.vaadin.flow.server.metrics.RequestMetricsEvent;
+import com.vaadin.flow.server.metrics.RequestMetricsListener;
+import com.vaadin.flow.server.metrics.RequestPhase;
+import com.vaadin.flow.server.metrics.SessionLockMonitor;
+import com.vaadin.flow.server.metrics.SessionReaperMonitor;
 import com.vaadin.flow.server.startup.BundleFilterFactory;
 import com.vaadin.flow.server.startup.FakeBrowser;
 import com.vaadin.flow.shared.ApplicationConstants;
@@ -175,6 +186,9 @@ public abstract class VaadinService implements Serializable {
 
     private Iterable<DependencyFilter> dependencyFilters;
 
+    private List<RequestMetricsListener> requestMetricsListeners = Collections
+            .emptyList();
+
     private boolean atmosphereAvailable = checkAtmosphereSupport();
 
     /**
@@ -197,6 +211,24 @@ public abstract class VaadinService implements Serializable {
 
     private Registration htmlImportDependencyCacheClearRegistration;
 
+    private TemplateDefinitionCache templateDefinitionCache;
+
+    private Registration templateDefinitionCacheClearRegistration;
+
+    private ResponseCompressor responseCompressor;
+
+    private SessionLockMonitor sessionLockMonitor;
+
+    private SessionReaperMonitor sessionReaperMonitor;
+
+    private transient SessionReaper sessionReaper;
+
+    private transient ScheduledExecutorService executor;
+
+    private transient boolean destroyed;
+
+    private MemoryFootprintMonitor memoryFootprintMonitor;
+
     /**
      * Creates a new vaadin service based on a deployment configuration.
      *
@@ -248,6 +280,37 @@ public abstract class VaadinService implements Serializable {
      *         if a problem occurs when creating the service
      */
     public void init() throws ServiceException {
+        sessionLockMonitor = new SessionLockMonitor(
+                getDeploymentConfiguration().getSessionLockWaitWarning(),
+                getDeploymentConfiguration().getSessionLockHoldWarning());
+        if (getDeploymentConfiguration().isSessionLockJmx()) {
+            sessionLockMonitor.registerMBean(this);
+        }
+
+        int reaperInterval = getDeploymentConfiguration()
+                .getSessionReaperInterval();
+        if (reaperInterval > 0) {
+            sessionReaperMonitor = new SessionReaperMonitor();
+            if (getDeploymentConfiguration().isSessionReaperJmx()) {
+                sessionReaperMonitor.registerMBean(this);
+            }
+            sessionReaper = new SessionReaper(this,
+                    TimeUnit.SECONDS.toMillis(reaperInterval),
+                    sessionReaperMonitor);
+            sessionReaper.start();
+        }
+
+        int sampleRate = getDeploymentConfiguration()
+                .getMemoryFootprintSampleRate();
+        if (sampleRate > 0) {
+            memoryFootprintMonitor = new MemoryFootprintMonitor(sampleRate);
+            if (getDeploymentConfiguration().isMemoryFootprintJmx()) {
+                memoryFootprintMonitor.registerMBean(this);
+            }
+            addSessionDestroyListener(event -> memoryFootprintMonitor
+                    .sessionDestroyed(event.getSession()));
+        }
+
         instantiator = createInstantiator();
 
         // init the router now so that registry will be available for
@@ -279,6 +342,8 @@ public abstract class VaadinService implements Serializable {
         bootstrapListeners = instantiator
                 .getBootstrapListeners(event.getAddedBootstrapListeners())
                 .collect(Collectors.toList());
+        requestMetricsListeners = event.getAddedRequestMetricsListeners()
+                .collect(Collectors.toList());
 
         if (!getDeploymentConfiguration().isProductionMode()) {
             Logger logger = getLogger();
@@ -312,6 +377,21 @@ public abstract class VaadinService implements Serializable {
         htmlImportDependencyCacheClearRegistration = ReflectionCache
                 .addClearAllAction(htmlImportDependencyCache::clear);
 
+        /*
+         * Template parsers pass paths which are already resolved for the
+         * browser, so the browser given here doesn't affect the resolution.
+         */
+        templateDefinitionCache = new TemplateDefinitionCache(
+                path -> getResourceAsStream(path, FakeBrowser.getEs6(), null),
+                path -> getResource(path, FakeBrowser.getEs6(), null),
+                getDeploymentConfiguration().isProductionMode());
+        templateDefinitionCacheClearRegistration = ReflectionCache
+                .addClearAllAction(templateDefinitionCache::clear);
+
+        responseCompressor = new ResponseCompressor(
+                getDeploymentConfiguration().getResponseCompressionThreshold(),
+                getDeploymentConfiguration().getResponseCompressionLevel());
+
         initialized = true;
     }
 
@@ -722,6 +802,15 @@ public abstract class VaadinService implements Serializable {
     protected Lock getSessionLock(WrappedSession wrappedSession) {
         Object lock = wrappedSession.getAttribute(getLockAttributeName());
 
+        if (lock instanceof SessionLock) {
+            SessionLock sessionLock = (SessionLock) lock;
+            if (sessionLock.getMonitor() == null) {
+                // The monitor is not serialized with the lock
+                sessionLock.setMonitor(sessionLockMonitor);
+            }
+            return sessionLock;
+        }
+
         if (lock instanceof ReentrantLock) {
             return (ReentrantLock) lock;
         }
@@ -745,6 +834,41 @@ public abstract class VaadinService implements Serializable {
      *         if the session is invalidated before it can be locked
      */
     protected void lockSession(WrappedSession wrappedSession) {
+        Lock lock = getOrCreateSessionLock(wrappedSession);
+        lock.lock();
+        ensureNotInvalidated(wrappedSession, lock);
+    }
+
+    /**
+     * Locks the given session for handling a request. Unlike
+     * {@link #lockSession(WrappedSession)}, gives up if the lock can't be
+     * acquired within the configured
+     * {@link DeploymentConfiguration#getSessionLockTimeout() session lock
+     * timeout}, so that request threads are rejected instead of piling up.
+     *
+     * @param wrappedSession
+     *         The session to lock
+     * @throws IllegalStateException
+     *         if the session is invalidated before it can be locked
+     * @throws SessionLockTimeoutException
+     *         if the session can't be locked in time
+     */
+    private void lockSessionForRequest(WrappedSession wrappedSession) {
+        int lockTimeout = getDeploymentConfiguration().getSessionLockTimeout();
+        if (lockTimeout <= 0) {
+            lockSession(wrappedSession);
+            return;
+        }
+        Lock lock = getOrCreateSessionLock(wrappedSession);
+        if (lock instanceof SessionLock) {
+            ((SessionLock) lock).lock(lockTimeout, TimeUnit.MILLISECONDS);
+        } else {
+            lock.lock();
+        }
+        ensureNotInvalidated(wrappedSession, lock);
+    }
+
+    private Lock getOrCreateSessionLock(WrappedSession wrappedSession) {
         Lock lock = getSessionLock(wrappedSession);
         if (lock == null) {
             /*
@@ -757,13 +881,16 @@ public abstract class VaadinService implements Serializable {
             synchronized (VaadinService.class) {
                 lock = getSessionLock(wrappedSession);
                 if (lock == null) {
-                    lock = new ReentrantLock();
+                    lock = new SessionLock(sessionLockMonitor);
                     setSessionLock(wrappedSession, lock);
                 }
             }
         }
-        lock.lock();
+        return lock;
+    }
 
+    private void ensureNotInvalidated(WrappedSession wrappedSession,
+            Lock lock) {
         try {
             // Someone might have invalidated the session between fetching the
             // lock and acquiring it. Guard for this by calling a method that's
@@ -798,7 +925,7 @@ public abstract class VaadinService implements Serializable {
                 requestCanCreateSession);
 
         try {
-            lockSession(wrappedSession);
+            lockSessionForRequest(wrappedSession);
         } catch (IllegalStateException e) {
             throw new SessionExpiredException();
         }
@@ -906,6 +1033,7 @@ public abstract class VaadinService implements Serializable {
         }
 
         onVaadinSessionStarted(request, session);
+        scheduleSessionReaper(session);
 
         return session;
     }
@@ -1232,9 +1360,10 @@ public abstract class VaadinService implements Serializable {
     }
 
     /**
-     * Called at the end of a request, after sending the response. Closes
-     * inactive UIs in the given session, removes closed UIs from the session,
-     * and closes the session if it is itself inactive.
+     * Called at the end of a request, after sending the response, or by the
+     * session reaper while holding the session lock. Closes inactive UIs in
+     * the given session, removes closed UIs from the session, and closes the
+     * session if it is itself inactive.
      *
      * @param session
      */
@@ -1267,6 +1396,47 @@ public abstract class VaadinService implements Serializable {
         }
     }
 
+    /**
+     * Gets the time when the heartbeat timeout of a UI in the given session or
+     * the UIDL request timeout of the session itself expires next, assuming
+     * that no more requests are received.
+     *
+     * @param session
+     *         the session to check, not <code>null</code>
+     * @param now
+     *         the current time in milliseconds
+     * @return the time in milliseconds, or {@link Long#MAX_VALUE} if the
+     * session and its UIs never time out
+     */
+    long getNextCleanupTime(VaadinSession session, long now) {
+        long next = Long.MAX_VALUE;
+        long heartbeatTimeout = 1000L * getHeartbeatTimeout();
+        if (heartbeatTimeout >= 0) {
+            if (session.getUIs().isEmpty()) {
+                // Check again when a UI created now could have expired
+                next = now + heartbeatTimeout;
+            }
+            for (UI ui : session.getUIs()) {
+                next = Math.min(next,
+                        ui.getInternals().getLastHeartbeatTimestamp()
+                                + heartbeatTimeout);
+            }
+        }
+        long uidlRequestTimeout = 1000L * getUidlRequestTimeout(session);
+        if (uidlRequestTimeout >= 0) {
+            next = Math.min(next,
+                    session.getLastRequestTimestamp() + uidlRequestTimeout);
+        }
+        return next;
+    }
+
+    private void scheduleSessionReaper(VaadinSession session) {
+        if (sessionReaper != null && !session.isReaperScheduled()) {
+            session.setReaperScheduled(true);
+            sessionReaper.schedule(session);
+        }
+    }
+
     /**
      * Removes those UIs from the given session for which {@link UI#isClosing()
      * isClosing} yields true.
@@ -1421,7 +1591,14 @@ public abstract class VaadinService implements Serializable {
                     "Can not process requests before init() has been called");
         }
         setCurrentInstances(request, response);
-        request.setAttribute(REQUEST_START_TIME_ATTRIBUTE, System.nanoTime());
+        long startTime = System.nanoTime();
+        request.setAttribute(REQUEST_START_TIME_ATTRIBUTE, startTime);
+        if (!requestMetricsListeners.isEmpty()) {
+            RequestMetrics metrics = new RequestMetrics(startTime);
+            // The request keeps the weakly referenced current instance alive
+            request.setAttribute(RequestMetrics.class.getName(), metrics);
+            CurrentInstance.set(RequestMetrics.class, metrics);
+        }
     }
 
     /**
@@ -1442,7 +1619,16 @@ public abstract class VaadinService implements Serializable {
             assert VaadinSession.getCurrent() == session;
             session.lock();
             try {
-                cleanupSession(session);
+                if (sessionReaper != null && isSessionActive(session)) {
+                    // Inactive UIs are closed by the session reaper
+                    removeClosedUIs(session);
+                } else {
+                    cleanupSession(session);
+                }
+                if (memoryFootprintMonitor != null
+                        && session.getState() == VaadinSessionState.OPEN) {
+                    memoryFootprintMonitor.requestEnded(session);
+                }
                 final long duration = (System.nanoTime() - (Long) request
                         .getAttribute(REQUEST_START_TIME_ATTRIBUTE)) / 1000000;
                 session.setLastRequestDuration(duration);
@@ -1450,9 +1636,28 @@ public abstract class VaadinService implements Serializable {
                 session.unlock();
             }
         }
+        RequestMetrics metrics = (RequestMetrics) request
+                .getAttribute(RequestMetrics.class.getName());
+        if (metrics != null) {
+            fireRequestMetrics(request, session, metrics);
+        }
         CurrentInstance.clearAll();
     }
 
+    private void fireRequestMetrics(VaadinRequest request,
+            VaadinSession session, RequestMetrics metrics) {
+        metrics.end();
+        RequestMetricsEvent event = new RequestMetricsEvent(this, request,
+                session, metrics);
+        for (RequestMetricsListener listener : requestMetricsListeners) {
+            try {
+                listener.requestHandled(event);
+            } catch (RuntimeException e) {
+                getLogger().error("Request metrics listener failed", e);
+            }
+        }
+    }
+
     /**
      * Returns the request handlers that are registered with this service. The
      * iteration order of the returned collection is the same as the order in
@@ -1519,6 +1724,10 @@ public abstract class VaadinService implements Serializable {
 
         } catch (final SessionExpiredException e) {
             handleSessionExpired(request, response);
+        } catch (final SessionLockTimeoutException e) {
+            // The session would be locked again for error handling and clean up
+            vaadinSession = null;
+            handleSessionLockTimeout(response, e);
         } catch (final Exception e) {
             handleExceptionDuringRequest(request, response, vaadinSession, e);
         } finally {
@@ -1526,6 +1735,17 @@ public abstract class VaadinService implements Serializable {
         }
     }
 
+    private void handleSessionLockTimeout(VaadinResponse response,
+            SessionLockTimeoutException exception) throws ServiceException {
+        getLogger().warn("Rejecting request: {}", exception.getMessage());
+        try {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                    "The session is busy, please try again later.");
+        } catch (IOException e) {
+            throw new ServiceException(e);
+        }
+    }
+
     private void handleExceptionDuringRequest(VaadinRequest request,
             VaadinResponse response, VaadinSession vaadinSession, Exception t)
             throws ServiceException {
@@ -1943,6 +2163,8 @@ public abstract class VaadinService implements Serializable {
         }
 
         FutureAccess pendingAccess;
+        RequestMetrics metrics = RequestMetrics.getCurrent();
+        long startTime = System.nanoTime();
 
         // Dump all current instances, not only the ones dumped by setCurrent
         Map<Class<?>, CurrentInstance> oldInstances = CurrentInstance
@@ -1965,6 +2187,9 @@ public abstract class VaadinService implements Serializable {
         } finally {
             CurrentInstance.clearAll();
             CurrentInstance.restoreInstances(oldInstances);
+            if (metrics != null) {
+                metrics.recordTime(RequestPhase.ACCESS_TASKS, startTime);
+            }
         }
     }
 
@@ -1997,7 +2222,21 @@ public abstract class VaadinService implements Serializable {
      * @see Servlet#destroy()
      */
     public void destroy() {
+        if (sessionReaper != null) {
+            sessionReaper.stop();
+        }
+        synchronized (this) {
+            destroyed = true;
+            if (executor != null) {
+                executor.shutdownNow();
+                executor = null;
+            }
+        }
         htmlImportDependencyCacheClearRegistration.remove();
+        templateDefinitionCacheClearRegistration.remove();
+        if (responseCompressor != null) {
+            responseCompressor.destroy();
+        }
 
         ServiceDestroyEvent event = new ServiceDestroyEvent(this);
         serviceDestroyListeners
@@ -2036,8 +2275,150 @@ public abstract class VaadinService implements Serializable {
     protected void storeSession(VaadinSession session,
             WrappedSession wrappedSession) {
         assert VaadinSession.hasLock(this, wrappedSession);
+        boolean delta = isDeltaSessionReplication();
+        session.setUIsStoredSeparately(delta);
         writeToHttpSession(wrappedSession, session);
         session.refreshTransients(wrappedSession, this);
+        if (delta) {
+            session.setModified(false);
+            for (UI ui : session.getUIs()) {
+                writeUIToHttpSession(wrappedSession, ui);
+            }
+        }
+    }
+
+    /**
+     * Stores the UIs and the session state which have been modified since
+     * they were last stored when using delta session replication. Each UI is
+     * stored in a separate HTTP session attribute which is only set again if
+     * the UI has been modified, and the attribute of the session itself is
+     * only set again if the session state, excluding the UIs, has been
+     * modified. Attributes of UIs which have been removed from the session are
+     * removed.
+     * <p>
+     * Setting an attribute again lets a container which replicates modified
+     * attributes skip the UIs in other browser tabs.
+     *
+     * @see DeploymentConfiguration#isDeltaSessionReplication()
+     *
+     * @param session
+     *         the VaadinSession to store
+     * @param wrappedSession
+     *         the underlying HTTP session
+     */
+    protected void storeSessionChanges(VaadinSession session,
+            WrappedSession wrappedSession) {
+        assert VaadinSession.hasLock(this, wrappedSession);
+
+        String prefix = getUIAttributePrefix();
+        Set<String> removedUIs = wrappedSession.getAttributeNames().stream()
+                .filter(name -> name.startsWith(prefix))
+                .collect(Collectors.toSet());
+        int storedUIs = 0;
+        for (UI ui : session.getUIs()) {
+            boolean stored = removedUIs.remove(prefix + ui.getUIId());
+            if (!stored || ui.getInternals().isModified()) {
+                writeUIToHttpSession(wrappedSession, ui);
+                storedUIs++;
+            }
+        }
+        removedUIs.forEach(wrappedSession::removeAttribute);
+
+        boolean sessionStored = session.isModified();
+        if (sessionStored) {
+            // Some containers notify the replaced value even if it is the
+            // same instance
+            session.setAttribute(PRESERVE_UNBOUND_SESSION_ATTRIBUTE,
+                    Boolean.TRUE);
+            try {
+                writeToHttpSession(wrappedSession, session);
+            } finally {
+                session.setAttribute(PRESERVE_UNBOUND_SESSION_ATTRIBUTE, null);
+            }
+            session.setModified(false);
+        }
+
+        getLogger().debug(
+                "Stored {} of {} UIs, removed {} UIs, session stored: {}",
+                storedUIs, session.getUIs().size(), removedUIs.size(),
+                sessionStored);
+    }
+
+    /**
+     * Stores the changes of the given session when using delta session
+     * replication if the session or any of its UIs has been modified. Called
+     * whenever the session lock is finally released, so that changes which
+     * have been pushed to the client, or made by a request received through
+     * the push connection, are stored without waiting for the next HTTP
+     * request.
+     *
+     * @param session
+     *         the session which is about to be unlocked
+     */
+    void storeModifiedSession(VaadinSession session) {
+        WrappedSession wrappedSession = session.getSession();
+        if (wrappedSession == null
+                || session.getState() != VaadinSessionState.OPEN
+                || !isDeltaSessionReplication()) {
+            return;
+        }
+        if (!session.isModified() && session.getUIs().stream()
+                .noneMatch(ui -> ui.getInternals().isModified())) {
+            return;
+        }
+        try {
+            storeSessionChanges(session, wrappedSession);
+        } catch (IllegalStateException e) {
+            getLogger().debug("Could not store the session changes, the "
+                    + "HTTP session has probably been invalidated", e);
+        }
+    }
+
+    private void writeUIToHttpSession(WrappedSession wrappedSession, UI ui) {
+        wrappedSession.setAttribute(getUIAttributePrefix() + ui.getUIId(),
+                new ReplicatedUI(ui));
+        ui.getInternals().setModified(false);
+    }
+
+    /**
+     * Restores the UIs of a deserialized session from their HTTP session
+     * attributes. A UI which can't be restored is discarded.
+     */
+    private void restoreUIs(VaadinSession session,
+            WrappedSession wrappedSession) {
+        String prefix = getUIAttributePrefix();
+        long now = System.currentTimeMillis();
+        List<UI> uis = new ArrayList<>();
+        for (String name : wrappedSession.getAttributeNames()) {
+            Object value = name.startsWith(prefix)
+                    ? wrappedSession.getAttribute(name)
+                    : null;
+            if (!(value instanceof ReplicatedUI)) {
+                continue;
+            }
+            try {
+                UI ui = ((ReplicatedUI) value).restore(session);
+                // Heartbeats don't cause the attribute to be stored
+                ui.getInternals().setLastHeartbeatTimestamp(now);
+                ui.getInternals().setModified(false);
+                uis.add(ui);
+            } catch (RuntimeException e) {
+                getLogger().warn("Could not restore UI from attribute {}",
+                        name, e);
+                wrappedSession.removeAttribute(name);
+            }
+        }
+        session.restoreUIs(uis);
+    }
+
+    private String getUIAttributePrefix() {
+        return getSessionAttributeName() + ".UI.";
+    }
+
+    private boolean isDeltaSessionReplication() {
+        DeploymentConfiguration configuration = getDeploymentConfiguration();
+        return configuration != null
+                && configuration.isDeltaSessionReplication();
     }
 
     /**
@@ -2072,6 +2453,10 @@ public abstract class VaadinService implements Serializable {
             return null;
         }
         vaadinSession.refreshTransients(wrappedSession, this);
+        if (vaadinSession.isUIsMissing()) {
+            restoreUIs(vaadinSession, wrappedSession);
+        }
+        scheduleSessionReaper(vaadinSession);
         return vaadinSession;
     }
 
@@ -2111,6 +2496,12 @@ public abstract class VaadinService implements Serializable {
      */
     protected void removeFromHttpSession(WrappedSession wrappedSession) {
         wrappedSession.removeAttribute(getSessionAttributeName());
+        if (isDeltaSessionReplication()) {
+            String prefix = getUIAttributePrefix();
+            wrappedSession.getAttributeNames().stream()
+                    .filter(name -> name.startsWith(prefix))
+                    .forEach(wrappedSession::removeAttribute);
+        }
 
     }
 
@@ -2249,4 +2640,119 @@ public abstract class VaadinService implements Serializable {
     public DependencyTreeCache<String> getHtmlImportDependencyCache() {
         return htmlImportDependencyCache;
     }
+
+    /**
+     * Gets the cache of parsed template definitions that is used by this
+     * service. The cache is shared by all template parsers.
+     *
+     * @return the template definition cache, or <code>null</code> if this
+     *         service has not yet been initialized
+     */
+    public TemplateDefinitionCache getTemplateDefinitionCache() {
+        return templateDefinitionCache;
+    }
+
+    /**
+     * Gets the monitor collecting the session lock wait and hold times of the
+     * sessions of this service.
+     *
+     * @return the session lock monitor, or <code>null</code> if this service
+     *         has not yet been initialized
+     */
+    public SessionLockMonitor getSessionLockMonitor() {
+        return sessionLockMonitor;
+    }
+
+    /**
+     * Gets the monitor collecting statistics about the inactive UIs and
+     * sessions closed by the background session reaper of this service.
+     *
+     * @return the session reaper monitor, or <code>null</code> if the session
+     *         reaper is not enabled or this service has not yet been
+     *         initialized
+     * @see DeploymentConfiguration#getSessionReaperInterval()
+     */
+    public SessionReaperMonitor getSessionReaperMonitor() {
+        return sessionReaperMonitor;
+    }
+
+    /**
+     * Gets the monitor sampling the estimated memory footprint of the sessions
+     * of this service.
+     *
+     * @return the memory footprint monitor, or <code>null</code> if sampling
+     *         is not enabled or this service has not yet been initialized
+     * @see DeploymentConfiguration#getMemoryFootprintSampleRate()
+     */
+    public MemoryFootprintMonitor getMemoryFootprintMonitor() {
+        return memoryFootprintMonitor;
+    }
+
+    /**
+     * Gets the background reaper closing the inactive UIs and sessions of this
+     * service.
+     *
+     * @return the session reaper, or <code>null</code> if not enabled
+     */
+    SessionReaper getSessionReaper() {
+        return sessionReaper;
+    }
+
+    /**
+     * Gets the executor running the background tasks of this service, such as
+     * the session reaper. The executor is created on first use and shut down
+     * when this service is destroyed.
+     *
+     * @return the executor, or <code>null</code> if this service has been
+     *         destroyed
+     */
+    synchronized ScheduledExecutorService getExecutor() {
+        if (destroyed) {
+            return null;
+        }
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable,
+                        "vaadin-scheduler-" + getServiceName());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Runs the given task in the background thread of this service after the
+     * given delay. The task is run without holding any session lock. Tasks
+     * scheduled after this service has been destroyed are never run.
+     *
+     * @param task
+     *            the task to run, not <code>null</code>
+     * @param delayMillis
+     *            the delay in milliseconds before running the task
+     */
+    void scheduleTask(Runnable task, long delayMillis) {
+        assert task != null;
+        ScheduledExecutorService scheduledExecutor = getExecutor();
+        if (scheduledExecutor == null) {
+            return;
+        }
+        scheduledExecutor.schedule(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                getLogger().error("Running a scheduled task failed", e);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Gets the compressor for UIDL responses that is used by this service.
+     *
+     * @return the response compressor, or <code>null</code> if this service
+     *         has not yet been initialized
+     */
+    public ResponseCompressor getResponseCompressor() {
+        return responseCompressor;
+    }
 }
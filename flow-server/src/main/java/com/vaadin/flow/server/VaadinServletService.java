@@ -183,7 +183,9 @@ public class VaadinServletService extends VaadinService {
     protected PwaRegistry getPwaRegistry() {
         return Optional.ofNullable(getServlet())
                 .map(GenericServlet::getServletContext)
-                .map(PwaRegistry::getInstance).orElse(null);
+                .map(context -> PwaRegistry.getInstance(context,
+                        getDeploymentConfiguration()))
+                .orElse(null);
     }
 
     @Override
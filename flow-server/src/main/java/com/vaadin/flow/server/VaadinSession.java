@@ -35,6 +35,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -42,6 +43,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
 import com.vaadin.flow.function.DeploymentConfiguration;
 import com.vaadin.flow.internal.CurrentInstance;
 import com.vaadin.flow.shared.communication.PushMode;
@@ -92,8 +94,53 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     private LinkedList<RequestHandler> requestHandlers = new LinkedList<>();
 
     private int nextUIId = 0;
+
+    /**
+     * The UIs of a session whose UIs are stored in separate HTTP session
+     * attributes. Serialized as an empty map, which tells the deserialized
+     * session that its UIs are missing.
+     */
+    private static final class SeparatelyStoredUIs extends HashMap<Integer, UI> {
+        private SeparatelyStoredUIs(Map<Integer, UI> uis) {
+            super(uis);
+        }
+
+        private Object writeReplace() {
+            return isEmpty() ? this
+                    : new SeparatelyStoredUIs(Collections.emptyMap());
+        }
+    }
+
+    /*
+     * A SeparatelyStoredUIs instance if the UIs are stored in separate HTTP
+     * session attributes, see setUIsStoredSeparately(boolean)
+     */
     private Map<Integer, UI> uIs = new HashMap<>();
 
+    /*
+     * Set when the session has been deserialized without its UIs until they
+     * have been restored from their HTTP session attributes.
+     */
+    private transient boolean uisMissing;
+
+    /*
+     * Whether the session state has been modified since the session was last
+     * stored in the HTTP session, excluding the state of the UIs.
+     */
+    private transient boolean modified = true;
+
+    /**
+     * Whether this session has been scheduled to be checked by the session
+     * reaper of the service. Not set for a deserialized session.
+     */
+    private transient boolean reaperScheduled;
+
+    /*
+     * The deadlines of the flushes of deferred changes scheduled for the UIs,
+     * by UI id. Created on demand.
+     */
+    private transient Map<Integer, Long> deferredChangesFlushes;
+
     protected WebBrowser browser = new WebBrowser();
 
     private long cumulativeRequestDuration = 0;
@@ -127,7 +174,11 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
 
     private final String pushId = UUID.randomUUID().toString();
 
-    private final Attributes attributes = new Attributes();
+    /*
+     * A ReplicatedAttributes instance if the UIs are stored in separate HTTP
+     * session attributes, see setUIsStoredSeparately(boolean)
+     */
+    private Attributes attributes = new Attributes();
 
     private final StreamResourceRegistry resourceRegistry;
 
@@ -345,6 +396,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     public void setLocale(Locale locale) {
         checkHasLock();
         this.locale = locale;
+        modified = true;
 
         getUIs().forEach(ui -> ui.setLocale(locale));
     }
@@ -368,6 +420,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     public void setErrorHandler(ErrorHandler errorHandler) {
         checkHasLock();
         this.errorHandler = errorHandler;
+        modified = true;
     }
 
     /**
@@ -385,6 +438,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     public void addRequestHandler(RequestHandler handler) {
         checkHasLock();
         requestHandlers.addFirst(handler);
+        modified = true;
     }
 
     /**
@@ -396,6 +450,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     public void removeRequestHandler(RequestHandler handler) {
         checkHasLock();
         requestHandlers.remove(handler);
+        modified = true;
     }
 
     /**
@@ -553,6 +608,50 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         assert UI.getCurrent().getUIId() == ui.getUIId() : "UIs don't match";
         ui.getInternals().setSession(null);
         uIs.remove(ui.getUIId());
+        if (deferredChangesFlushes != null) {
+            deferredChangesFlushes.remove(ui.getUIId());
+        }
+        modified = true;
+    }
+
+    /**
+     * Schedules the changes of the given UI that were deferred by an update
+     * interval to be sent when the interval ends. The changes are pushed if
+     * push is enabled, and otherwise sent with the next response. Only one
+     * flush is scheduled for the earliest deadline of the UI.
+     */
+    private void scheduleDeferredChangesFlush(UI ui) {
+        long deadline = ui.getInternals().getStateTree()
+                .getDeferredChangesDeadline();
+        if (deadline == 0 || service == null) {
+            return;
+        }
+        if (deferredChangesFlushes == null) {
+            deferredChangesFlushes = new HashMap<>();
+        }
+        Integer uiId = Integer.valueOf(ui.getUIId());
+        Long scheduled = deferredChangesFlushes.get(uiId);
+        if (scheduled != null && scheduled.longValue() <= deadline) {
+            return;
+        }
+        deferredChangesFlushes.put(uiId, Long.valueOf(deadline));
+        service.scheduleTask(() -> {
+            try {
+                ui.access(() -> {
+                    if (deferredChangesFlushes != null) {
+                        deferredChangesFlushes.remove(uiId,
+                                Long.valueOf(deadline));
+                    }
+                    ui.getInternals().getStateTree().flushDeferredChanges();
+                    if (ui.getPushConfiguration()
+                            .getPushMode() == PushMode.MANUAL) {
+                        ui.push();
+                    }
+                });
+            } catch (UIDetachedException e) {
+                // The UI has been closed, so there is nothing to send
+            }
+        }, Math.max(1, deadline - System.currentTimeMillis()));
     }
 
     /**
@@ -618,13 +717,47 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         getLockInstance().lock();
     }
 
+    /**
+     * Locks this session like {@link #lock()}, but gives up if the lock can't
+     * be acquired within the given time. This is used by request threads so
+     * that they fail fast instead of piling up when the session is held for a
+     * long time by another thread.
+     *
+     * @param timeout
+     *            the maximum time to wait for the lock
+     * @param unit
+     *            the time unit of the timeout, not <code>null</code>
+     * @throws SessionLockTimeoutException
+     *             if the lock could not be acquired in time
+     * @see #lock()
+     */
+    public void lock(long timeout, TimeUnit unit) {
+        Lock lockInstance = getLockInstance();
+        if (lockInstance instanceof SessionLock) {
+            ((SessionLock) lockInstance).lock(timeout, unit);
+            return;
+        }
+        try {
+            if (!lockInstance.tryLock(timeout, unit)) {
+                throw new SessionLockTimeoutException(
+                        "Session lock was not acquired in "
+                                + unit.toMillis(timeout) + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SessionLockTimeoutException(
+                    "Interrupted while waiting for the session lock");
+        }
+    }
+
     /**
      * Unlocks this session. This method should always be used in a finally
      * block after {@link #lock()} to ensure that the lock is always released.
      * <p>
      * For UIs in this session that have its push mode set to
      * {@link PushMode#AUTOMATIC automatic}, pending changes will be pushed to
-     * their respective clients.
+     * their respective clients. When using delta session replication, the
+     * modified UIs are then stored in the HTTP session.
      *
      * @see #lock()
      * @see UI#push()
@@ -652,7 +785,9 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
                             CurrentInstance.restoreInstances(oldCurrent);
                         }
                     }
+                    scheduleDeferredChangesFlush(ui);
                 }
+                getService().storeModifiedSession(this);
             }
         } finally {
             getLockInstance().unlock();
@@ -688,6 +823,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     public void setAttribute(String name, Object value) {
         checkHasLock();
         attributes.setAttribute(name, value);
+        modified = true;
     }
 
     /**
@@ -714,6 +850,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     public <T> void setAttribute(Class<T> type, T value) {
         checkHasLock();
         attributes.setAttribute(type, value);
+        modified = true;
     }
 
     /**
@@ -764,6 +901,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     public int getNextUIid() {
         checkHasLock();
+        modified = true;
         return nextUIId++;
     }
 
@@ -785,6 +923,108 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         }
 
         uIs.put(ui.getUIId(), ui);
+        modified = true;
+    }
+
+    /**
+     * Adds UIs which have been restored from separate HTTP session attributes
+     * after this session has been deserialized without them.
+     *
+     * @param restoredUIs
+     *         the restored UIs, not <code>null</code>
+     */
+    void restoreUIs(Collection<UI> restoredUIs) {
+        checkHasLock();
+        for (UI ui : restoredUIs) {
+            assert ui.getSession() == this;
+            uIs.put(ui.getUIId(), ui);
+            nextUIId = Math.max(nextUIId, ui.getUIId() + 1);
+        }
+        uisMissing = false;
+    }
+
+    /**
+     * Checks whether this session has been deserialized without its UIs, which
+     * have not yet been restored.
+     *
+     * @return <code>true</code> if the UIs should be restored,
+     *         <code>false</code> otherwise
+     */
+    boolean isUIsMissing() {
+        return uisMissing;
+    }
+
+    /**
+     * Checks whether this session has been scheduled with the session reaper
+     * of the service. The flag is not serialized, so a deserialized session is
+     * scheduled again when it is next used.
+     *
+     * @return <code>true</code> if the session has been scheduled,
+     *         <code>false</code> otherwise
+     */
+    boolean isReaperScheduled() {
+        return reaperScheduled;
+    }
+
+    /**
+     * Sets whether this session has been scheduled with the session reaper of
+     * the service.
+     *
+     * @param reaperScheduled
+     *         <code>true</code> if the session has been scheduled,
+     *         <code>false</code> otherwise
+     */
+    void setReaperScheduled(boolean reaperScheduled) {
+        this.reaperScheduled = reaperScheduled;
+    }
+
+    /**
+     * Sets whether the UIs of this session are stored in separate HTTP session
+     * attributes instead of being serialized together with the session. When
+     * they are, the UIs and the attributes which reference them are left out
+     * when serializing the session. Otherwise the session is serialized the
+     * same way as without delta session replication.
+     *
+     * @param uisStoredSeparately
+     *         <code>true</code> to leave out the UIs when serializing the
+     *         session, <code>false</code> to include them
+     */
+    void setUIsStoredSeparately(boolean uisStoredSeparately) {
+        if (uisStoredSeparately == uIs instanceof SeparatelyStoredUIs) {
+            return;
+        }
+        if (uisStoredSeparately) {
+            uIs = new SeparatelyStoredUIs(uIs);
+            attributes = new ReplicatedAttributes(attributes);
+        } else {
+            uIs = new HashMap<>(uIs);
+            Attributes copy = new Attributes();
+            ReplicatedAttributes.copy(attributes, copy);
+            attributes = copy;
+        }
+    }
+
+    /**
+     * Checks whether the state of this session, excluding its UIs, has been
+     * modified since the session was last stored in the HTTP session.
+     *
+     * @return <code>true</code> if the session has been modified,
+     *         <code>false</code> otherwise
+     */
+    boolean isModified() {
+        return modified;
+    }
+
+    /**
+     * Sets whether the state of this session has been modified since the
+     * session was last stored in the HTTP session.
+     *
+     * @param modified
+     *         <code>true</code> to mark the session as modified,
+     *         <code>false</code> when the session has been stored
+     */
+    void setModified(boolean modified) {
+        this.modified = modified;
     }
 
     public VaadinService getService() {
@@ -965,7 +1205,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
 
     /**
      * Override default deserialization logic to account for transient
-     * {@link #pendingAccessQueue}.
+     * {@link #pendingAccessQueue} and the UIs.
      *
      * @param stream
      *         the object to read
@@ -980,6 +1220,8 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         try {
             stream.defaultReadObject();
             pendingAccessQueue = new ConcurrentLinkedQueue<>();
+            // The UIs are restored from their own attributes
+            uisMissing = uIs instanceof SeparatelyStoredUIs;
         } finally {
             CurrentInstance.restoreInstances(old);
         }
@@ -24,6 +24,8 @@ import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -80,6 +82,13 @@ public class PwaHandler implements RequestHandler {
                             response.setHeader("Cache-Control",
                                     "no-cache, must-revalidate");
                         }
+                        String eTag = icon.getETag();
+                        response.setHeader("ETag", eTag);
+                        if (eTag.equals(request.getHeader("If-None-Match"))) {
+                            response.setStatus(
+                                    HttpServletResponse.SC_NOT_MODIFIED);
+                            return true;
+                        }
                         try (OutputStream out = response.getOutputStream()) {
                             icon.write(out);
                         }
@@ -0,0 +1,306 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import com.vaadin.flow.server.VaadinRequest;
+
+/**
+ * Compresses UIDL responses using the gzip content encoding.
+ * <p>
+ * Only responses which are at least as large as the configured threshold are
+ * compressed, and only for requests which accept the gzip encoding. The
+ * compression level makes the trade-off between CPU usage and bandwidth: 1 is
+ * the fastest and 9 gives the smallest responses.
+ * <p>
+ * Allocating a {@link Deflater} is expensive since it allocates native
+ * buffers, so deflaters are reused from a small pool instead of creating a new
+ * one for every response as {@link java.util.zip.GZIPOutputStream} does. The
+ * pool belongs to the compressor rather than to the request threads, so that
+ * the native buffers are released by {@link #destroy()} when the service is
+ * destroyed.
+ * <p>
+ * The compressor keeps statistics of the compressed responses, see
+ * {@link #getCompressionRatio()}.
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+public class ResponseCompressor implements Serializable {
+
+    /**
+     * The value of the <code>Content-Encoding</code> header for compressed
+     * responses.
+     */
+    public static final String GZIP_ENCODING = "gzip";
+
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final int OS_UNKNOWN = 0xff;
+
+    private static final int MAX_POOLED_DEFLATERS = 16;
+
+    private final int threshold;
+    private final int level;
+
+    private final LongAdder responseCount = new LongAdder();
+    private final LongAdder compressedResponseCount = new LongAdder();
+    private final LongAdder uncompressedBytes = new LongAdder();
+    private final LongAdder writtenBytes = new LongAdder();
+
+    private transient Deque<Deflater> deflaters = new ArrayDeque<>();
+    private transient boolean destroyed;
+
+    /**
+     * Creates a new compressor.
+     *
+     * @param threshold
+     *            the minimum size in bytes of a response to compress, or a
+     *            negative value to never compress responses
+     * @param level
+     *            the compression level, from 1 (fastest) to 9 (smallest
+     *            output)
+     */
+    public ResponseCompressor(int threshold, int level) {
+        if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException(
+                    "Compression level must be between "
+                            + Deflater.BEST_SPEED + " and "
+                            + Deflater.BEST_COMPRESSION + ", was " + level);
+        }
+        this.threshold = threshold;
+        this.level = level;
+    }
+
+    /**
+     * Checks whether this compressor compresses any responses.
+     *
+     * @return <code>true</code> if responses may be compressed,
+     *         <code>false</code> if compression is disabled
+     */
+    public boolean isEnabled() {
+        return threshold >= 0;
+    }
+
+    /**
+     * Checks whether a response with the given size should be compressed for
+     * the given request.
+     *
+     * @param request
+     *            the request to respond to, or <code>null</code> if not known
+     * @param length
+     *            the size of the uncompressed response in bytes
+     * @return <code>true</code> if the response should be compressed,
+     *         <code>false</code> otherwise
+     */
+    public boolean shouldCompress(VaadinRequest request, int length) {
+        return isEnabled() && request != null && length >= threshold
+                && acceptsGzip(request.getHeader("Accept-Encoding"));
+    }
+
+    /**
+     * Compresses the given data in gzip format. The response should still be
+     * recorded using {@link #recordResponse(int, int)} when written.
+     *
+     * @param data
+     *            the data to compress, not <code>null</code>
+     * @return the compressed data
+     */
+    public byte[] compress(byte[] data) {
+        Deflater deflater = acquireDeflater();
+        try {
+            return compress(deflater, data);
+        } finally {
+            releaseDeflater(deflater);
+        }
+    }
+
+    private byte[] compress(Deflater deflater, byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(
+                Math.max(64, data.length / 4));
+        writeHeader(out);
+
+        deflater.setInput(data);
+        deflater.finish();
+        byte[] buffer = new byte[Math.min(8192, data.length + 64)];
+        while (!deflater.finished()) {
+            int count = deflater.deflate(buffer);
+            out.write(buffer, 0, count);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        writeInt(out, (int) crc.getValue());
+        writeInt(out, data.length);
+
+        compressedResponseCount.increment();
+        return out.toByteArray();
+    }
+
+    /**
+     * Releases the native resources of the pooled deflaters. Responses can
+     * still be compressed after this, but the deflaters are no longer reused.
+     */
+    public synchronized void destroy() {
+        destroyed = true;
+        deflaters.forEach(Deflater::end);
+        deflaters.clear();
+    }
+
+    /**
+     * Gets the number of deflaters kept for reuse.
+     *
+     * @return the number of pooled deflaters
+     */
+    synchronized int getPooledDeflaterCount() {
+        return deflaters.size();
+    }
+
+    private synchronized Deflater acquireDeflater() {
+        Deflater deflater = deflaters.pollFirst();
+        return deflater != null ? deflater : new Deflater(level, true);
+    }
+
+    private synchronized void releaseDeflater(Deflater deflater) {
+        if (destroyed || deflaters.size() >= MAX_POOLED_DEFLATERS) {
+            deflater.end();
+        } else {
+            deflater.reset();
+            deflaters.addFirst(deflater);
+        }
+    }
+
+    /**
+     * Records a response which is written to the client, whether it is
+     * compressed or not.
+     *
+     * @param length
+     *            the uncompressed size of the response in bytes
+     * @param writtenLength
+     *            the number of bytes actually written to the client
+     */
+    public void recordResponse(int length, int writtenLength) {
+        responseCount.increment();
+        uncompressedBytes.add(length);
+        writtenBytes.add(writtenLength);
+    }
+
+    /**
+     * Gets the number of responses recorded by this compressor.
+     *
+     * @return the number of responses
+     */
+    public long getResponseCount() {
+        return responseCount.sum();
+    }
+
+    /**
+     * Gets the number of responses compressed by this compressor.
+     *
+     * @return the number of compressed responses
+     */
+    public long getCompressedResponseCount() {
+        return compressedResponseCount.sum();
+    }
+
+    /**
+     * Gets the total uncompressed size of all recorded responses.
+     *
+     * @return the uncompressed size in bytes
+     */
+    public long getUncompressedBytes() {
+        return uncompressedBytes.sum();
+    }
+
+    /**
+     * Gets the total number of bytes actually written for all recorded
+     * responses.
+     *
+     * @return the written size in bytes
+     */
+    public long getWrittenBytes() {
+        return writtenBytes.sum();
+    }
+
+    /**
+     * Gets the ratio between the number of bytes actually written and the
+     * uncompressed size of all recorded responses. A smaller value means
+     * better compression and <code>1</code> means no compression at all.
+     *
+     * @return the compression ratio
+     */
+    public double getCompressionRatio() {
+        long uncompressed = uncompressedBytes.sum();
+        if (uncompressed == 0) {
+            return 1;
+        }
+        return (double) writtenBytes.sum() / uncompressed;
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ENGLISH);
+            if (!GZIP_ENCODING.equals(name) && !"*".equals(name)) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim().replace(" ", "");
+                if (parameter.matches("q=0(\\.0*)?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void readObject(ObjectInputStream stream)
+            throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        deflaters = new ArrayDeque<>();
+    }
+
+    private static void writeHeader(ByteArrayOutputStream out) {
+        out.write(GZIP_MAGIC & 0xff);
+        out.write(GZIP_MAGIC >> 8);
+        out.write(Deflater.DEFLATED);
+        // flags, modification time, extra flags
+        for (int i = 0; i < 6; i++) {
+            out.write(0);
+        }
+        out.write(OS_UNKNOWN);
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value & 0xff);
+        out.write((value >> 8) & 0xff);
+        out.write((value >> 16) & 0xff);
+        out.write((value >> 24) & 0xff);
+    }
+}
@@ -34,6 +34,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.function.DeploymentConfiguration;
 import com.vaadin.flow.internal.MessageDigestUtil;
 import com.vaadin.flow.server.ErrorEvent;
 import com.vaadin.flow.server.VaadinRequest;
@@ -45,6 +46,9 @@ import com.vaadin.flow.server.communication.rpc.MapSyncRpcHandler;
 import com.vaadin.flow.server.communication.rpc.NavigationRpcHandler;
 import com.vaadin.flow.server.communication.rpc.PublishedServerEventHandlerRpcHandler;
 import com.vaadin.flow.server.communication.rpc.RpcInvocationHandler;
+import com.vaadin.flow.server.metrics.RequestCounter;
+import com.vaadin.flow.server.metrics.RequestMetrics;
+import com.vaadin.flow.server.metrics.RequestPhase;
 import com.vaadin.flow.shared.ApplicationConstants;
 import com.vaadin.flow.shared.JsonConstants;
 
@@ -236,6 +240,9 @@ public class ServerRpcHandler implements Serializable {
             throws IOException, InvalidUIDLSecurityKeyException {
         ui.getSession().setLastRequestTimestamp(System.currentTimeMillis());
 
+        RequestMetrics metrics = RequestMetrics.getCurrent();
+        long decodeStartTime = System.nanoTime();
+
         String changeMessage = getMessage(reader);
 
         if (changeMessage == null || changeMessage.equals("")) {
@@ -244,6 +251,9 @@ public class ServerRpcHandler implements Serializable {
         }
 
         RpcRequest rpcRequest = new RpcRequest(changeMessage, request);
+        if (metrics != null) {
+            metrics.recordTime(RequestPhase.RPC_DECODE, decodeStartTime);
+        }
 
         // Security: double cookie submission pattern unless disabled by
         // property
@@ -252,17 +262,24 @@ public class ServerRpcHandler implements Serializable {
             throw new InvalidUIDLSecurityKeyException();
         }
 
-        String hashMessage = changeMessage;
-        if (hashMessage.length() > 64 * 1024) {
-            hashMessage = changeMessage.substring(0, 64 * 1024);
-        }
-        byte[] messageHash = MessageDigestUtil.sha256(hashMessage);
+        byte[] messageHash = getMessageHash(changeMessage);
 
         int expectedId = ui.getInternals().getLastProcessedClientToServerId()
                 + 1;
         int requestId = rpcRequest.getClientToServerId();
 
-        if (requestId != -1 && requestId != expectedId) {
+        if (requestId > expectedId && !rpcRequest.isResynchronize()
+                && requestId - expectedId < getMaxMessagesInFlight(ui)) {
+            /*
+             * The client has sent several messages without waiting for the
+             * responses and an earlier one has not been handled yet. Handle
+             * this one right after it to keep the order of the messages. A
+             * resynchronization request is not buffered but handled right
+             * away, since its flag would not be checked when it is replayed.
+             */
+            ui.getInternals().addPendingClientMessage(requestId,
+                    changeMessage);
+        } else if (requestId != -1 && requestId != expectedId) {
             // Invalid message id, skip RPC processing but force a full
             // re-synchronization of the client as it might have not received
             // the previous response (e.g. due to a bad connection)
@@ -308,6 +325,7 @@ public class ServerRpcHandler implements Serializable {
             ui.getInternals().setLastProcessedClientToServerId(expectedId,
                     messageHash);
             handleInvocations(ui, rpcRequest.getRpcInvocationsData());
+            handlePendingMessages(ui, request);
         }
 
         if (rpcRequest.isResynchronize()) {
@@ -317,6 +335,35 @@ public class ServerRpcHandler implements Serializable {
 
     }
 
+    private void handlePendingMessages(UI ui, VaadinRequest request) {
+        int nextId = ui.getInternals().getLastProcessedClientToServerId() + 1;
+        String message = ui.getInternals().removePendingClientMessage(nextId);
+        while (message != null) {
+            RpcRequest rpcRequest = new RpcRequest(message, request);
+            ui.getInternals().setLastProcessedClientToServerId(nextId,
+                    getMessageHash(message));
+            handleInvocations(ui, rpcRequest.getRpcInvocationsData());
+
+            nextId++;
+            message = ui.getInternals().removePendingClientMessage(nextId);
+        }
+    }
+
+    private static int getMaxMessagesInFlight(UI ui) {
+        DeploymentConfiguration configuration = ui.getSession()
+                .getConfiguration();
+        return configuration == null ? 1
+                : configuration.getMaxMessagesInFlight();
+    }
+
+    private static byte[] getMessageHash(String message) {
+        String hashMessage = message;
+        if (hashMessage.length() > 64 * 1024) {
+            hashMessage = message.substring(0, 64 * 1024);
+        }
+        return MessageDigestUtil.sha256(hashMessage);
+    }
+
     /**
      * Gets {@link RpcInvocationHandler}s map where the key is the type of the
      * handler gotten via {@link RpcInvocationHandler#getRpcType()}.
@@ -351,14 +398,24 @@ public class ServerRpcHandler implements Serializable {
         RpcInvocationHandler mapSyncHandler = getInvocationHandlers()
                 .get(JsonConstants.RPC_TYPE_MAP_SYNC);
 
+        RequestMetrics metrics = RequestMetrics.getCurrent();
+        if (metrics != null) {
+            metrics.increment(RequestCounter.RPC_INVOCATIONS,
+                    invocationsData.length());
+        }
+
         for (int i = 0; i < invocationsData.length(); i++) {
             JsonObject invocationJson = invocationsData.getObject(i);
             String type = invocationJson.getString(JsonConstants.RPC_TYPE);
             assert type != null;
             if (JsonConstants.RPC_TYPE_MAP_SYNC.equals(type)) {
                 // Handle these before any RPC invocations.
+                long startTime = System.nanoTime();
                 mapSyncHandler.handle(ui, invocationJson)
                         .ifPresent(pendingChangeEvents::add);
+                if (metrics != null) {
+                    metrics.recordRpcTime(type, startTime);
+                }
             } else {
                 data.add(invocationJson);
             }
@@ -369,10 +426,17 @@ public class ServerRpcHandler implements Serializable {
     }
 
     private void runMapSyncTask(UI ui, Runnable runnable) {
+        RequestMetrics metrics = RequestMetrics.getCurrent();
+        long startTime = System.nanoTime();
         try {
             runnable.run();
         } catch (Throwable throwable) {
             ui.getSession().getErrorHandler().error(new ErrorEvent(throwable));
+        } finally {
+            if (metrics != null) {
+                metrics.recordRpcTime(JsonConstants.RPC_TYPE_MAP_SYNC,
+                        startTime);
+            }
         }
     }
 
@@ -383,6 +447,8 @@ public class ServerRpcHandler implements Serializable {
             throw new IllegalArgumentException(
                     "Unsupported event type: " + type);
         }
+        RequestMetrics metrics = RequestMetrics.getCurrent();
+        long startTime = System.nanoTime();
         try {
             Optional<Runnable> handle = handler.handle(ui, invocationJson);
             assert !handle.isPresent() : "RPC handler "
@@ -390,6 +456,10 @@ public class ServerRpcHandler implements Serializable {
                     + " returned a Runnable even though it shouldn't";
         } catch (Throwable throwable) {
             ui.getSession().getErrorHandler().error(new ErrorEvent(throwable));
+        } finally {
+            if (metrics != null) {
+                metrics.recordRpcTime(type, startTime);
+            }
         }
     }
 
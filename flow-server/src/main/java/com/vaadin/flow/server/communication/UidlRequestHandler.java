@@ -36,6 +36,9 @@ import com.vaadin.flow.server.VaadinResponse;
 import com.vaadin.flow.server.VaadinService;
 import com.vaadin.flow.server.VaadinSession;
 import com.vaadin.flow.server.communication.ServerRpcHandler.InvalidUIDLSecurityKeyException;
+import com.vaadin.flow.server.metrics.RequestCounter;
+import com.vaadin.flow.server.metrics.RequestMetrics;
+import com.vaadin.flow.server.metrics.RequestPhase;
 import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.JsonException;
@@ -79,7 +82,8 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
         if (uI == null) {
             // This should not happen but it will if the UI has been closed. We
             // really don't want to see it in the server logs though
-            commitJsonResponse(response, VaadinService.createUINotFoundJSON());
+            commitJsonResponse(request, response,
+                    VaadinService.createUINotFoundJSON());
             return true;
         }
 
@@ -92,35 +96,41 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
         } catch (JsonException e) {
             getLogger().error("Error writing JSON to response", e);
             // Refresh on client side
-            writeRefresh(response);
+            writeRefresh(request, response);
             return true;
         } catch (InvalidUIDLSecurityKeyException e) {
             getLogger().warn(
                     "Invalid security key received from {}",
                     request.getRemoteHost());
             // Refresh on client side
-            writeRefresh(response);
+            writeRefresh(request, response);
             return true;
         } finally {
             stringWriter.close();
         }
 
-        commitJsonResponse(response, stringWriter.toString());
+        commitJsonResponse(request, response, stringWriter.toString());
         return true;
     }
 
-    private void writeRefresh(VaadinResponse response) throws IOException {
+    private void writeRefresh(VaadinRequest request, VaadinResponse response)
+            throws IOException {
         String json = VaadinService.createCriticalNotificationJSON(null, null,
                 null, null);
-        commitJsonResponse(response, json);
+        commitJsonResponse(request, response, json);
     }
 
     private static void writeUidl(UI ui, Writer writer) throws IOException {
         JsonObject uidl = new UidlWriter().createUidl(ui, false);
 
+        RequestMetrics metrics = RequestMetrics.getCurrent();
+        long startTime = System.nanoTime();
         // some dirt to prevent cross site scripting
         String responseString = "for(;;);[" + uidl.toJson() + "]";
         writer.write(responseString);
+        if (metrics != null) {
+            metrics.recordTime(RequestPhase.SERIALIZATION, startTime);
+        }
     }
 
     private static final Logger getLogger() {
@@ -170,6 +180,32 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
      */
     public static void commitJsonResponse(VaadinResponse response, String json)
             throws IOException {
+        commitJsonResponse(null, response, json);
+    }
+
+    /**
+     * Commit the JSON response. We can't write immediately to the output stream
+     * as we want to write only a critical notification if something goes wrong
+     * during the response handling.
+     * <p>
+     * The response is compressed if the {@link ResponseCompressor} of the
+     * service is enabled, the response is large enough and the request
+     * accepts the gzip encoding.
+     *
+     * @param request
+     *            The request to respond to, or <code>null</code> to never
+     *            compress the response
+     * @param response
+     *            The response to write to
+     * @param json
+     *            The JSON to write
+     * @throws IOException
+     *             If there was an exception while writing to the output
+     */
+    public static void commitJsonResponse(VaadinRequest request,
+            VaadinResponse response, String json) throws IOException {
+        RequestMetrics metrics = RequestMetrics.getCurrent();
+        long startTime = System.nanoTime();
         response.setContentType(JsonConstants.JSON_CONTENT_TYPE);
 
         // Ensure that the browser does not cache UIDL responses.
@@ -177,11 +213,28 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
         response.setHeader("Cache-Control", "no-cache");
 
         byte[] b = json.getBytes(UTF_8);
+        int length = b.length;
+
+        ResponseCompressor compressor = response.getService() == null ? null
+                : response.getService().getResponseCompressor();
+        if (compressor != null && compressor.isEnabled()) {
+            response.setHeader("Vary", "Accept-Encoding");
+            if (compressor.shouldCompress(request, length)) {
+                b = compressor.compress(b);
+                response.setHeader("Content-Encoding",
+                        ResponseCompressor.GZIP_ENCODING);
+            }
+            compressor.recordResponse(length, b.length);
+        }
         response.setContentLength(b.length);
 
         OutputStream outputStream = response.getOutputStream();
         outputStream.write(b);
         // NOTE GateIn requires the buffers to be flushed to work
         outputStream.flush();
+        if (metrics != null) {
+            metrics.recordTime(RequestPhase.WRITE, startTime);
+            metrics.increment(RequestCounter.RESPONSE_BYTES, b.length);
+        }
     }
 }
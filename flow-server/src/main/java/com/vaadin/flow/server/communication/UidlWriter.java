@@ -42,6 +42,8 @@ import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.internal.DependencyList;
 import com.vaadin.flow.component.internal.UIInternals;
 import com.vaadin.flow.component.internal.UIInternals.JavaScriptInvocation;
+import com.vaadin.flow.internal.ConstantPool;
+import com.vaadin.flow.internal.ConstantPoolKey;
 import com.vaadin.flow.internal.JsonCodec;
 import com.vaadin.flow.internal.JsonUtils;
 import com.vaadin.flow.internal.StateTree;
@@ -54,6 +56,9 @@ import com.vaadin.flow.server.SystemMessages;
 import com.vaadin.flow.server.VaadinService;
 import com.vaadin.flow.server.VaadinSession;
 import com.vaadin.flow.server.WebBrowser;
+import com.vaadin.flow.server.metrics.RequestCounter;
+import com.vaadin.flow.server.metrics.RequestMetrics;
+import com.vaadin.flow.server.metrics.RequestPhase;
 import com.vaadin.flow.shared.ApplicationConstants;
 import com.vaadin.flow.shared.JsonConstants;
 import com.vaadin.flow.shared.ui.Dependency;
@@ -181,6 +186,15 @@ public class UidlWriter implements Serializable {
         populateDependencies(response, uiInternals.getDependencyList(),
                 new ResolveContext(service, session.getBrowser(), null));
 
+        // Encoded before the constants since the scripts are pooled
+        List<JavaScriptInvocation> executeJavaScriptList = uiInternals
+                .dumpPendingJavaScriptInvocations();
+        JsonArray executeJavaScript = null;
+        if (!executeJavaScriptList.isEmpty()) {
+            executeJavaScript = encodeExecuteJavaScriptList(
+                    executeJavaScriptList, uiInternals.getConstantPool());
+        }
+
         if (uiInternals.getConstantPool().hasNewConstants()) {
             response.put("constants",
                     uiInternals.getConstantPool().dumpConstants());
@@ -189,11 +203,8 @@ public class UidlWriter implements Serializable {
             response.put("changes", stateChanges);
         }
 
-        List<JavaScriptInvocation> executeJavaScriptList = uiInternals
-                .dumpPendingJavaScriptInvocations();
-        if (!executeJavaScriptList.isEmpty()) {
-            response.put(JsonConstants.UIDL_KEY_EXECUTE,
-                    encodeExecuteJavaScriptList(executeJavaScriptList));
+        if (executeJavaScript != null) {
+            response.put(JsonConstants.UIDL_KEY_EXECUTE, executeJavaScript);
         }
         if (ui.getSession().getService().getDeploymentConfiguration()
                 .isRequestTiming()) {
@@ -296,22 +307,41 @@ public class UidlWriter implements Serializable {
 
     // non-private for testing purposes
     static JsonArray encodeExecuteJavaScriptList(
-            List<JavaScriptInvocation> executeJavaScriptList) {
+            List<JavaScriptInvocation> executeJavaScriptList,
+            ConstantPool constantPool) {
         return executeJavaScriptList.stream()
-                .map(UidlWriter::encodeExecuteJavaScript)
+                .map(invocation -> encodeExecuteJavaScript(invocation,
+                        constantPool))
                 .collect(JsonUtils.asArray());
     }
 
     private static JsonArray encodeExecuteJavaScript(
-            JavaScriptInvocation executeJavaScript) {
-        Stream<JsonValue> parametersStream = executeJavaScript.getParameters()
-                .stream().map(JsonCodec::encodeWithTypeInfo);
+            JavaScriptInvocation executeJavaScript,
+            ConstantPool constantPool) {
+        List<Object> parameters = executeJavaScript.getParameters();
+
+        /*
+         * A script which is executed repeatedly is sent through the constant
+         * pool so that it is only sent once and the client can reuse the
+         * function compiled from it. The first execution is sent inline so
+         * that scripts which are executed only once, e.g. because they contain
+         * concatenated data, don't accumulate in the pools on the server and
+         * on the client.
+         */
+        JsonArray function = Json.createArray();
+        for (int i = 0; i < parameters.size(); i++) {
+            function.set(i, "$" + i);
+        }
+        function.set(parameters.size(), executeJavaScript.getExpression());
+        String functionId = constantPool
+                .getRepeatedConstantId(new ConstantPoolKey(function));
+        JsonValue encodedFunction = functionId == null ? function
+                : Json.create(functionId);
 
-        // [argument1, argument2, ..., script]
+        // [argument1, argument2, ..., function or functionId]
         return Stream
-                .concat(parametersStream,
-                        Stream.of(
-                                Json.create(executeJavaScript.getExpression())))
+                .concat(parameters.stream().map(JsonCodec::encodeWithTypeInfo),
+                        Stream.of(encodedFunction))
                 .collect(JsonUtils.asArray());
     }
 
@@ -331,7 +361,16 @@ public class UidlWriter implements Serializable {
         UIInternals uiInternals = ui.getInternals();
         StateTree stateTree = uiInternals.getStateTree();
 
+        RequestMetrics metrics = RequestMetrics.getCurrent();
+        long startTime = System.nanoTime();
         stateTree.runExecutionsBeforeClientResponse();
+        if (metrics != null) {
+            metrics.recordTime(RequestPhase.BEFORE_CLIENT_RESPONSE, startTime);
+            startTime = System.nanoTime();
+        }
+
+        boolean compact = ui.getSession().getService()
+                .getDeploymentConfiguration().isCompactChanges();
 
         Set<Class<? extends Component>> componentsWithDependencies = new LinkedHashSet<>();
         stateTree.collectChanges(change -> {
@@ -342,12 +381,18 @@ public class UidlWriter implements Serializable {
             }
 
             // Encode the actual change
+            ConstantPool constantPool = uiInternals.getConstantPool();
             stateChanges.set(stateChanges.length(),
-                    change.toJson(uiInternals.getConstantPool()));
+                    compact ? change.toCompactJson(constantPool)
+                            : change.toJson(constantPool));
         });
 
         componentsWithDependencies
                 .forEach(uiInternals::addComponentDependencies);
+        if (metrics != null) {
+            metrics.recordTime(RequestPhase.COLLECT_CHANGES, startTime);
+            metrics.increment(RequestCounter.CHANGES, stateChanges.length());
+        }
     }
 
     private static boolean attachesComponent(NodeChange change) {
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.metrics;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.server.VaadinService;
+
+/**
+ * Helpers for registering the metrics of a service as MBeans.
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+final class MBeanUtil {
+
+    private MBeanUtil() {
+        // Only static methods
+    }
+
+    /**
+     * Registers the given object to the platform MBean server with the name
+     * <code>com.vaadin.flow:type=&lt;type&gt;,service=&lt;name&gt;</code>,
+     * where the name is the service name. The MBean is unregistered when the
+     * service is destroyed. A failure to register the MBean is logged.
+     *
+     * @param mbean
+     *            the MBean to register, not <code>null</code>
+     * @param type
+     *            the type of the MBean, not <code>null</code>
+     * @param service
+     *            the service the MBean belongs to, not <code>null</code>
+     */
+    static void register(Object mbean, String type, VaadinService service) {
+        try {
+            ObjectName name = getObjectName(type, service);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(mbean,
+                    name);
+            service.addServiceDestroyListener(event -> unregister(name));
+        } catch (JMException e) {
+            getLogger().warn("Unable to register {} MBean", type, e);
+        }
+    }
+
+    /**
+     * Gets the name used for an MBean of the given type for the given
+     * service.
+     *
+     * @param type
+     *            the type of the MBean, not <code>null</code>
+     * @param service
+     *            the service the MBean belongs to, not <code>null</code>
+     * @return the object name
+     * @throws JMException
+     *             if the name is not valid
+     */
+    static ObjectName getObjectName(String type, VaadinService service)
+            throws JMException {
+        return new ObjectName("com.vaadin.flow:type=" + type + ",service="
+                + ObjectName.quote(String.valueOf(service.getServiceName())));
+    }
+
+    private static void unregister(ObjectName name) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            getLogger().warn("Unable to unregister MBean {}", name, e);
+        }
+    }
+
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(MBeanUtil.class.getName());
+    }
+}
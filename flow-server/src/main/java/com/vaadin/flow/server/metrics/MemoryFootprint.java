@@ -0,0 +1,203 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.metrics;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.VaadinSession;
+
+/**
+ * An estimate of the memory retained by a UI or a session, grouped by the
+ * type of the objects using the memory.
+ * <p>
+ * The estimate covers the state tree of each UI, with the state node
+ * features grouped by their type, as well as DOM event listeners, pending
+ * JavaScript invocations, the constant pool and anything reported by the
+ * contributors added with
+ * {@link com.vaadin.flow.component.internal.UIInternals#addMemoryFootprintContributor(com.vaadin.flow.function.SerializableConsumer)}.
+ * Application objects referenced by components, such as items of a data
+ * provider or session attributes, are not included.
+ * <p>
+ * The estimate is computed from the number of nodes and values without
+ * walking the complete object graph, so it is cheap enough to be sampled in
+ * production.
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+public class MemoryFootprint implements Serializable {
+
+    /**
+     * The category of state nodes.
+     */
+    public static final String STATE_NODE = "StateNode";
+
+    /**
+     * The category of DOM event listeners.
+     */
+    public static final String DOM_EVENT_LISTENER = "DomEventListener";
+
+    /**
+     * The category of UI level listeners, e.g. navigation listeners.
+     */
+    public static final String UI_LISTENER = "UIListener";
+
+    /**
+     * The category of JavaScript invocations which have not yet been sent to
+     * the client.
+     */
+    public static final String PENDING_JAVASCRIPT_INVOCATION = "PendingJavaScriptInvocation";
+
+    /**
+     * The category of constant pool entries.
+     */
+    public static final String CONSTANT_POOL = "ConstantPool";
+
+    /**
+     * The category of UI instances, excluding their state tree.
+     */
+    public static final String UI = "UI";
+
+    private static final class Usage implements Serializable {
+        private long count;
+        private long bytes;
+    }
+
+    private final Map<String, Usage> usages = new TreeMap<>();
+
+    /**
+     * Estimates the memory used by the given UI.
+     * <p>
+     * The session of the UI should be locked while estimating.
+     *
+     * @param ui
+     *            the UI to estimate, not <code>null</code>
+     * @return the memory footprint of the UI, not <code>null</code>
+     */
+    public static MemoryFootprint estimate(UI ui) {
+        MemoryFootprint footprint = new MemoryFootprint();
+        ui.getInternals().estimateMemoryFootprint(footprint);
+        return footprint;
+    }
+
+    /**
+     * Estimates the memory used by all UIs of the given session. Session
+     * attributes are not included.
+     * <p>
+     * The session should be locked while estimating.
+     *
+     * @param session
+     *            the session to estimate, not <code>null</code>
+     * @return the memory footprint of the session, not <code>null</code>
+     */
+    public static MemoryFootprint estimate(VaadinSession session) {
+        MemoryFootprint footprint = new MemoryFootprint();
+        for (UI ui : session.getUIs()) {
+            ui.getInternals().estimateMemoryFootprint(footprint);
+        }
+        return footprint;
+    }
+
+    /**
+     * Adds objects of the given category to this estimate.
+     *
+     * @param category
+     *            the category of the objects, e.g. the simple name of their
+     *            type, not <code>null</code>
+     * @param count
+     *            the number of objects to add
+     * @param estimatedBytes
+     *            the estimated memory used by the objects in bytes
+     */
+    public void add(String category, long count, long estimatedBytes) {
+        Usage usage = usages.computeIfAbsent(category, key -> new Usage());
+        usage.count += count;
+        usage.bytes += estimatedBytes;
+    }
+
+    /**
+     * Adds all objects of the given estimate to this estimate.
+     *
+     * @param other
+     *            the estimate to add, not <code>null</code>
+     */
+    public void add(MemoryFootprint other) {
+        other.usages.forEach(
+                (category, usage) -> add(category, usage.count, usage.bytes));
+    }
+
+    /**
+     * Gets the categories of this estimate.
+     *
+     * @return an unmodifiable set of category names, in alphabetical order
+     */
+    public Set<String> getCategories() {
+        return Collections.unmodifiableSet(usages.keySet());
+    }
+
+    /**
+     * Gets the number of objects of the given category.
+     *
+     * @param category
+     *            the category, not <code>null</code>
+     * @return the number of objects, or zero if there are none
+     */
+    public long getCount(String category) {
+        Usage usage = usages.get(category);
+        return usage == null ? 0 : usage.count;
+    }
+
+    /**
+     * Gets the estimated memory used by the objects of the given category.
+     *
+     * @param category
+     *            the category, not <code>null</code>
+     * @return the estimated memory in bytes, or zero if there are no objects
+     *         of the category
+     */
+    public long getEstimatedBytes(String category) {
+        Usage usage = usages.get(category);
+        return usage == null ? 0 : usage.bytes;
+    }
+
+    /**
+     * Gets the total estimated memory of all categories.
+     *
+     * @return the estimated memory in bytes
+     */
+    public long getEstimatedBytes() {
+        long total = 0;
+        for (Usage usage : usages.values()) {
+            total += usage.bytes;
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(getEstimatedBytes()).append(" bytes");
+        usages.forEach((category, usage) -> builder.append(", ")
+                .append(category).append(": ").append(usage.count)
+                .append(" / ").append(usage.bytes).append(" bytes"));
+        return builder.toString();
+    }
+}
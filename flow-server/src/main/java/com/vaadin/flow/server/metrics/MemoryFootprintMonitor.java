@@ -0,0 +1,193 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.metrics;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinSession;
+
+/**
+ * Samples the estimated memory footprint of the sessions of a service at the
+ * end of requests, keeping the latest sample of each open session.
+ * <p>
+ * Only every n:th request is sampled, so that the cost of the estimate, which
+ * is proportional to the number of state nodes in the session, is spread over
+ * many requests.
+ *
+ * @see MemoryFootprint
+ * @see VaadinService#getMemoryFootprintMonitor()
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+public class MemoryFootprintMonitor
+        implements MemoryFootprintMonitorMXBean, Serializable {
+
+    private final int sampleRate;
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final LongAdder sampleCount = new LongAdder();
+    private final LongAdder totalSampleTime = new LongAdder();
+
+    /**
+     * The latest sample of each session, by the CSRF token which is unique
+     * per session.
+     */
+    private final Map<String, MemoryFootprint> samples = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new monitor.
+     *
+     * @param sampleRate
+     *            the number of requests per sample, 1 to sample every request
+     */
+    public MemoryFootprintMonitor(int sampleRate) {
+        if (sampleRate < 1) {
+            throw new IllegalArgumentException(
+                    "The sample rate must be at least 1");
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Registers this monitor to the platform MBean server with the name
+     * <code>com.vaadin.flow:type=MemoryFootprint,service=&lt;name&gt;</code>,
+     * where the name is the service name. The MBean is unregistered when the
+     * service is destroyed.
+     *
+     * @param service
+     *            the service whose sessions are sampled, not
+     *            <code>null</code>
+     */
+    public void registerMBean(VaadinService service) {
+        MBeanUtil.register(this, "MemoryFootprint", service);
+    }
+
+    /**
+     * Called at the end of a request to the given session, samples the
+     * session if it is the turn of this request.
+     * <p>
+     * The session must be locked.
+     *
+     * @param session
+     *            the session of the request, not <code>null</code>
+     */
+    public void requestEnded(VaadinSession session) {
+        if (requestCount.incrementAndGet() % sampleRate == 0) {
+            sample(session);
+        }
+    }
+
+    /**
+     * Estimates the memory footprint of the given session and stores it as
+     * the latest sample of the session.
+     * <p>
+     * The session must be locked.
+     *
+     * @param session
+     *            the session to sample, not <code>null</code>
+     * @return the memory footprint of the session, not <code>null</code>
+     */
+    public MemoryFootprint sample(VaadinSession session) {
+        long start = System.nanoTime();
+        MemoryFootprint footprint = MemoryFootprint.estimate(session);
+        totalSampleTime.add(System.nanoTime() - start);
+        sampleCount.increment();
+        samples.put(session.getCsrfToken(), footprint);
+        return footprint;
+    }
+
+    /**
+     * Forgets the sample of the given session.
+     *
+     * @param session
+     *            the closed session, not <code>null</code>
+     */
+    public void sessionDestroyed(VaadinSession session) {
+        samples.remove(session.getCsrfToken());
+    }
+
+    @Override
+    public int getSessionCount() {
+        return samples.size();
+    }
+
+    @Override
+    public long getEstimatedBytes() {
+        long total = 0;
+        for (MemoryFootprint footprint : samples.values()) {
+            total += footprint.getEstimatedBytes();
+        }
+        return total;
+    }
+
+    @Override
+    public long getMaxSessionEstimatedBytes() {
+        long max = 0;
+        for (MemoryFootprint footprint : samples.values()) {
+            max = Math.max(max, footprint.getEstimatedBytes());
+        }
+        return max;
+    }
+
+    @Override
+    public Map<String, Long> getEstimatedBytesByCategory() {
+        MemoryFootprint total = getTotal();
+        Map<String, Long> result = new TreeMap<>();
+        total.getCategories().forEach(category -> result.put(category,
+                total.getEstimatedBytes(category)));
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getCountByCategory() {
+        MemoryFootprint total = getTotal();
+        Map<String, Long> result = new TreeMap<>();
+        total.getCategories().forEach(
+                category -> result.put(category, total.getCount(category)));
+        return result;
+    }
+
+    @Override
+    public long getSampleCount() {
+        return sampleCount.sum();
+    }
+
+    @Override
+    public long getTotalSampleMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalSampleTime.sum());
+    }
+
+    @Override
+    public void reset() {
+        samples.clear();
+        sampleCount.reset();
+        totalSampleTime.reset();
+    }
+
+    private MemoryFootprint getTotal() {
+        MemoryFootprint total = new MemoryFootprint();
+        samples.values().forEach(total::add);
+        return total;
+    }
+}
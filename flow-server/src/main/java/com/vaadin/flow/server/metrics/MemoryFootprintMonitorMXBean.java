@@ -0,0 +1,83 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link MemoryFootprintMonitor}.
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+public interface MemoryFootprintMonitorMXBean {
+
+    /**
+     * Gets the number of open sessions which have been sampled at least once.
+     *
+     * @return the number of sampled sessions
+     */
+    int getSessionCount();
+
+    /**
+     * Gets the estimated memory of all sampled sessions, using the latest
+     * sample of each session.
+     *
+     * @return the estimated memory in bytes
+     */
+    long getEstimatedBytes();
+
+    /**
+     * Gets the estimated memory of the largest sampled session.
+     *
+     * @return the estimated memory in bytes
+     */
+    long getMaxSessionEstimatedBytes();
+
+    /**
+     * Gets the estimated memory of all sampled sessions by category.
+     *
+     * @return a map from category to estimated memory in bytes
+     * @see MemoryFootprint#getCategories()
+     */
+    Map<String, Long> getEstimatedBytesByCategory();
+
+    /**
+     * Gets the number of objects in all sampled sessions by category.
+     *
+     * @return a map from category to number of objects
+     */
+    Map<String, Long> getCountByCategory();
+
+    /**
+     * Gets the number of samples taken.
+     *
+     * @return the number of samples
+     */
+    long getSampleCount();
+
+    /**
+     * Gets the total time spent estimating the samples.
+     *
+     * @return the total sampling time in milliseconds
+     */
+    long getTotalSampleMillis();
+
+    /**
+     * Forgets all samples and resets the counters.
+     */
+    void reset();
+}
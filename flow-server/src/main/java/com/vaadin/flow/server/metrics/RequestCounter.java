@@ -0,0 +1,42 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.metrics;
+
+/**
+ * The quantities which are counted by {@link RequestMetrics} while handling a
+ * request.
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+public enum RequestCounter {
+    /**
+     * The number of RPC invocations in the message sent by the client.
+     */
+    RPC_INVOCATIONS,
+    /**
+     * The number of dirty state nodes whose changes were collected.
+     */
+    DIRTY_NODES,
+    /**
+     * The number of node changes sent to the client.
+     */
+    CHANGES,
+    /**
+     * The number of bytes written as the response body, after compression.
+     */
+    RESPONSE_BYTES;
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.metrics;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.vaadin.flow.internal.CurrentInstance;
+
+/**
+ * Phase timings and counters collected while handling a single request.
+ * <p>
+ * An instance is only created for a request when at least one
+ * {@link RequestMetricsListener} has been registered, so that the framework
+ * doesn't need to do any extra work otherwise. Framework code records data
+ * through the instance returned by {@link #getCurrent()} if there is one. The
+ * collected data is passed to the listeners in a {@link RequestMetricsEvent}
+ * when the request has been handled.
+ * <p>
+ * The instance is only used by the thread handling the request and it is not
+ * thread safe.
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+public class RequestMetrics implements Serializable {
+
+    private final long startTime;
+    private long duration = -1;
+
+    private final long[] times = new long[RequestPhase.values().length];
+    private final long[] counts = new long[RequestCounter.values().length];
+    private Map<String, Long> rpcTimes;
+
+    /**
+     * Creates a new instance for a request which started at the given time.
+     *
+     * @param startTime
+     *            the start time of the request as given by
+     *            {@link System#nanoTime()}
+     */
+    public RequestMetrics(long startTime) {
+        this.startTime = startTime;
+    }
+
+    /**
+     * Gets the metrics of the request currently handled by this thread.
+     *
+     * @return the current request metrics, or <code>null</code> if metrics
+     *         are not collected for the current request
+     */
+    public static RequestMetrics getCurrent() {
+        return CurrentInstance.get(RequestMetrics.class);
+    }
+
+    /**
+     * Adds the time elapsed since the given start time to the given phase.
+     *
+     * @param phase
+     *            the phase to record the time for, not <code>null</code>
+     * @param phaseStartTime
+     *            the start time of the phase as given by
+     *            {@link System#nanoTime()}
+     */
+    public void recordTime(RequestPhase phase, long phaseStartTime) {
+        times[phase.ordinal()] += System.nanoTime() - phaseStartTime;
+    }
+
+    /**
+     * Adds the time elapsed since the given start time to the given RPC type
+     * and to the {@link RequestPhase#RPC_INVOCATION} phase.
+     *
+     * @param rpcType
+     *            the RPC type of the invocation handler, not
+     *            <code>null</code>
+     * @param invocationStartTime
+     *            the start time of the invocation as given by
+     *            {@link System#nanoTime()}
+     */
+    public void recordRpcTime(String rpcType, long invocationStartTime) {
+        long time = System.nanoTime() - invocationStartTime;
+        if (rpcTimes == null) {
+            rpcTimes = new LinkedHashMap<>();
+        }
+        rpcTimes.merge(rpcType, time, Long::sum);
+        times[RequestPhase.RPC_INVOCATION.ordinal()] += time;
+    }
+
+    /**
+     * Adds the given amount to the given counter.
+     *
+     * @param counter
+     *            the counter to increment, not <code>null</code>
+     * @param amount
+     *            the amount to add
+     */
+    public void increment(RequestCounter counter, long amount) {
+        counts[counter.ordinal()] += amount;
+    }
+
+    /**
+     * Marks the request as handled, fixing its total duration.
+     */
+    public void end() {
+        if (duration < 0) {
+            duration = System.nanoTime() - startTime;
+        }
+    }
+
+    /**
+     * Gets the total time spent in the given phase.
+     *
+     * @param phase
+     *            the phase to get the time for, not <code>null</code>
+     * @return the time in nanoseconds, <code>0</code> if the phase was not
+     *         run
+     */
+    public long getTime(RequestPhase phase) {
+        return times[phase.ordinal()];
+    }
+
+    /**
+     * Gets the total time spent in the RPC invocation handlers per RPC type.
+     *
+     * @return an unmodifiable map from RPC type to time in nanoseconds, not
+     *         <code>null</code>
+     */
+    public Map<String, Long> getRpcTimes() {
+        if (rpcTimes == null) {
+            return Collections.emptyMap();
+        }
+        return Collections.unmodifiableMap(rpcTimes);
+    }
+
+    /**
+     * Gets the value of the given counter.
+     *
+     * @param counter
+     *            the counter to get, not <code>null</code>
+     * @return the value of the counter
+     */
+    public long getCount(RequestCounter counter) {
+        return counts[counter.ordinal()];
+    }
+
+    /**
+     * Gets the total duration of the request, including the time not spent in
+     * any of the timed phases.
+     *
+     * @return the duration in nanoseconds, or the time elapsed so far if the
+     *         request has not ended yet
+     */
+    public long getDuration() {
+        if (duration < 0) {
+            return System.nanoTime() - startTime;
+        }
+        return duration;
+    }
+}
@@ -0,0 +1,380 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.metrics;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+import com.vaadin.flow.server.ServiceInitEvent;
+import com.vaadin.flow.server.VaadinService;
+
+/**
+ * Request metrics listener which aggregates the metrics of all requests into
+ * histograms, and which can be exposed through JMX.
+ * <p>
+ * Values are recorded without locking into buckets of a fixed size, so that
+ * the overhead per request is small and independent of the number of handled
+ * requests. Percentiles are estimated with a relative error of at most 25%.
+ * A value is only recorded for the requests in which the phase was run or the
+ * counter was not zero, so that e.g. static resource requests don't affect the
+ * RPC statistics.
+ * <p>
+ * The histogram is typically installed from a
+ * {@link com.vaadin.flow.server.VaadinServiceInitListener}:
+ *
+ * <pre>
+ * public void serviceInit(ServiceInitEvent event) {
+ *     RequestMetricsHistogram.install(event);
+ * }
+ * </pre>
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+public class RequestMetricsHistogram
+        implements RequestMetricsListener, RequestMetricsHistogramMXBean {
+
+    private static final String TOTAL = "TOTAL";
+    private static final String RPC_PREFIX = RequestPhase.RPC_INVOCATION.name()
+            + ":";
+
+    private final Histogram durations = new Histogram();
+    private final Map<RequestPhase, Histogram> phases = new EnumMap<>(
+            RequestPhase.class);
+    private final Map<RequestCounter, Histogram> counters = new EnumMap<>(
+            RequestCounter.class);
+    private final ConcurrentMap<String, Histogram> rpcTypes = new ConcurrentHashMap<>();
+
+    /**
+     * Lock-free histogram of non-negative values.
+     * <p>
+     * Each power of two range is split into four buckets, so a bucket is at
+     * most a quarter of its lower bound wide.
+     */
+    public static class Histogram implements Serializable {
+        private static final int SUB_BUCKET_BITS = 2;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int BUCKETS = SUB_BUCKETS
+                + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        /**
+         * Records a value.
+         *
+         * @param value
+         *            the value to record, negative values are recorded as
+         *            zero
+         */
+        public void record(long value) {
+            long recorded = Math.max(value, 0);
+            buckets.incrementAndGet(getBucket(recorded));
+            count.increment();
+            sum.add(recorded);
+            long currentMax = max.get();
+            while (recorded > currentMax
+                    && !max.compareAndSet(currentMax, recorded)) {
+                currentMax = max.get();
+            }
+        }
+
+        /**
+         * Gets the number of recorded values.
+         *
+         * @return the number of values
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * Gets the mean of the recorded values.
+         *
+         * @return the mean, or <code>0</code> if no values have been recorded
+         */
+        public double getMean() {
+            long n = count.sum();
+            return n == 0 ? 0 : (double) sum.sum() / n;
+        }
+
+        /**
+         * Gets the largest recorded value.
+         *
+         * @return the largest value, or <code>0</code> if no values have been
+         *         recorded
+         */
+        public long getMax() {
+            return max.get();
+        }
+
+        /**
+         * Gets an estimate of the given percentile of the recorded values.
+         * The estimate is the upper bound of the bucket containing the
+         * percentile, but no more than the largest recorded value.
+         *
+         * @param percentile
+         *            the percentile to get, between <code>0</code> and
+         *            <code>100</code>
+         * @return the estimated percentile, or <code>0</code> if no values
+         *         have been recorded
+         */
+        public long getPercentile(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException(
+                        "Percentile must be between 0 and 100, was "
+                                + percentile);
+            }
+            long n = count.sum();
+            if (n == 0) {
+                return 0;
+            }
+            long target = Math.max(1, (long) Math.ceil(n * percentile / 100));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= target) {
+                    return Math.min(getUpperBound(i), max.get());
+                }
+            }
+            return max.get();
+        }
+
+        /**
+         * Discards all recorded values.
+         */
+        public void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets.set(i, 0);
+            }
+            count.reset();
+            sum.reset();
+            max.set(0);
+        }
+
+        static int getBucket(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+            int shift = exponent - SUB_BUCKET_BITS;
+            int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+            return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+        }
+
+        static long getUpperBound(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+            long lowerBound = (long) (SUB_BUCKETS
+                    + (bucket - SUB_BUCKETS) % SUB_BUCKETS) << shift;
+            return lowerBound + (1L << shift) - 1;
+        }
+    }
+
+    /**
+     * Creates a new histogram.
+     */
+    public RequestMetricsHistogram() {
+        for (RequestPhase phase : RequestPhase.values()) {
+            phases.put(phase, new Histogram());
+        }
+        for (RequestCounter counter : RequestCounter.values()) {
+            counters.put(counter, new Histogram());
+        }
+    }
+
+    /**
+     * Creates a histogram, adds it as a request metrics listener to the
+     * service being initialized and registers it as an MBean.
+     *
+     * @param event
+     *            the service init event, not <code>null</code>
+     * @return the installed histogram
+     */
+    public static RequestMetricsHistogram install(ServiceInitEvent event) {
+        RequestMetricsHistogram histogram = new RequestMetricsHistogram();
+        event.addRequestMetricsListener(histogram);
+        histogram.registerMBean(event.getSource());
+        return histogram;
+    }
+
+    /**
+     * Registers this histogram to the platform MBean server with the name
+     * <code>com.vaadin.flow:type=RequestMetrics,service=&lt;name&gt;</code>,
+     * where the name is the service name. The MBean is unregistered when the
+     * service is destroyed. A failure to register the MBean is logged but
+     * doesn't prevent collecting metrics.
+     *
+     * @param service
+     *            the service whose requests are recorded, not
+     *            <code>null</code>
+     */
+    public void registerMBean(VaadinService service) {
+        MBeanUtil.register(this, "RequestMetrics", service);
+    }
+
+    @Override
+    public void requestHandled(RequestMetricsEvent event) {
+        RequestMetrics metrics = event.getMetrics();
+        durations.record(metrics.getDuration());
+        phases.forEach((phase, histogram) -> {
+            long time = metrics.getTime(phase);
+            if (time > 0) {
+                histogram.record(time);
+            }
+        });
+        counters.forEach((counter, histogram) -> {
+            long count = metrics.getCount(counter);
+            if (count > 0) {
+                histogram.record(count);
+            }
+        });
+        metrics.getRpcTimes()
+                .forEach((type, time) -> rpcTypes
+                        .computeIfAbsent(type, key -> new Histogram())
+                        .record(time));
+    }
+
+    /**
+     * Gets the histogram of the total request durations in nanoseconds.
+     *
+     * @return the duration histogram
+     */
+    public Histogram getDurations() {
+        return durations;
+    }
+
+    /**
+     * Gets the histogram of the times in nanoseconds spent in the given phase.
+     *
+     * @param phase
+     *            the phase, not <code>null</code>
+     * @return the phase histogram
+     */
+    public Histogram getPhase(RequestPhase phase) {
+        return phases.get(phase);
+    }
+
+    /**
+     * Gets the histogram of the values of the given counter.
+     *
+     * @param counter
+     *            the counter, not <code>null</code>
+     * @return the counter histogram
+     */
+    public Histogram getCounter(RequestCounter counter) {
+        return counters.get(counter);
+    }
+
+    /**
+     * Gets the histograms of the times in nanoseconds spent in the RPC
+     * invocation handlers per RPC type.
+     *
+     * @return an unmodifiable map from RPC type to histogram
+     */
+    public Map<String, Histogram> getRpcTypes() {
+        return Collections.unmodifiableMap(rpcTypes);
+    }
+
+    @Override
+    public long getRequestCount() {
+        return durations.getCount();
+    }
+
+    @Override
+    public Map<String, Double> getMeanMillis() {
+        return getTimes(histogram -> histogram.getMean());
+    }
+
+    @Override
+    public Map<String, Double> getPercentile50Millis() {
+        return getTimes(histogram -> histogram.getPercentile(50));
+    }
+
+    @Override
+    public Map<String, Double> getPercentile99Millis() {
+        return getTimes(histogram -> histogram.getPercentile(99));
+    }
+
+    @Override
+    public Map<String, Double> getMaxMillis() {
+        return getTimes(histogram -> histogram.getMax());
+    }
+
+    @Override
+    public Map<String, Double> getCounterMeans() {
+        Map<String, Double> result = new LinkedHashMap<>();
+        counters.forEach((counter, histogram) -> result.put(counter.name(),
+                histogram.getMean()));
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getCounterPercentile99() {
+        return getCounters(histogram -> histogram.getPercentile(99));
+    }
+
+    @Override
+    public Map<String, Long> getCounterMax() {
+        return getCounters(Histogram::getMax);
+    }
+
+    @Override
+    public void reset() {
+        durations.reset();
+        phases.values().forEach(Histogram::reset);
+        counters.values().forEach(Histogram::reset);
+        rpcTypes.clear();
+    }
+
+    private Map<String, Double> getTimes(
+            ToDoubleFunction<Histogram> nanosFunction) {
+        Map<String, Double> result = new LinkedHashMap<>();
+        result.put(TOTAL, toMillis(nanosFunction.applyAsDouble(durations)));
+        phases.forEach((phase, histogram) -> result.put(phase.name(),
+                toMillis(nanosFunction.applyAsDouble(histogram))));
+        rpcTypes.forEach((type, histogram) -> result.put(RPC_PREFIX + type,
+                toMillis(nanosFunction.applyAsDouble(histogram))));
+        return result;
+    }
+
+    private Map<String, Long> getCounters(
+            ToLongFunction<Histogram> valueFunction) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        counters.forEach((counter, histogram) -> result.put(counter.name(),
+                valueFunction.applyAsLong(histogram)));
+        return result;
+    }
+
+    private static double toMillis(double nanos) {
+        return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
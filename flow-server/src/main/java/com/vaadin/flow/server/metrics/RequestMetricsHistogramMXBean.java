@@ -0,0 +1,94 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link RequestMetricsHistogram}.
+ * <p>
+ * The keys of the time maps are <code>TOTAL</code> for the total request
+ * duration, the names of the {@link RequestPhase} constants and
+ * <code>RPC_INVOCATION:</code> followed by the RPC type for the time spent in
+ * each RPC invocation handler. The keys of the counter maps are the names of
+ * the {@link RequestCounter} constants.
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+public interface RequestMetricsHistogramMXBean {
+
+    /**
+     * Gets the number of handled requests.
+     *
+     * @return the number of requests
+     */
+    long getRequestCount();
+
+    /**
+     * Gets the mean times in milliseconds.
+     *
+     * @return the mean times
+     */
+    Map<String, Double> getMeanMillis();
+
+    /**
+     * Gets the estimated median times in milliseconds.
+     *
+     * @return the median times
+     */
+    Map<String, Double> getPercentile50Millis();
+
+    /**
+     * Gets the estimated 99th percentile times in milliseconds.
+     *
+     * @return the 99th percentile times
+     */
+    Map<String, Double> getPercentile99Millis();
+
+    /**
+     * Gets the maximum times in milliseconds.
+     *
+     * @return the maximum times
+     */
+    Map<String, Double> getMaxMillis();
+
+    /**
+     * Gets the mean values of the counters.
+     *
+     * @return the mean counter values
+     */
+    Map<String, Double> getCounterMeans();
+
+    /**
+     * Gets the estimated 99th percentile values of the counters.
+     *
+     * @return the 99th percentile counter values
+     */
+    Map<String, Long> getCounterPercentile99();
+
+    /**
+     * Gets the maximum values of the counters.
+     *
+     * @return the maximum counter values
+     */
+    Map<String, Long> getCounterMax();
+
+    /**
+     * Discards all recorded values.
+     */
+    void reset();
+}
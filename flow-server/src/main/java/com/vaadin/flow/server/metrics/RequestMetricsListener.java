@@ -0,0 +1,44 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.metrics;
+
+import java.io.Serializable;
+
+/**
+ * Listener which receives the phase timings and counters of every request
+ * handled by a {@link com.vaadin.flow.server.VaadinService}.
+ * <p>
+ * Listeners are registered using
+ * {@link com.vaadin.flow.server.ServiceInitEvent#addRequestMetricsListener(RequestMetricsListener)}.
+ * Metrics are only collected if at least one listener has been registered.
+ * The listener is invoked by the thread which handled the request after the
+ * response has been written, so it should return quickly.
+ *
+ * @see RequestMetricsHistogram
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+@FunctionalInterface
+public interface RequestMetricsListener extends Serializable {
+    /**
+     * Invoked when a request has been handled.
+     *
+     * @param event
+     *            the event containing the metrics of the request
+     */
+    void requestHandled(RequestMetricsEvent event);
+}
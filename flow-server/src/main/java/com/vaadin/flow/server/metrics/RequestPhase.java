@@ -0,0 +1,64 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.metrics;
+
+/**
+ * The phases of handling a request which are timed by {@link RequestMetrics}.
+ * <p>
+ * The phases don't overlap, except that {@link #ACCESS_TASKS} can also be run
+ * while releasing the session lock after the response has been written.
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+public enum RequestPhase {
+    /**
+     * Waiting for the session lock to be acquired.
+     */
+    LOCK_WAIT,
+    /**
+     * Reading and parsing the RPC message sent by the client.
+     */
+    RPC_DECODE,
+    /**
+     * Running the RPC invocation handlers for the invocations in the message.
+     * The time is also available per RPC type through
+     * {@link RequestMetrics#getRpcTimes()}.
+     */
+    RPC_INVOCATION,
+    /**
+     * Running pending tasks added using
+     * {@link com.vaadin.flow.server.VaadinSession#access(com.vaadin.flow.server.Command)}.
+     */
+    ACCESS_TASKS,
+    /**
+     * Running executions registered using
+     * {@link com.vaadin.flow.internal.StateTree#beforeClientResponse(com.vaadin.flow.internal.StateNode, com.vaadin.flow.function.SerializableConsumer)}.
+     */
+    BEFORE_CLIENT_RESPONSE,
+    /**
+     * Collecting the changes of dirty nodes and encoding them as JSON.
+     */
+    COLLECT_CHANGES,
+    /**
+     * Converting the response JSON into a string.
+     */
+    SERIALIZATION,
+    /**
+     * Encoding, compressing and writing the response to the client.
+     */
+    WRITE;
+}
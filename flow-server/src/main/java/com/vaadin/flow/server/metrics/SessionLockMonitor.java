@@ -0,0 +1,244 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.metrics;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.server.VaadinService;
+
+/**
+ * Collects the session lock wait and hold times of the sessions of a service,
+ * and logs a warning when a thread waits for a lock or holds a lock for longer
+ * than the configured thresholds.
+ * <p>
+ * The warning about a long wait is logged while the thread is still waiting,
+ * and it includes the stack trace of the thread holding the lock at that
+ * moment, which usually shows what is blocking the session.
+ *
+ * @see com.vaadin.flow.server.SessionLock
+ * @see VaadinService#getSessionLockMonitor()
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+public class SessionLockMonitor
+        implements SessionLockMonitorMXBean, Serializable {
+
+    private final long waitWarningNanos;
+    private final long holdWarningNanos;
+
+    private final LongAdder lockCount = new LongAdder();
+    private final LongAdder contendedLockCount = new LongAdder();
+    private final LongAdder totalWait = new LongAdder();
+    private final AtomicLong maxWait = new AtomicLong();
+    private final LongAdder totalHold = new LongAdder();
+    private final AtomicLong maxHold = new AtomicLong();
+    private final LongAdder longWaitCount = new LongAdder();
+    private final LongAdder longHoldCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+
+    /**
+     * Creates a new monitor.
+     *
+     * @param waitWarningMillis
+     *            the wait time in milliseconds after which a warning is
+     *            logged, zero or a negative value to disable the warning
+     * @param holdWarningMillis
+     *            the hold time in milliseconds after which a warning is
+     *            logged, zero or a negative value to disable the warning
+     */
+    public SessionLockMonitor(long waitWarningMillis, long holdWarningMillis) {
+        waitWarningNanos = TimeUnit.MILLISECONDS.toNanos(waitWarningMillis);
+        holdWarningNanos = TimeUnit.MILLISECONDS.toNanos(holdWarningMillis);
+    }
+
+    /**
+     * Registers this monitor to the platform MBean server with the name
+     * <code>com.vaadin.flow:type=SessionLocks,service=&lt;name&gt;</code>,
+     * where the name is the service name. The MBean is unregistered when the
+     * service is destroyed.
+     *
+     * @param service
+     *            the service whose session locks are monitored, not
+     *            <code>null</code>
+     */
+    public void registerMBean(VaadinService service) {
+        MBeanUtil.register(this, "SessionLocks", service);
+    }
+
+    /**
+     * Gets the wait time after which a warning is logged.
+     *
+     * @return the wait warning threshold in nanoseconds, zero or a negative
+     *         value if the warning is disabled
+     */
+    public long getWaitWarningNanos() {
+        return waitWarningNanos;
+    }
+
+    /**
+     * Records that a session lock has been acquired.
+     *
+     * @param waitNanos
+     *            the time waited for the lock in nanoseconds
+     */
+    public void lockAcquired(long waitNanos) {
+        lockCount.increment();
+        totalWait.add(waitNanos);
+        updateMax(maxWait, waitNanos);
+    }
+
+    /**
+     * Records that a thread has to wait for a session lock held by another
+     * thread.
+     */
+    public void lockContended() {
+        contendedLockCount.increment();
+    }
+
+    /**
+     * Records that a thread has waited for a session lock longer than the
+     * wait warning threshold, and logs a warning with the stack trace of the
+     * thread holding the lock.
+     *
+     * @param owner
+     *            the thread holding the lock, or <code>null</code> if not
+     *            known
+     * @param waitNanos
+     *            the time waited so far in nanoseconds
+     */
+    public void lockWaitExceeded(Thread owner, long waitNanos) {
+        longWaitCount.increment();
+        if (owner == null) {
+            getLogger().warn(
+                    "Thread {} has waited for a session lock for {} ms",
+                    Thread.currentThread().getName(), toMillis(waitNanos));
+            return;
+        }
+        Throwable holderStack = new Throwable(
+                "Stack trace of the session lock holder " + owner.getName());
+        holderStack.setStackTrace(owner.getStackTrace());
+        getLogger().warn(
+                "Thread {} has waited for a session lock for {} ms, the lock is held by {}",
+                Thread.currentThread().getName(), toMillis(waitNanos),
+                owner.getName(), holderStack);
+    }
+
+    /**
+     * Records that a request thread gave up waiting for a session lock.
+     */
+    public void lockTimedOut() {
+        timeoutCount.increment();
+    }
+
+    /**
+     * Records that a session lock has been released, and logs a warning with
+     * the stack trace of the releasing thread if the lock was held longer than
+     * the hold warning threshold.
+     *
+     * @param holdNanos
+     *            the time the lock was held in nanoseconds
+     */
+    public void lockReleased(long holdNanos) {
+        totalHold.add(holdNanos);
+        updateMax(maxHold, holdNanos);
+        if (holdWarningNanos > 0 && holdNanos > holdWarningNanos) {
+            longHoldCount.increment();
+            getLogger().warn("Thread {} held a session lock for {} ms",
+                    Thread.currentThread().getName(), toMillis(holdNanos),
+                    new Throwable("Session lock released at"));
+        }
+    }
+
+    @Override
+    public long getLockCount() {
+        return lockCount.sum();
+    }
+
+    @Override
+    public long getContendedLockCount() {
+        return contendedLockCount.sum();
+    }
+
+    @Override
+    public long getTotalWaitMillis() {
+        return toMillis(totalWait.sum());
+    }
+
+    @Override
+    public long getMaxWaitMillis() {
+        return toMillis(maxWait.get());
+    }
+
+    @Override
+    public long getTotalHoldMillis() {
+        return toMillis(totalHold.sum());
+    }
+
+    @Override
+    public long getMaxHoldMillis() {
+        return toMillis(maxHold.get());
+    }
+
+    @Override
+    public long getLongWaitCount() {
+        return longWaitCount.sum();
+    }
+
+    @Override
+    public long getLongHoldCount() {
+        return longHoldCount.sum();
+    }
+
+    @Override
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    @Override
+    public void reset() {
+        lockCount.reset();
+        contendedLockCount.reset();
+        totalWait.reset();
+        maxWait.set(0);
+        totalHold.reset();
+        maxHold.set(0);
+        longWaitCount.reset();
+        longHoldCount.reset();
+        timeoutCount.reset();
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(SessionLockMonitor.class.getName());
+    }
+}
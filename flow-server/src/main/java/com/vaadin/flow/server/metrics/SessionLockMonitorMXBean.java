@@ -0,0 +1,97 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.metrics;
+
+/**
+ * Management interface of {@link SessionLockMonitor}.
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+public interface SessionLockMonitorMXBean {
+
+    /**
+     * Gets the number of times a session lock has been acquired.
+     *
+     * @return the number of acquisitions
+     */
+    long getLockCount();
+
+    /**
+     * Gets the number of times a thread had to wait for a session lock held
+     * by another thread.
+     *
+     * @return the number of contended acquisitions
+     */
+    long getContendedLockCount();
+
+    /**
+     * Gets the total time threads have waited for session locks.
+     *
+     * @return the total wait time in milliseconds
+     */
+    long getTotalWaitMillis();
+
+    /**
+     * Gets the longest time a thread has waited for a session lock.
+     *
+     * @return the maximum wait time in milliseconds
+     */
+    long getMaxWaitMillis();
+
+    /**
+     * Gets the total time session locks have been held.
+     *
+     * @return the total hold time in milliseconds
+     */
+    long getTotalHoldMillis();
+
+    /**
+     * Gets the longest time a session lock has been held.
+     *
+     * @return the maximum hold time in milliseconds
+     */
+    long getMaxHoldMillis();
+
+    /**
+     * Gets the number of times a thread has waited for a session lock longer
+     * than the wait warning threshold.
+     *
+     * @return the number of long waits
+     */
+    long getLongWaitCount();
+
+    /**
+     * Gets the number of times a session lock has been held longer than the
+     * hold warning threshold.
+     *
+     * @return the number of long holds
+     */
+    long getLongHoldCount();
+
+    /**
+     * Gets the number of times a request thread gave up waiting for a session
+     * lock.
+     *
+     * @return the number of timeouts
+     */
+    long getTimeoutCount();
+
+    /**
+     * Resets all counters.
+     */
+    void reset();
+}
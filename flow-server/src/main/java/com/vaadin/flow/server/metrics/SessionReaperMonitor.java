@@ -0,0 +1,153 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.metrics;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.vaadin.flow.server.VaadinService;
+
+/**
+ * Collects statistics about the inactive UIs and sessions closed by the
+ * background session reaper of a service.
+ *
+ * @see VaadinService#getSessionReaperMonitor()
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+public class SessionReaperMonitor
+        implements SessionReaperMonitorMXBean, Serializable {
+
+    private final LongAdder runCount = new LongAdder();
+    private final LongAdder totalRun = new LongAdder();
+    private final AtomicLong maxRun = new AtomicLong();
+    private final AtomicLong scheduledSessionCount = new AtomicLong();
+    private final LongAdder busySessionCount = new LongAdder();
+    private final LongAdder reapedUICount = new LongAdder();
+    private final LongAdder reapedUIBytes = new LongAdder();
+    private final LongAdder reapedSessionCount = new LongAdder();
+
+    /**
+     * Registers this monitor to the platform MBean server with the name
+     * <code>com.vaadin.flow:type=SessionReaper,service=&lt;name&gt;</code>,
+     * where the name is the service name. The MBean is unregistered when the
+     * service is destroyed.
+     *
+     * @param service
+     *            the service whose sessions are reaped, not <code>null</code>
+     */
+    public void registerMBean(VaadinService service) {
+        MBeanUtil.register(this, "SessionReaper", service);
+    }
+
+    /**
+     * Records a completed reaper run.
+     *
+     * @param runNanos
+     *            the duration of the run in nanoseconds
+     * @param scheduledSessions
+     *            the number of sessions scheduled after the run
+     */
+    public void runCompleted(long runNanos, int scheduledSessions) {
+        runCount.increment();
+        totalRun.add(runNanos);
+        long current = maxRun.get();
+        while (runNanos > current && !maxRun.compareAndSet(current, runNanos)) {
+            current = maxRun.get();
+        }
+        scheduledSessionCount.set(scheduledSessions);
+    }
+
+    /**
+     * Records that a session check was postponed because another thread held
+     * the session lock.
+     */
+    public void sessionBusy() {
+        busySessionCount.increment();
+    }
+
+    /**
+     * Records that the reaper has removed an inactive UI.
+     *
+     * @param estimatedBytes
+     *            the estimated memory held by the UI in bytes
+     */
+    public void uiReaped(long estimatedBytes) {
+        reapedUICount.increment();
+        reapedUIBytes.add(estimatedBytes);
+    }
+
+    /**
+     * Records that the reaper has closed an inactive session.
+     */
+    public void sessionReaped() {
+        reapedSessionCount.increment();
+    }
+
+    @Override
+    public long getRunCount() {
+        return runCount.sum();
+    }
+
+    @Override
+    public long getTotalRunMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalRun.sum());
+    }
+
+    @Override
+    public long getMaxRunMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxRun.get());
+    }
+
+    @Override
+    public long getScheduledSessionCount() {
+        return scheduledSessionCount.get();
+    }
+
+    @Override
+    public long getBusySessionCount() {
+        return busySessionCount.sum();
+    }
+
+    @Override
+    public long getReapedUICount() {
+        return reapedUICount.sum();
+    }
+
+    @Override
+    public long getReapedUIBytes() {
+        return reapedUIBytes.sum();
+    }
+
+    @Override
+    public long getReapedSessionCount() {
+        return reapedSessionCount.sum();
+    }
+
+    @Override
+    public void reset() {
+        runCount.reset();
+        totalRun.reset();
+        maxRun.set(0);
+        busySessionCount.reset();
+        reapedUICount.reset();
+        reapedUIBytes.reset();
+        reapedSessionCount.reset();
+    }
+}
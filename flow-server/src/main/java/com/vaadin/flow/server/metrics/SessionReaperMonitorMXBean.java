@@ -0,0 +1,91 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.metrics;
+
+/**
+ * Management interface of {@link SessionReaperMonitor}.
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+public interface SessionReaperMonitorMXBean {
+
+    /**
+     * Gets the number of times the reaper has checked the sessions whose
+     * deadline has passed.
+     *
+     * @return the number of reaper runs
+     */
+    long getRunCount();
+
+    /**
+     * Gets the total time spent in reaper runs.
+     *
+     * @return the total run time in milliseconds
+     */
+    long getTotalRunMillis();
+
+    /**
+     * Gets the longest time a single reaper run has taken.
+     *
+     * @return the maximum run time in milliseconds
+     */
+    long getMaxRunMillis();
+
+    /**
+     * Gets the number of sessions currently scheduled to be checked by the
+     * reaper.
+     *
+     * @return the number of scheduled sessions
+     */
+    long getScheduledSessionCount();
+
+    /**
+     * Gets the number of times a session check was postponed because the
+     * session was locked by another thread.
+     *
+     * @return the number of postponed checks
+     */
+    long getBusySessionCount();
+
+    /**
+     * Gets the number of inactive UIs the reaper has closed and removed.
+     *
+     * @return the number of reaped UIs
+     */
+    long getReapedUICount();
+
+    /**
+     * Gets the estimated memory held by the UIs the reaper has removed.
+     *
+     * @see MemoryFootprint#estimate(com.vaadin.flow.component.UI)
+     *
+     * @return the estimated memory of the reaped UIs in bytes
+     */
+    long getReapedUIBytes();
+
+    /**
+     * Gets the number of inactive sessions the reaper has closed.
+     *
+     * @return the number of reaped sessions
+     */
+    long getReapedSessionCount();
+
+    /**
+     * Resets all counters except the number of scheduled sessions.
+     */
+    void reset();
+}
@@ -42,7 +42,13 @@ public class AnnotationValidator extends AbstractAnnotationValidator
     @Override
     public void onStartup(Set<Class<?>> classSet, ServletContext servletContext)
             throws ServletException {
-        validateClasses(classSet);
+        RouteIndex index = RouteIndex.get(servletContext);
+        if (index != null && index.isMetadataComplete()) {
+            // Validated when the index was generated
+            return;
+        }
+        validateClasses(RouteIndex.merge(classSet, index,
+                RouteIndex::getAnnotatedClasses));
     }
 
     @Override
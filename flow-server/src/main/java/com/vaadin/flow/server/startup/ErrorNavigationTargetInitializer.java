@@ -35,21 +35,41 @@ import com.vaadin.flow.router.HasErrorParameter;
 public class ErrorNavigationTargetInitializer
         implements ServletContainerInitializer {
 
-    @SuppressWarnings("unchecked")
     @Override
     public void onStartup(Set<Class<?>> classSet, ServletContext servletContext)
             throws ServletException {
+        RouteIndex index = RouteIndex.get(servletContext);
+        if (index != null && index.isMetadataComplete()) {
+            classSet = index.getErrorNavigationTargets();
+        } else {
+            classSet = RouteIndex.merge(classSet, index,
+                    RouteIndex::getErrorNavigationTargets);
+        }
         if (classSet == null) {
             classSet = new HashSet<>();
         }
-        Set<Class<? extends Component>> routes = classSet.stream()
+
+        ApplicationRouteRegistry.getInstance(servletContext)
+                .setErrorNavigationTargets(
+                        filterErrorNavigationTargets(classSet));
+    }
+
+    /**
+     * Gets the error navigation targets among the given classes.
+     *
+     * @param classSet
+     *            the classes implementing {@link HasErrorParameter}, not
+     *            <code>null</code>
+     * @return the error navigation targets
+     */
+    @SuppressWarnings("unchecked")
+    static Set<Class<? extends Component>> filterErrorNavigationTargets(
+            Set<Class<?>> classSet) {
+        return classSet.stream()
                 // Liberty 18 also includes the interface itself in the set...
                 .filter(clazz -> clazz != HasErrorParameter.class)
                 .map(clazz -> (Class<? extends Component>) clazz)
                 .collect(Collectors.toSet());
-
-        ApplicationRouteRegistry.getInstance(servletContext)
-                .setErrorNavigationTargets(routes);
     }
 
 }
@@ -0,0 +1,391 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.startup;
+
+import javax.servlet.ServletContext;
+import javax.servlet.annotation.HandlesTypes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.IOUtils;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.router.Route;
+import com.vaadin.flow.router.RouteAlias;
+import com.vaadin.flow.router.internal.RouteUtil;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+
+/**
+ * Index of the classes handled by the servlet container initializers of Flow,
+ * generated during the build of an application.
+ * <p>
+ * The index lists the route targets with their route aliases and parent
+ * layouts, the error navigation targets, the web components and the classes
+ * with application level annotations. When the index is present, the
+ * initializers use the indexed classes in addition to the classes found by the
+ * servlet container. When the index is marked as metadata complete, the
+ * initializers use only the indexed classes and skip the validation already
+ * done when the index was generated.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @author Vaadin Ltd
+ * @since 1.5
+ */
+public class RouteIndex {
+
+    /**
+     * The class path resource name of the index.
+     */
+    public static final String INDEX_RESOURCE = "META-INF/VAADIN/flow-route-index.json";
+
+    private static final String METADATA_COMPLETE = "metadataComplete";
+    private static final String ROUTES = "routes";
+    private static final String ALIASES = "aliases";
+    private static final String CLASS = "class";
+    private static final String PATH = "path";
+    private static final String PARENT_LAYOUTS = "parentLayouts";
+    private static final String PWA = "pwa";
+    private static final String ERROR_NAVIGATION_TARGETS = "errorNavigationTargets";
+    private static final String WEB_COMPONENTS = "webComponents";
+    private static final String ANNOTATIONS = "annotations";
+
+    /**
+     * Stored in the servlet context when there is no index to avoid looking
+     * for it again.
+     */
+    private static final String NO_INDEX = "none";
+
+    private final JsonObject json;
+    private final ClassLoader classLoader;
+
+    private RouteIndex(JsonObject json, ClassLoader classLoader) {
+        this.json = json;
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Gets the index of the application deployed in the given servlet context.
+     *
+     * @param servletContext
+     *            the servlet context, not <code>null</code>
+     * @return the index, or <code>null</code> if the application has no index
+     * @throws UncheckedIOException
+     *             if the index could not be read
+     */
+    public static RouteIndex get(ServletContext servletContext) {
+        String attributeName = RouteIndex.class.getName();
+        Object index = servletContext.getAttribute(attributeName);
+        if (index == null) {
+            ClassLoader classLoader = servletContext.getClassLoader();
+            if (classLoader == null) {
+                classLoader = RouteIndex.class.getClassLoader();
+            }
+            index = read(classLoader);
+            servletContext.setAttribute(attributeName,
+                    index == null ? NO_INDEX : index);
+        }
+        return index instanceof RouteIndex ? (RouteIndex) index : null;
+    }
+
+    /**
+     * Reads the index from the class path of the given class loader.
+     *
+     * @param classLoader
+     *            the class loader to read the index and to load the indexed
+     *            classes with, not <code>null</code>
+     * @return the index, or <code>null</code> if there is no index
+     * @throws UncheckedIOException
+     *             if the index could not be read
+     */
+    static RouteIndex read(ClassLoader classLoader) {
+        try (InputStream stream = classLoader
+                .getResourceAsStream(INDEX_RESOURCE)) {
+            if (stream == null) {
+                return null;
+            }
+            return new RouteIndex(
+                    Json.parse(
+                            IOUtils.toString(stream, StandardCharsets.UTF_8)),
+                    classLoader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(
+                    "Failed to read the route index " + INDEX_RESOURCE, e);
+        }
+    }
+
+    /**
+     * Checks whether the index lists all the classes handled by the
+     * initializers so that the classes found by the servlet container can be
+     * ignored.
+     *
+     * @return <code>true</code> if the index is complete, <code>false</code>
+     *         otherwise
+     */
+    public boolean isMetadataComplete() {
+        return json.hasKey(METADATA_COMPLETE)
+                && json.getBoolean(METADATA_COMPLETE);
+    }
+
+    /**
+     * Gets the route targets to register at startup.
+     *
+     * @return the route target classes, not <code>null</code>
+     */
+    @SuppressWarnings("unchecked")
+    public Set<Class<? extends Component>> getRoutes() {
+        JsonArray routes = json.getArray(ROUTES);
+        Set<Class<? extends Component>> classes = new LinkedHashSet<>();
+        for (int i = 0; i < routes.length(); i++) {
+            classes.add((Class<? extends Component>) loadClass(
+                    routes.getObject(i).getString(CLASS)));
+        }
+        return classes;
+    }
+
+    /**
+     * Gets the class with the {@link com.vaadin.flow.server.PWA} annotation.
+     *
+     * @return the PWA configuration class, or <code>null</code> if there is
+     *         none
+     */
+    public Class<?> getPwaClass() {
+        return json.hasKey(PWA) ? loadClass(json.getString(PWA)) : null;
+    }
+
+    /**
+     * Gets the error navigation targets.
+     *
+     * @return the error navigation target classes, not <code>null</code>
+     */
+    public Set<Class<?>> getErrorNavigationTargets() {
+        return loadClasses(json.getArray(ERROR_NAVIGATION_TARGETS));
+    }
+
+    /**
+     * Gets the web components.
+     *
+     * @return the web component classes, not <code>null</code>
+     */
+    public Set<Class<?>> getWebComponents() {
+        JsonObject webComponents = json.getObject(WEB_COMPONENTS);
+        return Stream.of(webComponents.keys())
+                .map(tag -> loadClass(webComponents.getString(tag)))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * Gets the classes with annotations validated by
+     * {@link AnnotationValidator}.
+     *
+     * @return the annotated classes, not <code>null</code>
+     */
+    public Set<Class<?>> getAnnotatedClasses() {
+        JsonObject annotations = json.getObject(ANNOTATIONS);
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        for (String annotation : annotations.keys()) {
+            classes.addAll(loadClasses(annotations.getArray(annotation)));
+        }
+        return classes;
+    }
+
+    /**
+     * Combines the classes found by the servlet container with the classes
+     * from the index.
+     *
+     * @param classSet
+     *            the classes found by the servlet container, or
+     *            <code>null</code> if none were found
+     * @param index
+     *            the index, or <code>null</code> if there is no index
+     * @param indexedClasses
+     *            the function getting the indexed classes from the index
+     * @return the combined classes, or <code>null</code> if there are no
+     *         classes from either source
+     */
+    static Set<Class<?>> merge(Set<Class<?>> classSet, RouteIndex index,
+            Function<RouteIndex, Collection<? extends Class<?>>> indexedClasses) {
+        if (index == null) {
+            return classSet;
+        }
+        Set<Class<?>> classes = new HashSet<>(indexedClasses.apply(index));
+        if (classSet != null) {
+            classes.addAll(classSet);
+        }
+        return classes;
+    }
+
+    /**
+     * Gets the types handled by the servlet container initializers using the
+     * index. The classes annotated with or extending these types should be
+     * passed to {@link #createIndex(Map, boolean)}.
+     *
+     * @return the handled annotation and super types, not <code>null</code>
+     */
+    public static List<Class<?>> getIndexedTypes() {
+        return getInitializers().flatMap(RouteIndex::getHandledTypes)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Creates the index contents for the given classes, validating them the
+     * same way as the servlet container initializers do.
+     *
+     * @param classesByType
+     *            the classes annotated with or extending each of the
+     *            {@link #getIndexedTypes() indexed types}, not
+     *            <code>null</code>
+     * @param metadataComplete
+     *            whether the index lists all the classes of the application so
+     *            that the classes found by the servlet container can be ignored
+     * @return the index in JSON format
+     * @throws com.vaadin.flow.server.InvalidRouteLayoutConfigurationException
+     *             if the route configuration is not valid
+     * @throws com.vaadin.flow.server.InvalidApplicationConfigurationException
+     *             if application level annotations are misplaced
+     */
+    public static String createIndex(Map<Class<?>, Set<Class<?>>> classesByType,
+            boolean metadataComplete) {
+        JsonObject json = Json.createObject();
+        json.put(METADATA_COMPLETE, metadataComplete);
+
+        RouteRegistryInitializer routeInitializer = new RouteRegistryInitializer();
+        Set<Class<? extends Component>> routes = routeInitializer
+                .validateRouteClasses(getClasses(classesByType,
+                        RouteRegistryInitializer.class).stream());
+        Class<?> pwaClass = routeInitializer.validatePwaClass(
+                routes.stream().map(clazz -> (Class<?>) clazz));
+        JsonArray routesJson = Json.createArray();
+        routes.stream().sorted((a, b) -> a.getName().compareTo(b.getName()))
+                .forEach(route -> routesJson.set(routesJson.length(),
+                        createRouteJson(route)));
+        json.put(ROUTES, routesJson);
+        if (pwaClass != null) {
+            json.put(PWA, pwaClass.getName());
+        }
+
+        json.put(ERROR_NAVIGATION_TARGETS,
+                toJson(ErrorNavigationTargetInitializer
+                        .filterErrorNavigationTargets(getClasses(classesByType,
+                                ErrorNavigationTargetInitializer.class))));
+
+        WebComponentRegistryInitializer webComponentInitializer = new WebComponentRegistryInitializer();
+        Map<String, Class<? extends Component>> webComponents = webComponentInitializer
+                .validateWebComponents(getClasses(classesByType,
+                        WebComponentRegistryInitializer.class));
+        JsonObject webComponentsJson = Json.createObject();
+        new TreeMap<>(webComponents).forEach(
+                (tag, clazz) -> webComponentsJson.put(tag, clazz.getName()));
+        json.put(WEB_COMPONENTS, webComponentsJson);
+
+        new AnnotationValidator().validateClasses(
+                getClasses(classesByType, AnnotationValidator.class));
+        JsonObject annotationsJson = Json.createObject();
+        getHandledTypes(AnnotationValidator.class)
+                .forEach(annotation -> annotationsJson.put(
+                        annotation.getName(),
+                        toJson(classesByType.getOrDefault(annotation,
+                                Collections.emptySet()))));
+        json.put(ANNOTATIONS, annotationsJson);
+
+        return json.toJson();
+    }
+
+    private static JsonObject createRouteJson(
+            Class<? extends Component> route) {
+        JsonObject json = Json.createObject();
+        json.put(CLASS, route.getName());
+        String path = RouteUtil.getRoutePath(route,
+                route.getAnnotation(Route.class));
+        json.put(PATH, path);
+        json.put(PARENT_LAYOUTS, toJson(RouteUtil.getParentLayouts(route, path)));
+
+        JsonArray aliases = Json.createArray();
+        for (RouteAlias alias : route.getAnnotationsByType(RouteAlias.class)) {
+            JsonObject aliasJson = Json.createObject();
+            String aliasPath = RouteUtil.getRouteAliasPath(route, alias);
+            aliasJson.put(PATH, aliasPath);
+            aliasJson.put(PARENT_LAYOUTS,
+                    toJson(RouteUtil.getParentLayouts(route, aliasPath)));
+            aliases.set(aliases.length(), aliasJson);
+        }
+        json.put(ALIASES, aliases);
+        return json;
+    }
+
+    private static JsonArray toJson(
+            Collection<? extends Class<?>> classes) {
+        JsonArray array = Json.createArray();
+        classes.stream().map(Class::getName).sorted()
+                .forEach(name -> array.set(array.length(), name));
+        return array;
+    }
+
+    private static Stream<Class<?>> getInitializers() {
+        return Stream.of(RouteRegistryInitializer.class,
+                ErrorNavigationTargetInitializer.class,
+                WebComponentRegistryInitializer.class,
+                AnnotationValidator.class);
+    }
+
+    private static Stream<Class<?>> getHandledTypes(Class<?> initializer) {
+        return Stream.of(initializer.getAnnotation(HandlesTypes.class).value());
+    }
+
+    private static Set<Class<?>> getClasses(
+            Map<Class<?>, Set<Class<?>>> classesByType, Class<?> initializer) {
+        return getHandledTypes(initializer)
+                .flatMap(type -> classesByType
+                        .getOrDefault(type, Collections.emptySet()).stream())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private Set<Class<?>> loadClasses(JsonArray classNames) {
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        for (int i = 0; i < classNames.length(); i++) {
+            classes.add(loadClass(classNames.getString(i)));
+        }
+        return classes;
+    }
+
+    private Class<?> loadClass(String className) {
+        try {
+            return Class.forName(className, false, classLoader);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Class " + className
+                    + " listed in the route index " + INDEX_RESOURCE
+                    + " was not found. Rebuild the application to update the index.",
+                    e);
+        }
+    }
+}
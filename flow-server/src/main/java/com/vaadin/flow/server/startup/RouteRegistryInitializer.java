@@ -41,15 +41,27 @@ public class RouteRegistryInitializer extends AbstractRouteRegistryInitializer
     public void onStartup(Set<Class<?>> classSet, ServletContext servletContext)
             throws ServletException {
         try {
-            if (classSet == null) {
-                ApplicationRouteRegistry routeRegistry = ApplicationRouteRegistry
-                        .getInstance(servletContext);
-                routeRegistry.clean();
-                return;
-            }
+            RouteIndex index = RouteIndex.get(servletContext);
+            Set<Class<? extends Component>> routes;
+            Class<?> pwaClass;
+            if (index != null && index.isMetadataComplete()) {
+                // Validated when the index was generated
+                routes = index.getRoutes();
+                pwaClass = index.getPwaClass();
+            } else {
+                classSet = RouteIndex.merge(classSet, index,
+                        RouteIndex::getRoutes);
+                if (classSet == null) {
+                    ApplicationRouteRegistry routeRegistry = ApplicationRouteRegistry
+                            .getInstance(servletContext);
+                    routeRegistry.clean();
+                    return;
+                }
 
-            Set<Class<? extends Component>> routes = validateRouteClasses(
-                    classSet.stream());
+                routes = validateRouteClasses(classSet.stream());
+                pwaClass = validatePwaClass(
+                        routes.stream().map(clazz -> (Class<?>) clazz));
+            }
 
             ApplicationRouteRegistry routeRegistry = ApplicationRouteRegistry
                     .getInstance(servletContext);
@@ -58,8 +70,7 @@ public class RouteRegistryInitializer extends AbstractRouteRegistryInitializer
                     .forRegistry(routeRegistry);
             routeConfiguration.update(
                     () -> setAnnotatedRoutes(routeConfiguration, routes));
-            routeRegistry.setPwaConfigurationClass(validatePwaClass(
-                    routes.stream().map(clazz -> (Class<?>) clazz)));
+            routeRegistry.setPwaConfigurationClass(pwaClass);
         } catch (InvalidRouteConfigurationException irce) {
             throw new ServletException(
                     "Exception while registering Routes on servlet startup",
@@ -50,27 +50,58 @@ public class WebComponentRegistryInitializer
             throws ServletException {
         WebComponentRegistry instance = WebComponentRegistry
                 .getInstance(servletContext);
+        RouteIndex index = RouteIndex.get(servletContext);
+        if (index != null && index.isMetadataComplete()) {
+            // Validated when the index was generated
+            instance.setWebComponents(
+                    getWebComponentMap(filterWebComponents(
+                            index.getWebComponents())));
+            return;
+        }
+        set = RouteIndex.merge(set, index, RouteIndex::getWebComponents);
         if (set == null || set.isEmpty()) {
             instance.setWebComponents(Collections.emptyMap());
             return;
         }
-        Set<? extends Class<? extends Component>> componentSet = set.stream()
-                .filter(Component.class::isAssignableFrom)
-                .filter(webComponent -> webComponent
-                        .isAnnotationPresent(WebComponent.class))
-                .map(clazz -> (Class<? extends Component>) clazz)
-                .collect(Collectors.toSet());
+
+        instance.setWebComponents(validateWebComponents(set));
+    }
+
+    /**
+     * Validates the web components among the given classes.
+     *
+     * @param set
+     *            the classes annotated with {@link WebComponent}, not
+     *            <code>null</code>
+     * @return the web components by their element names
+     */
+    Map<String, Class<? extends Component>> validateWebComponents(
+            Set<Class<?>> set) {
+        Set<? extends Class<? extends Component>> componentSet = filterWebComponents(
+                set);
 
         validateDistinct(componentSet);
         validateComponentName(componentSet);
 
         componentSet.forEach(this::validateMethodsAndProperties);
 
-        Map<String, Class<? extends Component>> webComponentMap = componentSet
-                .stream().collect(Collectors
-                        .toMap(this::getWebComponentName, Function.identity()));
+        return getWebComponentMap(componentSet);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<? extends Class<? extends Component>> filterWebComponents(
+            Set<Class<?>> set) {
+        return set.stream().filter(Component.class::isAssignableFrom)
+                .filter(webComponent -> webComponent
+                        .isAnnotationPresent(WebComponent.class))
+                .map(clazz -> (Class<? extends Component>) clazz)
+                .collect(Collectors.toSet());
+    }
 
-        instance.setWebComponents(webComponentMap);
+    private Map<String, Class<? extends Component>> getWebComponentMap(
+            Set<? extends Class<? extends Component>> componentSet) {
+        return componentSet.stream().collect(Collectors
+                .toMap(this::getWebComponentName, Function.identity()));
     }
 
     /**
@@ -124,6 +124,73 @@ public class JsonConstants implements Serializable {
      */
     public static final String CHANGE_PUT_NODE_VALUE = "nodeValue";
 
+    /**
+     * Compact change type id for an attach change:
+     * {@code [type, node]}.
+     * <p>
+     * A compact change is a JSON array with the change type id and the node id
+     * as the first items, followed by type specific items in a fixed order.
+     */
+    public static final int COMPACT_CHANGE_ATTACH = 0;
+
+    /**
+     * Compact change type id for a detach change: {@code [type, node]}.
+     */
+    public static final int COMPACT_CHANGE_DETACH = 1;
+
+    /**
+     * Compact change type id for populating an empty map feature:
+     * {@code [type, node, feat]}.
+     */
+    public static final int COMPACT_CHANGE_NOOP_MAP = 2;
+
+    /**
+     * Compact change type id for populating an empty list feature:
+     * {@code [type, node, feat]}.
+     */
+    public static final int COMPACT_CHANGE_NOOP_LIST = 3;
+
+    /**
+     * Compact change type id for a put change with a value:
+     * {@code [type, node, feat, key, value]}.
+     */
+    public static final int COMPACT_CHANGE_PUT = 4;
+
+    /**
+     * Compact change type id for a put change with a node value:
+     * {@code [type, node, feat, key, nodeValue]}.
+     */
+    public static final int COMPACT_CHANGE_PUT_NODE = 5;
+
+    /**
+     * Compact change type id for a remove change:
+     * {@code [type, node, feat, key]}.
+     */
+    public static final int COMPACT_CHANGE_REMOVE = 6;
+
+    /**
+     * Compact change type id for a splice change removing items:
+     * {@code [type, node, feat, index, remove]}.
+     */
+    public static final int COMPACT_CHANGE_SPLICE_REMOVE = 7;
+
+    /**
+     * Compact change type id for a splice change adding values:
+     * {@code [type, node, feat, index, [add]]}.
+     */
+    public static final int COMPACT_CHANGE_SPLICE_ADD = 8;
+
+    /**
+     * Compact change type id for a splice change adding nodes:
+     * {@code [type, node, feat, index, [addNodes]]}.
+     */
+    public static final int COMPACT_CHANGE_SPLICE_ADD_NODES = 9;
+
+    /**
+     * Compact change type id for a clear change: {@code [type, node, feat]}.
+     */
+    public static final int COMPACT_CHANGE_CLEAR = 10;
+
     /**
      * Key holding the type in of messages sent from the client.
      */
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.internal.ConstantPool;
+import com.vaadin.flow.internal.ConstantPoolKey;
+import com.vaadin.flow.internal.nodefeature.ElementData;
+
+import elemental.json.JsonObject;
+
+public class StaticFragmentTest {
+
+    private static final StaticFragment FOOTER = StaticFragment.fromHtml(
+            "<footer class='footer' hidden><b>Static</b> <i>text</i></footer>");
+
+    @Test
+    public void fromHtml_rootAndContentParsed() {
+        Assert.assertEquals("footer", FOOTER.getTag());
+        Assert.assertEquals("footer", FOOTER.getAttributes().get("class"));
+        Assert.assertEquals("", FOOTER.getAttributes().get("hidden"));
+        Assert.assertEquals("<b>Static</b> <i>text</i>",
+                FOOTER.getInnerHtml());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromHtml_twoRoots_throws() {
+        StaticFragment.fromHtml("<b></b><div></div>");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromHtml_emptyHtml_throws() {
+        StaticFragment.fromHtml("");
+    }
+
+    @Test
+    public void fromElement_treeCopied() {
+        Element div = new Element("div");
+        div.setAttribute("title", "Help");
+        Element span = new Element("span");
+        span.setText("Some help");
+        div.appendChild(span);
+
+        StaticFragment fragment = StaticFragment.fromElement(div);
+        span.setText("Changed");
+
+        Assert.assertEquals("div", fragment.getTag());
+        Assert.assertEquals("Help", fragment.getAttributes().get("title"));
+        Assert.assertEquals("<span>Some help</span>", fragment.getInnerHtml());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromElement_textNode_throws() {
+        StaticFragment.fromElement(Element.createText("text"));
+    }
+
+    @Test
+    public void create_singleNodeWithSharedContent() {
+        Component first = FOOTER.create();
+        Component second = FOOTER.create();
+
+        Assert.assertNotSame(first, second);
+        Element element = first.getElement();
+        Assert.assertEquals("footer", element.getTag());
+        Assert.assertEquals("footer", element.getAttribute("class"));
+        Assert.assertTrue(element.hasAttribute("hidden"));
+        Assert.assertEquals(0, element.getChildCount());
+        Assert.assertSame(getStaticContent(first),
+                getStaticContent(second));
+        Assert.assertSame(first, element.getComponent().get());
+    }
+
+    @Test
+    public void constantPool_contentSentOncePerUI() {
+        ConstantPoolKey content = getStaticContent(FOOTER.create());
+
+        for (int i = 0; i < 2; i++) {
+            ConstantPool constantPool = new ConstantPool();
+            List<String> ids = new ArrayList<>();
+            ids.add(constantPool.getConstantId(
+                    getStaticContent(FOOTER.create())));
+            ids.add(constantPool.getConstantId(
+                    getStaticContent(FOOTER.create())));
+
+            Assert.assertEquals(content.getId(), ids.get(0));
+            Assert.assertEquals(content.getId(), ids.get(1));
+            JsonObject constants = constantPool.dumpConstants();
+            Assert.assertEquals(1, constants.keys().length);
+            Assert.assertEquals(FOOTER.getInnerHtml(),
+                    constants.getString(content.getId()));
+
+            constantPool.getConstantId(getStaticContent(FOOTER.create()));
+            Assert.assertFalse(constantPool.hasNewConstants());
+        }
+    }
+
+    @Test
+    public void serializedUI_contentRestored() {
+        UI ui = new UI();
+        ui.add(FOOTER.create());
+        ui.getInternals().getConstantPool().getConstantId(
+                getStaticContent(ui.getChildren().findFirst().get()));
+        ui.getInternals().getConstantPool().dumpConstants();
+
+        UI copy = SerializationUtils.roundtrip(ui);
+
+        ConstantPool constantPool = new ConstantPool();
+        constantPool.getConstantId(
+                getStaticContent(copy.getChildren().findFirst().get()));
+        Assert.assertEquals(FOOTER.getInnerHtml(), constantPool
+                .dumpConstants().getString(getStaticContent(FOOTER.create())
+                        .getId()));
+    }
+
+    private static ConstantPoolKey getStaticContent(Component component) {
+        return component.getElement().getNode().getFeature(ElementData.class)
+                .getStaticContent();
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.Composite;
+import com.vaadin.flow.component.Tag;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.i18n.LocaleChangeEvent;
+import com.vaadin.flow.i18n.LocaleChangeObserver;
+import com.vaadin.flow.router.BeforeLeaveEvent;
+import com.vaadin.flow.router.BeforeLeaveObserver;
+import com.vaadin.flow.router.EventUtil;
+
+public class ObserverRegistryTest {
+
+    @Tag(Tag.DIV)
+    public static class LocaleObserver extends Component
+            implements LocaleChangeObserver {
+        @Override
+        public void localeChange(LocaleChangeEvent event) {
+        }
+    }
+
+    public static class LeaveObserver extends Component
+            implements BeforeLeaveObserver {
+        public LeaveObserver(Element element) {
+            super(element);
+        }
+
+        @Override
+        public void beforeLeave(BeforeLeaveEvent event) {
+        }
+    }
+
+    @Tag(Tag.DIV)
+    public static class Plain extends Component {
+    }
+
+    public static class CompositeObserver extends Composite<Plain>
+            implements LocaleChangeObserver {
+        @Override
+        public void localeChange(LocaleChangeEvent event) {
+        }
+    }
+
+    private UI ui;
+    private ObserverRegistry registry;
+
+    @Before
+    public void setUp() {
+        ui = new UI();
+        registry = ui.getInternals().getObserverRegistry();
+    }
+
+    @Test
+    public void attachAndDetach_registryUpdated() {
+        LocaleObserver observer = new LocaleObserver();
+        Element parent = new Element("div");
+        parent.appendChild(observer.getElement(), new Element("span"));
+        Assert.assertEquals(0, registry.size());
+
+        ui.getElement().appendChild(parent);
+        Assert.assertEquals(1, registry.size());
+
+        ui.getElement().removeAllChildren();
+        Assert.assertEquals(0, registry.size());
+        Assert.assertEquals(0,
+                EventUtil.collectLocaleChangeObservers(ui.getElement()).size());
+    }
+
+    @Test
+    public void componentMappedAfterAttach_registryUpdated() {
+        Element element = new Element("div");
+        ui.getElement().appendChild(element);
+        Assert.assertEquals(0, registry.size());
+
+        LeaveObserver observer = new LeaveObserver(element);
+
+        Assert.assertEquals(1, registry.size());
+        Assert.assertSame(observer,
+                EventUtil.collectBeforeLeaveObservers(ui).get(0));
+        Assert.assertEquals(0,
+                EventUtil.collectLocaleChangeObservers(ui.getElement()).size());
+    }
+
+    @Test
+    public void composite_onlyCompositeIsObserver() {
+        CompositeObserver composite = new CompositeObserver();
+        ui.add(composite);
+
+        Assert.assertEquals(1, registry.size());
+        Assert.assertEquals(1,
+                EventUtil.collectLocaleChangeObservers(ui.getElement()).size());
+
+        ui.remove(composite);
+        Assert.assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void getObservers_sameOrderAsVisitingTree() {
+        Element root = new Element("div");
+        root.appendChild(new LocaleObserver().getElement());
+
+        Element parent = new LocaleObserver().getElement();
+        parent.appendChild(new LocaleObserver().getElement(),
+                new Element("span"));
+        parent.appendVirtualChild(new LocaleObserver().getElement());
+        parent.attachShadow().appendChild(new LocaleObserver().getElement());
+        parent.appendChild(new LocaleObserver().getElement());
+        root.appendChild(parent);
+
+        root.appendVirtualChild(new LocaleObserver().getElement());
+        root.appendChild(new LocaleObserver().getElement());
+        // Inserted before the other children
+        root.insertChild(0, new LocaleObserver().getElement());
+
+        ui.getElement().appendChild(new Element("span"), root);
+
+        List<Element> elements = new ArrayList<>();
+        EventUtil.inspectHierarchy(ui.getElement(), elements, item -> true);
+        List<LocaleChangeObserver> expected = EventUtil
+                .getImplementingComponents(elements.stream(),
+                        LocaleChangeObserver.class)
+                .collect(Collectors.toList());
+
+        Assert.assertEquals(9, expected.size());
+        Assert.assertEquals(expected,
+                EventUtil.collectLocaleChangeObservers(ui.getElement()));
+        // The parent, its children, virtual child and shadow root child
+        Assert.assertEquals(expected.subList(2, 7),
+                EventUtil.collectLocaleChangeObservers(parent));
+    }
+
+    @Test
+    public void getObservers_recursionPredicate_excludedSubtreesSkipped() {
+        Element excluded = new LocaleObserver().getElement();
+        excluded.appendChild(new LocaleObserver().getElement());
+        LocaleObserver included = new LocaleObserver();
+        ui.getElement().appendChild(excluded, included.getElement());
+
+        List<LocaleChangeObserver> observers = registry.getObservers(
+                ui.getElement(), element -> !element.equals(excluded),
+                LocaleChangeObserver.class);
+
+        Assert.assertEquals(1, observers.size());
+        Assert.assertSame(included, observers.get(0));
+    }
+
+    @Test
+    public void getObservers_largeTree_onlyObserverAncestorsVisited() {
+        for (int i = 0; i < 200; i++) {
+            Element row = new Element("div");
+            for (int j = 0; j < 100; j++) {
+                row.appendChild(new Element("span"));
+            }
+            ui.getElement().appendChild(row);
+        }
+        LocaleObserver observer = new LocaleObserver();
+        ui.getElement().getChild(150).getChild(50)
+                .appendChild(observer.getElement());
+
+        AtomicInteger tested = new AtomicInteger();
+        List<LocaleChangeObserver> observers = registry.getObservers(
+                ui.getElement(), element -> tested.incrementAndGet() > 0,
+                LocaleChangeObserver.class);
+
+        Assert.assertEquals(1, observers.size());
+        Assert.assertSame(observer, observers.get(0));
+        // The observer and its three ancestors instead of 20201 elements
+        Assert.assertEquals(4, tested.get());
+    }
+}
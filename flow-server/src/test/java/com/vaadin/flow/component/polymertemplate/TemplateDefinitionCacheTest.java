@@ -0,0 +1,182 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.polymertemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jsoup.nodes.Element;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TemplateDefinitionCacheTest {
+
+    private static final String BUNDLE = "<dom-module id='foo'><!-- comment --><div></div></dom-module>"
+            + "<dom-module id='bar'></dom-module>";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final AtomicInteger reads = new AtomicInteger();
+
+    @Test
+    public void productionMode_severalModulesInFile_fileIsParsedOnce() {
+        TemplateDefinitionCache cache = new TemplateDefinitionCache(
+                this::readBundle, path -> null, true);
+
+        Assert.assertTrue(cache.getDomModule("/bundle.html", "foo").isPresent());
+        Assert.assertTrue(cache.getDomModule("/bundle.html", "bar").isPresent());
+        Assert.assertFalse(cache.getDomModule("/bundle.html", "baz").isPresent());
+
+        Assert.assertEquals(1, reads.get());
+        Assert.assertEquals(1, cache.getParseCount());
+        Assert.assertEquals(2, cache.getHitCount());
+    }
+
+    @Test
+    public void getDomModule_commentsAreRemoved_returnsCopy() {
+        TemplateDefinitionCache cache = new TemplateDefinitionCache(
+                this::readBundle, path -> null, true);
+
+        Element element = cache.getDomModule("/bundle.html", "foo").get();
+        Assert.assertEquals("<div></div>", element.html());
+
+        element.empty();
+        Assert.assertEquals(1, cache.getDomModule("/bundle.html", "foo").get()
+                .childNodeSize());
+    }
+
+    @Test
+    public void developmentMode_noTimestamp_fileIsParsedOnEachLookup() {
+        TemplateDefinitionCache cache = new TemplateDefinitionCache(
+                this::readBundle, path -> null, false);
+
+        cache.getDomModule("/bundle.html", "foo");
+        cache.getDomModule("/bundle.html", "bar");
+
+        Assert.assertEquals(2, reads.get());
+        Assert.assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    public void developmentMode_fileIsModified_fileIsParsedAgain()
+            throws IOException {
+        File file = temporaryFolder.newFile("bundle.html");
+        Files.write(file.toPath(), BUNDLE.getBytes(StandardCharsets.UTF_8));
+        file.setLastModified(10000);
+
+        TemplateDefinitionCache cache = new TemplateDefinitionCache(
+                path -> open(file), path -> toUrl(file), false);
+
+        Assert.assertTrue(cache.getDomModule("/bundle.html", "foo").isPresent());
+        Assert.assertTrue(cache.getDomModule("/bundle.html", "bar").isPresent());
+        Assert.assertEquals(1, cache.getParseCount());
+
+        Files.write(file.toPath(), "<dom-module id='baz'></dom-module>"
+                .getBytes(StandardCharsets.UTF_8));
+        file.setLastModified(20000);
+
+        Assert.assertFalse(cache.getDomModule("/bundle.html", "foo").isPresent());
+        Assert.assertTrue(cache.getDomModule("/bundle.html", "baz").isPresent());
+        Assert.assertEquals(2, cache.getParseCount());
+    }
+
+    @Test
+    public void developmentMode_fileInJar_fileIsParsedOnceAndNotChecked()
+            throws MalformedURLException {
+        URL url = new URL("jar:file:/foo.jar!/frontend/bundle.html");
+        AtomicInteger urlLookups = new AtomicInteger();
+        TemplateDefinitionCache cache = new TemplateDefinitionCache(
+                this::readBundle, path -> {
+                    urlLookups.incrementAndGet();
+                    return url;
+                }, false);
+
+        Assert.assertTrue(cache.getDomModule("/bundle.html", "foo").isPresent());
+        Assert.assertTrue(cache.getDomModule("/bundle.html", "bar").isPresent());
+        Assert.assertTrue(cache.getDomModule("/bundle.html", "foo").isPresent());
+
+        Assert.assertEquals(1, reads.get());
+        Assert.assertEquals(1, urlLookups.get());
+        Assert.assertEquals(2, cache.getHitCount());
+    }
+
+    @Test
+    public void productionMode_browserVariants_parsedSeparately() {
+        TemplateDefinitionCache cache = new TemplateDefinitionCache(
+                path -> new ByteArrayInputStream(("<dom-module id='foo'>"
+                        + path + "</dom-module>")
+                                .getBytes(StandardCharsets.UTF_8)),
+                path -> null, true);
+
+        Assert.assertEquals("/frontend-es6/foo.html", cache
+                .getDomModule("/frontend-es6/foo.html", "foo").get().html());
+        Assert.assertEquals("/frontend-es5/foo.html", cache
+                .getDomModule("/frontend-es5/foo.html", "foo").get().html());
+        Assert.assertEquals(2, cache.getParseCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void getDomModule_noResource_throws() {
+        new TemplateDefinitionCache(path -> null, path -> null, true)
+                .getDomModule("/bundle.html", "foo");
+    }
+
+    @Test
+    public void clear_fileIsParsedAgain() {
+        TemplateDefinitionCache cache = new TemplateDefinitionCache(
+                this::readBundle, path -> null, true);
+
+        cache.getDomModule("/bundle.html", "foo");
+        cache.clear();
+        cache.getDomModule("/bundle.html", "foo");
+
+        Assert.assertEquals(2, reads.get());
+    }
+
+    private InputStream readBundle(String path) {
+        reads.incrementAndGet();
+        return new ByteArrayInputStream(
+                BUNDLE.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static InputStream open(File file) {
+        try {
+            return new FileInputStream(file);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static URL toUrl(File file) {
+        try {
+            return file.toURI().toURL();
+        } catch (MalformedURLException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+}
@@ -35,6 +35,7 @@ import com.vaadin.flow.internal.StateNode;
 import com.vaadin.flow.internal.change.ListAddChange;
 import com.vaadin.flow.internal.nodefeature.ComponentMapping;
 import com.vaadin.flow.internal.nodefeature.ElementAttributeMap;
+import com.vaadin.flow.internal.nodefeature.ElementClassList;
 import com.vaadin.flow.internal.nodefeature.ElementListenerMap;
 import com.vaadin.flow.internal.nodefeature.ElementListenersTest;
 import com.vaadin.flow.internal.nodefeature.ElementPropertyMap;
@@ -2366,6 +2367,48 @@ public class ElementTest extends AbstractNodeTest {
                         .isPresent());
     }
 
+    @Test
+    public void readMissingClassName_noFeatureInitialized() {
+        Element element = ElementFactory.createDiv();
+
+        element.getClassList().contains("foo");
+        element.getClassList().remove("foo");
+        element.getClassList().size();
+        element.getClassList().clear();
+        element.getAttribute("class");
+        element.hasAttribute("class");
+
+        Assert.assertFalse(
+                "reading the class list shouldn't initialize a class list feature",
+                element.getNode()
+                        .getFeatureIfInitialized(ElementClassList.class)
+                        .isPresent());
+
+        element.getClassList().add("foo");
+        Assert.assertEquals("foo", element.getAttribute("class"));
+    }
+
+    @Test
+    public void readMissingStyle_noFeatureInitialized() {
+        Element element = ElementFactory.createDiv();
+
+        element.getStyle().get("color");
+        element.getStyle().has("color");
+        element.getStyle().remove("color");
+        element.getStyle().getNames().collect(Collectors.toList());
+        element.getStyle().clear();
+        element.getAttribute("style");
+
+        Assert.assertFalse(
+                "reading the style shouldn't initialize a style feature",
+                element.getNode()
+                        .getFeatureIfInitialized(ElementStylePropertyMap.class)
+                        .isPresent());
+
+        element.getStyle().set("color", "red");
+        Assert.assertEquals("red", element.getStyle().get("color"));
+    }
+
     public void syncProperty_delegateTo3ArgsMethod() {
         Element element = Mockito.mock(Element.class);
 
@@ -39,6 +39,30 @@ public class ElementUtilTest {
         ElementUtil.isValidAttributeName("FOO");
     }
 
+    @Test
+    public void isValidTagName() {
+        Assert.assertTrue(ElementUtil.isValidTagName("div"));
+        Assert.assertTrue(ElementUtil.isValidTagName("H1"));
+        Assert.assertTrue(ElementUtil.isValidTagName("vaadin-grid"));
+        Assert.assertFalse(ElementUtil.isValidTagName(null));
+        Assert.assertFalse(ElementUtil.isValidTagName(""));
+        Assert.assertFalse(ElementUtil.isValidTagName("my tag"));
+        Assert.assertFalse(ElementUtil.isValidTagName("<div>"));
+        Assert.assertFalse(ElementUtil.isValidTagName("my_tag"));
+        Assert.assertFalse(ElementUtil.isValidTagName("\u00e4"));
+    }
+
+    @Test
+    public void isValidStylePropertyName_cachedResultsMatchValidation() {
+        for (int i = 0; i < 2; i++) {
+            Assert.assertTrue(ElementUtil.isValidStylePropertyName("width"));
+            Assert.assertFalse(ElementUtil.isValidStylePropertyName(" width"));
+            Assert.assertFalse(ElementUtil.isValidStylePropertyName("a:b"));
+            Assert.assertFalse(ElementUtil.isValidStylePropertyName(""));
+            Assert.assertFalse(ElementUtil.isValidStylePropertyName(null));
+        }
+    }
+
     @Test
     public void componentNotInitiallyAttached() {
         Element e = ElementFactory.createDiv();
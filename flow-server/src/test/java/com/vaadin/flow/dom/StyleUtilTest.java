@@ -56,4 +56,22 @@ public class StyleUtilTest {
         });
     }
 
+    @Test
+    public void propertyToAttribute_sameInstanceForEqualNames() {
+        String attribute = StyleUtil
+                .stylePropertyToAttribute(new String("backgroundColor"));
+        Assert.assertSame(attribute, StyleUtil
+                .stylePropertyToAttribute(new String("backgroundColor")));
+        Assert.assertSame(
+                StyleUtil.styleAttributeToProperty(new String("font-size")),
+                StyleUtil.styleAttributeToProperty(new String("font-size")));
+    }
+
+    @Test
+    public void propertyToAttribute_moreNamesThanCached_convertedCorrectly() {
+        for (int i = 0; i < NameCache.MAX_SIZE + 10; i++) {
+            Assert.assertEquals("custom-name" + i,
+                    StyleUtil.stylePropertyToAttribute("customName" + i));
+        }
+    }
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.dom.impl;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StyleAttributeHandlerTest {
+
+    private static final List<String> STYLES = Arrays.asList("width:100px",
+            "width: 100px;", " width : 100px ; height:2em ", "color:red",
+            "color: RED", "color:#FFF", "color:#a_b", "background:#-abc",
+            "border: 1px solid #ccc", "margin: 0 10px 5px", "margin:0px",
+            "margin:00px", "margin:0.0px", "margin:-0px", "margin:.0px",
+            "margin:+0px", "margin:0%", "width:50%", "width:-12%",
+            "opacity:.5", "opacity:0.50", "width:5.px", "width:1.a",
+            "width:1e3px", "width:1E3px", "width:100PX", "width:1x",
+            "width:1e", "width:1ex", "transition: opacity 0.3s, width 2s",
+            "font-family: Arial , Helvetica,sans-serif", "font:12px/1.5 a",
+            "font-family: 'Open Sans'", "width: calc(100% - 80px)",
+            "color: rgb(255, 0, 0)", "width:1px !important", "width:",
+            "width", "color:red;width", ";", ":red", "", "   ",
+            ";;width:1px;;", "width:12em height:2em", "WIDTH:1px",
+            "--my-var: 1px", "--My-Var:1px", "-webkit-user-select:none",
+            "*zoom:1", "_height:1px", "-w:1px", "w-:1px", "m-1:1px",
+            "---a:1px", "-:1px", "w:-", "w:--", "w:--x", "w:-a", "w:_a",
+            "w:a_b", "w:a-1", "w:+-1", "w:,x", "w:x,", "w:a,,b", "w:a , b",
+            "w:1px,", "w:\ta\n b\f", "color:red;color:blue;width:1px",
+            "w:10px20px", "w:1px-2px", "w:#", "w:a\\62", "w:/*x*/1px",
+            "w:\u00e4", "color:red ;; width : 2px");
+
+    private static final String[] PROPERTIES = { "width", "border-top",
+            "-webkit-a", "--x", "-", "W", "_a", "a b", "" };
+
+    private static final String[] VALUES = { "0", "00", "0.5", ".5", "5.",
+            "-1", "+1", "0px", "1px", "1PX", "2em", "1e3", "50%", "0%", "3x",
+            "#", "#fff", "red", "RED", "-a", "--y", "_", "a_b", "!important",
+            "f(1)", "'a'", ":" };
+
+    private static final String[] SEPARATORS = { " ", "  ", "\t", ",", " , ",
+            "" };
+
+    @Test
+    public void parseSimpleStyles_sameResultAsCssParser() {
+        STYLES.forEach(StyleAttributeHandlerTest::assertSameResult);
+    }
+
+    @Test
+    public void parseSimpleStyles_generatedStrings_sameResultAsCssParser() {
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder style = new StringBuilder();
+            int declarations = 1 + random.nextInt(3);
+            for (int j = 0; j < declarations; j++) {
+                style.append(pick(random, PROPERTIES)).append(':');
+                int values = 1 + random.nextInt(3);
+                for (int k = 0; k < values; k++) {
+                    if (k > 0) {
+                        style.append(pick(random, SEPARATORS));
+                    }
+                    style.append(pick(random, VALUES));
+                }
+                style.append(random.nextBoolean() ? ";" : " ; ");
+            }
+            assertSameResult(style.toString());
+        }
+    }
+
+    @Test
+    public void parseSimpleStyles_commonStyles_parsedWithoutCssParser() {
+        Assert.assertEquals(
+                "{width=100px, borderTop=1px solid #ccc, webkitUserSelect=none}",
+                String.valueOf(StyleAttributeHandler.parseSimpleStyles(
+                        "width:100px; border-top: 1px  solid #ccc;"
+                                + "-webkit-user-select:none")));
+        Assert.assertEquals("{fontFamily=Arial,sans-serif, opacity=.5}",
+                String.valueOf(StyleAttributeHandler.parseSimpleStyles(
+                        "font-family: Arial , sans-serif; opacity: .5")));
+    }
+
+    @Test
+    public void parseSimpleStyles_complexStyles_notParsed() {
+        Assert.assertNull(StyleAttributeHandler
+                .parseSimpleStyles("width: calc(100% - 80px)"));
+        Assert.assertNull(StyleAttributeHandler
+                .parseSimpleStyles("font-family: 'Open Sans'"));
+        Assert.assertNull(
+                StyleAttributeHandler.parseSimpleStyles("margin: 0px"));
+        Assert.assertNull(StyleAttributeHandler.parseSimpleStyles("width:"));
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static void assertSameResult(String style) {
+        LinkedHashMap<String, String> simple = StyleAttributeHandler
+                .parseSimpleStyles(style);
+        if (simple == null) {
+            return;
+        }
+        LinkedHashMap<String, String> parsed;
+        try {
+            parsed = StyleAttributeHandler.parseStylesWithCssParser(style);
+        } catch (IllegalArgumentException e) {
+            Assert.fail("Parsed '" + style + "' as " + simple
+                    + " but the CSS parser rejects it");
+            return;
+        }
+        Assert.assertEquals("Different result for '" + style + "'",
+                parsed.toString(), simple.toString());
+    }
+}
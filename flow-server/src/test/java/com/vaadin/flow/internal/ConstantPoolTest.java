@@ -74,4 +74,71 @@ public class ConstantPoolTest {
         Assert.assertNotEquals(constantId, otherId);
         Assert.assertTrue(constantPool.hasNewConstants());
     }
+
+    @Test
+    public void sameKeyRegisteredTwice_valueExported() {
+        ConstantPoolKey reference = new ConstantPoolKey(Json.createObject());
+
+        String constantId = constantPool.getConstantId(reference);
+        constantPool.getConstantId(reference);
+
+        JsonObject dump = constantPool.dumpConstants();
+        Assert.assertEquals("{}", dump.get(constantId).toJson());
+    }
+
+    @Test
+    public void duplicateKey_valueDiscarded() {
+        JsonObject value = Json.createObject();
+        value.put("foo", "bar");
+        ConstantPoolKey reference = new ConstantPoolKey(value);
+        ConstantPoolKey duplicate = new ConstantPoolKey(value);
+        long sizeWithValue = SerializationUtil.getSerializedSize(duplicate);
+
+        constantPool.getConstantId(reference);
+        constantPool.getConstantId(duplicate);
+
+        Assert.assertTrue(SerializationUtil
+                .getSerializedSize(duplicate) < sizeWithValue);
+        Assert.assertEquals(1, constantPool.dumpConstants().keys().length);
+    }
+
+    @Test
+    public void repeatedConstantId_registeredFromSecondUse() {
+        Assert.assertNull(constantPool.getRepeatedConstantId(
+                new ConstantPoolKey(Json.create("foo"))));
+        Assert.assertFalse(constantPool.hasNewConstants());
+
+        String constantId = constantPool.getRepeatedConstantId(
+                new ConstantPoolKey(Json.create("foo")));
+        Assert.assertNotNull(constantId);
+        Assert.assertEquals("\"foo\"",
+                constantPool.dumpConstants().get(constantId).toJson());
+
+        Assert.assertEquals(constantId, constantPool.getRepeatedConstantId(
+                new ConstantPoolKey(Json.create("foo"))));
+        Assert.assertFalse(constantPool.hasNewConstants());
+    }
+
+    @Test
+    public void repeatedConstantId_alreadyRegistered_sameId() {
+        String constantId = constantPool
+                .getConstantId(new ConstantPoolKey(Json.create("foo")));
+
+        Assert.assertEquals(constantId, constantPool.getRepeatedConstantId(
+                new ConstantPoolKey(Json.create("foo"))));
+    }
+
+    @Test
+    public void repeatedConstantId_manyValuesSeenOnce_oldestForgotten() {
+        constantPool.getRepeatedConstantId(
+                new ConstantPoolKey(Json.create("first")));
+        for (int i = 0; i < ConstantPool.MAX_SEEN_ONCE; i++) {
+            Assert.assertNull(constantPool.getRepeatedConstantId(
+                    new ConstantPoolKey(Json.create(i))));
+        }
+
+        Assert.assertNull(constantPool.getRepeatedConstantId(
+                new ConstantPoolKey(Json.create("first"))));
+        Assert.assertFalse(constantPool.hasNewConstants());
+    }
 }
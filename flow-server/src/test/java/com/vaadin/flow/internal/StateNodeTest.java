@@ -39,6 +39,8 @@ import org.junit.Test;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.dom.Element;
 import com.vaadin.flow.dom.ElementFactory;
+import com.vaadin.flow.internal.change.EmptyChange;
+import com.vaadin.flow.internal.change.ListAddChange;
 import com.vaadin.flow.internal.change.MapPutChange;
 import com.vaadin.flow.internal.change.NodeAttachChange;
 import com.vaadin.flow.internal.change.NodeChange;
@@ -51,6 +53,8 @@ import com.vaadin.flow.internal.nodefeature.ElementPropertyMap;
 import com.vaadin.flow.internal.nodefeature.NodeFeature;
 import com.vaadin.flow.shared.Registration;
 
+import elemental.json.JsonObject;
+
 public class StateNodeTest {
 
     private static class TestStateNode extends StateNode {
@@ -481,6 +485,83 @@ public class StateNodeTest {
         return stateTree;
     }
 
+    @Test
+    public void removeFromTree_nodeAttachedToAnotherTree() {
+        StateTree tree = createStateTree();
+        StateNode parent = createParentNode("parent");
+        StateNode child = createEmptyNode();
+        setParent(child, parent);
+        setParent(parent, tree.getRootNode());
+        int childId = child.getId();
+
+        setParent(parent, null);
+        parent.removeFromTree();
+        Assert.assertEquals(NullOwner.get(), child.getOwner());
+        Assert.assertEquals(-1, child.getId());
+
+        StateTree anotherTree = createStateTree();
+        setParent(parent, anotherTree.getRootNode());
+        Assert.assertEquals(anotherTree, child.getOwner());
+        Assert.assertSame(child, anotherTree.getNodeById(child.getId()));
+        Assert.assertNull(tree.getNodeById(childId));
+
+        // The old tree doesn't collect changes of the moved nodes
+        List<NodeChange> changes = new ArrayList<>();
+        tree.collectChanges(changes::add);
+        Assert.assertFalse(changes.stream()
+                .anyMatch(change -> change.getNode() == child));
+        anotherTree.collectChanges(changes::add);
+        Assert.assertTrue(changes.stream()
+                .anyMatch(change -> change instanceof NodeAttachChange
+                        && change.getNode() == child));
+    }
+
+    @Test
+    public void removeFromTree_listenerSettingsSentToNewTree() {
+        UI ui = new UI();
+        Element first = new Element("div");
+        Element second = new Element("div");
+        // Equal settings, so the constant of the second one is a duplicate
+        first.addEventListener("click", event -> {
+        });
+        second.addEventListener("click", event -> {
+        });
+        ui.getElement().appendChild(first, second);
+        JsonObject constants = flush(ui);
+        Assert.assertEquals(1, constants.keys().length);
+
+        for (Element element : Arrays.asList(first, second)) {
+            element.removeFromParent();
+            element.getNode().removeFromTree();
+
+            UI anotherUI = new UI();
+            anotherUI.getElement().appendChild(element);
+            JsonObject anotherConstants = flush(anotherUI);
+
+            Assert.assertArrayEquals(constants.keys(),
+                    anotherConstants.keys());
+            String id = constants.keys()[0];
+            Assert.assertEquals(constants.get(id).toJson(),
+                    anotherConstants.get(id).toJson());
+        }
+    }
+
+    private static JsonObject flush(UI ui) {
+        ConstantPool constantPool = ui.getInternals().getConstantPool();
+        ui.getInternals().getStateTree()
+                .collectChanges(change -> change.toJson(constantPool));
+        return constantPool.dumpConstants();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void removeFromTree_attachedNode_throws() {
+        StateTree tree = createStateTree();
+        StateNode node = createEmptyNode();
+        setParent(node, tree.getRootNode());
+
+        node.removeFromTree();
+    }
+
     @Test
     public void runWhenAttachedNodeNotAttached() {
         StateTree tree = createStateTree();
@@ -551,6 +632,130 @@ public class StateNodeTest {
                 stateNode.isReportedFeature(ElementAttributeMap.class));
     }
 
+    @Test
+    public void reportedFeatures_notCreatedButReportedOnAttach() {
+        StateNode stateNode = new StateNode(
+                Arrays.asList(ElementClassList.class, ElementPropertyMap.class),
+                ElementAttributeMap.class);
+        stateNode.getFeature(ElementPropertyMap.class).setProperty("foo",
+                "bar");
+
+        Assert.assertFalse(stateNode
+                .getFeatureIfInitialized(ElementClassList.class).isPresent());
+
+        StateTree tree = createStateTree();
+        tree.getRootNode().getFeature(ElementChildrenList.class).add(0,
+                stateNode);
+        List<NodeChange> changes = new ArrayList<>();
+        stateNode.collectChanges(changes::add);
+
+        Assert.assertEquals(3, changes.size());
+        Assert.assertThat(changes.get(0),
+                CoreMatchers.instanceOf(NodeAttachChange.class));
+        EmptyChange emptyChange = (EmptyChange) changes.get(1);
+        Assert.assertEquals(ElementClassList.class, emptyChange.getFeature());
+        Assert.assertThat(changes.get(2),
+                CoreMatchers.instanceOf(MapPutChange.class));
+        Assert.assertFalse(stateNode
+                .getFeatureIfInitialized(ElementClassList.class).isPresent());
+    }
+
+    @Test
+    public void changeTrackers_trackedPerFeatureAndClearedWhenCollected() {
+        StateNode stateNode = new StateNode(ElementAttributeMap.class,
+                ElementPropertyMap.class, ElementClassList.class);
+        ElementPropertyMap properties = stateNode
+                .getFeature(ElementPropertyMap.class);
+        ElementClassList classList = stateNode
+                .getFeature(ElementClassList.class);
+
+        List<String> tracker = stateNode.getChangeTracker(classList,
+                ArrayList::new);
+        Assert.assertSame(tracker,
+                stateNode.getChangeTracker(classList, ArrayList::new));
+        Assert.assertNotSame(tracker,
+                stateNode.getChangeTracker(properties, ArrayList::new));
+        Assert.assertNull(
+                stateNode.getChangeTracker(stateNode.getFeature(
+                        ElementAttributeMap.class), () -> null));
+
+        stateNode.clearChanges();
+
+        Assert.assertNotSame(tracker,
+                stateNode.getChangeTracker(classList, ArrayList::new));
+    }
+
+    @Test
+    public void detachedSubtree_descendantChangesNotTrackedButSentOnAttach() {
+        UI ui = new UI();
+        Element table = new Element("table");
+        Element row = new Element("tr");
+        table.appendChild(row);
+        row.setAttribute("title", "first");
+        row.appendChild(new Element("td"));
+
+        Assert.assertTrue(table.getNode().isTrackingChanges());
+        Assert.assertFalse(row.getNode().isTrackingChanges());
+
+        ui.getElement().appendChild(table);
+        Assert.assertTrue(row.getNode().isTrackingChanges());
+
+        List<NodeChange> changes = new ArrayList<>();
+        ui.getInternals().getStateTree().collectChanges(changes::add);
+
+        Assert.assertTrue(changes.stream()
+                .filter(change -> change.getNode() == row.getNode())
+                .anyMatch(change -> change instanceof MapPutChange
+                        && "title".equals(((MapPutChange) change).getKey())));
+        Assert.assertTrue(changes.stream()
+                .filter(change -> change.getNode() == row.getNode())
+                .anyMatch(change -> change instanceof ListAddChange<?>));
+    }
+
+    @Test
+    public void detachedAfterAttach_changesTracked() {
+        UI ui = new UI();
+        Element table = new Element("table");
+        Element row = new Element("tr");
+        table.appendChild(row);
+        ui.getElement().appendChild(table);
+        ui.getInternals().getStateTree().collectChanges(change -> {
+        });
+
+        table.removeFromParent();
+
+        Assert.assertTrue(row.getNode().isTrackingChanges());
+    }
+
+    @Test
+    public void appendRowsToAttachedTable_addsCombinedIntoOneChange() {
+        UI ui = new UI();
+        Element table = new Element("table");
+        ui.getElement().appendChild(table);
+        ui.getInternals().getStateTree().collectChanges(change -> {
+        });
+
+        for (int i = 0; i < 1000; i++) {
+            Element row = new Element("tr");
+            for (int j = 0; j < 5; j++) {
+                row.appendChild(new Element("td").setText(i + "," + j));
+            }
+            table.appendChild(row);
+        }
+
+        List<NodeChange> tableChanges = new ArrayList<>();
+        ui.getInternals().getStateTree().collectChanges(change -> {
+            if (change.getNode() == table.getNode()) {
+                tableChanges.add(change);
+            }
+        });
+
+        Assert.assertEquals(1, tableChanges.size());
+        ListAddChange<?> add = (ListAddChange<?>) tableChanges.get(0);
+        Assert.assertEquals(0, add.getIndex());
+        Assert.assertEquals(1000, add.getNewItems().size());
+    }
+
     @Test
     public void collectChanges_initiallyActiveElement_sendOnlyDisalowFeatureChangesWhenInactive() {
         StateNode stateNode = createTestNode("Active node",
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.dom.DomEvent;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.internal.nodefeature.ElementAttributeMap;
+import com.vaadin.flow.internal.nodefeature.ElementChildrenList;
+import com.vaadin.flow.internal.nodefeature.ElementListenerMap;
+import com.vaadin.flow.internal.nodefeature.ElementPropertyMap;
+
+import elemental.json.Json;
+
+public class StateTreeSerializationTest {
+
+    private static final int ELEMENTS = 1000;
+
+    /*
+     * Size per element of the fixture when the nodes, maps and lists were
+     * serialized using the default serialization of all their fields.
+     */
+    private static final int DEFAULT_SERIALIZATION_BYTES_PER_ELEMENT = 443;
+
+    private static final AtomicInteger firedEvents = new AtomicInteger();
+
+    private static UI createUI() {
+        UI ui = new UI();
+        for (int i = 0; i < ELEMENTS; i++) {
+            Element div = new Element("div");
+            div.setAttribute("title", "title" + i);
+            div.setProperty("value", i);
+            div.getStyle().set("color", i % 2 == 0 ? "red" : "blue");
+            div.setText("Text " + i);
+            div.addEventListener("click",
+                    event -> firedEvents.incrementAndGet());
+            ui.getElement().appendChild(div);
+        }
+        return ui;
+    }
+
+    @Test
+    public void roundTrip_elementTreePreserved() {
+        UI ui = createUI();
+        ui.getElement().getChild(1).removeAttribute("title");
+        ui.getElement().getChild(2).setEnabled(false);
+        ui.getElement().getChild(3).removeAllChildren();
+        collectChanges(ui);
+
+        UI copy = SerializationUtils.roundtrip(ui);
+
+        Assert.assertEquals(ELEMENTS, copy.getElement().getChildCount());
+        for (int i = 0; i < ELEMENTS; i++) {
+            Element original = ui.getElement().getChild(i);
+            Element element = copy.getElement().getChild(i);
+            Assert.assertEquals(original.getNode().getId(),
+                    element.getNode().getId());
+            Assert.assertEquals(original.getTag(), element.getTag());
+            Assert.assertEquals(original.getAttribute("title"),
+                    element.getAttribute("title"));
+            Assert.assertEquals(original.getProperty("value"),
+                    element.getProperty("value"));
+            Assert.assertEquals(original.getStyle().get("color"),
+                    element.getStyle().get("color"));
+            Assert.assertEquals(original.getText(), element.getText());
+            Assert.assertEquals(original.isEnabled(), element.isEnabled());
+            Assert.assertTrue(element.getNode().isAttached());
+            Assert.assertSame(element.getNode(), copy.getInternals()
+                    .getStateTree().getNodeById(element.getNode().getId()));
+        }
+        Assert.assertFalse(copy.getElement().getChild(1).hasAttribute("title"));
+        Assert.assertEquals(0, copy.getElement().getChild(3).getChildCount());
+        Assert.assertFalse(copy.getInternals().getStateTree().isDirty());
+    }
+
+    @Test
+    public void roundTrip_listenersAndNewNodeIdsWork() {
+        UI ui = createUI();
+        collectChanges(ui);
+
+        UI copy = SerializationUtils.roundtrip(ui);
+
+        firedEvents.set(0);
+        Element element = copy.getElement().getChild(5);
+        element.getNode().getFeature(ElementListenerMap.class).fireEvent(
+                new DomEvent(element, "click", Json.createObject()));
+        Assert.assertEquals(1, firedEvents.get());
+
+        Element added = new Element("span");
+        copy.getElement().appendChild(added);
+        Assert.assertTrue(added.getNode().getId() > ui.getElement()
+                .getChild(ELEMENTS - 1).getNode().getId());
+    }
+
+    @Test
+    public void roundTrip_pendingChangesPreserved() {
+        UI ui = createUI();
+        ui.getElement().getChild(1).setAttribute("title", "changed");
+
+        UI copy = SerializationUtils.roundtrip(ui);
+
+        Assert.assertEquals(collectChanges(ui), collectChanges(copy));
+    }
+
+    @Test
+    public void roundTrip_emptyAndSingleValuedFeatures() {
+        StateNode node = new StateNode(ElementAttributeMap.class,
+                ElementPropertyMap.class, ElementChildrenList.class);
+        node.getFeature(ElementAttributeMap.class).set("foo", "bar");
+        ElementPropertyMap properties = node
+                .getFeature(ElementPropertyMap.class);
+        properties.setProperty("a", "1");
+        properties.setProperty("b", "2");
+        properties.setProperty("c", "3");
+        properties.removeProperty("b");
+        ElementChildrenList children = node
+                .getFeature(ElementChildrenList.class);
+        children.add(0, new StateNode(ElementAttributeMap.class));
+        children.remove(0);
+
+        StateNode copy = SerializationUtils.roundtrip(node);
+
+        Assert.assertEquals("bar", copy.getFeature(ElementAttributeMap.class)
+                .get("foo"));
+        ElementPropertyMap copiedProperties = copy
+                .getFeature(ElementPropertyMap.class);
+        Assert.assertEquals("1", copiedProperties.getProperty("a"));
+        Assert.assertFalse(copiedProperties.hasProperty("b"));
+        Assert.assertEquals("3", copiedProperties.getProperty("c"));
+        Assert.assertEquals(0,
+                copy.getFeature(ElementChildrenList.class).size());
+        Assert.assertSame(copy, copiedProperties.getNode());
+    }
+
+    @Test
+    public void serializedSize_smallerThanDefaultSerialization() {
+        UI ui = createUI();
+        collectChanges(ui);
+
+        long size = SerializationUtil.getSerializedSize(ui);
+        long bytesPerElement = size / ELEMENTS;
+
+        Assert.assertTrue("Expected clearly less than "
+                + DEFAULT_SERIALIZATION_BYTES_PER_ELEMENT
+                + " bytes per element, got " + bytesPerElement,
+                bytesPerElement < DEFAULT_SERIALIZATION_BYTES_PER_ELEMENT
+                        * 95 / 100);
+    }
+
+    private static List<String> collectChanges(UI ui) {
+        ConstantPool constantPool = ui.getInternals().getConstantPool();
+        List<String> changes = new ArrayList<>();
+        ui.getInternals().getStateTree().collectChanges(
+                change -> changes.add(change.toJson(constantPool).toJson()));
+        constantPool.dumpConstants();
+        // Map entries may be iterated in a different order
+        return changes.stream().sorted().collect(Collectors.toList());
+    }
+}
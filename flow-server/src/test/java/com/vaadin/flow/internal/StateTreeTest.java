@@ -88,6 +88,11 @@ public class StateTreeTest {
                 protected void populateJson(JsonObject json,
                         ConstantPool constantPool) {
                 }
+
+                @Override
+                protected int getCompactType() {
+                    return 0;
+                }
             });
         }
     }
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal.change;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.internal.ConstantPool;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+import elemental.json.JsonType;
+import elemental.json.JsonValue;
+
+/**
+ * Compares the compact change format with the JSON object format for a
+ * typical large response.
+ */
+public class CompactChangeFormatTest {
+
+    private List<NodeChange> changes = new ArrayList<>();
+    private ConstantPool constantPool;
+
+    @Before
+    public void setUp() {
+        UI ui = new UI();
+        for (int i = 0; i < 1000; i++) {
+            Element row = new Element("div");
+            row.setAttribute("class", "row");
+            row.setProperty("index", i);
+            row.appendChild(new Element("span").setText("Item " + i));
+            ui.getElement().appendChild(row);
+        }
+        ui.getInternals().getStateTree().collectChanges(changes::add);
+        constantPool = ui.getInternals().getConstantPool();
+        Assert.assertTrue(changes.size() > 5000);
+    }
+
+    @Test
+    public void compactFormat_sameChangesInLessThanHalfTheSize() {
+        JsonArray objects = Json.createArray();
+        JsonArray arrays = Json.createArray();
+        for (NodeChange change : changes) {
+            objects.set(objects.length(), change.toJson(constantPool));
+            arrays.set(arrays.length(), change.toCompactJson(constantPool));
+        }
+
+        int objectsSize = objects.toJson().length();
+        int arraysSize = arrays.toJson().length();
+
+        Assert.assertEquals(objects.length(), arrays.length());
+        Assert.assertTrue(String.format(
+                "Compact format should be less than half of %d bytes but was %d bytes",
+                objectsSize, arraysSize), arraysSize * 2 < objectsSize);
+    }
+
+    @Test
+    public void compactFormat_parsesToFewerValues() {
+        JsonArray objects = Json.createArray();
+        JsonArray arrays = Json.createArray();
+        for (NodeChange change : changes) {
+            objects.set(objects.length(), change.toJson(constantPool));
+            arrays.set(arrays.length(), change.toCompactJson(constantPool));
+        }
+
+        // Parsing cost is compared by the number of values and object keys
+        // the parser has to create, not by timing
+        int objectsCount = countValues(parse(objects.toJson()));
+        int arraysCount = countValues(parse(arrays.toJson()));
+
+        Assert.assertTrue(String.format(
+                "Compact changes parsed to %d values and keys, objects to %d",
+                arraysCount, objectsCount), arraysCount < objectsCount);
+    }
+
+    private static int countValues(JsonValue value) {
+        int count = 1;
+        if (value.getType() == JsonType.ARRAY) {
+            JsonArray array = (JsonArray) value;
+            for (int i = 0; i < array.length(); i++) {
+                count += countValues(array.get(i));
+            }
+        } else if (value.getType() == JsonType.OBJECT) {
+            JsonObject object = (JsonObject) value;
+            for (String key : object.keys()) {
+                count += 1 + countValues(object.get(key));
+            }
+        }
+        return count;
+    }
+
+    private static JsonArray parse(String json) {
+        return Json.instance().parse(json);
+    }
+}
@@ -63,6 +63,43 @@ public class ListChangeTest {
         Assert.assertEquals(child2.getId(), (int) addNodes.getNumber(1));
     }
 
+    @Test
+    public void testCompactJson() {
+        StateNode child1 = StateNodeTest.createEmptyNode("child1");
+        StateNode child2 = StateNodeTest.createEmptyNode("child2");
+        ListAddChange<StateNode> change = new ListAddChange<>(feature, true, 3,
+                Arrays.asList(child1, child2));
+
+        JsonArray json = change.toCompactJson(null);
+
+        Assert.assertEquals(5, json.length());
+        Assert.assertEquals(JsonConstants.COMPACT_CHANGE_SPLICE_ADD_NODES,
+                (int) json.getNumber(0));
+        Assert.assertEquals(change.getNode().getId(), (int) json.getNumber(1));
+        Assert.assertEquals(NodeFeatureRegistry.getId(feature.getClass()),
+                (int) json.getNumber(2));
+        Assert.assertEquals(3, (int) json.getNumber(3));
+
+        JsonArray addNodes = json.getArray(4);
+        Assert.assertEquals(2, addNodes.length());
+        Assert.assertEquals(child1.getId(), (int) addNodes.getNumber(0));
+        Assert.assertEquals(child2.getId(), (int) addNodes.getNumber(1));
+    }
+
+    @Test
+    public void testCompactJsonRemove() {
+        ListRemoveChange<StateNode> change = new ListRemoveChange<>(feature, 2,
+                StateNodeTest.createEmptyNode("child"));
+
+        JsonArray json = change.toCompactJson(null);
+
+        Assert.assertEquals(5, json.length());
+        Assert.assertEquals(JsonConstants.COMPACT_CHANGE_SPLICE_REMOVE,
+                (int) json.getNumber(0));
+        Assert.assertEquals(2, (int) json.getNumber(3));
+        Assert.assertEquals(1, (int) json.getNumber(4));
+    }
+
     @Test
     public void testZeroRemoveNotInJson() {
         ListAddChange<StateNode> change = new ListAddChange<>(feature, false, 1,
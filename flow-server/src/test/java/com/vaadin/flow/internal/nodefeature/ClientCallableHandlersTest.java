@@ -91,6 +91,19 @@ public class ClientCallableHandlersTest {
         assertListFeature(feature);
     }
 
+    @Test
+    public void componentWithoutEventHandler_featureNotInitialized() {
+        NonTemplateComponentWithoutEventHandler component = new NonTemplateComponentWithoutEventHandler();
+
+        Assert.assertFalse(component.getElement().getNode()
+                .getFeatureIfInitialized(ClientCallableHandlers.class)
+                .isPresent());
+        Assert.assertFalse(ClientCallableHandlers.hasHandlerMethods(
+                NonTemplateComponentWithoutEventHandler.class));
+        Assert.assertTrue(ClientCallableHandlers.hasHandlerMethods(
+                NonTemplateComponentWithEventHandler.class));
+    }
+
     private void assertListFeature(SerializableNodeList<String> feature,
             String... expected) {
         Assert.assertEquals(expected.length, feature.size());
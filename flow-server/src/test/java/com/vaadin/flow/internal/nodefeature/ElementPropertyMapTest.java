@@ -16,25 +16,162 @@
 package com.vaadin.flow.internal.nodefeature;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
+import javax.servlet.http.HttpServletRequest;
+
 import org.hamcrest.CoreMatchers;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.Mockito;
 
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.dom.DomListenerRegistration;
 import com.vaadin.flow.dom.Element;
 import com.vaadin.flow.dom.PropertyChangeEvent;
 import com.vaadin.flow.dom.PropertyChangeListener;
 import com.vaadin.flow.dom.impl.BasicElementStateProvider;
+import com.vaadin.flow.internal.CurrentInstance;
 import com.vaadin.flow.internal.StateNode;
+import com.vaadin.flow.internal.StateTree;
+import com.vaadin.flow.internal.change.MapPutChange;
+import com.vaadin.flow.server.MockInstantiator;
+import com.vaadin.flow.server.MockVaadinServletService;
+import com.vaadin.flow.server.MockVaadinSession;
+import com.vaadin.flow.server.VaadinServletRequest;
+import com.vaadin.flow.server.communication.PushConnection;
 import com.vaadin.flow.shared.Registration;
+import com.vaadin.flow.shared.communication.PushMode;
+import com.vaadin.tests.util.MockUI;
 
 public class ElementPropertyMapTest {
 
+    @Test
+    public void setUpdateInterval_deferredValueCollectedByStateTree()
+            throws InterruptedException {
+        UI ui = new UI();
+        Element element = new Element("div");
+        ui.getElement().appendChild(element);
+        ElementPropertyMap map = element.getNode()
+                .getFeature(ElementPropertyMap.class);
+        map.setUpdateInterval("value", 100);
+        StateTree tree = ui.getInternals().getStateTree();
+
+        element.setProperty("value", 1);
+        tree.collectChanges(change -> {
+        });
+        element.setProperty("value", 2);
+        element.setProperty("value", 3);
+        Assert.assertFalse(collectPropertyValues(tree).contains(3.0));
+        // Responses within the interval don't need to collect the node again
+        Assert.assertFalse(tree.hasDirtyNodes());
+        Assert.assertNotEquals(0, tree.getDeferredChangesDeadline());
+
+        Thread.sleep(150);
+
+        tree.flushDeferredChanges();
+        Assert.assertEquals(0, tree.getDeferredChangesDeadline());
+        Assert.assertEquals(Collections.singletonList(3.0),
+                collectPropertyValues(tree));
+        Assert.assertFalse(tree.hasDirtyNodes());
+        Assert.assertEquals(0, tree.getDeferredChangesDeadline());
+    }
+
+    @Test
+    public void setUpdateInterval_pushEnabled_deferredValuePushedWhenIntervalEnds()
+            throws InterruptedException {
+        MockVaadinServletService service = new MockVaadinServletService();
+        service.init(new MockInstantiator());
+        MockVaadinSession session = new MockVaadinSession(service);
+        BlockingQueue<List<Serializable>> pushes = new LinkedBlockingQueue<>();
+        Element element = new Element("div");
+        UI ui;
+
+        session.lock();
+        try {
+            ui = new MockUI(session);
+            VaadinServletRequest request = Mockito
+                    .mock(VaadinServletRequest.class);
+            Mockito.when(request.getHttpServletRequest())
+                    .thenReturn(Mockito.mock(HttpServletRequest.class));
+            ui.doInit(request, 1);
+            session.addUI(ui);
+            ui.getPushConfiguration().setPushMode(PushMode.AUTOMATIC);
+            StateTree tree = ui.getInternals().getStateTree();
+            ui.getInternals().setPushConnection(new PushConnection() {
+                @Override
+                public void push() {
+                    pushes.add(collectPropertyValues(tree));
+                }
+
+                @Override
+                public void disconnect() {
+                }
+
+                @Override
+                public boolean isConnected() {
+                    return true;
+                }
+            });
+
+            ui.getElement().appendChild(element);
+            element.getNode().getFeature(ElementPropertyMap.class)
+                    .setUpdateInterval("value", 100);
+            element.setProperty("value", 1);
+        } finally {
+            session.unlock();
+        }
+        Assert.assertEquals(Collections.singletonList(1.0),
+                pushes.poll(5, TimeUnit.SECONDS));
+
+        session.lock();
+        try {
+            element.setProperty("value", 2);
+            element.setProperty("value", 3);
+        } finally {
+            session.unlock();
+        }
+        Assert.assertEquals(Collections.emptyList(),
+                pushes.poll(5, TimeUnit.SECONDS));
+
+        try {
+            // Pushed without any further changes or requests
+            Assert.assertEquals(Collections.singletonList(3.0),
+                    pushes.poll(5, TimeUnit.SECONDS));
+
+            session.lock();
+            try {
+                Assert.assertFalse(ui.getInternals().isDirty());
+            } finally {
+                session.unlock();
+            }
+            Assert.assertTrue(pushes.isEmpty());
+        } finally {
+            service.destroy();
+            CurrentInstance.clearAll();
+        }
+    }
+
+    private static List<Serializable> collectPropertyValues(StateTree tree) {
+        List<Serializable> values = new ArrayList<>();
+        tree.collectChanges(change -> {
+            if (change instanceof MapPutChange && "value"
+                    .equals(((MapPutChange) change).getKey())) {
+                values.add((Serializable) ((MapPutChange) change).getValue());
+            }
+        });
+        return values;
+    }
+
     @Test
     public void addPropertyChangeListener_fireServerEvent_listenerIsNotified() {
         listenerIsNotified(false);
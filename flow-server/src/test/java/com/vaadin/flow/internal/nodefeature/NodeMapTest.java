@@ -372,4 +372,109 @@ public class NodeMapTest
                     "Should not happen, but forEachChild shouldn't explode either");
         });
     }
+    @Test
+    public void collectChanges_equalJsonValue_noChange() {
+        nodeMap.put(KEY, Json.parse("{\"a\": [1, 2]}"));
+        collectChanges(nodeMap);
+
+        nodeMap.put(KEY, Json.parse("{\"a\": [1, 2]}"));
+        Assert.assertEquals(0, collectChanges(nodeMap).size());
+
+        nodeMap.put(KEY, Json.parse("{\"a\": [1, 3]}"));
+        Assert.assertEquals(1, collectChanges(nodeMap).size());
+    }
+
+    @Test
+    public void updateInterval_changesWithinInterval_onlyLatestValueSent()
+            throws InterruptedException {
+        nodeMap.setUpdateInterval(KEY, 100);
+
+        nodeMap.put(KEY, "1");
+        Assert.assertEquals("1", getSinglePutValue(collectChanges(nodeMap)));
+
+        nodeMap.put(KEY, "2");
+        Assert.assertEquals(0, collectChanges(nodeMap).size());
+        Assert.assertTrue(nodeMap.hasDeferredChanges());
+
+        nodeMap.put(KEY, "3");
+        Assert.assertEquals(0, collectChanges(nodeMap).size());
+
+        Thread.sleep(150);
+
+        // Sent even though there are no new changes
+        Assert.assertEquals("3", getSinglePutValue(collectChanges(nodeMap)));
+        Assert.assertFalse(nodeMap.hasDeferredChanges());
+    }
+
+    @Test
+    public void updateInterval_changeDeferred_deadlineIsEndOfInterval() {
+        nodeMap.setUpdateInterval(KEY, 10000);
+        Assert.assertEquals(0, nodeMap.getDeferredChangesDeadline());
+
+        nodeMap.put(KEY, "1");
+        long sent = System.currentTimeMillis();
+        collectChanges(nodeMap);
+        Assert.assertEquals(0, nodeMap.getDeferredChangesDeadline());
+
+        nodeMap.put(KEY, "2");
+        collectChanges(nodeMap);
+        long deadline = nodeMap.getDeferredChangesDeadline();
+        Assert.assertTrue(deadline >= sent + 10000 - 1000);
+        Assert.assertTrue(deadline <= System.currentTimeMillis() + 10000);
+
+        nodeMap.setUpdateInterval(KEY, 0);
+        Assert.assertEquals(0, nodeMap.getDeferredChangesDeadline());
+    }
+
+    @Test
+    public void updateInterval_deferredValueChangedBack_nothingSent()
+            throws InterruptedException {
+        nodeMap.setUpdateInterval(KEY, 100);
+
+        nodeMap.put(KEY, "1");
+        collectChanges(nodeMap);
+        nodeMap.put(KEY, "2");
+        collectChanges(nodeMap);
+        nodeMap.put(KEY, "1");
+
+        Thread.sleep(150);
+
+        Assert.assertEquals(0, collectChanges(nodeMap).size());
+        Assert.assertFalse(nodeMap.hasDeferredChanges());
+    }
+
+    @Test
+    public void updateInterval_removed_deferredValueSent() {
+        nodeMap.setUpdateInterval(KEY, 10000);
+
+        nodeMap.put(KEY, "1");
+        collectChanges(nodeMap);
+        nodeMap.put(KEY, "2");
+        Assert.assertEquals(0, collectChanges(nodeMap).size());
+
+        nodeMap.setUpdateInterval(KEY, 0);
+
+        Assert.assertEquals("2", getSinglePutValue(collectChanges(nodeMap)));
+    }
+
+    @Test
+    public void updateInterval_otherKeysNotLimited() {
+        nodeMap.setUpdateInterval(KEY, 10000);
+
+        nodeMap.put(KEY, "1");
+        nodeMap.put("other", "1");
+        Assert.assertEquals(2, collectChanges(nodeMap).size());
+
+        nodeMap.put(KEY, "2");
+        nodeMap.put("other", "2");
+        List<NodeChange> changes = collectChanges(nodeMap);
+        Assert.assertEquals(1, changes.size());
+        Assert.assertEquals("other", ((MapPutChange) changes.get(0)).getKey());
+    }
+
+    private static Object getSinglePutValue(List<NodeChange> changes) {
+        Assert.assertEquals(1, changes.size());
+        return ((MapPutChange) changes.get(0)).getValue();
+    }
+
 }
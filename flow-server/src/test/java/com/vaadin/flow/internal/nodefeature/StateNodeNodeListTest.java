@@ -37,6 +37,32 @@ public class StateNodeNodeListTest
         extends AbstractNodeFeatureTest<ElementChildrenList> {
     private NodeList<StateNode> nodeList = createFeature();
 
+    @Test
+    public void consecutiveAdds_combinedIntoOneChange() {
+        StateNode one = StateNodeTest.createEmptyNode("one");
+        StateNode two = StateNodeTest.createEmptyNode("two");
+        StateNode three = StateNodeTest.createEmptyNode("three");
+        StateNode four = StateNodeTest.createEmptyNode("four");
+
+        nodeList.add(one);
+        nodeList.add(two);
+        nodeList.add(0, three);
+        nodeList.add(1, four);
+
+        List<NodeChange> changes = collectChanges(nodeList);
+        Assert.assertEquals(2, changes.size());
+        ListAddChange<?> first = (ListAddChange<?>) changes.get(0);
+        Assert.assertEquals(0, first.getIndex());
+        Assert.assertEquals(Arrays.asList(one, two), first.getNewItems());
+        ListAddChange<?> second = (ListAddChange<?>) changes.get(1);
+        Assert.assertEquals(0, second.getIndex());
+        Assert.assertEquals(Arrays.asList(three, four),
+                second.getNewItems());
+        Assert.assertEquals(Arrays.asList(three, four, one, two),
+                Arrays.asList(nodeList.get(0), nodeList.get(1),
+                        nodeList.get(2), nodeList.get(3)));
+    }
+
     @Test
     public void testAddingAndRemoving() {
         StateNode value1 = StateNodeTest.createEmptyNode("value1");
@@ -15,6 +15,8 @@
  */
 package com.vaadin.flow.router.internal;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import javax.servlet.ServletContext;
@@ -26,6 +28,7 @@ import org.mockito.Mockito;
 
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.HasElement;
+import com.vaadin.flow.component.Tag;
 import com.vaadin.flow.component.Text;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.router.Location;
@@ -33,7 +36,10 @@ import com.vaadin.flow.router.NavigationEvent;
 import com.vaadin.flow.router.NavigationState;
 import com.vaadin.flow.router.NavigationStateBuilder;
 import com.vaadin.flow.router.NavigationTrigger;
+import com.vaadin.flow.internal.change.NodeAttachChange;
+import com.vaadin.flow.internal.change.NodeChange;
 import com.vaadin.flow.router.ParentLayout;
+import com.vaadin.flow.router.PreserveOnRefresh;
 import com.vaadin.flow.router.Route;
 import com.vaadin.flow.router.RouteConfiguration;
 import com.vaadin.flow.router.Router;
@@ -44,7 +50,9 @@ import com.vaadin.flow.server.MockVaadinServletService;
 import com.vaadin.flow.server.MockVaadinSession;
 import com.vaadin.flow.server.RouteRegistry;
 import com.vaadin.flow.server.ServiceException;
+import com.vaadin.flow.server.VaadinSession;
 import com.vaadin.flow.server.startup.ApplicationRouteRegistry;
+import com.vaadin.tests.util.AlwaysLockedVaadinSession;
 import com.vaadin.tests.util.MockUI;
 
 import net.jcip.annotations.NotThreadSafe;
@@ -135,6 +143,125 @@ public class NavigationStateRendererTest {
         UI.setCurrent(null);
     }
 
+    @Test
+    public void getRouteTarget_preserveOnRefresh_previousUIClosed_instanceMovedToNewUI()
+            throws ServiceException {
+        VaadinSession session = createSession();
+        MockUI previousUI = new MockUI(session);
+        PreservedView view = NavigationStateRenderer.getRouteTarget(
+                PreservedView.class, navigationEvent(previousUI, "preserved",
+                        NavigationTrigger.PAGE_LOAD));
+        previousUI.getInternals().showRouteTarget(new Location("preserved"),
+                "preserved", view, Collections.emptyList());
+        previousUI.getInternals().getStateTree().collectChanges(change -> {
+        });
+        // Not sent before the previous UI was closed
+        view.getElement().executeJavaScript("foo()");
+        previousUI.close();
+
+        MockUI ui = new MockUI(session);
+        PreservedView refreshedView = NavigationStateRenderer.getRouteTarget(
+                PreservedView.class, navigationEvent(ui, "preserved",
+                        NavigationTrigger.PAGE_LOAD));
+
+        Assert.assertSame(view, refreshedView);
+        Assert.assertFalse(view.getElement().getNode().isAttached());
+
+        ui.getInternals().showRouteTarget(new Location("preserved"),
+                "preserved", view, Collections.emptyList());
+        Assert.assertSame(ui, view.getUI().get());
+
+        // Sent to the new client as a new node
+        List<NodeChange> changes = new ArrayList<>();
+        ui.getInternals().getStateTree().collectChanges(changes::add);
+        Assert.assertTrue(changes.stream()
+                .anyMatch(change -> change instanceof NodeAttachChange
+                        && change.getNode() == view.getElement().getNode()));
+
+        // Pending executions are run for the new UI
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Assert.assertTrue(ui.getInternals().dumpPendingJavaScriptInvocations()
+                .stream().anyMatch(invocation -> invocation.getExpression()
+                        .contains("foo()")));
+        Assert.assertTrue(previousUI.getInternals()
+                .dumpPendingJavaScriptInvocations().isEmpty());
+
+        UI.setCurrent(null);
+    }
+
+    @Test
+    public void getRouteTarget_preserveOnRefresh_shownInOtherUI_newInstance()
+            throws ServiceException {
+        VaadinSession session = createSession();
+        MockUI otherUI = new MockUI(session);
+        PreservedView view = NavigationStateRenderer.getRouteTarget(
+                PreservedView.class, navigationEvent(otherUI, "preserved",
+                        NavigationTrigger.PAGE_LOAD));
+        otherUI.getInternals().showRouteTarget(new Location("preserved"),
+                "preserved", view, Collections.emptyList());
+
+        // A refresh looks the same as opening the location in a second tab
+        MockUI ui = new MockUI(session);
+        Assert.assertNotSame(view,
+                NavigationStateRenderer.getRouteTarget(PreservedView.class,
+                        navigationEvent(ui, "preserved",
+                                NavigationTrigger.PAGE_LOAD)));
+        Assert.assertNotSame(view,
+                NavigationStateRenderer.getRouteTarget(PreservedView.class,
+                        navigationEvent(ui, "preserved",
+                                NavigationTrigger.ROUTER_LINK)));
+        Assert.assertFalse(otherUI.isClosing());
+        Assert.assertSame(otherUI, view.getUI().get());
+        Assert.assertTrue(view.getElement().getNode().isAttached());
+
+        UI.setCurrent(null);
+    }
+
+    @Test
+    public void getRouteTarget_preserveOnRefresh_navigateBack_sameInstance()
+            throws ServiceException {
+        MockUI ui = new MockUI(createSession());
+        PreservedView view = NavigationStateRenderer.getRouteTarget(
+                PreservedView.class, navigationEvent(ui, "preserved",
+                        NavigationTrigger.ROUTER_LINK));
+        ui.getInternals().showRouteTarget(new Location("preserved"),
+                "preserved", view, Collections.emptyList());
+        ui.getInternals().showRouteTarget(new Location("other"), "other",
+                new Text("other"), Collections.emptyList());
+
+        Assert.assertSame(view,
+                NavigationStateRenderer.getRouteTarget(PreservedView.class,
+                        navigationEvent(ui, "preserved",
+                                NavigationTrigger.HISTORY)));
+        Assert.assertNotSame(
+                NavigationStateRenderer.getRouteTarget(SingleView.class,
+                        navigationEvent(ui, "single",
+                                NavigationTrigger.HISTORY)),
+                NavigationStateRenderer.getRouteTarget(SingleView.class,
+                        navigationEvent(ui, "single",
+                                NavigationTrigger.HISTORY)));
+
+        UI.setCurrent(null);
+    }
+
+    private static VaadinSession createSession() throws ServiceException {
+        MockVaadinServletService service = new MockVaadinServletService();
+        service.init(new MockInstantiator());
+        return new AlwaysLockedVaadinSession(service);
+    }
+
+    private static NavigationEvent navigationEvent(UI ui, String location,
+            NavigationTrigger trigger) {
+        return new NavigationEvent(new Router(new TestRouteRegistry()),
+                new Location(location), ui, trigger);
+    }
+
+    @Tag(Tag.DIV)
+    @Route("preserved")
+    @PreserveOnRefresh
+    public static class PreservedView extends Component {
+    }
+
     @Route("parent")
     private static class RouteParentLayout extends Component
             implements RouterLayout {
@@ -150,8 +277,9 @@ public class NavigationStateRendererTest {
     private static class ChildConfiguration extends Component {
     }
 
+    @Tag(Tag.DIV)
     @Route(value = "single", layout = RouteParentLayout.class)
-    private static class SingleView extends Component {
+    public static class SingleView extends Component {
     }
 
     private NavigationState navigationStateFromTarget(
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.router.internal;
+
+import java.util.Properties;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.Tag;
+import com.vaadin.flow.component.Text;
+import com.vaadin.flow.server.Constants;
+import com.vaadin.flow.server.DefaultDeploymentConfiguration;
+import com.vaadin.flow.server.MockVaadinServletService;
+import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.tests.util.AlwaysLockedVaadinSession;
+
+public class RouteInstanceCacheTest {
+
+    @Tag(Tag.DIV)
+    public static class First extends Component {
+    }
+
+    @Tag(Tag.DIV)
+    public static class Second extends Component {
+    }
+
+    private long time = 1000;
+
+    private RouteInstanceCache cache = new RouteInstanceCache(2, 100) {
+        @Override
+        long getCurrentTime() {
+            return time;
+        }
+    };
+
+    @Test
+    public void put_maxSizeExceeded_leastRecentlyUsedRemoved() {
+        First first = new First();
+        Second second = new Second();
+        cache.put(First.class, first);
+        cache.put(Second.class, second);
+        // First is now more recently used than second
+        Assert.assertSame(first, cache.get(First.class));
+
+        cache.put(Text.class, new Text("text"));
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertSame(first, cache.get(First.class));
+        Assert.assertNull(cache.get(Second.class));
+    }
+
+    @Test
+    public void get_maxIdleExceeded_instanceRemoved() {
+        First first = new First();
+        cache.put(First.class, first);
+        cache.put(Second.class, new Second());
+
+        time += 60;
+        Assert.assertSame(first, cache.get(First.class));
+        time += 60;
+
+        Assert.assertSame(first, cache.get(First.class));
+        Assert.assertNull(cache.get(Second.class));
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void get_session_limitsFromConfiguration() {
+        Properties properties = new Properties();
+        properties.setProperty(
+                Constants.SERVLET_PARAMETER_PRESERVED_ROUTE_INSTANCES, "1");
+        MockVaadinServletService service = new MockVaadinServletService(
+                new DefaultDeploymentConfiguration(getClass(), properties));
+        VaadinSession session = new AlwaysLockedVaadinSession(service);
+        session.setConfiguration(service.getDeploymentConfiguration());
+
+        RouteInstanceCache sessionCache = RouteInstanceCache.get(session);
+        Assert.assertSame(sessionCache, RouteInstanceCache.get(session));
+
+        sessionCache.put(First.class, new First());
+        sessionCache.put(Second.class, new Second());
+        Assert.assertEquals(1, sessionCache.size());
+    }
+}
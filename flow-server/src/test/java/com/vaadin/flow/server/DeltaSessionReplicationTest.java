@@ -0,0 +1,356 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import javax.servlet.http.HttpServletRequest;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.component.Text;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.flow.internal.SerializationUtil;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+
+public class DeltaSessionReplicationTest {
+
+    private static class MapSession implements WrappedSession {
+        private final Map<String, Object> attributes = new HashMap<>();
+        private final List<String> writes = new ArrayList<>();
+
+        @Override
+        public int getMaxInactiveInterval() {
+            return 1800;
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            return attributes.get(name);
+        }
+
+        @Override
+        public void setAttribute(String name, Object value) {
+            writes.add(name);
+            if (value == null) {
+                attributes.remove(name);
+            } else {
+                attributes.put(name, value);
+            }
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return new HashSet<>(attributes.keySet());
+        }
+
+        @Override
+        public void invalidate() {
+            attributes.clear();
+        }
+
+        @Override
+        public String getId() {
+            return "id";
+        }
+
+        @Override
+        public long getCreationTime() {
+            return 0;
+        }
+
+        @Override
+        public long getLastAccessedTime() {
+            return 0;
+        }
+
+        @Override
+        public boolean isNew() {
+            return false;
+        }
+
+        @Override
+        public void removeAttribute(String name) {
+            setAttribute(name, null);
+        }
+
+        @Override
+        public void setMaxInactiveInterval(int interval) {
+        }
+
+        /*
+         * Simulates a container replicating each attribute separately to
+         * another node.
+         */
+        private MapSession replicate() {
+            MapSession replica = new MapSession();
+            attributes.forEach((name, value) -> replica.attributes.put(name,
+                    SerializationUtils.roundtrip((Serializable) value)));
+            return replica;
+        }
+    }
+
+    private MockVaadinServletService service;
+    private MapSession wrappedSession;
+    private VaadinSession session;
+
+    @Before
+    public void setUp() {
+        service = createService();
+        wrappedSession = new MapSession();
+        service.lockSession(wrappedSession);
+        session = new VaadinSession(service);
+        VaadinSession.setCurrent(session);
+        service.storeSession(session, wrappedSession);
+    }
+
+    @After
+    public void tearDown() {
+        CurrentInstance.clearAll();
+    }
+
+    private static MockVaadinServletService createService() {
+        return createService(true);
+    }
+
+    private static MockVaadinServletService createService(boolean delta) {
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        configuration.setApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_DELTA_SESSION_REPLICATION,
+                String.valueOf(delta));
+        MockVaadinServletService service = new MockVaadinServletService(
+                configuration);
+        service.init(new MockInstantiator());
+        return service;
+    }
+
+    private UI addUI() {
+        UI ui = new UI();
+        ui.getInternals().setSession(session);
+        VaadinServletRequest request = Mockito
+                .mock(VaadinServletRequest.class);
+        Mockito.when(request.getHttpServletRequest())
+                .thenReturn(Mockito.mock(HttpServletRequest.class));
+        ui.doInit(request, session.getNextUIid());
+        session.addUI(ui);
+        return ui;
+    }
+
+    /*
+     * Collects the changes of all UIs like when writing a response.
+     */
+    private void writeResponses() {
+        session.getUIs().forEach(ui -> ui.getInternals().getStateTree()
+                .collectChanges(change -> {
+                }));
+    }
+
+    private String getUIAttributeName(UI ui) {
+        return service.getSessionAttributeName() + ".UI." + ui.getUIId();
+    }
+
+    @Test
+    public void storeSessionChanges_onlyModifiedUIStored() {
+        UI ui1 = addUI();
+        UI ui2 = addUI();
+        writeResponses();
+        service.storeSessionChanges(session, wrappedSession);
+        Assert.assertTrue(wrappedSession.writes
+                .contains(getUIAttributeName(ui1)));
+        Assert.assertTrue(wrappedSession.writes
+                .contains(getUIAttributeName(ui2)));
+        wrappedSession.writes.clear();
+
+        ui2.getElement().appendChild(new Element("div"));
+        writeResponses();
+        service.storeSessionChanges(session, wrappedSession);
+
+        Assert.assertEquals(1, wrappedSession.writes.size());
+        Assert.assertEquals(getUIAttributeName(ui2),
+                wrappedSession.writes.get(0));
+
+        wrappedSession.writes.clear();
+        writeResponses();
+        service.storeSessionChanges(session, wrappedSession);
+        Assert.assertEquals(0, wrappedSession.writes.size());
+    }
+
+    @Test
+    public void storeSessionChanges_sessionAttributeChanged_sessionStored() {
+        addUI();
+        writeResponses();
+        service.storeSessionChanges(session, wrappedSession);
+        wrappedSession.writes.clear();
+
+        session.setAttribute("foo", "bar");
+        writeResponses();
+        service.storeSessionChanges(session, wrappedSession);
+
+        Assert.assertTrue(wrappedSession.writes
+                .contains(service.getSessionAttributeName()));
+        Assert.assertEquals(VaadinSessionState.OPEN, session.getState());
+        Assert.assertNull(session
+                .getAttribute(VaadinService.PRESERVE_UNBOUND_SESSION_ATTRIBUTE));
+    }
+
+    @Test
+    public void storeSessionChanges_uiRemoved_attributeRemoved() {
+        UI ui1 = addUI();
+        UI ui2 = addUI();
+        writeResponses();
+        service.storeSessionChanges(session, wrappedSession);
+
+        UI.setCurrent(ui1);
+        session.removeUI(ui1);
+        writeResponses();
+        service.storeSessionChanges(session, wrappedSession);
+
+        Assert.assertNull(wrappedSession.getAttribute(getUIAttributeName(ui1)));
+        Assert.assertNotNull(
+                wrappedSession.getAttribute(getUIAttributeName(ui2)));
+    }
+
+    @Test
+    public void replicatedSession_uisStoredSeparatelyAndRestored() {
+        UI ui1 = addUI();
+        UI ui2 = addUI();
+        ui1.getElement().appendChild(new Element("span"));
+        ui2.getElement().setAttribute("title", "second");
+        writeResponses();
+        service.storeSessionChanges(session, wrappedSession);
+
+        MapSession replica = wrappedSession.replicate();
+        CurrentInstance.clearAll();
+
+        MockVaadinServletService otherService = createService();
+        otherService.lockSession(replica);
+        VaadinSession restored = otherService.loadSession(replica);
+
+        Assert.assertNotSame(session, restored);
+        Assert.assertEquals(2, restored.getUIs().size());
+        UI restoredUI1 = restored.getUIById(ui1.getUIId());
+        UI restoredUI2 = restored.getUIById(ui2.getUIId());
+        Assert.assertSame(restored, restoredUI1.getSession());
+        Assert.assertSame(restored, restoredUI2.getSession());
+        Assert.assertEquals("span",
+                restoredUI1.getElement().getChild(0).getTag());
+        Assert.assertEquals("second",
+                restoredUI2.getElement().getAttribute("title"));
+        Assert.assertFalse(restoredUI1.getInternals().isModified());
+        Assert.assertTrue(restored.getNextUIid() > ui2.getUIId());
+    }
+
+    @Test
+    public void serializedSession_doesNotContainUIs() {
+        UI ui = addUI();
+        for (int i = 0; i < 100; i++) {
+            ui.getElement().appendChild(new Element("div"));
+        }
+        writeResponses();
+        service.storeSessionChanges(session, wrappedSession);
+
+        long sessionSize = SerializationUtil.getSerializedSize(session);
+        long uiSize = SerializationUtil.getSerializedSize(
+                (Serializable) wrappedSession.getAttribute(
+                        getUIAttributeName(ui)));
+
+        Assert.assertTrue(
+                "Session " + sessionSize + " bytes, UI " + uiSize + " bytes",
+                sessionSize < uiSize);
+    }
+
+    @Test
+    public void attributeReferencingUI_notReplicated() {
+        UI ui = addUI();
+        Text text = new Text("foo");
+        ui.add(text);
+        session.setAttribute(Text.class, text);
+        session.setAttribute("plain", "value");
+        writeResponses();
+        service.storeSessionChanges(session, wrappedSession);
+
+        MapSession replica = wrappedSession.replicate();
+        CurrentInstance.clearAll();
+
+        MockVaadinServletService otherService = createService();
+        otherService.lockSession(replica);
+        VaadinSession restored = otherService.loadSession(replica);
+
+        Assert.assertNull(restored.getAttribute(Text.class));
+        Assert.assertEquals("value", restored.getAttribute("plain"));
+        Assert.assertEquals(1, restored.getUIs().size());
+        // The original session still has the attribute
+        Assert.assertSame(text, session.getAttribute(Text.class));
+    }
+
+    @Test
+    public void unlock_uiModifiedWithoutRequest_uiStored() {
+        UI ui = addUI();
+        writeResponses();
+        service.storeSessionChanges(session, wrappedSession);
+        wrappedSession.writes.clear();
+
+        // E.g. changes pushed by a background thread
+        ui.getElement().appendChild(new Element("div"));
+        writeResponses();
+        session.unlock();
+
+        Assert.assertEquals(1, wrappedSession.writes.size());
+        Assert.assertEquals(getUIAttributeName(ui),
+                wrappedSession.writes.get(0));
+    }
+
+    @Test
+    public void deltaReplicationDisabled_sessionSerializedWithUIs() {
+        // The default serialized form of the session is not customized
+        Assert.assertFalse(Stream.of(VaadinSession.class.getDeclaredMethods())
+                .anyMatch(method -> "writeObject".equals(method.getName())));
+
+        MockVaadinServletService otherService = createService(false);
+        MapSession otherWrappedSession = new MapSession();
+        otherService.lockSession(otherWrappedSession);
+        VaadinSession otherSession = new VaadinSession(otherService);
+        VaadinSession.setCurrent(otherSession);
+        otherService.storeSession(otherSession, otherWrappedSession);
+        session = otherSession;
+        UI ui = addUI();
+        session.setAttribute("ui", ui);
+
+        VaadinSession restored = SerializationUtils.roundtrip(otherSession);
+        restored.refreshTransients(otherWrappedSession, otherService);
+
+        Assert.assertFalse(restored.isUIsMissing());
+        Assert.assertEquals(1, restored.getUIs().size());
+        Assert.assertSame(restored.getUIById(ui.getUIId()),
+                restored.getAttribute("ui"));
+        Assert.assertFalse(otherWrappedSession.getAttributeNames()
+                .contains(getUIAttributeName(ui)));
+    }
+}
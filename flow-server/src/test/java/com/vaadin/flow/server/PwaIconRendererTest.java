@@ -0,0 +1,153 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.vaadin.flow.internal.MessageDigestUtil;
+
+public class PwaIconRendererTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private byte[] logo;
+
+    @Before
+    public void setUp() throws IOException {
+        try (InputStream stream = BootstrapHandler.class
+                .getResourceAsStream("default-logo.png")) {
+            logo = IOUtils.toByteArray(stream);
+        }
+    }
+
+    @Test
+    public void write_iconIsGeneratedWithRequestedSize() throws IOException {
+        PwaIcon icon = new PwaIcon(32, 16, "icons/icon.png");
+        icon.setRenderer(new PwaIconRenderer(logo, null));
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(write(icon)));
+        Assert.assertEquals(32, image.getWidth());
+        Assert.assertEquals(16, image.getHeight());
+    }
+
+    @Test
+    public void setRenderer_hrefDependsOnLogoAndSize() {
+        PwaIcon icon = new PwaIcon(32, 32, "icons/icon.png");
+        icon.setRenderer(new PwaIconRenderer(logo, null));
+        PwaIcon sameIcon = new PwaIcon(32, 32, "icons/icon.png");
+        sameIcon.setRenderer(new PwaIconRenderer(logo.clone(), null));
+        PwaIcon otherSize = new PwaIcon(96, 96, "icons/icon.png");
+        otherSize.setRenderer(new PwaIconRenderer(logo, null));
+
+        Assert.assertEquals(icon.getHref(), sameIcon.getHref());
+        Assert.assertEquals(icon.getCacheFormat(), sameIcon.getCacheFormat());
+        Assert.assertNotEquals(icon.getCacheFormat(),
+                otherSize.getCacheFormat());
+    }
+
+    @Test
+    public void getETag_strongTagOfContent() throws IOException {
+        PwaIcon icon = new PwaIcon(32, 32, "icons/icon.png");
+        icon.setRenderer(new PwaIconRenderer(logo, null));
+        PwaIcon otherSize = new PwaIcon(96, 96, "icons/icon.png");
+        otherSize.setRenderer(new PwaIconRenderer(logo, null));
+
+        String eTag = icon.getETag();
+        Assert.assertTrue(eTag.startsWith("\""));
+        Assert.assertTrue(eTag.endsWith("\""));
+        Assert.assertEquals(eTag, icon.getETag());
+        Assert.assertNotEquals(eTag, otherSize.getETag());
+    }
+
+    @Test
+    public void render_cacheDirectory_iconIsReusedByNewRenderer()
+            throws IOException {
+        File directory = temporaryFolder.newFolder();
+        PwaIcon icon = new PwaIcon(32, 32, "icons/icon.png");
+        icon.setRenderer(new PwaIconRenderer(logo, directory));
+        byte[] generated = write(icon);
+
+        File[] files = directory.listFiles();
+        Assert.assertEquals(1, files.length);
+        Assert.assertArrayEquals(generated, Files.readAllBytes(files[0].toPath()));
+
+        // A new renderer for the same logo, e.g. after a restart, should use
+        // the stored file instead of generating the icon again
+        byte[] marker = { 1, 2, 3 };
+        Files.write(files[0].toPath(), marker);
+        PwaIcon restartedIcon = new PwaIcon(32, 32, "icons/icon.png");
+        restartedIcon.setRenderer(new PwaIconRenderer(logo, directory));
+        Assert.assertArrayEquals(marker, write(restartedIcon));
+    }
+
+    @Test
+    public void render_logoChanged_iconIsGeneratedAgain() throws IOException {
+        File directory = temporaryFolder.newFolder();
+        PwaIcon icon = new PwaIcon(32, 32, "icons/icon.png");
+        icon.setRenderer(new PwaIconRenderer(logo, directory));
+        write(icon);
+
+        BufferedImage otherLogo = new BufferedImage(10, 10,
+                BufferedImage.TYPE_INT_ARGB);
+        PwaIcon otherIcon = new PwaIcon(32, 32, "icons/icon.png");
+        otherIcon.setRenderer(new PwaIconRenderer(
+                PwaIconRenderer.encode(otherLogo), directory));
+        write(otherIcon);
+
+        Assert.assertEquals(2, directory.listFiles().length);
+    }
+
+    @Test
+    public void render_iconCachedByOtherVersion_iconIsGeneratedAgain()
+            throws IOException {
+        File directory = temporaryFolder.newFolder();
+        // Name of an icon stored by a renderer without a version
+        String logoHash = PwaIconRenderer
+                .toHex(MessageDigestUtil.sha256(logo));
+        byte[] marker = { 1, 2, 3 };
+        Files.write(new File(directory, logoHash + "-32x32.png").toPath(),
+                marker);
+
+        PwaIcon icon = new PwaIcon(32, 32, "icons/icon.png");
+        icon.setRenderer(new PwaIconRenderer(logo, directory));
+        byte[] generated = write(icon);
+
+        Assert.assertNotEquals(marker.length, generated.length);
+        Assert.assertTrue(new File(directory, logoHash + "-v"
+                + PwaIconRenderer.VERSION + "-32x32.png").isFile());
+    }
+
+    private static byte[] write(PwaIcon icon) {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        icon.write(stream);
+        return stream.toByteArray();
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.flow.server.metrics.SessionLockMonitor;
+
+public class SessionLockTest {
+
+    private SessionLockMonitor monitor = new SessionLockMonitor(0, 0);
+    private SessionLock lock = new SessionLock(monitor);
+
+    @Test
+    public void lockAndUnlock_reentrantAcquisitionReportedOnce() {
+        lock.lock();
+        lock.lock();
+        Assert.assertSame(Thread.currentThread(), lock.getOwner());
+        lock.unlock();
+        lock.unlock();
+
+        Assert.assertNull(lock.getOwner());
+        Assert.assertEquals(1, monitor.getLockCount());
+        Assert.assertEquals(0, monitor.getContendedLockCount());
+
+        Assert.assertTrue(lock.tryLock());
+        lock.unlock();
+        Assert.assertEquals(2, monitor.getLockCount());
+    }
+
+    @Test
+    public void longHold_reportedWhenReleased() throws InterruptedException {
+        monitor = new SessionLockMonitor(0, 1);
+        lock = new SessionLock(monitor);
+
+        lock.lock();
+        Thread.sleep(20);
+        lock.unlock();
+
+        Assert.assertEquals(1, monitor.getLongHoldCount());
+        Assert.assertTrue(monitor.getMaxHoldMillis() >= 20);
+    }
+
+    @Test
+    public void lockHeldByOtherThread_timeout_throws()
+            throws InterruptedException {
+        Thread holder = holdLock(lock, new CountDownLatch(1));
+        try {
+            lock.lock(50, TimeUnit.MILLISECONDS);
+            Assert.fail("Lock should not be acquired");
+        } catch (SessionLockTimeoutException expected) {
+            Assert.assertFalse(lock.isHeldByCurrentThread());
+        } finally {
+            holder.interrupt();
+            holder.join();
+        }
+
+        Assert.assertEquals(1, monitor.getContendedLockCount());
+        Assert.assertEquals(1, monitor.getTimeoutCount());
+        Assert.assertEquals(1, monitor.getLockCount());
+    }
+
+    @Test
+    public void lockHeldByOtherThread_longWaitReportedWhileWaiting()
+            throws InterruptedException {
+        monitor = new SessionLockMonitor(20, 0);
+        lock = new SessionLock(monitor);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = holdLock(lock, release);
+
+        Thread releaser = new Thread(() -> {
+            // Release once the waiting thread has reported the long wait
+            while (monitor.getLongWaitCount() == 0) {
+                Thread.yield();
+            }
+            release.countDown();
+        });
+        releaser.start();
+
+        lock.lock();
+        lock.unlock();
+        holder.join();
+        releaser.join();
+
+        Assert.assertEquals(1, monitor.getLongWaitCount());
+        Assert.assertEquals(1, monitor.getContendedLockCount());
+        Assert.assertEquals(0, monitor.getTimeoutCount());
+        Assert.assertTrue(monitor.getMaxWaitMillis() >= 20);
+    }
+
+    @Test
+    public void lockTimeoutShorterThanWaitWarning_noLongWaitReported()
+            throws InterruptedException {
+        monitor = new SessionLockMonitor(10000, 0);
+        lock = new SessionLock(monitor);
+        Thread holder = holdLock(lock, new CountDownLatch(1));
+        try {
+            lock.lock(20, TimeUnit.MILLISECONDS);
+            Assert.fail("Lock should not be acquired");
+        } catch (SessionLockTimeoutException expected) {
+            // expected
+        } finally {
+            holder.interrupt();
+            holder.join();
+        }
+
+        Assert.assertEquals(0, monitor.getLongWaitCount());
+        Assert.assertEquals(1, monitor.getTimeoutCount());
+    }
+
+    private static Thread holdLock(SessionLock lock, CountDownLatch release)
+            throws InterruptedException {
+        CountDownLatch locked = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            lock.lock();
+            try {
+                locked.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                // Release the lock
+            } finally {
+                lock.unlock();
+            }
+        });
+        holder.start();
+        locked.await();
+        return holder;
+    }
+}
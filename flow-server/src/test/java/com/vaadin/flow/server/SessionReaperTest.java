@@ -0,0 +1,261 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import javax.servlet.http.HttpServletRequest;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.flow.server.metrics.SessionReaperMonitor;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+
+public class SessionReaperTest {
+
+    private static final long INTERVAL = TimeUnit.HOURS.toMillis(1);
+
+    private MockDeploymentConfiguration configuration;
+    private MockVaadinServletService service;
+    private VaadinSession session;
+    private SessionReaper reaper;
+    private SessionReaperMonitor monitor;
+
+    @Before
+    public void setUp() {
+        configuration = new MockDeploymentConfiguration();
+        configuration.setHeartbeatInterval(10);
+        // The background thread does not run during the test
+        configuration.setApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_SESSION_REAPER_INTERVAL,
+                String.valueOf(TimeUnit.MILLISECONDS.toSeconds(INTERVAL)));
+        service = new MockVaadinServletService(configuration);
+        service.init(new MockInstantiator());
+        reaper = service.getSessionReaper();
+        monitor = service.getSessionReaperMonitor();
+
+        Map<String, Object> attributes = new HashMap<>();
+        WrappedSession wrappedSession = Mockito.mock(WrappedSession.class);
+        Mockito.when(wrappedSession.getId()).thenReturn("id");
+        Mockito.when(wrappedSession.getMaxInactiveInterval()).thenReturn(1800);
+        Mockito.when(wrappedSession.getAttribute(Mockito.anyString()))
+                .thenAnswer(invocation -> attributes
+                        .get(invocation.getArguments()[0]));
+        Mockito.doAnswer(invocation -> attributes.put(
+                (String) invocation.getArguments()[0],
+                invocation.getArguments()[1])).when(wrappedSession)
+                .setAttribute(Mockito.anyString(), Mockito.any());
+
+        service.lockSession(wrappedSession);
+        session = new VaadinSession(service);
+        VaadinSession.setCurrent(session);
+        service.storeSession(session, wrappedSession);
+        service.loadSession(wrappedSession);
+        session.unlock();
+        CurrentInstance.clearAll();
+    }
+
+    @After
+    public void tearDown() {
+        service.destroy();
+        CurrentInstance.clearAll();
+    }
+
+    private UI addUI() {
+        session.lock();
+        try {
+            UI ui = new UI();
+            ui.getInternals().setSession(session);
+            VaadinServletRequest request = Mockito
+                    .mock(VaadinServletRequest.class);
+            Mockito.when(request.getHttpServletRequest())
+                    .thenReturn(Mockito.mock(HttpServletRequest.class));
+            ui.doInit(request, session.getNextUIid());
+            session.addUI(ui);
+            return ui;
+        } finally {
+            session.unlock();
+            CurrentInstance.clearAll();
+        }
+    }
+
+    private int getUICount() {
+        session.lock();
+        try {
+            return session.getUIs().size();
+        } finally {
+            session.unlock();
+        }
+    }
+
+    @Test
+    public void reaperEnabled_sessionScheduledWhenLoaded() {
+        Assert.assertNotNull(reaper);
+        Assert.assertEquals(1, reaper.getScheduledSessionCount());
+
+        session.lock();
+        try {
+            service.loadSession(session.getSession());
+        } finally {
+            session.unlock();
+        }
+        Assert.assertEquals(1, reaper.getScheduledSessionCount());
+    }
+
+    @Test
+    public void reaperDisabled_noReaperOrMonitor() {
+        MockVaadinServletService otherService = new MockVaadinServletService(
+                new MockDeploymentConfiguration());
+        otherService.init(new MockInstantiator());
+
+        Assert.assertNull(otherService.getSessionReaper());
+        Assert.assertNull(otherService.getSessionReaperMonitor());
+    }
+
+    @Test
+    public void inactiveUI_reapedWithoutRequest() {
+        UI inactive = addUI();
+        UI active = addUI();
+        long now = System.currentTimeMillis();
+        inactive.getInternals()
+                .setLastHeartbeatTimestamp(now - TimeUnit.MINUTES.toMillis(1));
+        active.getInternals().setLastHeartbeatTimestamp(now);
+
+        reaper.reap(now + INTERVAL);
+
+        Assert.assertNull(inactive.getSession());
+        Assert.assertTrue(inactive.isClosing());
+        Assert.assertSame(session, active.getSession());
+        Assert.assertEquals(1, getUICount());
+        Assert.assertEquals(1, monitor.getReapedUICount());
+        Assert.assertTrue(monitor.getReapedUIBytes() > 0);
+        Assert.assertEquals(0, monitor.getReapedSessionCount());
+        Assert.assertEquals(1, reaper.getScheduledSessionCount());
+    }
+
+    @Test
+    public void sessionNotDue_notLocked() {
+        UI ui = addUI();
+        long now = System.currentTimeMillis();
+        ui.getInternals()
+                .setLastHeartbeatTimestamp(now - TimeUnit.MINUTES.toMillis(1));
+
+        // The session is checked after the first interval
+        reaper.reap(now);
+
+        Assert.assertSame(session, ui.getSession());
+        Assert.assertEquals(1, monitor.getRunCount());
+        Assert.assertEquals(0, monitor.getReapedUICount());
+        Assert.assertEquals(1, reaper.getScheduledSessionCount());
+    }
+
+    @Test
+    public void activeUI_checkedAgainWhenHeartbeatExpires() {
+        UI ui = addUI();
+        long now = System.currentTimeMillis();
+
+        reaper.reap(now + INTERVAL);
+        Assert.assertSame(session, ui.getSession());
+
+        ui.getInternals()
+                .setLastHeartbeatTimestamp(now - TimeUnit.MINUTES.toMillis(1));
+
+        // Not checked again before the next interval has passed
+        reaper.reap(now + 2 * INTERVAL - 1);
+        Assert.assertSame(session, ui.getSession());
+
+        reaper.reap(now + 2 * INTERVAL);
+        Assert.assertNull(ui.getSession());
+        Assert.assertEquals(1, monitor.getReapedUICount());
+    }
+
+    @Test
+    public void idleSession_closedAndDestroyListenerFired() {
+        configuration.setCloseIdleSessions(true);
+        UI ui = addUI();
+        AtomicInteger destroyed = new AtomicInteger();
+        service.addSessionDestroyListener(
+                event -> destroyed.incrementAndGet());
+        long now = System.currentTimeMillis();
+        session.lock();
+        try {
+            session.setLastRequestTimestamp(
+                    now - TimeUnit.SECONDS.toMillis(1800));
+        } finally {
+            session.unlock();
+        }
+
+        reaper.reap(now + INTERVAL);
+
+        session.lock();
+        try {
+            Assert.assertEquals(VaadinSessionState.CLOSED, session.getState());
+        } finally {
+            session.unlock();
+        }
+        Assert.assertEquals(1, destroyed.get());
+        Assert.assertNull(ui.getSession());
+        Assert.assertEquals(1, monitor.getReapedSessionCount());
+        Assert.assertEquals(1, monitor.getReapedUICount());
+        Assert.assertEquals(0, reaper.getScheduledSessionCount());
+    }
+
+    @Test
+    public void sessionLockedByOtherThread_checkedAgainLater()
+            throws InterruptedException {
+        UI ui = addUI();
+        long now = System.currentTimeMillis();
+        ui.getInternals()
+                .setLastHeartbeatTimestamp(now - TimeUnit.MINUTES.toMillis(1));
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch reaped = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            session.getLockInstance().lock();
+            try {
+                locked.countDown();
+                reaped.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                session.getLockInstance().unlock();
+            }
+        });
+        holder.start();
+        locked.await();
+
+        reaper.reap(now + INTERVAL);
+        reaped.countDown();
+        holder.join();
+
+        Assert.assertSame(session, ui.getSession());
+        Assert.assertEquals(1, monitor.getBusySessionCount());
+        Assert.assertEquals(1, reaper.getScheduledSessionCount());
+
+        reaper.reap(now + 2 * INTERVAL);
+        Assert.assertNull(ui.getSession());
+    }
+}
@@ -24,7 +24,11 @@ import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -39,15 +43,21 @@ import com.vaadin.flow.router.Route;
 import com.vaadin.flow.router.RouteConfiguration;
 import com.vaadin.flow.router.RouteData;
 import com.vaadin.flow.router.Router;
+import org.easymock.Capture;
 import org.easymock.EasyMock;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.Mockito;
 
 import com.vaadin.flow.internal.CurrentInstance;
 import com.vaadin.flow.server.communication.StreamRequestHandler;
+import com.vaadin.flow.server.metrics.RequestMetrics;
+import com.vaadin.flow.server.metrics.RequestMetricsEvent;
+import com.vaadin.flow.server.metrics.RequestPhase;
 import com.vaadin.flow.server.startup.BundleDependencyFilter;
 import com.vaadin.flow.shared.ApplicationConstants;
 import com.vaadin.flow.theme.AbstractTheme;
+import com.vaadin.tests.util.AlwaysLockedVaadinSession;
 import com.vaadin.tests.util.MockDeploymentConfiguration;
 
 import net.jcip.annotations.NotThreadSafe;
@@ -326,6 +336,155 @@ public class VaadinServiceTest {
                 filters.get(2).getClass());
     }
 
+    @Test
+    public void requestMetricsListener_requestHandled_metricsReported()
+            throws ServiceException {
+        List<RequestMetricsEvent> events = new ArrayList<>();
+        MockVaadinServletService service = new MockVaadinServletService();
+        service.init(new MockInstantiator(
+                evt -> evt.addRequestMetricsListener(events::add)));
+
+        VaadinSession session = new AlwaysLockedVaadinSession(service);
+        session.access(() -> {
+        });
+        VaadinRequest request = createRequestWithAttributes();
+
+        service.requestStart(request, null);
+        RequestMetrics metrics = RequestMetrics.getCurrent();
+        Assert.assertNotNull(metrics);
+        service.runPendingAccessTasks(session);
+        Assert.assertSame(metrics, RequestMetrics.getCurrent());
+        service.requestEnd(request, null, null);
+
+        Assert.assertNull(RequestMetrics.getCurrent());
+        Assert.assertEquals(1, events.size());
+        RequestMetricsEvent event = events.get(0);
+        Assert.assertSame(metrics, event.getMetrics());
+        Assert.assertSame(request, event.getRequest());
+        Assert.assertSame(service, event.getSource());
+        Assert.assertTrue(metrics.getTime(RequestPhase.ACCESS_TASKS) > 0);
+        Assert.assertTrue(metrics.getDuration() >= metrics
+                .getTime(RequestPhase.ACCESS_TASKS));
+    }
+
+    @Test
+    public void noRequestMetricsListener_metricsNotCollected()
+            throws ServiceException {
+        MockVaadinServletService service = new MockVaadinServletService();
+        service.init(new MockInstantiator());
+        VaadinRequest request = createRequestWithAttributes();
+
+        service.requestStart(request, null);
+        Assert.assertNull(RequestMetrics.getCurrent());
+        service.requestEnd(request, null, null);
+    }
+
+    @Test
+    public void sessionLockTimeout_lockHeldByOtherThread_requestRejected()
+            throws Exception {
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        configuration.setApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_SESSION_LOCK_TIMEOUT, "50");
+        MockVaadinServletService service = new MockVaadinServletService(
+                configuration);
+        service.init(new MockInstantiator());
+        VaadinSession session = new MockVaadinSession(service);
+
+        AtomicBoolean handled = new AtomicBoolean();
+        SynchronizedRequestHandler handler = new SynchronizedRequestHandler() {
+            @Override
+            public boolean synchronizedHandleRequest(VaadinSession session,
+                    VaadinRequest request, VaadinResponse response) {
+                handled.set(true);
+                return true;
+            }
+        };
+
+        CountDownLatch locked = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            session.getLockInstance().lock();
+            try {
+                locked.countDown();
+                Thread.sleep(10000);
+            } catch (InterruptedException e) {
+                // Release the lock
+            } finally {
+                session.getLockInstance().unlock();
+            }
+        });
+        holder.start();
+        locked.await();
+        try {
+            handler.handleRequest(session, null, null);
+            Assert.fail("Request should not be handled");
+        } catch (SessionLockTimeoutException expected) {
+            Assert.assertFalse(handled.get());
+        } finally {
+            holder.interrupt();
+            holder.join();
+        }
+
+        Assert.assertTrue(handler.handleRequest(session, null, null));
+        Assert.assertTrue(handled.get());
+    }
+
+    @Test
+    public void sessionLockTimeout_lockSessionOutsideRequest_waitsForLock()
+            throws Exception {
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        configuration.setApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_SESSION_LOCK_TIMEOUT, "50");
+        MockVaadinServletService service = new MockVaadinServletService(
+                configuration);
+        service.init(new MockInstantiator());
+
+        Map<String, Object> attributes = new ConcurrentHashMap<>();
+        WrappedSession wrappedSession = Mockito.mock(WrappedSession.class);
+        Mockito.when(wrappedSession.getAttribute(Mockito.anyString()))
+                .thenAnswer(invocation -> attributes
+                        .get(invocation.getArguments()[0]));
+        Mockito.doAnswer(invocation -> attributes.put(
+                (String) invocation.getArguments()[0],
+                invocation.getArguments()[1])).when(wrappedSession)
+                .setAttribute(Mockito.anyString(), Mockito.any());
+
+        CountDownLatch locked = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            service.lockSession(wrappedSession);
+            try {
+                locked.countDown();
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                // Release the lock
+            } finally {
+                service.unlockSession(wrappedSession);
+            }
+        });
+        holder.start();
+        locked.await();
+
+        // E.g. UI.access from a background thread waits as before
+        service.lockSession(wrappedSession);
+        service.unlockSession(wrappedSession);
+        holder.join();
+    }
+
+    private static VaadinRequest createRequestWithAttributes() {
+        Map<String, Object> attributes = new HashMap<>();
+        VaadinRequest request = EasyMock.createMock(VaadinRequest.class);
+        Capture<String> name = EasyMock.newCapture();
+        Capture<Object> value = EasyMock.newCapture();
+        request.setAttribute(EasyMock.capture(name), EasyMock.capture(value));
+        EasyMock.expectLastCall()
+                .andAnswer(() -> attributes.put(name.getValue(),
+                        value.getValue()))
+                .anyTimes();
+        EasyMock.expect(request.getAttribute(EasyMock.capture(name)))
+                .andAnswer(() -> attributes.get(name.getValue())).anyTimes();
+        EasyMock.replay(request);
+        return request;
+    }
+
     private static VaadinService createService() {
         ServletConfig servletConfig = new MockServletConfig();
         VaadinServlet servlet = new VaadinServlet();
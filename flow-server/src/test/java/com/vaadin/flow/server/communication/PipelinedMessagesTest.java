@@ -0,0 +1,343 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.flow.server.Constants;
+import com.vaadin.flow.server.MockInstantiator;
+import com.vaadin.flow.server.MockVaadinServletService;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.server.communication.ServerRpcHandler.InvalidUIDLSecurityKeyException;
+import com.vaadin.flow.shared.ApplicationConstants;
+import com.vaadin.flow.shared.JsonConstants;
+import com.vaadin.tests.util.AlwaysLockedVaadinSession;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+import com.vaadin.tests.util.MockUI;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+
+public class PipelinedMessagesTest {
+
+    private static final int ONE_WAY_DELAY = 100;
+    private static final int DISPATCH_DELAY = 80;
+
+    private UI ui;
+    private Element element;
+    private VaadinRequest request;
+    private final List<Integer> handledEvents = new ArrayList<>();
+
+    private void setUp(int maxMessagesInFlight) {
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        configuration.setApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_MAX_MESSAGES_IN_FLIGHT,
+                String.valueOf(maxMessagesInFlight));
+        MockVaadinServletService service = new MockVaadinServletService(
+                configuration);
+        service.init(new MockInstantiator());
+        VaadinSession session = new AlwaysLockedVaadinSession(service);
+        session.setConfiguration(configuration);
+        ui = new MockUI(session);
+        element = new Element("button");
+        element.addEventListener("click", event -> handledEvents
+                .add((int) event.getEventData().getNumber("id")));
+        ui.getElement().appendChild(element);
+
+        request = Mockito.mock(VaadinRequest.class);
+        Mockito.when(request.getService()).thenReturn(service);
+    }
+
+    @After
+    public void tearDown() {
+        CurrentInstance.clearAll();
+    }
+
+    private String createMessage(int clientToServerId, int... events) {
+        JsonArray invocations = Json.createArray();
+        for (int event : events) {
+            JsonObject data = Json.createObject();
+            data.put("id", event);
+            JsonObject invocation = Json.createObject();
+            invocation.put(JsonConstants.RPC_TYPE,
+                    JsonConstants.RPC_TYPE_EVENT);
+            invocation.put(JsonConstants.RPC_NODE, element.getNode().getId());
+            invocation.put(JsonConstants.RPC_EVENT_TYPE, "click");
+            invocation.put(JsonConstants.RPC_EVENT_DATA, data);
+            invocations.set(invocations.length(), invocation);
+        }
+        JsonObject message = Json.createObject();
+        message.put(ApplicationConstants.CSRF_TOKEN,
+                ui.getSession().getCsrfToken());
+        message.put(ApplicationConstants.SERVER_SYNC_ID,
+                ui.getInternals().getServerSyncId());
+        message.put(ApplicationConstants.CLIENT_TO_SERVER_ID,
+                clientToServerId);
+        message.put(ApplicationConstants.RPC_INVOCATIONS, invocations);
+        return message.toJson();
+    }
+
+    /*
+     * Handles a message like PushHandler does and returns the next id the
+     * server expects, which is sent to the client in the response.
+     */
+    private int handle(String message)
+            throws IOException, InvalidUIDLSecurityKeyException {
+        new ServerRpcHandler().handleRpc(ui, new StringReader(message),
+                request);
+        return ui.getInternals().getLastProcessedClientToServerId() + 1;
+    }
+
+    @Test
+    public void messagesReceivedOutOfOrder_handledInOrder() throws Exception {
+        setUp(4);
+
+        Assert.assertEquals(1, handle(createMessage(0, 0)));
+        Assert.assertEquals(1, handle(createMessage(2, 2)));
+        Assert.assertEquals(1, handle(createMessage(3, 3)));
+        Assert.assertEquals(4, handle(createMessage(1, 1)));
+
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3),
+                handledEvents);
+        Assert.assertNull(ui.getInternals().removePendingClientMessage(2));
+    }
+
+    @Test
+    public void resynchronizeMessageAheadOfExpected_notBuffered()
+            throws Exception {
+        setUp(4);
+
+        handle(createMessage(0, 0));
+        JsonObject message = Json.parse(createMessage(2, 2));
+        message.put(ApplicationConstants.RESYNCHRONIZE_ID, true);
+        try {
+            handle(message.toJson());
+            Assert.fail("Resynchronization should be handled right away");
+        } catch (UnsupportedOperationException expected) {
+            // Resynchronization is not implemented
+        }
+
+        Assert.assertNull(ui.getInternals().removePendingClientMessage(2));
+        Assert.assertEquals(Arrays.asList(0), handledEvents);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void messageOutsideWindow_throws() throws Exception {
+        setUp(4);
+
+        handle(createMessage(0, 0));
+        handle(createMessage(5, 5));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void defaultConfiguration_messageOutOfOrder_throws()
+            throws Exception {
+        setUp(1);
+
+        handle(createMessage(0, 0));
+        handle(createMessage(2, 2));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void duplicateMessage_throws() throws Exception {
+        setUp(4);
+
+        handle(createMessage(0, 0));
+        handle(createMessage(0, 0));
+    }
+
+    @Test
+    public void latencySimulation_200msRoundTrip() throws Exception {
+        // A user clicking every 50 ms while each click waits for the
+        // response, e.g. a slider being dragged
+        int[] actionTimes = new int[20];
+        for (int i = 0; i < actionTimes.length; i++) {
+            actionTimes[i] = i * 50;
+        }
+        int maxLatency = 2 * ONE_WAY_DELAY + DISPATCH_DELAY;
+
+        setUp(1);
+        SimulatedClient sequential = new SimulatedClient(1);
+        int[] sequentialLatencies = sequential.run(actionTimes);
+        assertHandledInOrder(actionTimes.length);
+
+        handledEvents.clear();
+        setUp(8);
+        SimulatedClient pipelined = new SimulatedClient(8);
+        int[] pipelinedLatencies = pipelined.run(actionTimes);
+        assertHandledInOrder(actionTimes.length);
+
+        Assert.assertTrue("Expected later messages to overtake earlier ones",
+                pipelined.emptyResponses > 0);
+        Assert.assertTrue(
+                "Expected each action to be handled within one round trip, got "
+                        + max(pipelinedLatencies) + " ms",
+                max(pipelinedLatencies) <= maxLatency);
+        Assert.assertTrue(
+                "Expected actions to wait for earlier round trips, got "
+                        + max(sequentialLatencies) + " ms",
+                max(sequentialLatencies) > maxLatency);
+        Assert.assertTrue(
+                "Expected a lower total latency, got "
+                        + sum(pipelinedLatencies) + " ms instead of "
+                        + sum(sequentialLatencies) + " ms",
+                sum(pipelinedLatencies) < sum(sequentialLatencies));
+    }
+
+    private void assertHandledInOrder(int count) {
+        Assert.assertEquals(count, handledEvents.size());
+        for (int i = 0; i < count; i++) {
+            Assert.assertEquals(Integer.valueOf(i), handledEvents.get(i));
+        }
+    }
+
+    private static int sum(int[] values) {
+        int sum = 0;
+        for (int value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    private static int max(int[] values) {
+        int max = 0;
+        for (int value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    private static class Event implements Comparable<Event> {
+        private final int time;
+        private final int sequence;
+        private final Runnable action;
+
+        private Event(int time, int sequence, Runnable action) {
+            this.time = time;
+            this.sequence = sequence;
+            this.action = action;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            int result = Integer.compare(time, other.time);
+            return result != 0 ? result
+                    : Integer.compare(sequence, other.sequence);
+        }
+    }
+
+    /*
+     * Models the client engine sending user actions through a connection with
+     * the given one-way delay, using virtual time. Queued actions are sent in
+     * one message when the window allows, like the RPC queue of the client
+     * does. Every other message is dispatched late on the server to make
+     * later messages overtake earlier ones.
+     */
+    private class SimulatedClient {
+        private final int maxMessagesInFlight;
+        private final PriorityQueue<Event> events = new PriorityQueue<>();
+        private final List<Integer> queuedActions = new ArrayList<>();
+        private final Deque<int[]> messagesInFlight = new ArrayDeque<>();
+        private int nextId;
+        private int now;
+        private int eventCount;
+        private int[] actionTimes;
+        private int[] latencies;
+        private int emptyResponses;
+
+        private SimulatedClient(int maxMessagesInFlight) {
+            this.maxMessagesInFlight = maxMessagesInFlight;
+        }
+
+        private int[] run(int[] actionTimes) throws Exception {
+            this.actionTimes = actionTimes;
+            latencies = new int[actionTimes.length];
+            for (int i = 0; i < actionTimes.length; i++) {
+                int action = i;
+                schedule(actionTimes[i], () -> {
+                    queuedActions.add(action);
+                    sendIfAllowed();
+                });
+            }
+            while (!events.isEmpty()) {
+                Event event = events.poll();
+                now = event.time;
+                event.action.run();
+            }
+            return latencies;
+        }
+
+        private void schedule(int time, Runnable action) {
+            events.add(new Event(time, eventCount++, action));
+        }
+
+        private void sendIfAllowed() {
+            if (queuedActions.isEmpty()
+                    || messagesInFlight.size() >= maxMessagesInFlight) {
+                return;
+            }
+            int id = nextId++;
+            int[] actions = queuedActions.stream().mapToInt(Integer::intValue)
+                    .toArray();
+            queuedActions.clear();
+            messagesInFlight.add(actions);
+
+            String message = createMessage(id, actions);
+            int dispatchDelay = id % 2 == 0 ? DISPATCH_DELAY : 0;
+            schedule(now + ONE_WAY_DELAY + dispatchDelay, () -> {
+                int nextExpectedId;
+                try {
+                    nextExpectedId = handle(message);
+                } catch (IOException | InvalidUIDLSecurityKeyException e) {
+                    throw new AssertionError(e);
+                }
+                schedule(now + ONE_WAY_DELAY,
+                        () -> receiveResponse(nextExpectedId));
+            });
+        }
+
+        private void receiveResponse(int nextExpectedId) {
+            // Messages with a lower id than the expected one are handled
+            int firstInFlightId = nextId - messagesInFlight.size();
+            if (nextExpectedId == firstInFlightId) {
+                emptyResponses++;
+            }
+            for (int id = firstInFlightId; id < nextExpectedId; id++) {
+                for (int action : messagesInFlight.poll()) {
+                    latencies[action] = now - actionTimes[action];
+                }
+            }
+            sendIfAllowed();
+        }
+    }
+}
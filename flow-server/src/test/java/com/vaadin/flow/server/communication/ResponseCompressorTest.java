@@ -0,0 +1,187 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.VaadinResponse;
+import com.vaadin.flow.server.VaadinService;
+
+public class ResponseCompressorTest {
+
+    private static final String JSON = createJson();
+
+    @Test
+    public void compress_outputIsValidGzip() throws IOException {
+        ResponseCompressor compressor = new ResponseCompressor(0, 1);
+        byte[] data = JSON.getBytes(StandardCharsets.UTF_8);
+
+        // The pooled deflater is reused for each call
+        for (int i = 0; i < 3; i++) {
+            byte[] compressed = compressor.compress(data);
+            Assert.assertTrue(compressed.length * 5 < data.length);
+            Assert.assertArrayEquals(data, decompress(compressed));
+        }
+        Assert.assertEquals(1, compressor.getPooledDeflaterCount());
+    }
+
+    @Test
+    public void destroy_pooledDeflatersReleased() throws IOException {
+        ResponseCompressor compressor = new ResponseCompressor(0, 6);
+        byte[] data = JSON.getBytes(StandardCharsets.UTF_8);
+        compressor.compress(data);
+        Assert.assertEquals(1, compressor.getPooledDeflaterCount());
+
+        compressor.destroy();
+        Assert.assertEquals(0, compressor.getPooledDeflaterCount());
+
+        // Still works, but the deflater is not kept after the service has
+        // been destroyed
+        Assert.assertArrayEquals(data,
+                decompress(compressor.compress(data)));
+        Assert.assertEquals(0, compressor.getPooledDeflaterCount());
+    }
+
+    @Test
+    public void compress_emptyData_outputIsValidGzip() throws IOException {
+        ResponseCompressor compressor = new ResponseCompressor(0, 9);
+        Assert.assertArrayEquals(new byte[0],
+                decompress(compressor.compress(new byte[0])));
+    }
+
+    @Test
+    public void shouldCompress_thresholdAndAcceptEncoding() {
+        ResponseCompressor compressor = new ResponseCompressor(100, 6);
+
+        Assert.assertTrue(compressor.shouldCompress(request("gzip, deflate"),
+                100));
+        Assert.assertFalse(compressor.shouldCompress(request("gzip, deflate"),
+                99));
+        Assert.assertFalse(compressor.shouldCompress(request("br"), 1000));
+        Assert.assertFalse(compressor.shouldCompress(request(null), 1000));
+        Assert.assertFalse(compressor.shouldCompress(null, 1000));
+    }
+
+    @Test
+    public void shouldCompress_disabled_neverCompresses() {
+        ResponseCompressor compressor = new ResponseCompressor(-1, 6);
+
+        Assert.assertFalse(compressor.isEnabled());
+        Assert.assertFalse(compressor.shouldCompress(request("gzip"), 1000));
+    }
+
+    @Test
+    public void acceptsGzip_qualityValues() {
+        Assert.assertTrue(ResponseCompressor.acceptsGzip("GZIP;q=0.5"));
+        Assert.assertTrue(ResponseCompressor.acceptsGzip("*"));
+        Assert.assertFalse(ResponseCompressor.acceptsGzip("gzip;q=0"));
+        Assert.assertFalse(ResponseCompressor.acceptsGzip("gzip; q=0.0"));
+        Assert.assertFalse(ResponseCompressor.acceptsGzip("identity"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidLevel_throws() {
+        new ResponseCompressor(0, 10);
+    }
+
+    @Test
+    public void commitJsonResponse_largeResponse_compressedAndRecorded()
+            throws IOException {
+        ResponseCompressor compressor = new ResponseCompressor(1024, 6);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        VaadinResponse response = response(compressor, out);
+
+        UidlRequestHandler.commitJsonResponse(request("gzip"), response, JSON);
+
+        Mockito.verify(response).setHeader("Content-Encoding", "gzip");
+        Mockito.verify(response).setContentLength(out.size());
+        Assert.assertEquals(JSON, new String(decompress(out.toByteArray()),
+                StandardCharsets.UTF_8));
+
+        UidlRequestHandler.commitJsonResponse(request("gzip"), response,
+                "{}");
+
+        Assert.assertEquals(2, compressor.getResponseCount());
+        Assert.assertEquals(1, compressor.getCompressedResponseCount());
+        Assert.assertEquals(JSON.length() + 2,
+                compressor.getUncompressedBytes());
+        Assert.assertEquals(out.size(), compressor.getWrittenBytes());
+        Assert.assertTrue(compressor.getCompressionRatio() < 0.2);
+    }
+
+    @Test
+    public void commitJsonResponse_noRequest_notCompressed()
+            throws IOException {
+        ResponseCompressor compressor = new ResponseCompressor(0, 6);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        VaadinResponse response = response(compressor, out);
+
+        UidlRequestHandler.commitJsonResponse(response, JSON);
+
+        Mockito.verify(response, Mockito.never())
+                .setHeader(Mockito.eq("Content-Encoding"), Mockito.anyString());
+        Assert.assertEquals(JSON, out.toString("UTF-8"));
+        Assert.assertEquals(1, compressor.getResponseCount());
+        Assert.assertEquals(1, compressor.getCompressionRatio(), 0);
+    }
+
+    private static VaadinRequest request(String acceptEncoding) {
+        VaadinRequest request = Mockito.mock(VaadinRequest.class);
+        Mockito.when(request.getHeader("Accept-Encoding"))
+                .thenReturn(acceptEncoding);
+        return request;
+    }
+
+    private static VaadinResponse response(ResponseCompressor compressor,
+            ByteArrayOutputStream out) throws IOException {
+        VaadinService service = Mockito.mock(VaadinService.class);
+        Mockito.when(service.getResponseCompressor()).thenReturn(compressor);
+        VaadinResponse response = Mockito.mock(VaadinResponse.class);
+        Mockito.when(response.getService()).thenReturn(service);
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        return response;
+    }
+
+    private static byte[] decompress(byte[] data) throws IOException {
+        try (GZIPInputStream stream = new GZIPInputStream(
+                new ByteArrayInputStream(data))) {
+            return IOUtils.toByteArray(stream);
+        }
+    }
+
+    private static String createJson() {
+        StringBuilder builder = new StringBuilder("for(;;);[{\"changes\":[");
+        for (int i = 0; i < 500; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"node\":").append(i + 10)
+                    .append(",\"type\":\"put\",\"key\":\"tag\",\"feat\":3,"
+                            + "\"value\":\"vaadin-grid-cell-content\"}");
+        }
+        return builder.append("]}]").toString();
+    }
+}
@@ -39,6 +39,8 @@ import com.vaadin.flow.component.dependency.StyleSheet;
 import com.vaadin.flow.component.internal.UIInternals.JavaScriptInvocation;
 import com.vaadin.flow.dom.Element;
 import com.vaadin.flow.dom.ElementFactory;
+import com.vaadin.flow.internal.ConstantPool;
+import com.vaadin.flow.internal.CurrentInstance;
 import com.vaadin.flow.internal.JsonUtils;
 import com.vaadin.flow.router.ParentLayout;
 import com.vaadin.flow.router.Route;
@@ -47,13 +49,19 @@ import com.vaadin.flow.router.RouterLayout;
 import com.vaadin.flow.server.MockServletServiceSessionSetup;
 import com.vaadin.flow.server.VaadinServletRequest;
 import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.server.metrics.MemoryFootprint;
+import com.vaadin.flow.server.metrics.RequestCounter;
+import com.vaadin.flow.server.metrics.RequestMetrics;
+import com.vaadin.flow.server.metrics.RequestPhase;
 import com.vaadin.flow.shared.ApplicationConstants;
+import com.vaadin.flow.shared.JsonConstants;
 import com.vaadin.flow.shared.ui.Dependency;
 import com.vaadin.flow.shared.ui.LoadMode;
 
 import elemental.json.Json;
 import elemental.json.JsonArray;
 import elemental.json.JsonObject;
+import elemental.json.JsonType;
 import elemental.json.JsonValue;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
@@ -195,16 +203,144 @@ public class UidlWriterTest {
         List<JavaScriptInvocation> executeJavaScriptList = Arrays
                 .asList(invocation1, invocation2);
 
-        JsonArray json = UidlWriter
-                .encodeExecuteJavaScriptList(executeJavaScriptList);
-
-        JsonArray expectedJson = JsonUtils.createArray(JsonUtils.createArray(
-                // Null since element is not attached
-                Json.createNull(), Json.create("$0.focus()")), JsonUtils
-                .createArray(Json.create("Lives remaining:"), Json.create(3),
-                        Json.create("console.log($0, $1)")));
+        ConstantPool constantPool = new ConstantPool();
+        JsonArray json = UidlWriter.encodeExecuteJavaScriptList(
+                executeJavaScriptList, constantPool);
+
+        // Scripts used for the first time are sent inline
+        JsonArray expectedJson = JsonUtils.createArray(
+                JsonUtils.createArray(
+                        // Null since element is not attached
+                        Json.createNull(),
+                        JsonUtils.createArray(Json.create("$0"),
+                                Json.create("$0.focus()"))),
+                JsonUtils.createArray(Json.create("Lives remaining:"),
+                        Json.create(3),
+                        JsonUtils.createArray(Json.create("$0"),
+                                Json.create("$1"),
+                                Json.create("console.log($0, $1)"))));
 
         assertTrue(JsonUtils.jsonEquals(expectedJson, json));
+        assertFalse(constantPool.hasNewConstants());
+    }
+
+    @Test
+    public void encodeExecuteJavaScript_sameScript_pooledFromSecondUse() {
+        ConstantPool constantPool = new ConstantPool();
+        JsonArray first = UidlWriter.encodeExecuteJavaScriptList(
+                Collections.singletonList(
+                        new JavaScriptInvocation("$0.update($1)", "a", 1)),
+                constantPool);
+        assertEquals(JsonType.ARRAY, first.getArray(0).get(2).getType());
+        assertFalse(constantPool.hasNewConstants());
+
+        JsonArray second = UidlWriter.encodeExecuteJavaScriptList(
+                Arrays.asList(new JavaScriptInvocation("$0.update($1)", "b", 2),
+                        new JavaScriptInvocation("$0.update($1)", "c", 3)),
+                constantPool);
+        assertTrue(constantPool.hasNewConstants());
+        String functionId = second.getArray(0).getString(2);
+        assertEquals(functionId, second.getArray(1).getString(2));
+        assertTrue(JsonUtils.jsonEquals(
+                JsonUtils.createArray(Json.create("$0"), Json.create("$1"),
+                        Json.create("$0.update($1)")),
+                constantPool.dumpConstants().getArray(functionId)));
+
+        JsonArray third = UidlWriter.encodeExecuteJavaScriptList(
+                Collections.singletonList(
+                        new JavaScriptInvocation("$0.update($1)", "d", 4)),
+                constantPool);
+        assertFalse(constantPool.hasNewConstants());
+        assertEquals(functionId, third.getArray(0).getString(2));
+
+        // The parameter names are part of the function
+        JsonArray otherParameters = UidlWriter.encodeExecuteJavaScriptList(
+                Collections.singletonList(
+                        new JavaScriptInvocation("$0.update($1)", "e")),
+                constantPool);
+        assertEquals(JsonType.ARRAY,
+                otherParameters.getArray(0).get(1).getType());
+    }
+
+    @Test
+    public void encodeExecuteJavaScript_distinctScripts_notPooled() {
+        ConstantPool constantPool = new ConstantPool();
+        for (int i = 0; i < 1000; i++) {
+            JsonArray json = UidlWriter.encodeExecuteJavaScriptList(
+                    Collections.singletonList(new JavaScriptInvocation(
+                            "console.log('" + i + "')")),
+                    constantPool);
+            assertEquals(JsonType.ARRAY, json.getArray(0).get(0).getType());
+        }
+
+        assertFalse(constantPool.hasNewConstants());
+        MemoryFootprint footprint = new MemoryFootprint();
+        constantPool.estimateMemoryFootprint(footprint);
+        assertEquals(0, footprint.getCount(MemoryFootprint.CONSTANT_POOL));
+    }
+
+    @Test
+    public void createUidl_repeatedScript_bytesSaved() throws Exception {
+        UI ui = initializeUIForDependenciesTest(new TestUI());
+        UidlWriter uidlWriter = new UidlWriter();
+        uidlWriter.createUidl(ui, false);
+
+        String script = "const chart = $0; chart.series[0].addPoint($1, true, "
+                + "chart.series[0].data.length > 100); chart.redraw();";
+        int invocations = 500;
+        long inlineBytes = 0;
+        for (int i = 0; i < invocations; i++) {
+            ui.getPage().executeJavaScript(script, "chart", i);
+            // [argument1, argument2, script]
+            inlineBytes += JsonUtils
+                    .createArray(Json.create("chart"), Json.create(i),
+                            Json.create(script))
+                    .toJson().length();
+        }
+
+        JsonObject response = uidlWriter.createUidl(ui, false);
+        long pooledBytes = response.getArray(JsonConstants.UIDL_KEY_EXECUTE)
+                .toJson().length()
+                + response.getObject("constants").toJson().length();
+
+        assertEquals(invocations, response
+                .getArray(JsonConstants.UIDL_KEY_EXECUTE).length());
+        // The first invocation is sent inline, the rest through the pool
+        assertEquals(JsonType.ARRAY, response
+                .getArray(JsonConstants.UIDL_KEY_EXECUTE).getArray(0).get(2)
+                .getType());
+        assertEquals(1, response.getObject("constants").keys().length);
+        assertTrue("Expected less than a third of " + inlineBytes
+                + " bytes, got " + pooledBytes,
+                pooledBytes < inlineBytes / 3);
+    }
+
+    @Test
+    public void createUidl_requestMetricsRecorded() throws Exception {
+        UI ui = initializeUIForDependenciesTest(new TestUI());
+        UidlWriter uidlWriter = new UidlWriter();
+        uidlWriter.createUidl(ui, false);
+
+        RequestMetrics metrics = new RequestMetrics(System.nanoTime());
+        CurrentInstance.set(RequestMetrics.class, metrics);
+        try {
+            ui.getElement().appendChild(ElementFactory.createDiv(),
+                    ElementFactory.createSpan());
+            ui.getElement().getNode().runWhenAttached(
+                    u -> u.beforeClientResponse(u, context -> {
+                    }));
+
+            JsonObject response = uidlWriter.createUidl(ui, false);
+
+            assertTrue(metrics.getTime(RequestPhase.COLLECT_CHANGES) > 0);
+            assertTrue(
+                    metrics.getTime(RequestPhase.BEFORE_CLIENT_RESPONSE) > 0);
+            assertEquals(3, metrics.getCount(RequestCounter.DIRTY_NODES));
+            assertEquals(response.getArray("changes").length(),
+                    metrics.getCount(RequestCounter.CHANGES));
+        } finally {
+            CurrentInstance.set(RequestMetrics.class, null);
+        }
     }
 
     @Test
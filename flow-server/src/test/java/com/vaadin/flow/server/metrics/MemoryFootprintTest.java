@@ -0,0 +1,247 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.metrics;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.component.Tag;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.polymertemplate.PolymerTemplate;
+import com.vaadin.flow.component.polymertemplate.TemplateParser.TemplateData;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.function.DeploymentConfiguration;
+import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.flow.internal.nodefeature.ElementAttributeMap;
+import com.vaadin.flow.internal.nodefeature.ElementChildrenList;
+import com.vaadin.flow.internal.nodefeature.ElementData;
+import com.vaadin.flow.server.MockInstantiator;
+import com.vaadin.flow.server.MockVaadinServletService;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinServletRequest;
+import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.shared.Registration;
+import com.vaadin.flow.templatemodel.TemplateModel;
+import com.vaadin.tests.util.AlwaysLockedVaadinSession;
+import com.vaadin.tests.util.MockUI;
+
+import org.jsoup.Jsoup;
+
+public class MemoryFootprintTest {
+
+    private static final int ELEMENTS = 1000;
+
+    /*
+     * Estimated bytes per instance in the benchmarks below. Update the values
+     * when a change intentionally makes the footprint smaller, and explain any
+     * increase.
+     */
+    private static final long DIV_WITH_TEXT_BYTES = 564;
+    private static final long TEMPLATE_BYTES = 492;
+
+    @Tag("memory-template")
+    public static class MemoryTemplate extends PolymerTemplate<TemplateModel> {
+        public MemoryTemplate(VaadinService service) {
+            super((clazz, tag, templateService) -> new TemplateData("",
+                    Jsoup.parse("<dom-module id='" + tag
+                            + "'><template><div id='label'>Label</div>"
+                            + "<input id='input'>"
+                            + "<button on-click='handleClick'>Click</button>"
+                            + "</template></dom-module>")),
+                    service);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        CurrentInstance.clearAll();
+    }
+
+    @Test
+    public void estimate_nodesFeaturesAndListenersCounted() {
+        UI ui = new MockUI();
+        long emptyNodes = MemoryFootprint.estimate(ui)
+                .getCount(MemoryFootprint.STATE_NODE);
+        Element div = new Element("div");
+        div.setAttribute("title", "foo");
+        div.addEventListener("click", event -> {
+        });
+        div.addEventListener("click", event -> {
+        });
+        div.appendChild(new Element("span"));
+        ui.getElement().appendChild(div);
+
+        MemoryFootprint footprint = MemoryFootprint.estimate(ui);
+
+        Assert.assertEquals(1, footprint.getCount(MemoryFootprint.UI));
+        Assert.assertEquals(emptyNodes + 2,
+                footprint.getCount(MemoryFootprint.STATE_NODE));
+        Assert.assertEquals(2,
+                footprint.getCount(MemoryFootprint.DOM_EVENT_LISTENER));
+        Assert.assertTrue(footprint.getCount(
+                ElementAttributeMap.class.getSimpleName()) >= 1);
+        Assert.assertTrue(footprint.getCount(
+                ElementChildrenList.class.getSimpleName()) >= 2);
+        Assert.assertTrue(footprint
+                .getCount(ElementData.class.getSimpleName()) >= 3);
+        Assert.assertEquals(footprint.getCategories().stream()
+                .mapToLong(footprint::getEstimatedBytes).sum(),
+                footprint.getEstimatedBytes());
+    }
+
+    @Test
+    public void estimate_largerValues_moreBytes() {
+        UI ui = new MockUI();
+        Element div = new Element("div");
+        ui.getElement().appendChild(div);
+        div.setProperty("value", "a");
+        long small = MemoryFootprint.estimate(ui).getEstimatedBytes();
+
+        div.setProperty("value", new String(new char[1000]));
+        long large = MemoryFootprint.estimate(ui).getEstimatedBytes();
+
+        // Two bytes per character
+        Assert.assertTrue(large - small > 1900);
+    }
+
+    @Test
+    public void estimate_pendingJavaScriptInvocationsCounted() {
+        UI ui = new MockUI();
+        ui.getPage().executeJavaScript("console.log($0)", "foo");
+        ui.getPage().executeJavaScript("console.log($0)", "bar");
+
+        MemoryFootprint footprint = MemoryFootprint.estimate(ui);
+
+        Assert.assertEquals(2, footprint
+                .getCount(MemoryFootprint.PENDING_JAVASCRIPT_INVOCATION));
+        Assert.assertTrue(footprint.getEstimatedBytes(
+                MemoryFootprint.PENDING_JAVASCRIPT_INVOCATION) > 0);
+    }
+
+    @Test
+    public void estimate_contributorAddedAndRemoved() {
+        UI ui = new MockUI();
+        Registration registration = ui.getInternals()
+                .addMemoryFootprintContributor(
+                        footprint -> footprint.add("Custom", 5, 100));
+
+        Assert.assertEquals(5,
+                MemoryFootprint.estimate(ui).getCount("Custom"));
+        Assert.assertEquals(100,
+                MemoryFootprint.estimate(ui).getEstimatedBytes("Custom"));
+
+        registration.remove();
+        Assert.assertEquals(0,
+                MemoryFootprint.estimate(ui).getCount("Custom"));
+    }
+
+    @Test
+    public void estimateSession_sumOfUIs() {
+        MockVaadinServletService service = new MockVaadinServletService();
+        service.init(new MockInstantiator());
+        VaadinSession session = new AlwaysLockedVaadinSession(service);
+        UI ui1 = addUI(session, 1);
+        UI ui2 = addUI(session, 2);
+        ui2.getElement().appendChild(new Element("div"));
+
+        MemoryFootprint expected = MemoryFootprint.estimate(ui1);
+        expected.add(MemoryFootprint.estimate(ui2));
+        MemoryFootprint footprint = MemoryFootprint.estimate(session);
+
+        Assert.assertEquals(2, footprint.getCount(MemoryFootprint.UI));
+        Assert.assertEquals(expected.getEstimatedBytes(),
+                footprint.getEstimatedBytes());
+        Assert.assertEquals(expected.getCategories(),
+                footprint.getCategories());
+    }
+
+    @Test
+    public void monitor_everyNthRequestSampled() {
+        MockVaadinServletService service = new MockVaadinServletService();
+        service.init(new MockInstantiator());
+        VaadinSession session = new AlwaysLockedVaadinSession(service);
+        addUI(session, 1);
+        MemoryFootprintMonitor monitor = new MemoryFootprintMonitor(3);
+
+        monitor.requestEnded(session);
+        monitor.requestEnded(session);
+        Assert.assertEquals(0, monitor.getSampleCount());
+        Assert.assertEquals(0, monitor.getSessionCount());
+
+        monitor.requestEnded(session);
+        Assert.assertEquals(1, monitor.getSampleCount());
+        Assert.assertEquals(1, monitor.getSessionCount());
+        Assert.assertEquals(
+                MemoryFootprint.estimate(session).getEstimatedBytes(),
+                monitor.getEstimatedBytes());
+        Assert.assertEquals(Long.valueOf(1),
+                monitor.getCountByCategory().get(MemoryFootprint.UI));
+
+        monitor.sessionDestroyed(session);
+        Assert.assertEquals(0, monitor.getSessionCount());
+        Assert.assertEquals(0, monitor.getEstimatedBytes());
+    }
+
+    @Test
+    public void bytesPerElement_benchmark() {
+        UI ui = new MockUI();
+        long empty = MemoryFootprint.estimate(ui).getEstimatedBytes();
+        for (int i = 0; i < ELEMENTS; i++) {
+            Element div = new Element("div");
+            div.setAttribute("class", "item");
+            div.setText("Item " + i);
+            ui.getElement().appendChild(div);
+        }
+        long bytesPerElement = (MemoryFootprint.estimate(ui)
+                .getEstimatedBytes() - empty) / ELEMENTS;
+        Assert.assertTrue("Estimated " + bytesPerElement + " bytes per element",
+                bytesPerElement <= DIV_WITH_TEXT_BYTES);
+    }
+
+    @Test
+    public void bytesPerTemplate_benchmark() {
+        VaadinService service = Mockito.mock(VaadinService.class);
+        DeploymentConfiguration configuration = Mockito
+                .mock(DeploymentConfiguration.class);
+        Mockito.when(service.getDeploymentConfiguration())
+                .thenReturn(configuration);
+        UI ui = new MockUI();
+        long empty = MemoryFootprint.estimate(ui).getEstimatedBytes();
+        for (int i = 0; i < ELEMENTS; i++) {
+            ui.add(new MemoryTemplate(service));
+        }
+        long bytesPerTemplate = (MemoryFootprint.estimate(ui)
+                .getEstimatedBytes() - empty) / ELEMENTS;
+        Assert.assertTrue(
+                "Estimated " + bytesPerTemplate + " bytes per template",
+                bytesPerTemplate <= TEMPLATE_BYTES);
+    }
+
+    private static UI addUI(VaadinSession session, int id) {
+        UI ui = new MockUI(session);
+        VaadinServletRequest request = Mockito
+                .mock(VaadinServletRequest.class);
+        Mockito.when(request.getHttpServletRequest())
+                .thenReturn(Mockito.mock(HttpServletRequest.class));
+        ui.doInit(request, id);
+        session.addUI(ui);
+        return ui;
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.flow.server.MockInstantiator;
+import com.vaadin.flow.server.MockVaadinServletService;
+import com.vaadin.flow.server.ServiceInitEvent;
+import com.vaadin.flow.server.metrics.RequestMetricsHistogram.Histogram;
+
+public class RequestMetricsHistogramTest {
+
+    @Test
+    public void histogram_bucketsCoverAllValues() {
+        long[] values = { 0, 1, 3, 4, 5, 7, 8, 9, 1000, 123456789,
+                Long.MAX_VALUE };
+        int previousBucket = -1;
+        for (long value : values) {
+            int bucket = Histogram.getBucket(value);
+            Assert.assertTrue(bucket >= previousBucket);
+            long upperBound = Histogram.getUpperBound(bucket);
+            Assert.assertTrue(upperBound >= value);
+            // Relative error of at most 25%
+            Assert.assertTrue(upperBound - value <= value / 4);
+            if (bucket > 0) {
+                Assert.assertTrue(
+                        Histogram.getUpperBound(bucket - 1) < value);
+            }
+            previousBucket = bucket;
+        }
+    }
+
+    @Test
+    public void histogram_percentiles() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        Assert.assertEquals(1000, histogram.getCount());
+        Assert.assertEquals(500500, histogram.getMean(), 0.001);
+        Assert.assertEquals(1000000, histogram.getMax());
+        assertEstimate(500000, histogram.getPercentile(50));
+        assertEstimate(990000, histogram.getPercentile(99));
+        Assert.assertEquals(1000000, histogram.getPercentile(100));
+
+        histogram.reset();
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getPercentile(50));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void histogram_invalidPercentile_throws() {
+        new Histogram().getPercentile(101);
+    }
+
+    @Test
+    public void requestHandled_onlyRunPhasesRecorded() {
+        MockVaadinServletService service = new MockVaadinServletService();
+        RequestMetricsHistogram histogram = new RequestMetricsHistogram();
+
+        RequestMetrics uidl = new RequestMetrics(System.nanoTime());
+        uidl.recordTime(RequestPhase.COLLECT_CHANGES,
+                System.nanoTime() - 2000000);
+        uidl.recordRpcTime("event", System.nanoTime() - 1000000);
+        uidl.increment(RequestCounter.RESPONSE_BYTES, 1234);
+        uidl.end();
+        histogram.requestHandled(new RequestMetricsEvent(service, null, null,
+                uidl));
+
+        RequestMetrics resource = new RequestMetrics(System.nanoTime());
+        resource.end();
+        histogram.requestHandled(
+                new RequestMetricsEvent(service, null, null, resource));
+
+        Assert.assertEquals(2, histogram.getRequestCount());
+        Assert.assertEquals(1,
+                histogram.getPhase(RequestPhase.COLLECT_CHANGES).getCount());
+        Assert.assertEquals(1,
+                histogram.getPhase(RequestPhase.RPC_INVOCATION).getCount());
+        Assert.assertEquals(0,
+                histogram.getPhase(RequestPhase.WRITE).getCount());
+        Assert.assertEquals(1, histogram.getRpcTypes().get("event").getCount());
+        Assert.assertEquals(1234L, histogram.getCounter(
+                RequestCounter.RESPONSE_BYTES).getMax());
+
+        Map<String, Double> max = histogram.getMaxMillis();
+        Assert.assertTrue(max.get("COLLECT_CHANGES") >= 2);
+        Assert.assertTrue(max.get("RPC_INVOCATION:event") >= 1);
+        Assert.assertEquals(Long.valueOf(1234),
+                histogram.getCounterMax().get("RESPONSE_BYTES"));
+
+        histogram.reset();
+        Assert.assertEquals(0, histogram.getRequestCount());
+        Assert.assertTrue(histogram.getRpcTypes().isEmpty());
+    }
+
+    @Test
+    public void install_mbeanRegisteredUntilServiceDestroyed()
+            throws Exception {
+        MockVaadinServletService service = new MockVaadinServletService() {
+            @Override
+            public String getServiceName() {
+                return "metrics-test";
+            }
+        };
+        service.init(new MockInstantiator());
+        ServiceInitEvent event = new ServiceInitEvent(service);
+        RequestMetricsHistogram histogram = RequestMetricsHistogram
+                .install(event);
+        Assert.assertEquals(1, event.getAddedRequestMetricsListeners()
+                .filter(listener -> listener == histogram).count());
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(
+                "com.vaadin.flow:type=RequestMetrics,service=\"metrics-test\"");
+        try {
+            Assert.assertTrue(server.isRegistered(name));
+            Assert.assertEquals(0L,
+                    server.getAttribute(name, "RequestCount"));
+
+            service.destroy();
+            Assert.assertFalse(server.isRegistered(name));
+        } finally {
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        }
+    }
+
+    private static void assertEstimate(long expected, long estimate) {
+        Assert.assertTrue(estimate >= expected);
+        Assert.assertTrue(estimate <= expected * 5 / 4);
+    }
+}
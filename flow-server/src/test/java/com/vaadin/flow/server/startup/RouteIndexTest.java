@@ -0,0 +1,274 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.startup;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.Tag;
+import com.vaadin.flow.component.WebComponent;
+import com.vaadin.flow.component.page.Viewport;
+import com.vaadin.flow.router.BeforeEnterEvent;
+import com.vaadin.flow.router.ErrorParameter;
+import com.vaadin.flow.router.HasErrorParameter;
+import com.vaadin.flow.router.NotFoundException;
+import com.vaadin.flow.router.Route;
+import com.vaadin.flow.router.RouteAlias;
+import com.vaadin.flow.router.RouterLayout;
+import com.vaadin.flow.router.TestRouteRegistry;
+import com.vaadin.flow.server.InvalidApplicationConfigurationException;
+import com.vaadin.flow.server.RouteRegistry;
+import com.vaadin.flow.server.webcomponent.WebComponentRegistry;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+
+public class RouteIndexTest {
+
+    @Tag(Tag.DIV)
+    @Viewport("width=device-width")
+    public static class MainLayout extends Component implements RouterLayout {
+    }
+
+    @Tag(Tag.DIV)
+    @Route(value = "", layout = MainLayout.class)
+    @RouteAlias(value = "home", layout = MainLayout.class)
+    public static class MainView extends Component {
+    }
+
+    @Tag(Tag.DIV)
+    @Route("other")
+    public static class OtherView extends Component {
+    }
+
+    @Tag(Tag.DIV)
+    @Route(value = "hidden", registerAtStartup = false)
+    public static class HiddenView extends Component {
+    }
+
+    @Tag(Tag.DIV)
+    @Viewport("width=device-width")
+    public static class MisplacedViewportComponent extends Component {
+    }
+
+    @Tag(Tag.DIV)
+    public static class NotFoundView extends Component
+            implements HasErrorParameter<NotFoundException> {
+        @Override
+        public int setErrorParameter(BeforeEnterEvent event,
+                ErrorParameter<NotFoundException> parameter) {
+            return 404;
+        }
+    }
+
+    @Tag(Tag.DIV)
+    @WebComponent("my-component")
+    public static class MyWebComponent extends Component {
+    }
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private ApplicationRouteRegistry registry;
+    private ServletContext servletContext;
+
+    @Before
+    public void init() {
+        registry = new TestRouteRegistry();
+        servletContext = Mockito.mock(ServletContext.class);
+        Mockito.when(servletContext.getAttribute(RouteRegistry.class.getName()))
+                .thenReturn(registry);
+    }
+
+    @Test
+    public void createIndex_listsIndexedClasses() {
+        JsonObject index = Json.parse(RouteIndex
+                .createIndex(getClassesByType(MainView.class, OtherView.class,
+                        HiddenView.class), true));
+
+        Assert.assertTrue(index.getBoolean("metadataComplete"));
+
+        JsonArray routes = index.getArray("routes");
+        Assert.assertEquals(2, routes.length());
+        JsonObject mainView = routes.getObject(0);
+        Assert.assertEquals(MainView.class.getName(),
+                mainView.getString("class"));
+        Assert.assertEquals("", mainView.getString("path"));
+        Assert.assertEquals(MainLayout.class.getName(),
+                mainView.getArray("parentLayouts").getString(0));
+        JsonObject alias = mainView.getArray("aliases").getObject(0);
+        Assert.assertEquals("home", alias.getString("path"));
+        Assert.assertEquals(MainLayout.class.getName(),
+                alias.getArray("parentLayouts").getString(0));
+        Assert.assertEquals(OtherView.class.getName(),
+                routes.getObject(1).getString("class"));
+
+        Assert.assertEquals(NotFoundView.class.getName(),
+                index.getArray("errorNavigationTargets").getString(0));
+        Assert.assertEquals(MyWebComponent.class.getName(),
+                index.getObject("webComponents").getString("my-component"));
+        Assert.assertEquals(MainLayout.class.getName(),
+                index.getObject("annotations")
+                        .getArray(Viewport.class.getName()).getString(0));
+    }
+
+    @Test(expected = InvalidApplicationConfigurationException.class)
+    public void createIndex_misplacedAnnotation_throws() {
+        RouteIndex.createIndex(getClassesByType(MainView.class,
+                MisplacedViewportComponent.class), true);
+    }
+
+    @Test
+    public void noIndex_scannedClassesUsed() throws ServletException {
+        Mockito.when(servletContext.getClassLoader())
+                .thenReturn(getClass().getClassLoader());
+        Assert.assertNull(RouteIndex.get(servletContext));
+
+        new RouteRegistryInitializer().onStartup(
+                Collections.singleton(OtherView.class), servletContext);
+
+        Assert.assertEquals(OtherView.class,
+                registry.getNavigationTarget("other").get());
+        Assert.assertFalse(registry.getNavigationTarget("").isPresent());
+    }
+
+    @Test
+    public void metadataCompleteIndex_indexedClassesUsedInsteadOfScanned()
+            throws Exception {
+        writeIndex(true, MainView.class);
+
+        new RouteRegistryInitializer().onStartup(
+                Collections.singleton(OtherView.class), servletContext);
+        new ErrorNavigationTargetInitializer().onStartup(null, servletContext);
+
+        Assert.assertEquals(MainView.class,
+                registry.getNavigationTarget("").get());
+        Assert.assertEquals(MainView.class,
+                registry.getNavigationTarget("home").get());
+        Assert.assertFalse(registry.getNavigationTarget("other").isPresent());
+        Assert.assertEquals(NotFoundView.class,
+                registry.getErrorNavigationTarget(new NotFoundException()).get()
+                        .getNavigationTarget());
+    }
+
+    @Test
+    public void metadataCompleteIndex_validationSkipped() throws Exception {
+        writeIndex(true, MainView.class);
+
+        // Would fail validation, but the index has already been validated
+        new AnnotationValidator().onStartup(
+                Collections.singleton(MisplacedViewportComponent.class),
+                servletContext);
+    }
+
+    @Test
+    public void incompleteIndex_indexedAndScannedClassesUsed()
+            throws Exception {
+        writeIndex(false, MainView.class);
+
+        new RouteRegistryInitializer().onStartup(
+                Collections.singleton(OtherView.class), servletContext);
+
+        Assert.assertEquals(MainView.class,
+                registry.getNavigationTarget("").get());
+        Assert.assertEquals(OtherView.class,
+                registry.getNavigationTarget("other").get());
+    }
+
+    @Test(expected = InvalidApplicationConfigurationException.class)
+    public void incompleteIndex_scannedClassesValidated() throws Exception {
+        writeIndex(false, MainView.class);
+
+        new AnnotationValidator().onStartup(
+                Collections.singleton(MisplacedViewportComponent.class),
+                servletContext);
+    }
+
+    @Test
+    public void indexedWebComponentsRegistered() throws Exception {
+        WebComponentRegistry webComponentRegistry = Mockito
+                .mock(WebComponentRegistry.class);
+        Mockito.when(servletContext
+                .getAttribute(WebComponentRegistry.class.getName()))
+                .thenReturn(webComponentRegistry);
+        writeIndex(true, MainView.class);
+
+        new WebComponentRegistryInitializer().onStartup(null, servletContext);
+
+        Mockito.verify(webComponentRegistry).setWebComponents(Collections
+                .singletonMap("my-component", MyWebComponent.class));
+    }
+
+    private void writeIndex(boolean metadataComplete, Class<?>... routes)
+            throws IOException {
+        File root = temporaryFolder.newFolder();
+        File indexFile = new File(root, RouteIndex.INDEX_RESOURCE);
+        indexFile.getParentFile().mkdirs();
+        Files.write(indexFile.toPath(),
+                RouteIndex
+                        .createIndex(getClassesByType(routes), metadataComplete)
+                        .getBytes(StandardCharsets.UTF_8));
+
+        ClassLoader classLoader = new URLClassLoader(
+                new URL[] { root.toURI().toURL() },
+                getClass().getClassLoader());
+        Mockito.when(servletContext.getClassLoader()).thenReturn(classLoader);
+    }
+
+    private static Map<Class<?>, Set<Class<?>>> getClassesByType(
+            Class<?>... routes) {
+        Map<Class<?>, Set<Class<?>>> classesByType = new HashMap<>();
+        Set<Class<?>> routeClasses = Stream.of(routes)
+                .filter(route -> route.isAnnotationPresent(Route.class))
+                .collect(Collectors.toSet());
+        classesByType.put(Route.class, routeClasses);
+        classesByType.put(RouteAlias.class, new HashSet<>(routeClasses));
+        classesByType.put(HasErrorParameter.class,
+                Collections.singleton(NotFoundView.class));
+        classesByType.put(WebComponent.class,
+                Collections.singleton(MyWebComponent.class));
+        Set<Class<?>> viewportClasses = new HashSet<>();
+        viewportClasses.add(MainLayout.class);
+        Stream.of(routes)
+                .filter(route -> route.isAnnotationPresent(Viewport.class))
+                .forEach(viewportClasses::add);
+        classesByType.put(Viewport.class, viewportClasses);
+        return classesByType;
+    }
+}
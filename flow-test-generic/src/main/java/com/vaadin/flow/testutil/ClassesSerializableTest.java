@@ -110,6 +110,10 @@ public abstract class ClassesSerializableTest {
                 "com\\.vaadin\\.flow\\.server\\.InlineTargets",
                 "com\\.vaadin\\.flow\\.server\\.communication\\.PushHandler(\\$.*)?",
                 "com\\.vaadin\\.flow\\.server\\.communication\\.PushRequestHandler(\\$.*)?",
+                "com\\.vaadin\\.flow\\.server\\.metrics\\.\\w+MXBean",
+                "com\\.vaadin\\.flow\\.server\\.ReplicatedUI\\$UI(In|Out)putStream",
+                "com\\.vaadin\\.flow\\.server\\.ReplicatedAttributes\\$UIReferenceCheckStream(\\$.*)?",
+                "com\\.vaadin\\.flow\\.server\\.SessionReaper(\\$.*)?",
                 "com\\.vaadin\\.flow\\.templatemodel\\.PathLookup",
                 "com\\.vaadin\\.flow\\.server\\.osgi\\.ServletContainerInitializerExtender",
                 "com\\.vaadin\\.flow\\.server\\.osgi\\.OSGiAccess",
@@ -118,6 +122,7 @@ public abstract class ClassesSerializableTest {
                 "com\\.vaadin\\.flow\\.server\\.startup\\.ErrorNavigationTargetInitializer",
                 "com\\.vaadin\\.flow\\.server\\.startup\\.ServletVerifier",
                 "com\\.vaadin\\.flow\\.server\\.startup\\.RouteRegistryInitializer",
+                "com\\.vaadin\\.flow\\.server\\.startup\\.RouteIndex",
                 "com\\.vaadin\\.flow\\.server\\.startup\\.WebComponentRegistryInitializer",
                 "com\\.vaadin\\.flow\\.server\\.VaadinResponse",
                 "com\\.vaadin\\.flow\\.component\\.Key",
@@ -133,6 +138,7 @@ public abstract class ClassesSerializableTest {
                 "com\\.vaadin\\.flow\\.internal\\.ReflectionCache",
                 "com\\.vaadin\\.flow\\.component\\.internal\\.ComponentMetaData(\\$.*)?",
                 "com\\.vaadin\\.flow\\.component\\.polymertemplate\\.TemplateDataAnalyzer",
+                "com\\.vaadin\\.flow\\.component\\.polymertemplate\\.TemplateDefinitionCache\\$ParsedHtmlImport",
                 "com\\.vaadin\\.flow\\.dom\\.ElementFactory",
                 "com\\.vaadin\\.flow\\.dom\\.NodeVisitor",
                 "com\\.vaadin\\.flow\\.internal\\.nodefeature\\.NodeList(\\$.*)?",